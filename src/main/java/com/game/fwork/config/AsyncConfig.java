@@ -11,7 +11,9 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * 异步任务线程池配置
- * 启用 @EnableAsync，用于处理耗时操作（如战斗结算后的数据库写入），避免阻塞主线程
+ * 启用 @EnableAsync，用于处理耗时操作，避免阻塞主线程
+ * 注意拒绝策略为调用方执行：队列满时任务会在提交线程上运行，从游戏线程提交的任务不应包含数据库写入
+ * （战斗结算走 SettlementService 的持久化队列，不使用此线程池）
  */
 @Configuration
 @EnableAsync
@@ -0,0 +1,79 @@
+package com.game.fwork.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务调度器配置
+ * 匹配轮询与战斗超时巡检各自使用独立的调度线程池，互不阻塞：
+ * 匹配轮次因 Redis 延迟或批量建战变慢时，不会拖延挂机/断线判负，反之亦然
+ * 在线状态心跳同样独立：默认调度器上的归档、排行榜重建、战报补登等批处理耗时超过在线记录 TTL 时，
+ * 心跳不受影响，玩家不会被集体显示为离线
+ * 未指定 scheduler 的 @Scheduled 任务使用默认的 taskScheduler
+ */
+@Configuration
+public class SchedulerConfig {
+
+    public static final String MATCH_SCHEDULER = "matchScheduler";
+    public static final String BATTLE_SCHEDULER = "battleScheduler";
+    public static final String PRESENCE_SCHEDULER = "presenceScheduler";
+
+    @Value("${scheduler.match.pool-size:1}")
+    private int matchPoolSize;
+
+    @Value("${scheduler.battle.pool-size:1}")
+    private int battlePoolSize;
+
+    @Value("${scheduler.presence.pool-size:1}")
+    private int presencePoolSize;
+
+    @Value("${scheduler.default.pool-size:1}")
+    private int defaultPoolSize;
+
+    /**
+     * 匹配系统调度器（MatchService.tryMatchAll）
+     */
+    @Bean(name = MATCH_SCHEDULER)
+    public ThreadPoolTaskScheduler matchScheduler() {
+        return createScheduler(matchPoolSize, "sched-match-");
+    }
+
+    /**
+     * 战斗巡检调度器（准备超时、挂机、断线判负）
+     */
+    @Bean(name = BATTLE_SCHEDULER)
+    public ThreadPoolTaskScheduler battleScheduler() {
+        return createScheduler(battlePoolSize, "sched-battle-");
+    }
+
+    /**
+     * 在线状态心跳调度器（SessionManager.presenceHeartbeat）
+     */
+    @Bean(name = PRESENCE_SCHEDULER)
+    public ThreadPoolTaskScheduler presenceScheduler() {
+        return createScheduler(presencePoolSize, "sched-presence-");
+    }
+
+    /**
+     * 默认调度器（其余 @Scheduled 任务）
+     */
+    @Bean(name = "taskScheduler")
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler() {
+        return createScheduler(defaultPoolSize, "sched-default-");
+    }
+
+    private ThreadPoolTaskScheduler createScheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        // 关闭时等待正在执行的任务结束，避免匹配或判负执行到一半被打断
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        scheduler.initialize();
+        return scheduler;
+    }
+}
@@ -6,18 +6,30 @@ import com.game.fwork.entity.BattleRecord;
 import com.game.fwork.entity.User;
 import com.game.fwork.manager.BattleManager;
 import com.game.fwork.manager.ItemManager;
+import com.game.fwork.manager.LuaEngineManager;
 import com.game.fwork.manager.LuaPerformanceMonitor;
+import com.game.fwork.manager.LuaShadowEvaluator;
+import com.game.fwork.manager.MatchMetrics;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.manager.ScheduledTaskMonitor;
 import com.game.fwork.manager.SkillManager;
+import com.game.fwork.netty.session.PresenceRegistry;
 import com.game.fwork.netty.session.SessionManager;
 import com.game.fwork.repository.AdminRepository;
 import com.game.fwork.repository.BattleRecordRepository;
 import com.game.fwork.repository.UserRepository;
+import com.game.fwork.service.BattleArchiveService;
+import com.game.fwork.service.BattleHistoryService;
+import com.game.fwork.service.BattleReportIndexService;
+import com.game.fwork.service.BattleStatsService;
+import com.game.fwork.service.LeaderboardService;
+import com.game.fwork.service.SettlementService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.game.fwork.util.DamageCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -30,10 +42,8 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import jakarta.persistence.criteria.Predicate;
 import java.util.ArrayList;
-import java.util.Collections;
 
 /**
  * 后台管理控制器
@@ -61,27 +71,60 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    @Autowired
-    private StringRedisTemplate stringRedisTemplate;
-
     @Autowired
     private ObjectMapper objectMapper;
 
     @Autowired
     private BattleRecordRepository battleRecordRepository; // 战斗记录Repository
 
+    @Autowired
+    private BattleHistoryService battleHistoryService;
+
+    @Autowired
+    private BattleArchiveService battleArchiveService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private BattleStatsService battleStatsService;
+
+    @Autowired
+    private BattleReportIndexService battleReportIndexService;
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
     @Autowired
     private DamageCalculator damageCalculator;
 
     @Autowired
     private LuaPerformanceMonitor performanceMonitor;
 
+    @Autowired
+    private LuaEngineManager luaEngineManager;
+
+    @Autowired
+    private LuaShadowEvaluator shadowEvaluator;
+
     @Autowired
     private SkillManager skillManager;
 
     @Autowired
     private ItemManager itemManager;
 
+    @Autowired
+    private MatchMetrics matchMetrics;
+
+    @Autowired
+    private PlayerProfileCache playerProfileCache;
+
+    @Autowired
+    private ScheduledTaskMonitor scheduledTaskMonitor;
+
+    @Autowired
+    private SettlementService settlementService;
+
     /**
      * 管理后台首页（无登录信息则重定向到登录页）
      */
@@ -163,25 +206,20 @@ public class AdminController {
             int onlineUsers = sessionManager.getOnlineCount();
             // 进行中战斗（从BattleManager查询内存中的战斗）
             int activeBattles = battleManager.getBattleCount();
-            // Redis战报数量（TTL=7天的战报）
-            Set<String> reportKeys = stringRedisTemplate.keys("battle:report:*");
-            int totalReports = reportKeys != null ? reportKeys.size() : 0;
+            // Redis战报数量（TTL=7天的战报，读战报时间索引）
+            long totalReports = battleReportIndexService.count();
 
-            // ========== 历史战斗统计（从MySQL查询）==========
-            // 总战斗数（t_battle_record表）
-            long totalHistoryBattles = battleRecordRepository.count();
+            // ========== 历史战斗统计（读统计计数表，含已归档的战斗）==========
+            Map<String, Long> reasonTotals = battleStatsService.getTotalsByReason();
+            // 总战斗数
+            long totalHistoryBattles = BattleStatsService.sum(reasonTotals);
             // 正常结束的战斗数
-            long normalEndBattles = battleRecordRepository
-                    .findByEndReasonOrderByCreatedAtDesc("NORMAL").size();
+            long normalEndBattles = reasonTotals.getOrDefault("NORMAL", 0L);
             // 投降结束的战斗数
-            long surrenderBattles = battleRecordRepository
-                    .findByEndReasonOrderByCreatedAtDesc("SURRENDER").size();
+            long surrenderBattles = reasonTotals.getOrDefault("SURRENDER", 0L);
             // 异常结束的战斗数（超时+断线）
-            long timeoutBattles = battleRecordRepository
-                    .findByEndReasonOrderByCreatedAtDesc("TIMEOUT").size();
-            long disconnectBattles = battleRecordRepository
-                    .findByEndReasonOrderByCreatedAtDesc("DISCONNECT").size();
-            long abnormalBattles = timeoutBattles + disconnectBattles;
+            long abnormalBattles = reasonTotals.getOrDefault("TIMEOUT", 0L)
+                    + reasonTotals.getOrDefault("DISCONNECT", 0L);
 
             // ========== 传递数据到页面 ==========
             // 将统计数据放入 Model，传递给前端页面进行渲染
@@ -195,6 +233,8 @@ public class AdminController {
             model.addAttribute("normalEndBattles", normalEndBattles);
             model.addAttribute("surrenderBattles", surrenderBattles);
             model.addAttribute("abnormalBattles", abnormalBattles);
+            // 匹配系统指标
+            model.addAttribute("matchMetrics", matchMetrics.snapshot());
             logger.info("管理员进入控制台，总用户={}, 在线={}, 进行中战斗={}, 历史战斗={}",
                     totalUsers, onlineUsers, activeBattles, totalHistoryBattles);
             return "admin/dashboard";
@@ -280,6 +320,8 @@ public class AdminController {
             }
 
             userRepository.save(user);
+            // 封禁状态变化后，玩家档案需重新加载
+            playerProfileCache.invalidate(id);
 
             logger.info("用户状态已更新: userId={}, status={}", id, user.getStatus());
 
@@ -365,42 +407,28 @@ public class AdminController {
             }
 
             // ================== 统计面板数据 (Start) ==================
-            // 注意：统计数据我们依然查全量，不受筛选和分页影响，用于顶部展示
-            long totalBattles = battleRecordRepository.count();
-            // 这里用 countByEndReason 会更高效，但为了兼容之前的逻辑，我们用 filter 计算
-            // 如果数据量巨大，建议改为专门的 count SQL
-            long normalEnd = battleRecordRepository.findByEndReasonOrderByCreatedAtDesc("NORMAL").size();
-            long surrender = battleRecordRepository.findByEndReasonOrderByCreatedAtDesc("SURRENDER").size();
-            long timeoutEnd = battleRecordRepository.findByEndReasonOrderByCreatedAtDesc("TIMEOUT").size();
-            long disconnectEnd = battleRecordRepository.findByEndReasonOrderByCreatedAtDesc("DISCONNECT").size();
-            long abnormalEnd = timeoutEnd + disconnectEnd;
+            // 注意：统计数据不受筛选和分页影响，用于顶部展示（读统计计数表）
+            Map<String, Long> reasonTotals = battleStatsService.getTotalsByReason();
+            long totalBattles = BattleStatsService.sum(reasonTotals);
+            long normalEnd = reasonTotals.getOrDefault("NORMAL", 0L);
+            long surrender = reasonTotals.getOrDefault("SURRENDER", 0L);
+            long abnormalEnd = reasonTotals.getOrDefault("TIMEOUT", 0L) + reasonTotals.getOrDefault("DISCONNECT", 0L);
 
             model.addAttribute("totalBattles", totalBattles);
             model.addAttribute("normalEnd", normalEnd);
             model.addAttribute("surrender", surrender);
             model.addAttribute("abnormalEnd", abnormalEnd);
 
-            // ================== Redis 战报内存分页 (Start) ==================
-            // Redis KEYS 命令无法分页，只能全取出后在内存切片
-
-            Set<String> allKeys = stringRedisTemplate.keys("battle:report:*");
-            List<String> keyList = new ArrayList<>(allKeys != null ? allKeys : Collections.emptySet());
-
-            // 简单倒序（最新的战报ID通常更大）
-            Collections.sort(keyList, Collections.reverseOrder());
-
-            // 计算内存分页的起始和结束索引
-            int start = page * safeSize;
-            int end = Math.min((page + 1) * safeSize, keyList.size());
-
-            List<String> pageKeys = Collections.emptyList();
-            if (start < keyList.size()) {
-                pageKeys = keyList.subList(start, end);
+            // ================== Redis 战报分页 (Start) ==================
+            // 按战斗结束时间倒序，直接在战报时间索引上分页
+            List<String> pageKeys = new ArrayList<>();
+            for (String reportBattleId : battleReportIndexService.page((long) page * safeSize, safeSize)) {
+                pageKeys.add(BattleReportIndexService.REPORT_KEY_PREFIX + reportBattleId);
             }
 
             model.addAttribute("reportKeys", pageKeys);
             // 告诉前端 Redis 总共有多少条，以便前端决定是否显示"更多"（虽然目前前端没做Redis翻页）
-            model.addAttribute("redisTotal", keyList.size());
+            model.addAttribute("redisTotal", battleReportIndexService.count());
 
             return "admin/battle_history";
 
@@ -423,15 +451,17 @@ public class AdminController {
         }
 
         try {
-            // 查询战斗记录
-            BattleRecord record = battleRecordRepository.findByBattleId(battleId).orElse(null);
+            // 查询战斗记录（热表没有时查冷归档）
+            BattleRecord record = battleHistoryService.findByBattleId(battleId).orElse(null);
 
             if (record == null) {
                 return "{\"error\":\"战斗记录不存在\"}";
             }
 
-            // 返回完整的战斗记录JSON（使用ObjectMapper序列化）
-            return objectMapper.writeValueAsString(record);
+            // 战斗记录 + 单独加载并解码的战斗日志
+            Map<String, Object> data = objectMapper.convertValue(record, new TypeReference<Map<String, Object>>() {});
+            data.put("battleLogs", battleHistoryService.loadLogs(battleId));
+            return objectMapper.writeValueAsString(data);
 
         } catch (Exception e) {
             logger.error("查询战斗详情失败，battleId={}", battleId, e);
@@ -450,11 +480,8 @@ public class AdminController {
         }
 
         try {
-            // 查询战斗记录
-            BattleRecord record = battleRecordRepository.findByBattleId(battleId).orElse(null);
-
-            if (record != null) {
-                battleRecordRepository.delete(record);
+            // 记录、日志与统计扣减在同一事务中删除
+            if (battleHistoryService.deleteBattle(battleId)) {
                 logger.info("管理员删除战斗记录，battleId={}", battleId);
             }
 
@@ -478,21 +505,16 @@ public class AdminController {
         }
 
         try {
-            // 统计总战斗数
-            long totalBattles = battleRecordRepository.countByPlayer1IdOrPlayer2Id(userId, userId);
-
-            // 统计胜利数
-            long winCount = battleRecordRepository.countByWinnerId(userId);
+            // 总战斗数与胜利数由结算累加在用户表中
+            User user = userRepository.findById(userId).orElse(null);
+            long totalBattles = user != null && user.getTotalBattles() != null ? user.getTotalBattles() : 0;
+            long winCount = user != null && user.getWinCount() != null ? user.getWinCount() : 0;
 
             // 计算胜率
             double winRate = totalBattles > 0 ? (double) winCount / totalBattles * 100 : 0.0;
 
             // 查询最近5场战斗
-            List<BattleRecord> recentBattles = battleRecordRepository
-                    .findByPlayer1IdOrPlayer2IdOrderByCreatedAtDesc(userId, userId)
-                    .stream()
-                    .limit(5)
-                    .toList(); // JDK16+的toList()方法
+            List<BattleRecord> recentBattles = battleHistoryService.findRecentBattles(userId, 5);
 
             // 构造返回数据（手动拼接JSON）
             StringBuilder json = new StringBuilder("{");
@@ -510,6 +532,212 @@ public class AdminController {
         }
     }
 
+    /**
+     * 匹配系统监控指标（JSON）
+     * 包含各分数段排队人数、匹配/超时等待时长分布、分差分布、每秒匹配数与单轮耗时
+     */
+    @GetMapping("/metrics/match")
+    @ResponseBody
+    public Map<String, Object> getMatchMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", matchMetrics.snapshot());
+        return result;
+    }
+
+    /**
+     * 定时任务监控指标（JSON）
+     * 各调度任务的执行耗时分布、超时执行次数与被跳过的调度周期数
+     */
+    @GetMapping("/metrics/scheduler")
+    @ResponseBody
+    public Map<String, Object> getSchedulerMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("tasks", scheduledTaskMonitor.snapshot());
+        return result;
+    }
+
+    /**
+     * 战斗结算监控指标（JSON）
+     * 结算队列积压、已结算/重复/失败场数、单批大小与耗时分布、写入线程的结算速率
+     */
+    @GetMapping("/metrics/settlement")
+    @ResponseBody
+    public Map<String, Object> getSettlementMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", settlementService.snapshot());
+        return result;
+    }
+
+    /**
+     * 战斗记录归档监控指标（JSON）
+     * 分区列表、归档轮次与行数、最近一次执行耗时与错误、段文件数量与大小
+     */
+    @GetMapping("/metrics/archive")
+    @ResponseBody
+    public Map<String, Object> getArchiveMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", battleArchiveService.snapshot());
+        return result;
+    }
+
+    /**
+     * 战斗统计计数指标（JSON）
+     * 各结束原因累计场数、最近几天的每日场数与对账执行情况
+     */
+    @GetMapping("/metrics/battle-stats")
+    @ResponseBody
+    public Map<String, Object> getBattleStatsMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", battleStatsService.snapshot());
+        return result;
+    }
+
+    /**
+     * 战报时间索引监控指标（JSON）
+     * 窗口内战报数、索引成员数与最近一次补登情况
+     */
+    @GetMapping("/metrics/report-index")
+    @ResponseBody
+    public Map<String, Object> getReportIndexMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", battleReportIndexService.snapshot());
+        return result;
+    }
+
+    /**
+     * 在线状态登记监控指标（JSON）
+     * 本实例名称、写入队列积压、丢弃与失败次数、最近一次心跳
+     */
+    @GetMapping("/metrics/presence")
+    @ResponseBody
+    public Map<String, Object> getPresenceMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", presenceRegistry.snapshot());
+        return result;
+    }
+
+    /**
+     * 排行榜监控指标（JSON）
+     * 上榜人数、增量更新次数、展示信息回写次数与最近一次重建情况
+     */
+    @GetMapping("/metrics/leaderboard")
+    @ResponseBody
+    public Map<String, Object> getLeaderboardMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", leaderboardService.snapshot());
+        return result;
+    }
+
+    /**
+     * 从 MySQL 全量重建排行榜
+     */
+    @PostMapping("/leaderboard/rebuild")
+    @ResponseBody
+    public Map<String, Object> rebuildLeaderboard(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        try {
+            long rows = leaderboardService.rebuild();
+            result.put("success", true);
+            result.put("message", "排行榜重建完成，共 " + rows + " 名玩家");
+        } catch (Exception e) {
+            logger.error("排行榜重建失败", e);
+            result.put("success", false);
+            result.put("message", "重建失败: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 玩家档案缓存监控指标（JSON）
+     * 容量、命中率、回源加载次数与失效次数
+     */
+    @GetMapping("/metrics/profile-cache")
+    @ResponseBody
+    public Map<String, Object> getProfileCacheMetrics(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        result.put("success", true);
+        result.put("metrics", playerProfileCache.snapshot());
+        return result;
+    }
+
     /**
      * 检查是否已登录
      */
@@ -541,6 +769,12 @@ public class AdminController {
         }
         model.addAttribute("avgExecutionTime", avgTime);
 
+        // 执行模式与 LuaJC 收益
+        model.addAttribute("luajcEnabled", luaEngineManager.isLuajcEnabled());
+        model.addAttribute("luaBudgetEnabled", luaEngineManager.isBudgetEnabled());
+        model.addAttribute("luaMode", performanceMonitor.getActiveMode());
+        model.addAttribute("luaModeStats", performanceMonitor.getModeStats());
+
         return "admin/lua_manager";
     }
 
@@ -619,6 +853,148 @@ public class AdminController {
         return result;
     }
 
+    /**
+     * 切换Lua执行模式（解释执行 / LuaJC编译）
+     * 切换后已加载的脚本会按新模式重新编译，LuaJC 编译失败时自动退回解释执行
+     */
+    @PostMapping("/lua/mode")
+    @ResponseBody
+    public Map<String, Object> switchLuaMode(@RequestParam boolean luajc, HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        try {
+            luaEngineManager.setLuajcEnabled(luajc);
+            result.put("success", true);
+            result.put("luajcEnabled", luaEngineManager.isLuajcEnabled());
+            if (luajc && luaEngineManager.isBudgetEnabled()) {
+                result.put("message", "已开启执行预算，LuaJC不生效，仍为解释执行");
+            } else {
+                result.put("message", luajc ? "已切换为LuaJC编译模式" : "已切换为解释执行模式");
+            }
+
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "切换失败: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * 开始影子评估：将已保存的脚本编译为候选版本，在真实战斗输入上与线上版本对比（不影响线上计算）
+     */
+    @PostMapping("/lua/shadow/start")
+    @ResponseBody
+    public Map<String, Object> startLuaShadow(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        try {
+            result.put("status", shadowEvaluator.start(damageCalculator.getLuaScriptPath()));
+            result.put("success", true);
+            result.put("message", "候选脚本编译成功，开始影子评估");
+
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "启动影子评估失败: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * 获取影子评估状态与对比结果（AJAX）
+     */
+    @GetMapping("/lua/shadow/status")
+    @ResponseBody
+    public Map<String, Object> getLuaShadowStatus(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        try {
+            result.put("success", true);
+            result.put("status", shadowEvaluator.getStatus());
+
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "获取失败: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * 发布候选脚本
+     * 默认要求评估达标；force=true 时由管理员确认后强制发布
+     */
+    @PostMapping("/lua/shadow/promote")
+    @ResponseBody
+    public Map<String, Object> promoteLuaShadow(@RequestParam(defaultValue = "false") boolean force,
+                                                HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        try {
+            result.put("status", shadowEvaluator.promote(force));
+            result.put("success", true);
+            result.put("message", "候选脚本已发布");
+
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "发布失败: " + e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * 取消影子评估
+     */
+    @PostMapping("/lua/shadow/cancel")
+    @ResponseBody
+    public Map<String, Object> cancelLuaShadow(HttpSession session) {
+        Map<String, Object> result = new HashMap<>();
+
+        if (!checkLogin(session)) {
+            result.put("success", false);
+            result.put("message", "未登录");
+            return result;
+        }
+
+        try {
+            shadowEvaluator.cancel();
+            result.put("success", true);
+            result.put("message", "影子评估已取消");
+
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "取消失败: " + e.getMessage());
+        }
+
+        return result;
+    }
+
     /**
      * 获取Lua性能统计（AJAX）
      */
@@ -634,6 +1010,11 @@ public class AdminController {
             result.put("success", true);
             result.put("stats", stats);
             result.put("totalCalls", totalCalls);
+            result.put("luajcEnabled", luaEngineManager.isLuajcEnabled());
+            result.put("budgetEnabled", luaEngineManager.isBudgetEnabled());
+            result.put("mode", performanceMonitor.getActiveMode());
+            result.put("modeStats", performanceMonitor.getModeStats());
+            result.put("versionStats", performanceMonitor.getVersionStats());
 
         } catch (Exception e) {
             result.put("success", false);
@@ -3,11 +3,14 @@ package com.game.fwork.controller;
 import com.game.fwork.config.GameConfig;
 import com.game.fwork.entity.Character;
 import com.game.fwork.entity.CharacterTemplate;
+import com.game.fwork.entity.PlayerProfile;
 import com.game.fwork.entity.User;
+import com.game.fwork.manager.PlayerProfileCache;
 import com.game.fwork.repository.CharacterRepository;
 import com.game.fwork.repository.CharacterTemplateRepository;
 import com.game.fwork.repository.SkillRepository;
 import com.game.fwork.repository.UserRepository;
+import com.game.fwork.service.LeaderboardService;
 import com.game.fwork.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -36,6 +39,8 @@ public class AuthController {
     @Autowired private BCryptPasswordEncoder passwordEncoder;
     @Autowired private CharacterTemplateRepository characterTemplateRepository;
     @Autowired private SkillRepository skillRepository;
+    @Autowired private PlayerProfileCache playerProfileCache;
+    @Autowired private LeaderboardService leaderboardService;
 
     /**
      * 用户注册
@@ -117,6 +122,10 @@ public class AuthController {
                 skillRepository.addSkillToCharacter(newCharacter.getId(), 2);
             }
 
+            // 新玩家以初始分数上榜
+            leaderboardService.addPlayer(savedUser.getId(), savedUser.getEloRating(), savedUser.getNickname(),
+                    newCharacter.getCharType(), savedUser.getAvatarFrameId());
+
             // 生成JWT Token
             String token = jwtUtil.generateToken(savedUser.getId(), savedUser.getUsername());
 
@@ -191,9 +200,8 @@ public class AuthController {
             // 生成JWT Token
             String token = jwtUtil.generateToken(user.getId(), user.getUsername());
 
-            // 查询激活角色
-            Optional<Character> activeCharOpt = characterRepository
-                    .findByUserIdAndIsActive(user.getId(), 1);
+            // 激活角色从玩家档案读取（同时预热缓存，后续连接游戏服、匹配与开战直接命中）
+            PlayerProfile profile = playerProfileCache.get(user.getId());
 
             // 返回成功响应
             response.put("success", true);
@@ -210,17 +218,16 @@ public class AuthController {
             response.put("avatarFrameId", user.getAvatarFrameId());
 
             // 如果有激活角色，也返回角色信息
-            if (activeCharOpt.isPresent()) {
-                Character character = activeCharOpt.get();
+            if (profile != null && profile.hasCharacter()) {
                 Map<String, Object> charInfo = new HashMap<>();
-                charInfo.put("characterId", character.getId());
-                charInfo.put("charName", character.getCharName());
-                charInfo.put("charType", character.getCharType());
-                charInfo.put("level", character.getLevel());
-                charInfo.put("maxHp", character.getMaxHp());
-                charInfo.put("attack", character.getAttack());
-                charInfo.put("defense", character.getDefense());
-                charInfo.put("speed", character.getSpeed());
+                charInfo.put("characterId", profile.getCharacterId());
+                charInfo.put("charName", profile.getCharName());
+                charInfo.put("charType", profile.getCharType());
+                charInfo.put("level", profile.getLevel());
+                charInfo.put("maxHp", profile.getMaxHp());
+                charInfo.put("attack", profile.getAttack());
+                charInfo.put("defense", profile.getDefense());
+                charInfo.put("speed", profile.getSpeed());
                 response.put("character", charInfo);
             }
 
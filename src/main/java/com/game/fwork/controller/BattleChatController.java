@@ -1,7 +1,7 @@
 package com.game.fwork.controller;
 
-import com.game.fwork.entity.User;
-import com.game.fwork.repository.UserRepository;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.manager.PlayerProfileCache;
 import com.game.fwork.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -23,7 +23,7 @@ public class BattleChatController {
 
     @Autowired private StringRedisTemplate redisTemplate;
     @Autowired private JwtUtil jwtUtil;
-    @Autowired private UserRepository userRepository;
+    @Autowired private PlayerProfileCache playerProfileCache;
 
     /**
      * 发送弹幕消息
@@ -35,13 +35,16 @@ public class BattleChatController {
         Map<String, Object> response = new HashMap<>();
         try {
             Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
-            User user = userRepository.findById(userId).orElseThrow();
+            PlayerProfile profile = playerProfileCache.get(userId);
+            if (profile == null) {
+                throw new RuntimeException("用户不存在");
+            }
 
             String battleId = params.get("battleId");
             String content = params.get("content");
 
             // 格式： "Nickname: Content"
-            String msg = user.getNickname() + ": " + content;
+            String msg = profile.getNickname() + ": " + content;
 
             String key = "battle_chat:" + battleId;
             redisTemplate.opsForList().rightPush(key, msg);
@@ -3,7 +3,9 @@ package com.game.fwork.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.game.fwork.dto.BattleReportDTO;
 import com.game.fwork.entity.Battle;
-import com.game.fwork.repository.BattleRecordRepository;
+import com.game.fwork.entity.BattleLog;
+import com.game.fwork.enums.BattleState;
+import com.game.fwork.service.BattleHistoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +13,6 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import com.game.fwork.entity.BattleRecord;
 
 import java.util.ArrayList;
@@ -39,13 +39,13 @@ public class BattleController {
     private ObjectMapper objectMapper;
 
     @Autowired
-    private BattleRecordRepository battleRecordRepository;
+    private BattleHistoryService battleHistoryService;
 
     private static final String BATTLE_REPORT_KEY = "battle:report:";
 
     /**
-     * 查询单场战斗的详细战报
-     * 优先查询 Redis 缓存，如果缓存已过期则提示不存在（目前设计为临时战报）
+     * 查询单场战斗的详细战报（回放）
+     * 优先查询 Redis 缓存；缓存过期后回退到战绩（热表或冷归档），并按需加载战斗日志
      */
     @GetMapping("/report/{battleId}")
     public ResponseEntity<Map<String, Object>> getBattleReport(@PathVariable String battleId) {
@@ -56,18 +56,20 @@ public class BattleController {
             String key = BATTLE_REPORT_KEY + battleId;
             String json = stringRedisTemplate.opsForValue().get(key);
 
-            if (json == null) {
-                response.put("success", false);
-                response.put("message", "战报不存在或已过期");
-                return ResponseEntity.ok(response);
+            BattleReportDTO dto;
+            if (json != null) {
+                // 反序列化Battle对象并转换为DTO
+                dto = convertToDTO(objectMapper.readValue(json, Battle.class));
+            } else {
+                BattleRecord record = battleHistoryService.findByBattleId(battleId).orElse(null);
+                if (record == null) {
+                    response.put("success", false);
+                    response.put("message", "战报不存在或已过期");
+                    return ResponseEntity.ok(response);
+                }
+                dto = convertToDTO(record, battleHistoryService.loadLogs(battleId));
             }
 
-            // 反序列化Battle对象
-            Battle battle = objectMapper.readValue(json, Battle.class);
-
-            // 转换为DTO
-            BattleReportDTO dto = convertToDTO(battle);
-
             response.put("success", true);
             response.put("message", "查询成功");
             response.put("data", dto);
@@ -96,16 +98,15 @@ public class BattleController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            // 1. 构建分页请求 (按创建时间倒序，最新的在前)
+            // 1. 分页参数 (按创建时间倒序，最新的在前)
             // 限制每页最大 20 条，防止请求过多
             int safeSize = Math.min(size, 20);
-            PageRequest pageRequest = PageRequest.of(page, safeSize, Sort.by(Sort.Direction.DESC, "createdAt"));
 
-            // 2. 执行数据库查询
+            // 2. 查询热表，超出热表的部分从冷归档中补齐
             // 只要 player1 是我，或者 player2 是我，都算我的战斗
-            Page<BattleRecord> recordPage = battleRecordRepository.findByPlayer1IdOrPlayer2Id(userId, userId, pageRequest);
+            Page<BattleRecord> recordPage = battleHistoryService.findPlayerBattles(userId, page, safeSize);
 
-            // 3. 转换为轻量级列表 (去除 battleLogJson)
+            // 3. 转换为轻量级列表（战斗日志在 t_battle_log 中，列表查询不会读取）
             List<Map<String, Object>> summaryList = new ArrayList<>();
 
             for (BattleRecord record : recordPage.getContent()) {
@@ -216,4 +217,39 @@ public class BattleController {
 
         return dto;
     }
-}
\ No newline at end of file
+
+    /**
+     * 将 MySQL 战绩与战斗日志转换为DTO（战报缓存过期后的回放）
+     * 战绩中只保存了双方的最终血量，其余属性为空
+     */
+    private BattleReportDTO convertToDTO(BattleRecord record, List<BattleLog> logs) {
+        BattleReportDTO dto = new BattleReportDTO();
+
+        dto.setBattleId(record.getBattleId());
+        dto.setState(BattleState.FINISHED);
+        dto.setStartTime(record.getStartTime());
+        dto.setEndTime(record.getEndTime());
+
+        dto.setPlayer1(toPlayerDTO(record.getPlayer1Id(), record.getPlayer1Nickname(), record.getPlayer1FinalHp()));
+        dto.setPlayer2(toPlayerDTO(record.getPlayer2Id(), record.getPlayer2Nickname(), record.getPlayer2FinalHp()));
+
+        dto.setCurrentRound(record.getTotalRounds());
+        dto.setLogs(logs.stream()
+                .map(BattleReportDTO.BattleLogDTO::fromBattleLog)
+                .collect(Collectors.toList()));
+
+        dto.setWinnerId(record.getWinnerId());
+        dto.setEndReason(record.getEndReason());
+
+        return dto;
+    }
+
+    private static BattleReportDTO.BattlePlayerDTO toPlayerDTO(Long userId, String nickname, Integer finalHp) {
+        BattleReportDTO.BattlePlayerDTO dto = new BattleReportDTO.BattlePlayerDTO();
+        dto.setUserId(userId);
+        dto.setNickname(nickname);
+        dto.setCurrentHp(finalHp);
+        dto.setAlive(finalHp != null && finalHp > 0);
+        return dto;
+    }
+}
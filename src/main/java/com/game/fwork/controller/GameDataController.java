@@ -3,6 +3,7 @@ package com.game.fwork.controller;
 import com.game.fwork.entity.CharacterTemplate;
 import com.game.fwork.entity.Item;
 import com.game.fwork.entity.Skill;
+import com.game.fwork.enums.ItemKind;
 import com.game.fwork.repository.CharacterTemplateRepository;
 import com.game.fwork.repository.ItemRepository;
 import com.game.fwork.repository.SkillRepository;
@@ -74,7 +75,7 @@ public class GameDataController {
                 String iconPath = item.getIconPath();
                 if (iconPath == null || iconPath.isEmpty()) iconPath = "/items/item_" + item.getId() + ".png";
                 vo.put("iconPath", iconPath);
-                vo.put("usableInBattle", "POTION".equals(item.getType()));
+                vo.put("usableInBattle", ItemKind.fromCode(item.getType()).isUsableInBattle());
                 return vo;
             }).collect(Collectors.toList());
 
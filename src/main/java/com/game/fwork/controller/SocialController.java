@@ -2,9 +2,10 @@ package com.game.fwork.controller;
 
 import com.game.fwork.dto.BattleHistoryDTO;
 import com.game.fwork.dto.UserProfileDTO;
-import com.game.fwork.repository.BattleRecordRepository;
-import com.game.fwork.repository.CharacterRepository;
-import com.game.fwork.repository.UserRepository;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.service.BattleHistoryService;
+import com.game.fwork.service.LeaderboardService;
 import com.game.fwork.service.SocialService;
 import com.game.fwork.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,21 +26,47 @@ public class SocialController {
     @Autowired private SocialService socialService;
     @Autowired private JwtUtil jwtUtil;
 
-    @Autowired private BattleRecordRepository battleRecordRepository;
+    @Autowired private BattleHistoryService battleHistoryService;
 
-    @Autowired private UserRepository userRepository;
-    @Autowired private CharacterRepository characterRepository;
+    @Autowired private PlayerProfileCache playerProfileCache;
+    @Autowired private LeaderboardService leaderboardService;
 
     /**
      * 获取全服排行榜
-     * 按 ELO 分数倒序排列，展示前 50 名高玩信息
+     * 按 ELO 分数倒序排列，默认展示前 50 名；data 为当前页列表，total 为上榜总人数
      */
     @GetMapping("/leaderboard")
-    public Map<String, Object> getLeaderboard() {
+    public Map<String, Object> getLeaderboard(@RequestParam(defaultValue = "0") int offset,
+                                              @RequestParam(defaultValue = "50") int limit) {
         Map<String, Object> res = new HashMap<>();
-        res.put("success", true);
-        // Service 现在返回 List<Map<String, Object>>
-        res.put("data", socialService.getLeaderboard());
+        try {
+            Map<String, Object> page = leaderboardService.getPage(offset, limit);
+            res.put("success", true);
+            res.put("data", page.get("list"));
+            res.put("total", page.get("total"));
+        } catch (Exception e) {
+            res.put("success", false);
+            res.put("message", e.getMessage());
+        }
+        return res;
+    }
+
+    /**
+     * 我的排名
+     * 返回本人名次（未上榜为 null）以及前后各 radius 名玩家
+     */
+    @GetMapping("/leaderboard/me")
+    public Map<String, Object> getMyRank(@RequestHeader("Authorization") String token,
+                                         @RequestParam(defaultValue = "5") int radius) {
+        Long userId = jwtUtil.getUserIdFromToken(token.substring(7));
+        Map<String, Object> res = new HashMap<>();
+        try {
+            res.put("success", true);
+            res.put("data", leaderboardService.getAround(userId, radius));
+        } catch (Exception e) {
+            res.put("success", false);
+            res.put("message", e.getMessage());
+        }
         return res;
     }
 
@@ -109,13 +136,11 @@ public class SocialController {
     public Map<String, Object> getBattleHistory(@RequestParam Long userId) {
         Map<String, Object> response = new HashMap<>();
         try {
-            // 使用 Repository 已有的方法
-            List<com.game.fwork.entity.BattleRecord> records = battleRecordRepository
-                    .findByPlayer1IdOrPlayer2IdOrderByCreatedAtDesc(userId, userId);
+            // 只取最近10场（热表不足时从冷归档补齐）
+            List<com.game.fwork.entity.BattleRecord> records = battleHistoryService.findRecentBattles(userId, 10);
 
             // 转换为 DTO
             List<BattleHistoryDTO> historyList = records.stream()
-                    .limit(10) // 只取最近10场
                     .map(r -> BattleHistoryDTO.fromEntity(r, userId))
                     .collect(java.util.stream.Collectors.toList());
 
@@ -134,32 +159,31 @@ public class SocialController {
     public Map<String, Object> getUserProfile(@RequestParam Long targetId) {
         Map<String, Object> response = new HashMap<>();
         try {
-            com.game.fwork.entity.User user = userRepository.findById(targetId).orElse(null);
-            if (user == null) {
+            PlayerProfile profile = playerProfileCache.get(targetId);
+            if (profile == null) {
                 throw new RuntimeException("用户不存在");
             }
 
             UserProfileDTO dto = new UserProfileDTO();
-            dto.setUserId(user.getId());
-            dto.setNickname(user.getNickname());
-            dto.setEloRating(user.getEloRating());
-            dto.setGold(user.getGold());
-            dto.setAvatarFrameId(user.getAvatarFrameId());
-            dto.setTotalBattles(user.getTotalBattles());
-            dto.setWinCount(user.getWinCount());
-            dto.setWinRate(String.format("%.2f%%", user.getWinRate()));
-
-            // 获取当前激活的角色
-            com.game.fwork.entity.Character c = characterRepository.findByUserIdAndIsActive(targetId, 1).orElse(null);
-            if (c != null) {
+            dto.setUserId(profile.getUserId());
+            dto.setNickname(profile.getNickname());
+            dto.setEloRating(profile.getEloRating());
+            dto.setGold(profile.getGold());
+            dto.setAvatarFrameId(profile.getAvatarFrameId());
+            dto.setTotalBattles(profile.getTotalBattles());
+            dto.setWinCount(profile.getWinCount());
+            dto.setWinRate(String.format("%.2f%%", profile.getWinRate()));
+
+            // 当前激活的角色
+            if (profile.hasCharacter()) {
                 UserProfileDTO.CharacterDTO charDto = new UserProfileDTO.CharacterDTO();
-                charDto.setCharType(c.getCharType());
-                charDto.setCharName(c.getCharName());
-                charDto.setLevel(c.getLevel());
-                charDto.setMaxHp(c.getMaxHp());
-                charDto.setAttack(c.getAttack());
-                charDto.setDefense(c.getDefense());
-                charDto.setSpeed(c.getSpeed());
+                charDto.setCharType(profile.getCharType());
+                charDto.setCharName(profile.getCharName());
+                charDto.setLevel(profile.getLevel());
+                charDto.setMaxHp(profile.getMaxHp());
+                charDto.setAttack(profile.getAttack());
+                charDto.setDefense(profile.getDefense());
+                charDto.setSpeed(profile.getSpeed());
                 dto.setCharacter(charDto);
             }
 
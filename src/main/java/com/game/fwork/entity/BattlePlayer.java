@@ -37,6 +37,9 @@ public class BattlePlayer implements Serializable {
     private boolean isReady;
     private boolean isDefending; // 本回合是否防御
 
+    // 是否为服务端托管的机器人（无网络连接，userId 为负数）
+    private boolean bot;
+
     // 技能冷却管理
     /**
      * 技能冷却Map
@@ -81,6 +84,59 @@ public class BattlePlayer implements Serializable {
         this.cooldowns = new HashMap<>();
     }
 
+    /**
+     * 创建一个与指定玩家数值镜像的机器人对手
+     * 机器人沿用对方的属性与技能组，默认已准备，由 BattleService 代为行动
+     *
+     * @param botUserId 机器人ID（负数，避免与真实用户冲突）
+     * @param nickname 机器人昵称
+     * @param template 被镜像的真实玩家
+     */
+    public static BattlePlayer createBot(Long botUserId, String nickname, BattlePlayer template) {
+        BattlePlayer bot = new BattlePlayer();
+        bot.userId = botUserId;
+        bot.nickname = nickname;
+        bot.characterId = template.getCharacterId();
+
+        bot.maxHp = template.getMaxHp();
+        bot.currentHp = template.getCurrentHp();
+        bot.attack = template.getAttack();
+        bot.defense = template.getDefense();
+        bot.speed = template.getSpeed();
+        bot.critRate = template.getCritRate();
+        bot.dodgeRate = template.getDodgeRate();
+
+        bot.initSkills(List.copyOf(template.getCooldowns().keySet()));
+        bot.isReady = true;
+        bot.bot = true;
+        return bot;
+    }
+
+    /**
+     * 从玩家档案创建BattlePlayer（无需访问数据库）
+     *
+     * @param profile 玩家档案（必须有激活角色）
+     */
+    public BattlePlayer(PlayerProfile profile) {
+        this.userId = profile.getUserId();
+        this.nickname = profile.getNickname();
+        this.characterId = profile.getCharacterId();
+
+        this.maxHp = profile.getMaxHp();
+        this.currentHp = profile.getCurrentHp();
+        this.attack = profile.getAttack();
+        this.defense = profile.getDefense();
+        this.speed = profile.getSpeed();
+        this.critRate = profile.getCritRate();
+        this.dodgeRate = profile.getDodgeRate();
+
+        this.isAlive = true;
+        this.isReady = false;
+        this.isDefending = false;
+        this.cooldowns = new HashMap<>();
+        initSkills(profile.getSkillIds());
+    }
+
     // 战斗逻辑方法
 
     /**
@@ -21,7 +21,7 @@ public class BattleRecord {
     private Long id;
 
     /** 业务唯一ID，关联 Redis Key */
-    @Column(name = "battle_id", length = 100, nullable = false, unique = true)
+    @Column(name = "battle_id", length = 100, nullable = false)
     private String battleId;
 
     // ==================== 玩家1基本信息 ====================
@@ -137,11 +137,7 @@ public class BattleRecord {
     @Column(name = "player2_elo_after")
     private Integer player2EloAfter;
 
-    // ==================== 战斗详细日志 ====================
-
-    /** 战斗完整日志 (JSON格式) */
-    @Column(name = "battle_log_json", columnDefinition = "TEXT")
-    private String battleLogJson;
+    // 战斗详细日志单独存放在 t_battle_log（见 BattleRecordLog），列表查询不会读取
 
     // ==================== 时间字段 ====================
 
@@ -158,9 +154,9 @@ public class BattleRecord {
     private LocalDateTime endTime;
 
     /**
-     * 记录创建时间（数据插入MySQL的时间）
+     * 记录创建时间（数据插入MySQL的时间，表的分区键）
      */
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
     // ==================== 构造方法 ====================
@@ -179,7 +175,7 @@ public class BattleRecord {
                         Long winnerId, String endReason, Integer totalRounds, Integer battleDuration,
                         Integer player1FinalHp, Integer player1EloBefore, Integer player1EloAfter,
                         Integer player2FinalHp, Integer player2EloBefore, Integer player2EloAfter,
-                        String battleLogJson, LocalDateTime startTime, LocalDateTime endTime) {
+                        LocalDateTime startTime, LocalDateTime endTime) {
         this.battleId = battleId;
         this.player1Id = player1Id;
         this.player1Nickname = player1Nickname;
@@ -197,7 +193,6 @@ public class BattleRecord {
         this.player2FinalHp = player2FinalHp;
         this.player2EloBefore = player2EloBefore;
         this.player2EloAfter = player2EloAfter;
-        this.battleLogJson = battleLogJson;
         this.startTime = startTime;
         this.endTime = endTime;
         this.createdAt = LocalDateTime.now(); // 自动设置创建时间
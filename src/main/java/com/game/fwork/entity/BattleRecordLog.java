@@ -0,0 +1,39 @@
+package com.game.fwork.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 战斗日志归档实体
+ * 对应数据库表 t_battle_log，与 t_battle_record 一对一（按 battle_id 关联）
+ * 日志体积远大于战绩本身，拆到单独的表中，列表查询不再读取；只有战斗详情与回放才按需加载
+ */
+@Entity
+@Getter @Setter
+@Table(name = "t_battle_log")
+public class BattleRecordLog {
+
+    /** 业务战斗ID，对应 t_battle_record.battle_id */
+    @Id
+    @Column(name = "battle_id", length = 100)
+    private String battleId;
+
+    /**
+     * 日志编码方式（见 BattleLogCodec：0=JSON，1=protobuf+Deflate）
+     */
+    @Column(name = "codec", nullable = false)
+    private Integer codec;
+
+    /** 编码后的日志数据 */
+    @Column(name = "log_data", columnDefinition = "MEDIUMBLOB")
+    private byte[] logData;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public BattleRecordLog() {
+    }
+}
@@ -10,8 +10,12 @@ import java.time.LocalDateTime;
 @Getter @Setter
 @Table(name = "t_message_board")
 public class MessageBoard {
+    // 号段分配主键（t_id_generator 每次取 50 个），插入时无需回读自增ID，可走 JDBC 批量插入
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "message_board_id")
+    @TableGenerator(name = "message_board_id", table = "t_id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "message_board", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,128 @@
+package com.game.fwork.entity;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 玩家档案（非数据库实体）
+ * 聚合登录、匹配、开战与社交展示所需的用户信息和出战角色属性
+ * 由 PlayerProfileCache 读穿加载，之后各处直接读取，不再访问数据库
+ * 对象不可变，更新时整体替换，便于多线程无锁读取
+ */
+@Getter
+public class PlayerProfile implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    // 玩家基础信息
+    private final Long userId;
+    private final String username;
+    private final String nickname;
+    private final Integer eloRating;
+    private final boolean banned;
+    private final Integer gold;
+    private final Integer avatarFrameId;
+    private final Integer totalBattles;
+    private final Integer winCount;
+
+    // 出战角色（没有激活角色时均为 null）
+    private final Long characterId;
+    private final String charName;
+    private final String charType;
+    private final Integer level;
+    private final Integer maxHp;
+    private final Integer currentHp;
+    private final Integer attack;
+    private final Integer defense;
+    private final Integer speed;
+    private final Integer critRate;
+    private final Integer dodgeRate;
+
+    // 角色技能
+    private final List<Integer> skillIds;
+
+    /**
+     * 从数据库实体构建档案
+     *
+     * @param user 用户
+     * @param character 当前激活的角色，可为 null
+     * @param skillIds 角色拥有的技能ID
+     */
+    public PlayerProfile(User user, Character character, List<Integer> skillIds) {
+        this.userId = user.getId();
+        this.username = user.getUsername();
+        this.nickname = user.getNickname();
+        this.eloRating = user.getEloRating();
+        this.banned = user.isBanned();
+        this.gold = user.getGold();
+        this.avatarFrameId = user.getAvatarFrameId();
+        this.totalBattles = user.getTotalBattles();
+        this.winCount = user.getWinCount();
+
+        this.characterId = character == null ? null : character.getId();
+        this.charName = character == null ? null : character.getCharName();
+        this.charType = character == null ? null : character.getCharType();
+        this.level = character == null ? null : character.getLevel();
+        this.maxHp = character == null ? null : character.getMaxHp();
+        this.currentHp = character == null ? null : character.getCurrentHp();
+        this.attack = character == null ? null : character.getAttack();
+        this.defense = character == null ? null : character.getDefense();
+        this.speed = character == null ? null : character.getSpeed();
+        this.critRate = character == null ? null : character.getCritRate();
+        this.dodgeRate = character == null ? null : character.getDodgeRate();
+        this.skillIds = skillIds == null ? List.of() : List.copyOf(skillIds);
+    }
+
+    private PlayerProfile(PlayerProfile source, Integer eloRating, Integer totalBattles,
+                          Integer winCount, Integer gold) {
+        this.userId = source.userId;
+        this.username = source.username;
+        this.nickname = source.nickname;
+        this.eloRating = eloRating;
+        this.banned = source.banned;
+        this.gold = gold;
+        this.avatarFrameId = source.avatarFrameId;
+        this.totalBattles = totalBattles;
+        this.winCount = winCount;
+        this.characterId = source.characterId;
+        this.charName = source.charName;
+        this.charType = source.charType;
+        this.level = source.level;
+        this.maxHp = source.maxHp;
+        this.currentHp = source.currentHp;
+        this.attack = source.attack;
+        this.defense = source.defense;
+        this.speed = source.speed;
+        this.critRate = source.critRate;
+        this.dodgeRate = source.dodgeRate;
+        this.skillIds = source.skillIds;
+    }
+
+    /**
+     * 结算后生成新战绩的档案副本（传入的均为结算后的绝对值）
+     */
+    public PlayerProfile withBattleStats(Integer newEloRating, Integer newTotalBattles,
+                                         Integer newWinCount, Integer newGold) {
+        return new PlayerProfile(this, newEloRating, newTotalBattles, newWinCount, newGold);
+    }
+
+    /**
+     * 是否有激活角色（没有时不能匹配与开战）
+     */
+    public boolean hasCharacter() {
+        return characterId != null;
+    }
+
+    /**
+     * 胜率百分比，与 User.getWinRate 一致
+     */
+    public double getWinRate() {
+        if (totalBattles == null || totalBattles == 0) {
+            return 0.0;
+        }
+        int wins = winCount == null ? 0 : winCount;
+        return (double) wins / totalBattles * 100;
+    }
+}
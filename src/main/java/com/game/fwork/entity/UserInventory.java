@@ -12,8 +12,12 @@ import lombok.Setter;
 @Getter @Setter
 @Table(name = "t_user_inventory")
 public class UserInventory {
+    // 号段分配主键（t_id_generator 每次取 50 个），插入时无需回读自增ID，可走 JDBC 批量插入
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_inventory_id")
+    @TableGenerator(name = "user_inventory_id", table = "t_id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "user_inventory", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,74 @@
+package com.game.fwork.enums;
+
+/**
+ * 道具类型枚举
+ * 对应 t_item.type 字段，由 ItemManager 在加载道具表时一次性解析
+ */
+public enum ItemKind {
+
+    /**
+     * 头像框 - 只能在商店/背包中装备
+     */
+    AVATAR_FRAME("AVATAR_FRAME", "头像框", false),
+
+    /**
+     * 药水 - 可在战斗中使用，恢复生命
+     */
+    POTION("POTION", "药水", true),
+
+    /**
+     * 未识别的类型（数据库中新增了代码尚未支持的类型）
+     */
+    UNKNOWN("UNKNOWN", "未知", false);
+
+    /**
+     * 数据库中的类型代码
+     */
+    private final String code;
+
+    /**
+     * 中文描述（用于日志输出）
+     */
+    private final String description;
+
+    /**
+     * 是否可以在战斗中使用
+     */
+    private final boolean usableInBattle;
+
+    ItemKind(String code, String description, boolean usableInBattle) {
+        this.code = code;
+        this.description = description;
+        this.usableInBattle = usableInBattle;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isUsableInBattle() {
+        return usableInBattle;
+    }
+
+    /**
+     * 根据代码查找枚举
+     *
+     * @param code 类型代码
+     * @return 对应的枚举，找不到返回 UNKNOWN
+     */
+    public static ItemKind fromCode(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        for (ItemKind kind : values()) {
+            if (kind.code.equals(code)) {
+                return kind;
+            }
+        }
+        return UNKNOWN;
+    }
+}
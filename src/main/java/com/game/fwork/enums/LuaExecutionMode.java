@@ -0,0 +1,31 @@
+package com.game.fwork.enums;
+
+/**
+ * Lua 脚本执行模式枚举
+ * INTERPRETER 为 LuaJ 字节码解释执行；LUAJC 为通过 LuaJC 编译成 JVM 类后执行，可被 JIT 进一步优化
+ */
+public enum LuaExecutionMode {
+
+    /**
+     * 解释执行（默认，兼容性最好）
+     */
+    INTERPRETER("解释执行"),
+
+    /**
+     * LuaJC 编译为 JVM 字节码执行
+     */
+    LUAJC("LuaJC编译");
+
+    /**
+     * 中文描述（用于后台展示）
+     */
+    private final String description;
+
+    LuaExecutionMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,40 @@
+package com.game.fwork.enums;
+
+/**
+ * Lua 候选脚本影子评估状态枚举
+ */
+public enum LuaShadowState {
+
+    /**
+     * 评估中（候选脚本与线上脚本并行计算真实战斗输入）
+     */
+    RUNNING("评估中"),
+
+    /**
+     * 已发布为线上版本
+     */
+    PROMOTED("已发布"),
+
+    /**
+     * 管理员取消
+     */
+    CANCELLED("已取消"),
+
+    /**
+     * 评估期间线上版本被其他热更新替换，评估结果不再有参考意义
+     */
+    EXPIRED("已失效");
+
+    /**
+     * 中文描述（用于后台展示）
+     */
+    private final String description;
+
+    LuaShadowState(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,53 @@
+package com.game.fwork.enums;
+
+/**
+ * 技能类型枚举
+ * 对应 t_skill.skill_type 字段，由 SkillManager 在加载技能表时一次性解析，
+ * 战斗热路径上只做枚举比较，不再逐次比较字符串
+ */
+public enum SkillKind {
+
+    /**
+     * 攻击技能 - 对目标造成伤害
+     */
+    ATTACK("attack", "攻击"),
+
+    /**
+     * 治疗技能 - 为自身恢复生命
+     */
+    HEAL("heal", "治疗");
+
+    /**
+     * 数据库中的类型代码
+     */
+    private final String code;
+
+    /**
+     * 中文描述（用于日志输出）
+     */
+    private final String description;
+
+    SkillKind(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 根据代码查找枚举
+     * 与原先 "heal".equals(skillType) 的判断保持一致：只有 heal 视为治疗，其余（包括空值）都按攻击处理
+     *
+     * @param code 类型代码
+     * @return 对应的枚举，不会返回 null
+     */
+    public static SkillKind fromCode(String code) {
+        return HEAL.code.equals(code) ? HEAL : ATTACK;
+    }
+}
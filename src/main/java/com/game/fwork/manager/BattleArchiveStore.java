@@ -0,0 +1,249 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.entity.BattleRecordLog;
+import com.game.fwork.util.BattleArchiveSegment;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 战斗记录冷归档存储（本地段文件）
+ * 启动时只加载各段的文件头索引；查询按段从新到旧进行，用玩家ID布隆过滤器跳过无关的段，
+ * 玩家场数直接取自文件头的玩家表，只有要返回的记录所在的段才解压数据列
+ * 段由归档任务（BattleArchiveService）单线程追加，读取可并发
+ */
+@Component
+public class BattleArchiveStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BattleArchiveStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // 按战斗ID查找时，战斗开始后多久内落库的段都需要检查（覆盖超长战斗与时区差异）
+    private static final Duration BATTLE_ID_LOOKUP_WINDOW = Duration.ofDays(1);
+
+    // 段文件目录
+    @Value("${archive.battle.dir:data/archive/battle}")
+    private String directory;
+
+    // 按写出顺序从新到旧排列（归档按创建时间从旧到新进行，新段总是排在最前）
+    private final List<BattleArchiveSegment> segments = new CopyOnWriteArrayList<>();
+
+    // 下一个段文件序号（文件名按序号补零，文件名顺序即写出顺序）
+    private long nextSequence = 1;
+
+    @PostConstruct
+    public void init() {
+        Path dir = Paths.get(directory);
+        try {
+            Files.createDirectories(dir);
+            List<BattleArchiveSegment> loaded = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : files) {
+                    try {
+                        loaded.add(BattleArchiveSegment.open(file));
+                    } catch (IOException e) {
+                        logger.error("归档段文件损坏，已跳过: {}", file, e);
+                    }
+                }
+            }
+            loaded.sort(Comparator.comparing((BattleArchiveSegment segment) ->
+                    segment.getFile().getFileName().toString()).reversed());
+            segments.addAll(loaded);
+            if (!loaded.isEmpty()) {
+                nextSequence = parseSequence(loaded.get(0).getFile()) + 1;
+            }
+            logger.info("战斗归档加载完成: 目录={}, 段数={}, 记录数={}", dir.toAbsolutePath(), segments.size(), getRowCount());
+        } catch (IOException e) {
+            logger.error("战斗归档目录不可用: {}", dir.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 写出一个新段（仅归档任务线程调用）
+     *
+     * @param records 按ID升序的战斗记录
+     */
+    public synchronized BattleArchiveSegment append(List<BattleRecord> records,
+                                                    Map<String, BattleRecordLog> logs) throws IOException {
+        Path file = Paths.get(directory).resolve(String.format("battle-%010d%s", nextSequence, SEGMENT_SUFFIX));
+        BattleArchiveSegment segment = BattleArchiveSegment.write(file, records, logs);
+        nextSequence++;
+        segments.add(0, segment);
+        return segment;
+    }
+
+    private static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring("battle-".length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 最近写出的一段（归档任务中断恢复时使用）
+     */
+    public Optional<BattleArchiveSegment> latest() {
+        return segments.isEmpty() ? Optional.empty() : Optional.of(segments.get(0));
+    }
+
+    /**
+     * 玩家在归档中的战斗场数（只读文件头）
+     */
+    public long countByPlayer(Long userId) throws IOException {
+        long count = 0;
+        for (BattleArchiveSegment segment : segments) {
+            count += segment.countOfPlayer(userId);
+        }
+        return count;
+    }
+
+    /**
+     * 分页读取玩家在归档中的战斗（从新到旧）
+     *
+     * @param offset 跳过的条数
+     * @param limit 最多返回的条数
+     */
+    public List<BattleRecord> findByPlayer(Long userId, long offset, int limit) throws IOException {
+        List<BattleRecord> result = new ArrayList<>(limit);
+        long toSkip = offset;
+        for (BattleArchiveSegment segment : segments) {
+            if (result.size() >= limit) {
+                break;
+            }
+            // 先用文件头中的场数跳过整段，只有要取记录的段才解压玩家ID列
+            int count = segment.countOfPlayer(userId);
+            if (count == 0) {
+                continue;
+            }
+            if (toSkip >= count) {
+                toSkip -= count;
+                continue;
+            }
+            int[] rows = segment.rowsOfPlayer(userId);
+            // 段内行按ID升序，从末尾倒序取
+            int end = rows.length - (int) toSkip;
+            int start = Math.max(0, end - (limit - result.size()));
+            toSkip = 0;
+            int[] picked = new int[end - start];
+            for (int i = 0; i < picked.length; i++) {
+                picked[i] = rows[end - 1 - i];
+            }
+            result.addAll(segment.readRecords(picked));
+        }
+        return result;
+    }
+
+    /**
+     * 按业务战斗ID查找归档中的记录
+     */
+    public Optional<BattleRecord> findByBattleId(String battleId) throws IOException {
+        for (BattleArchiveSegment segment : candidateSegments(battleId)) {
+            int row = segment.rowOfBattle(battleId);
+            if (row >= 0) {
+                return Optional.of(segment.readRecords(new int[]{row}).get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 按业务战斗ID读取归档中的战斗日志
+     */
+    public Optional<BattleRecordLog> findLog(String battleId) throws IOException {
+        for (BattleArchiveSegment segment : candidateSegments(battleId)) {
+            int row = segment.rowOfBattle(battleId);
+            if (row >= 0) {
+                return Optional.ofNullable(segment.readLog(row));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 可能包含该战斗的段
+     * 战斗ID形如 BATTLE_{创建毫秒}_{随机串}，记录落库时间不早于战斗创建时间，
+     * 用文件头中的创建时间范围即可排除绝大多数段；无法解析时间的ID退化为逐段查找
+     */
+    private List<BattleArchiveSegment> candidateSegments(String battleId) {
+        LocalDateTime createdAt = parseBattleTime(battleId);
+        if (createdAt == null) {
+            return segments;
+        }
+        LocalDateTime from = createdAt.minus(BATTLE_ID_LOOKUP_WINDOW);
+        LocalDateTime to = createdAt.plus(BATTLE_ID_LOOKUP_WINDOW);
+        List<BattleArchiveSegment> candidates = new ArrayList<>();
+        for (BattleArchiveSegment segment : segments) {
+            if (!segment.getMaxCreatedAt().isBefore(from) && !segment.getMinCreatedAt().isAfter(to)) {
+                candidates.add(segment);
+            }
+        }
+        return candidates;
+    }
+
+    private static LocalDateTime parseBattleTime(String battleId) {
+        String[] parts = battleId.split("_");
+        if (parts.length < 2) {
+            return null;
+        }
+        try {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(parts[1])), ZoneId.systemDefault());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getRowCount() {
+        long rows = 0;
+        for (BattleArchiveSegment segment : segments) {
+            rows += segment.getRowCount();
+        }
+        return rows;
+    }
+
+    /**
+     * 归档概况（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        long bytes = 0;
+        for (BattleArchiveSegment segment : segments) {
+            try {
+                bytes += Files.size(segment.getFile());
+            } catch (IOException e) {
+                logger.warn("读取归档段大小失败: {}", segment.getFile(), e);
+            }
+        }
+        data.put("directory", Paths.get(directory).toAbsolutePath().toString());
+        data.put("segments", segments.size());
+        data.put("rows", getRowCount());
+        data.put("bytes", bytes);
+        if (!segments.isEmpty()) {
+            data.put("oldestCreatedAt", segments.get(segments.size() - 1).getMinCreatedAt());
+            data.put("newestCreatedAt", segments.get(0).getMaxCreatedAt());
+        }
+        return data;
+    }
+}
@@ -0,0 +1,61 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.entity.Item;
+import com.game.fwork.enums.ItemKind;
+
+/**
+ * 编译后的道具描述（不可变，享元）
+ * 由 ItemManager 在加载道具表时从 JPA 实体转换而来，战斗中使用道具时只读取这里的字段
+ */
+public final class ItemDescriptor {
+
+    private final int id;
+    private final String name;
+    private final ItemKind kind;
+    private final int price;
+    private final int effectValue;
+
+    public ItemDescriptor(int id, String name, ItemKind kind, int price, int effectValue) {
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.price = price;
+        this.effectValue = effectValue;
+    }
+
+    /**
+     * 从数据库实体编译（effect_value 为空时取列默认值 0）
+     */
+    public static ItemDescriptor of(Item item) {
+        return new ItemDescriptor(
+                item.getId() != null ? item.getId() : 0,
+                item.getName(),
+                ItemKind.fromCode(item.getType()),
+                item.getPrice() != null ? item.getPrice() : 0,
+                item.getEffectValue() != null ? item.getEffectValue() : 0);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ItemKind getKind() {
+        return kind;
+    }
+
+    public boolean isUsableInBattle() {
+        return kind.isUsableInBattle();
+    }
+
+    public int getPrice() {
+        return price;
+    }
+
+    public int getEffectValue() {
+        return effectValue;
+    }
+}
@@ -1,6 +1,7 @@
 package com.game.fwork.manager;
 
 import com.game.fwork.entity.Item;
+import com.game.fwork.enums.ItemKind;
 import com.game.fwork.repository.ItemRepository;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
@@ -23,8 +24,14 @@ public class ItemManager {
     @Autowired
     private ItemRepository itemRepository;
 
+    // 道具 ID 的上限（超出的道具不进入稠密数组）
+    static final int MAX_DENSE_ID = 65535;
+
     private final Map<Integer, Item> itemCache = new ConcurrentHashMap<>();
 
+    // 战斗中使用的编译后道具表：下标即道具 ID，刷新时整体替换
+    private volatile ItemDescriptor[] descriptors = new ItemDescriptor[0];
+
     @PostConstruct
     public void init() {
         refresh();
@@ -40,10 +47,49 @@ public class ItemManager {
         for (Item item : items) {
             itemCache.put(item.getId(), item);
         }
+        descriptors = compile(items);
         logger.info("道具数据加载/刷新完成，共加载 {} 个道具", items.size());
     }
 
+    /**
+     * 把道具实体编译为按 ID 下标存放的不可变描述数组
+     */
+    private ItemDescriptor[] compile(List<Item> items) {
+        int maxId = -1;
+        for (Item item : items) {
+            Integer id = item.getId();
+            if (id != null && id >= 0 && id <= MAX_DENSE_ID) {
+                maxId = Math.max(maxId, id);
+            }
+        }
+
+        ItemDescriptor[] table = new ItemDescriptor[maxId + 1];
+        for (Item item : items) {
+            Integer id = item.getId();
+            if (id == null || id < 0 || id > MAX_DENSE_ID) {
+                logger.warn("道具ID超出范围，战斗中将无法使用: id={}, name={}", id, item.getName());
+                continue;
+            }
+            ItemDescriptor descriptor = ItemDescriptor.of(item);
+            if (descriptor.getKind() == ItemKind.UNKNOWN) {
+                logger.warn("未识别的道具类型: id={}, type={}", id, item.getType());
+            }
+            table[id] = descriptor;
+        }
+        return table;
+    }
+
     public Item getItem(Integer itemId) {
         return itemCache.get(itemId);
     }
+
+    /**
+     * 获取编译后的道具描述（战斗热路径使用）
+     *
+     * @return 道具描述，不存在返回 null
+     */
+    public ItemDescriptor getDescriptor(int itemId) {
+        ItemDescriptor[] table = descriptors;
+        return itemId >= 0 && itemId < table.length ? table[itemId] : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.game.fwork.manager;
+
+/**
+ * Lua 脚本执行超出指令数或时间预算
+ * 由 LuaEngineManager 在调用边界抛出，调用方按普通脚本错误处理（如降级到 Java 公式）
+ */
+public class LuaBudgetExceededException extends RuntimeException {
+
+    public LuaBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,76 @@
+package com.game.fwork.manager;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+
+/**
+ * 单个线程、单个 Lua 函数的调用帧
+ * 持有已解析的函数引用和一张复用的上下文表，每次调用只覆盖表中的字段值，不新建表
+ * 批量调用时，上下文表中的数组字段同样复用（见 array）
+ * 只能在创建它的线程中使用；脚本版本切换后由新的线程运行时重新创建
+ */
+public final class LuaCallFrame {
+
+    private final LuaValue function;
+    private final Globals globals;
+    private final LuaTable context = new LuaTable(0, 16);
+
+    LuaCallFrame(LuaValue function, Globals globals) {
+        this.function = function;
+        this.globals = globals;
+    }
+
+    public LuaCallFrame set(LuaString key, int value) {
+        context.rawset(key, LuaValue.valueOf(value));
+        return this;
+    }
+
+    public LuaCallFrame set(LuaString key, double value) {
+        context.rawset(key, LuaValue.valueOf(value));
+        return this;
+    }
+
+    public LuaCallFrame set(LuaString key, boolean value) {
+        context.rawset(key, value ? LuaValue.TRUE : LuaValue.FALSE);
+        return this;
+    }
+
+    /**
+     * 获取上下文表中的数组字段，不存在时创建（批量调用的输入与输出）
+     * 数组只覆盖写入不清空，脚本应只读取本次调用的条数以内的元素
+     */
+    public LuaTable array(LuaString key) {
+        LuaValue value = context.rawget(key);
+        if (value.istable()) {
+            return (LuaTable) value;
+        }
+        LuaTable array = new LuaTable(64, 0);
+        context.rawset(key, array);
+        return array;
+    }
+
+    /**
+     * 以上下文表为参数调用函数，返回整数结果
+     *
+     * @throws LuaBudgetExceededException 超出执行预算
+     */
+    public int invokeInt() {
+        return invoke().toint();
+    }
+
+    /**
+     * 以上下文表为参数调用函数
+     *
+     * @throws LuaBudgetExceededException 超出执行预算
+     */
+    public LuaValue invoke() {
+        LuaEngineManager.resetBudget(globals);
+        try {
+            return function.call(context);
+        } catch (LuaInstructionBudget.Exceeded e) {
+            throw new LuaBudgetExceededException(e.getMessage());
+        }
+    }
+}
@@ -1,25 +1,65 @@
 package com.game.fwork.manager;
 
+import com.game.fwork.enums.LuaExecutionMode;
+import com.game.fwork.util.DamageBatch;
 import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaString;
 import org.luaj.vm2.LuaTable;
 import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
 import org.luaj.vm2.lib.jse.JsePlatform;
+import org.luaj.vm2.luajc.LuaJC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Lua 脚本引擎管理器
  * 封装 LuaJ 库，负责 Lua 脚本的加载、编译缓存和执行
  * 提供了 Java Map 到 Lua Table 的上下文转换能力
+ *
+ * 线程模型：LuaJ 的 Globals 不是线程安全的（math.random 的状态也挂在 Globals 上），
+ * 因此每个调用线程（Netty EventLoop、调度线程、异步线程）各自持有一份 Globals。
+ * 脚本只编译一次得到共享的 Prototype，各线程在首次调用或发现版本变化时，用自己的 Globals 实例化执行。
+ *
+ * 发布流程：编译、试运行和校验都在独立的 lua-compiler 线程上完成，得到不可变的新版本后，
+ * 通过一次 compareAndSet 替换脚本集合。调用线程从不参与编译，也不会看到定义了一半的函数；
+ * 正在执行的调用继续使用旧版本的 Globals，下一次调用才切换到新版本。
+ *
+ * 调用方式：callLuaFunction 为通用的 Map 上下文接口；callDamage / callHeal 为类型化接口，
+ * 通过预先解析的函数句柄、预先驻留的键和每线程复用的上下文表调用，热路径上不做名称查找、不新建表；
+ * callDamageBatch 为批量接口，一次 Lua 调用计算一整段结构数组输入。
+ *
+ * 执行模式：默认解释执行。同时设置 lua.luajc.enabled=true 与 lua.budget.enabled=false 时，
+ * 脚本额外通过 LuaJC 编译为 JVM 类，编译或试运行失败时自动退回解释执行。
+ *
+ * 执行预算：开启 lua.budget.enabled 后，每次调用（包括脚本主体的加载）都受指令数与墙钟时间限制，
+ * 超出时抛出 LuaBudgetExceededException，并丢弃当前线程的运行时。预算依赖解释器的调试钩子，
+ * 因此开启预算时不使用 LuaJC。默认配置下预算开启、LuaJC 关闭。
  */
 @Component  // 标记为Spring组件，让Spring管理这个Bean
 public class LuaEngineManager {
@@ -27,17 +67,74 @@ public class LuaEngineManager {
     // 日志记录器（用于输出运行信息和错误）
     private static final Logger logger = LoggerFactory.getLogger(LuaEngineManager.class);
 
-    private volatile Globals globals;
+    /**
+     * 当前发布的脚本集合（整体替换，读取无需加锁）
+     */
+    private final AtomicReference<ScriptSet> scriptSet =
+            new AtomicReference<>(new ScriptSet(0, Collections.emptyMap()));
+
+    /**
+     * 编译线程：脚本的编译、试运行与校验只在这个线程上进行
+     */
+    private final ExecutorService compileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lua-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 每个线程独享的 Lua 运行时
+     */
+    private final ThreadLocal<LuaRuntime> runtimes = new ThreadLocal<>();
+
+    // 仅用于编译脚本的 Globals（只在编译线程中使用）
+    private final Globals compiler = JsePlatform.standardGlobals();
+
+    // 是否使用 LuaJC 将脚本编译为 JVM 字节码
+    @Value("${lua.luajc.enabled:false}")
+    private volatile boolean luajcEnabled;
+
+    // 单次调用的执行预算（防止热更新的脚本死循环卡死 Netty 线程）
+    @Value("${lua.budget.enabled:false}")
+    private boolean budgetEnabled;
+    @Value("${lua.budget.max-instructions:1000000}")
+    private long budgetMaxInstructions;
+    @Value("${lua.budget.max-millis:50}")
+    private long budgetMaxMillis;
+
+    // 类型化接口使用的上下文键（预先驻留，避免每次调用按字符串构造 LuaString）
+    private static final LuaString KEY_ATTACKER_ATTACK = LuaString.valueOf("attackerAttack");
+    private static final LuaString KEY_DEFENDER_DEFENSE = LuaString.valueOf("defenderDefense");
+    private static final LuaString KEY_ATTACKER_CRIT = LuaString.valueOf("attackerCrit");
+    private static final LuaString KEY_DEFENDER_DODGE = LuaString.valueOf("defenderDodge");
+    private static final LuaString KEY_DEFENDER_DEFENDING = LuaString.valueOf("defenderDefending");
+    private static final LuaString KEY_SKILL_MULTIPLIER = LuaString.valueOf("skillMultiplier");
+    private static final LuaString KEY_SKILL_DEF_BREAK = LuaString.valueOf("skillDefBreak");
+    private static final LuaString KEY_HEALER_MAX_HP = LuaString.valueOf("healerMaxHp");
+    private static final LuaString KEY_COUNT = LuaString.valueOf("count");
+    private static final LuaString KEY_DAMAGE = LuaString.valueOf("damage");
+
+    /**
+     * 批量接口每次 Lua 调用最多计算的条数，更大的批次分段调用，保证单次调用仍在执行预算内
+     */
+    private static final int MAX_BATCH_PER_CALL = 4096;
+
+    /**
+     * 已创建的函数句柄（脚本路径#函数名 -> 句柄），同名函数共用一个调用帧槽位
+     */
+    private final Map<String, LuaFunctionHandle> handles = new ConcurrentHashMap<>();
 
-    private final Map<String, LuaValue> scriptCache = new ConcurrentHashMap<>();
+    private final AtomicInteger versionSequence = new AtomicInteger();
+    private final AtomicInteger slotSequence = new AtomicInteger();
+    private final AtomicInteger runtimesCreated = new AtomicInteger();
 
     @PostConstruct
     public void init() {
         try {
             logger.info("=== 开始初始化Lua引擎 ===");
-
-            globals = JsePlatform.standardGlobals();
-            logger.info("Lua虚拟机创建成功");
+            if (luajcEnabled && budgetEnabled) {
+                logger.warn("lua.luajc.enabled 与 lua.budget.enabled 同时开启：执行预算需要解释执行，LuaJC编译不会生效");
+            }
 
             // 预加载核心公式脚本
             loadScript("lua/damage_formulas.lua");
@@ -49,33 +146,211 @@ public class LuaEngineManager {
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        compileExecutor.shutdownNow();
+    }
+
     /**
      * 加载并编译 Lua 脚本 (支持缓存)
+     * 已发布的版本直接返回；首次加载时交给编译线程编译并发布，当前线程等待结果
      */
-    private LuaValue loadScript(String scriptPath) throws Exception {
-        LuaValue cached = scriptCache.get(scriptPath);
+    private LuaScriptVersion loadScript(String scriptPath) throws Exception {
+        LuaScriptVersion cached = scriptSet.get().scripts.get(scriptPath);
         if (cached != null) {
-            logger.debug("从缓存加载Lua脚本: {}", scriptPath);
             return cached;
         }
 
-        logger.info("首次加载Lua脚本: {}", scriptPath);
+        return await(compileExecutor.submit(() -> {
+            // 多个线程同时首次调用时，只有第一个任务真正编译
+            LuaScriptVersion published = scriptSet.get().scripts.get(scriptPath);
+            if (published != null) {
+                return published;
+            }
+            logger.info("首次加载Lua脚本: {}", scriptPath);
+            LuaScriptVersion version = compile(scriptPath);
+            publish(version, -1);
+            return version;
+        }));
+    }
+
+    /**
+     * 等待编译线程的结果，将任务中的异常原样抛出
+     */
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 读取脚本并编译为新版本（不影响已发布版本，只在编译线程中调用）
+     */
+    private LuaScriptVersion compile(String scriptPath) throws Exception {
+        String source = readSource(scriptPath);
+
+        Prototype prototype = compiler.compilePrototype(new StringReader(source), scriptPath);
+        if (luajcEnabled && budgetEnabled) {
+            logger.info("已开启执行预算，LuaJC编译不生效，使用解释执行: {}", scriptPath);
+        }
+        Class<? extends LuaFunction> compiledChunk = luajcEnabled && !budgetEnabled
+                ? compileToBytecode(scriptPath, source) : null;
+        LuaScriptVersion version = new LuaScriptVersion(scriptPath, versionSequence.incrementAndGet(),
+                prototype, compiledChunk);
+
+        // 在临时 Globals 中试运行一次脚本主体，顶层代码报错时不发布
+        Globals trial = newGlobals();
+        try {
+            runChunk(version, trial);
+        } catch (Exception e) {
+            if (version.getMode() != LuaExecutionMode.LUAJC) {
+                throw e;
+            }
+            logger.warn("LuaJC编译产物试运行失败，退回解释执行: {}", scriptPath, e);
+            version = version.interpreted();
+            trial = newGlobals();
+            runChunk(version, trial);
+        }
+        validateFunctions(scriptPath, trial);
+
+        logger.info("Lua脚本编译成功: {}, version={}, mode={}", scriptPath, version.getVersion(), version.getMode());
+        return version;
+    }
+
+    /**
+     * 校验新版本仍定义了调用方已解析句柄的全部函数，避免发布后调用找不到函数
+     */
+    private void validateFunctions(String scriptPath, Globals trial) {
+        for (LuaFunctionHandle handle : handles.values()) {
+            if (handle.getScriptPath().equals(scriptPath) && !trial.get(handle.getFunctionName()).isfunction()) {
+                throw new IllegalStateException("新版本缺少函数: " + handle);
+            }
+        }
+    }
+
+    /**
+     * 创建一个新的 Globals，开启预算时安装预算钩子
+     */
+    private Globals newGlobals() {
+        Globals globals = JsePlatform.standardGlobals();
+        if (budgetEnabled) {
+            globals.debuglib = new LuaInstructionBudget(budgetMaxInstructions, budgetMaxMillis);
+        }
+        return globals;
+    }
+
+    /**
+     * 在指定 Globals 中执行脚本主体（同样受预算限制）
+     */
+    private static void runChunk(LuaScriptVersion version, Globals globals) {
+        resetBudget(globals);
+        try {
+            version.loadInto(globals);
+        } catch (LuaInstructionBudget.Exceeded e) {
+            throw new LuaBudgetExceededException(e.getMessage() + " (" + version.getScriptPath()
+                    + " v" + version.getVersion() + " 加载)");
+        }
+    }
+
+    static void resetBudget(Globals globals) {
+        if (globals.debuglib instanceof LuaInstructionBudget budget) {
+            budget.reset();
+        }
+    }
+
+    /**
+     * 读取脚本源码
+     * 优先读取工作目录下 src/main/resources 中的文件（LuaScriptController 在线编辑保存的位置），
+     * 不存在时（如打包部署）再从 classpath 读取
+     */
+    private String readSource(String scriptPath) throws Exception {
+        Path editable = Paths.get(System.getProperty("user.dir"), "src", "main", "resources", scriptPath);
+        if (Files.isRegularFile(editable)) {
+            return Files.readString(editable, StandardCharsets.UTF_8);
+        }
 
         ClassPathResource resource = new ClassPathResource(scriptPath);
         if (!resource.exists()) {
             throw new RuntimeException("Lua脚本文件不存在: " + scriptPath);
         }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
 
-        InputStream inputStream = resource.getInputStream();
-        InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    /**
+     * 使用 LuaJC 将脚本编译为 JVM 类
+     * 每个版本使用独立的 ClassLoader，旧版本不再被引用后其类可被卸载
+     *
+     * @return 脚本主体对应的类，编译失败返回 null（退回解释执行）
+     */
+    @SuppressWarnings("unchecked")
+    private Class<? extends LuaFunction> compileToBytecode(String scriptPath, String source) {
+        try {
+            Hashtable<String, byte[]> classes = LuaJC.instance.compileAll(
+                    new StringReader(source), scriptPath, scriptPath, compiler, false);
+
+            // 主体类名是其余内部类名（主体类名$函数名）的公共前缀，即最短的那个
+            String mainClass = null;
+            for (String name : classes.keySet()) {
+                if (mainClass == null || name.length() < mainClass.length()) {
+                    mainClass = name;
+                }
+            }
+            if (mainClass == null) {
+                return null;
+            }
 
-        LuaValue chunk = globals.load(reader, scriptPath);
-        chunk.call();
+            BytecodeClassLoader loader = new BytecodeClassLoader(classes, LuaEngineManager.class.getClassLoader());
+            return (Class<? extends LuaFunction>) loader.loadClass(mainClass);
 
-        scriptCache.put(scriptPath, chunk);
+        } catch (Throwable e) {
+            // BCEL 缺失或版本不兼容时会抛出 LinkageError，同样退回解释执行
+            logger.warn("LuaJC编译失败，退回解释执行: {}", scriptPath, e);
+            return null;
+        }
+    }
+
+    /**
+     * 发布新版本：以 compareAndSet 替换脚本集合的引用，各线程在下次调用时自动切换
+     *
+     * @param expectedVersion 要求当前发布的版本号（-1 表示不检查）
+     * @return 当前版本号与预期不符时返回 false
+     */
+    private boolean publish(LuaScriptVersion version, int expectedVersion) {
+        while (true) {
+            ScriptSet current = scriptSet.get();
+            LuaScriptVersion published = current.scripts.get(version.getScriptPath());
+            if (expectedVersion >= 0 && (published != null ? published.getVersion() : 0) != expectedVersion) {
+                return false;
+            }
+            Map<String, LuaScriptVersion> scripts = new HashMap<>(current.scripts);
+            scripts.put(version.getScriptPath(), version);
+            if (scriptSet.compareAndSet(current,
+                    new ScriptSet(current.generation + 1, Collections.unmodifiableMap(scripts)))) {
+                return true;
+            }
+        }
+    }
 
-        logger.info("Lua脚本编译成功: {}", scriptPath);
-        return chunk;
+    /**
+     * 获取当前线程的 Lua 运行时，脚本集合发生变化时重建
+     * 重建而不是在旧 Globals 上覆盖执行，保证每个线程看到的函数与某一发布版本完全一致
+     */
+    private LuaRuntime currentRuntime() {
+        ScriptSet current = scriptSet.get();
+        LuaRuntime runtime = runtimes.get();
+        if (runtime == null || runtime.scriptSet != current) {
+            runtime = new LuaRuntime(current, newGlobals());
+            runtimes.set(runtime);
+            runtimesCreated.incrementAndGet();
+        }
+        return runtime;
     }
 
     /**
@@ -87,12 +362,34 @@ public class LuaEngineManager {
 
         loadScript(scriptPath);
 
-        LuaValue luaFunction = globals.get(functionName);
+        LuaRuntime runtime = currentRuntime();
+        LuaValue luaFunction = runtime.globals.get(functionName);
 
         if (luaFunction.isnil()) {
             throw new RuntimeException("Lua函数不存在: " + functionName);
         }
 
+        LuaTable luaContext = toLuaTable(context);
+
+        LuaValue result;
+        try {
+            resetBudget(runtime.globals);
+            result = luaFunction.call(luaContext);
+        } catch (LuaInstructionBudget.Exceeded e) {
+            runtimes.remove();
+            throw new LuaBudgetExceededException(e.getMessage() + " (" + functionName + ")");
+        }
+
+        int intResult = result.toint();
+
+        logger.debug("Lua函数调用成功: {}() = {}", functionName, intResult);
+        return intResult;
+    }
+
+    /**
+     * 将 Java Map 上下文转换为 Lua Table（callLuaFunction 每次调用都会新建）
+     */
+    public static LuaTable toLuaTable(Map<String, Object> context) {
         LuaTable luaContext = new LuaTable();
 
         for (Map.Entry<String, Object> entry : context.entrySet()) {
@@ -114,30 +411,159 @@ public class LuaEngineManager {
                 luaContext.set(key, LuaValue.valueOf(value.toString()));
             }
         }
+        return luaContext;
+    }
 
-        LuaValue result = luaFunction.call(luaContext);
+    /**
+     * 解析函数句柄（只需调用一次，由调用方保存复用）
+     * 不会触发脚本加载，脚本在首次调用时加载
+     */
+    public LuaFunctionHandle resolveFunction(String scriptPath, String functionName) {
+        return handles.computeIfAbsent(scriptPath + "#" + functionName,
+                k -> new LuaFunctionHandle(scriptPath, functionName, slotSequence.getAndIncrement()));
+    }
 
-        int intResult = result.toint();
+    /**
+     * 获取当前线程中指定函数的调用帧
+     * 首次调用或脚本版本切换后才会查找函数，之后直接返回缓存的调用帧
+     */
+    public LuaCallFrame frame(LuaFunctionHandle handle) throws Exception {
+        LuaRuntime runtime = currentRuntime();
+        LuaCallFrame frame = runtime.frame(handle.getSlot());
+        if (frame != null) {
+            return frame;
+        }
 
-        logger.debug("Lua函数调用成功: {}() = {}", functionName, intResult);
-        return intResult;
+        if (!runtime.scriptSet.scripts.containsKey(handle.getScriptPath())) {
+            loadScript(handle.getScriptPath());
+            runtime = currentRuntime();
+        }
+
+        LuaValue luaFunction = runtime.globals.get(handle.getFunctionName());
+        if (luaFunction.isnil()) {
+            throw new RuntimeException("Lua函数不存在: " + handle.getFunctionName());
+        }
+
+        frame = new LuaCallFrame(luaFunction, runtime.globals);
+        runtime.setFrame(handle.getSlot(), frame);
+        return frame;
+    }
+
+    /**
+     * 类型化调用：伤害公式
+     * 参数与 callLuaFunction 的 Map 上下文字段一一对应
+     */
+    public int callDamage(LuaFunctionHandle handle, int attackerAttack, int defenderDefense,
+                          int attackerCrit, int defenderDodge, boolean defenderDefending,
+                          double skillMultiplier, double skillDefBreak) throws Exception {
+        try {
+            return bindDamage(frame(handle), attackerAttack, defenderDefense, attackerCrit, defenderDodge,
+                    defenderDefending, skillMultiplier, skillDefBreak).invokeInt();
+        } catch (LuaBudgetExceededException e) {
+            // 被中断的脚本可能留下不完整的全局状态，丢弃当前线程的运行时，下次调用重建
+            runtimes.remove();
+            throw e;
+        }
+    }
+
+    /**
+     * 类型化调用：治疗公式
+     */
+    public int callHeal(LuaFunctionHandle handle, int healerMaxHp, double skillMultiplier) throws Exception {
+        try {
+            return bindHeal(frame(handle), healerMaxHp, skillMultiplier).invokeInt();
+        } catch (LuaBudgetExceededException e) {
+            runtimes.remove();
+            throw e;
+        }
+    }
+
+    /**
+     * 批量调用：伤害公式
+     * 输入按结构数组写入复用的 Lua 数组表，一次 Lua 调用计算一段，结果写回 batch 的 damage 数组
+     *
+     * @param handle 批量函数（如 calculateDamageBatch）的句柄
+     */
+    public void callDamageBatch(LuaFunctionHandle handle, DamageBatch batch) throws Exception {
+        try {
+            for (int from = 0; from < batch.size(); from += MAX_BATCH_PER_CALL) {
+                int count = Math.min(MAX_BATCH_PER_CALL, batch.size() - from);
+                LuaCallFrame frame = frame(handle);
+
+                LuaTable attackerAttack = frame.array(KEY_ATTACKER_ATTACK);
+                LuaTable defenderDefense = frame.array(KEY_DEFENDER_DEFENSE);
+                LuaTable attackerCrit = frame.array(KEY_ATTACKER_CRIT);
+                LuaTable defenderDodge = frame.array(KEY_DEFENDER_DODGE);
+                LuaTable defenderDefending = frame.array(KEY_DEFENDER_DEFENDING);
+                LuaTable skillMultiplier = frame.array(KEY_SKILL_MULTIPLIER);
+                LuaTable skillDefBreak = frame.array(KEY_SKILL_DEF_BREAK);
+                LuaTable damage = frame.array(KEY_DAMAGE);
+
+                // 模拟输入中技能倍率大量重复，与上一条相同时复用同一个 LuaValue，避免逐条装箱
+                LuaValue multiplier = null;
+                LuaValue defBreak = null;
+                for (int i = 0; i < count; i++) {
+                    int index = from + i;
+                    int key = i + 1;
+                    attackerAttack.rawset(key, LuaValue.valueOf(batch.getAttackerAttack(index)));
+                    defenderDefense.rawset(key, LuaValue.valueOf(batch.getDefenderDefense(index)));
+                    attackerCrit.rawset(key, LuaValue.valueOf(batch.getAttackerCrit(index)));
+                    defenderDodge.rawset(key, LuaValue.valueOf(batch.getDefenderDodge(index)));
+                    defenderDefending.rawset(key, batch.isDefenderDefending(index) ? LuaValue.TRUE : LuaValue.FALSE);
+                    multiplier = reuse(multiplier, batch.getSkillMultiplier(index));
+                    skillMultiplier.rawset(key, multiplier);
+                    defBreak = reuse(defBreak, batch.getSkillDefBreak(index));
+                    skillDefBreak.rawset(key, defBreak);
+                }
+
+                frame.set(KEY_COUNT, count).invoke();
+
+                for (int i = 0; i < count; i++) {
+                    batch.setDamage(from + i, damage.rawget(i + 1).toint());
+                }
+            }
+        } catch (LuaBudgetExceededException e) {
+            runtimes.remove();
+            throw e;
+        }
+    }
+
+    private static LuaValue reuse(LuaValue previous, double value) {
+        return previous != null && previous.todouble() == value ? previous : LuaValue.valueOf(value);
+    }
+
+    static LuaCallFrame bindDamage(LuaCallFrame frame, int attackerAttack, int defenderDefense,
+                                   int attackerCrit, int defenderDodge, boolean defenderDefending,
+                                   double skillMultiplier, double skillDefBreak) {
+        return frame
+                .set(KEY_ATTACKER_ATTACK, attackerAttack)
+                .set(KEY_DEFENDER_DEFENSE, defenderDefense)
+                .set(KEY_ATTACKER_CRIT, attackerCrit)
+                .set(KEY_DEFENDER_DODGE, defenderDodge)
+                .set(KEY_DEFENDER_DEFENDING, defenderDefending)
+                .set(KEY_SKILL_MULTIPLIER, skillMultiplier)
+                .set(KEY_SKILL_DEF_BREAK, skillDefBreak);
+    }
+
+    static LuaCallFrame bindHeal(LuaCallFrame frame, int healerMaxHp, double skillMultiplier) {
+        return frame
+                .set(KEY_HEALER_MAX_HP, healerMaxHp)
+                .set(KEY_SKILL_MULTIPLIER, skillMultiplier);
     }
 
     /**
      * 重新加载脚本（用于热更新）
+     * 在编译线程上完整编译、试运行并校验新版本，成功后一次性发布；失败时继续使用旧版本
+     * 调用线程只等待结果，编译期间其他线程的 Lua 调用不受影响
      * @param scriptPath 脚本路径
      */
     public void reloadScript(String scriptPath) {
         try {
             logger.info("热更新Lua脚本: {}", scriptPath);
 
-            // 从缓存中移除旧脚本
-            scriptCache.remove(scriptPath);
-
-            // 重新加载脚本
-            loadScript(scriptPath);
+            LuaScriptVersion version = await(reloadScriptAsync(scriptPath));
 
-            logger.info("Lua脚本热更新成功: {}", scriptPath);
+            logger.info("Lua脚本热更新成功: {}, version={}", scriptPath, version.getVersion());
 
         } catch (Exception e) {
             logger.error("Lua脚本热更新失败: {}", scriptPath, e);
@@ -146,17 +572,176 @@ public class LuaEngineManager {
     }
 
     /**
-     * 获取Lua虚拟机对象（高级用法）
+     * 异步热更新：提交到编译线程，完成时新版本已发布
+     */
+    public Future<LuaScriptVersion> reloadScriptAsync(String scriptPath) {
+        return compileExecutor.submit(() -> {
+            LuaScriptVersion version = compile(scriptPath);
+            publish(version, -1);
+            return version;
+        });
+    }
+
+    /**
+     * 编译候选版本但不发布（用于影子评估），编译或试运行失败时抛出异常
+     */
+    public LuaScriptVersion compileCandidate(String scriptPath) {
+        try {
+            LuaScriptVersion candidate = await(compileExecutor.submit(() -> compile(scriptPath)));
+            logger.info("Lua候选脚本编译成功: {}, version={}", scriptPath, candidate.getVersion());
+            return candidate;
+        } catch (Exception e) {
+            logger.error("Lua候选脚本编译失败: {}", scriptPath, e);
+            throw new RuntimeException("Lua候选脚本编译失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 发布经过影子评估的候选版本
+     * 只有线上版本仍是评估时的基线版本才发布，避免覆盖评估期间他人的热更新
+     *
+     * @return 是否发布成功
+     */
+    public boolean promote(LuaScriptVersion candidate, int baselineVersion) {
+        if (!publish(candidate, baselineVersion)) {
+            logger.warn("线上版本已变化，放弃发布候选脚本: {}, baseline={}, current={}",
+                    candidate.getScriptPath(), baselineVersion, getScriptVersion(candidate.getScriptPath()));
+            return false;
+        }
+        logger.info("Lua候选脚本已发布: {}, version={}", candidate.getScriptPath(), candidate.getVersion());
+        return true;
+    }
+
+    /**
+     * 创建只加载了指定版本脚本的独立 Globals（同样受执行预算限制）
+     * 返回的 Globals 只能在当前线程中使用
+     */
+    public Globals createIsolatedGlobals(LuaScriptVersion version) {
+        Globals globals = newGlobals();
+        runChunk(version, globals);
+        return globals;
+    }
+
+    /**
+     * 切换 LuaJC 编译开关，并按新模式重新编译全部已加载脚本
+     */
+    public synchronized void setLuajcEnabled(boolean enabled) {
+        this.luajcEnabled = enabled;
+        logger.info("切换Lua执行模式: luajc={}", enabled);
+        for (String scriptPath : scriptSet.get().scripts.keySet()) {
+            reloadScript(scriptPath);
+        }
+    }
+
+    public boolean isLuajcEnabled() {
+        return luajcEnabled;
+    }
+
+    /**
+     * 是否开启了执行预算（开启时 LuaJC 不生效）
+     */
+    public boolean isBudgetEnabled() {
+        return budgetEnabled;
+    }
+
+    /**
+     * 获取脚本当前发布的版本（含版本号与执行模式，未加载返回 null）
+     */
+    public LuaScriptVersion getCurrentVersion(String scriptPath) {
+        return scriptSet.get().scripts.get(scriptPath);
+    }
+
+    /**
+     * 获取当前线程的Lua虚拟机对象（高级用法）
+     * 返回的 Globals 只能在当前线程中使用
      * @return Globals对象
      */
     public Globals getGlobals() {
-        return globals;
+        return currentRuntime().globals;
+    }
+
+    /**
+     * 获取脚本当前发布的版本号（未加载返回0）
+     */
+    public int getScriptVersion(String scriptPath) {
+        LuaScriptVersion version = scriptSet.get().scripts.get(scriptPath);
+        return version != null ? version.getVersion() : 0;
+    }
+
+    /**
+     * 累计创建的线程运行时数量（线程首次调用或脚本热更新后各计一次）
+     */
+    public int getRuntimesCreated() {
+        return runtimesCreated.get();
     }
 
     /**
      * 检查引擎是否已初始化
      */
     public boolean isInitialized() {
-        return globals != null;
+        return !scriptSet.get().scripts.isEmpty();
+    }
+
+    /**
+     * 已发布脚本的不可变快照，generation 每次发布递增
+     */
+    private static final class ScriptSet {
+        final int generation;
+        final Map<String, LuaScriptVersion> scripts;
+
+        ScriptSet(int generation, Map<String, LuaScriptVersion> scripts) {
+            this.generation = generation;
+            this.scripts = scripts;
+        }
+    }
+
+    /**
+     * 从内存字节码定义 LuaJC 生成的类
+     */
+    private static final class BytecodeClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        BytecodeClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * 单个线程的 Lua 运行时：独立的 Globals（含独立的随机数状态），加载了某一快照中的全部脚本
+     */
+    private static final class LuaRuntime {
+        final ScriptSet scriptSet;
+        final Globals globals;
+        // 按句柄槽位缓存的调用帧
+        LuaCallFrame[] frames = new LuaCallFrame[8];
+
+        LuaRuntime(ScriptSet scriptSet, Globals globals) {
+            this.scriptSet = scriptSet;
+            this.globals = globals;
+            for (LuaScriptVersion version : scriptSet.scripts.values()) {
+                runChunk(version, globals);
+            }
+        }
+
+        LuaCallFrame frame(int slot) {
+            return slot < frames.length ? frames[slot] : null;
+        }
+
+        void setFrame(int slot, LuaCallFrame frame) {
+            if (slot >= frames.length) {
+                frames = Arrays.copyOf(frames, Math.max(slot + 1, frames.length * 2));
+            }
+            frames[slot] = frame;
+        }
     }
-}
\ No newline at end of file
+}
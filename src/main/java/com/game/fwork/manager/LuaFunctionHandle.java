@@ -0,0 +1,36 @@
+package com.game.fwork.manager;
+
+/**
+ * Lua 函数句柄
+ * 由 LuaEngineManager.resolveFunction 创建，调用方持有后反复使用；
+ * slot 是各线程运行时中调用帧数组的下标，调用时无需再按名称查找函数
+ */
+public final class LuaFunctionHandle {
+
+    private final String scriptPath;
+    private final String functionName;
+    private final int slot;
+
+    LuaFunctionHandle(String scriptPath, String functionName, int slot) {
+        this.scriptPath = scriptPath;
+        this.functionName = functionName;
+        this.slot = slot;
+    }
+
+    public String getScriptPath() {
+        return scriptPath;
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    @Override
+    public String toString() {
+        return scriptPath + "#" + functionName;
+    }
+}
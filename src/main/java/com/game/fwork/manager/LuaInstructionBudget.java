@@ -0,0 +1,85 @@
+package com.game.fwork.manager;
+
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.DebugLib;
+
+/**
+ * Lua 单次调用的执行预算（指令数 + 墙钟时间）
+ * 借用 LuaJ 解释器的调试钩子：安装到 Globals.debuglib 后，解释器每执行一条指令都会回调 onInstruction，
+ * 超出预算时抛出 Exceeded 终止脚本。Exceeded 继承 Error，脚本中的 pcall 无法捕获。
+ * 只替换钩子、不向脚本暴露 debug 库；其余调试回调均为空实现，开销只有一次计数
+ * 注意：LuaJC 编译后的代码不经过解释器，钩子不会被调用
+ * 每个实例只属于一个线程的 Globals，无需同步
+ */
+final class LuaInstructionBudget extends DebugLib {
+
+    // 每执行多少条指令检查一次墙钟时间（System.nanoTime 比计数贵得多）
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    private final long maxInstructions;
+    private final long maxNanos;
+
+    private long remaining;
+    private long deadline;
+    private int untilClockCheck;
+
+    /**
+     * @param maxInstructions 单次调用最多执行的指令数（<=0 表示不限制）
+     * @param maxMillis 单次调用最长执行时间（毫秒，<=0 表示不限制）
+     */
+    LuaInstructionBudget(long maxInstructions, long maxMillis) {
+        this.maxInstructions = maxInstructions > 0 ? maxInstructions : Long.MAX_VALUE;
+        this.maxNanos = maxMillis > 0 ? maxMillis * 1_000_000 : Long.MAX_VALUE / 2;
+    }
+
+    /**
+     * 每次调用前重置预算
+     */
+    void reset() {
+        remaining = maxInstructions;
+        deadline = System.nanoTime() + maxNanos;
+        untilClockCheck = CLOCK_CHECK_INTERVAL;
+    }
+
+    @Override
+    public void onInstruction(int pc, Varargs v, int top) {
+        if (--remaining < 0) {
+            throw new Exceeded("Lua执行超出指令预算: " + maxInstructions);
+        }
+        if (--untilClockCheck <= 0) {
+            untilClockCheck = CLOCK_CHECK_INTERVAL;
+            if (System.nanoTime() - deadline > 0) {
+                throw new Exceeded("Lua执行超出时间预算: " + maxNanos / 1_000_000 + "ms");
+            }
+        }
+    }
+
+    @Override
+    public void onCall(LuaFunction f) {
+    }
+
+    @Override
+    public void onCall(LuaClosure c, Varargs varargs, LuaValue[] stack) {
+    }
+
+    @Override
+    public void onReturn() {
+    }
+
+    @Override
+    public String traceback(int level) {
+        return "";
+    }
+
+    /**
+     * 预算耗尽（不收集堆栈，抛出开销低）
+     */
+    static final class Exceeded extends Error {
+        Exceeded(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -1,50 +1,102 @@
 package com.game.fwork.manager;
 
+import com.game.fwork.enums.LuaExecutionMode;
+import com.game.fwork.util.StripedHistogram;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.Map;
 
 /**
  * Lua 性能监控器
- * 统计 Lua 函数的调用次数和平均耗时，用于在管理后台监控脚本性能
+ * 统计 Lua 函数的调用次数、纳秒级耗时分布（p50/p99/p999）、降级到 Java 的次数和超出执行预算的次数，用于在管理后台监控脚本性能
+ * 同时按脚本版本、执行模式（解释执行 / LuaJC）分别统计，用于评估热更新与 LuaJC 的效果
+ *
+ * 记录路径：一次 ConcurrentHashMap 读取 + 分段直方图打点，稳定状态下不分配对象、不加锁，可在生产环境常开
  */
 @Component
 public class LuaPerformanceMonitor {
 
     /**
-     * 调用次数统计
+     * 每个函数保留的最近版本数（更早的版本统计会被丢弃）
      */
-    private final Map<String, AtomicLong> callCounts = new ConcurrentHashMap<>();
+    private static final int MAX_VERSIONS_PER_FUNCTION = 10;
 
     /**
-     * 总耗时统计（毫秒）
+     * 函数名 -> 统计数据
      */
-    private final Map<String, AtomicLong> totalExecutionTime = new ConcurrentHashMap<>();
+    private final Map<String, FunctionMetrics> functions = new ConcurrentHashMap<>();
 
     /**
-     * 最后一次调用时间
+     * 最近一次调用所使用的执行模式
      */
-    private final Map<String, Long> lastCallTime = new ConcurrentHashMap<>();
+    private volatile LuaExecutionMode activeMode;
 
     /**
      * 记录一次Lua函数调用
      *
      * @param functionName 函数名
-     * @param executionTimeMs 执行耗时（毫秒）
+     * @param scriptVersion 执行时的脚本版本号
+     * @param mode 执行模式（为空时不计入模式统计）
+     * @param executionTimeNanos 执行耗时（纳秒）
      */
-    public void recordCall(String functionName, long executionTimeMs) {
-        // 增加调用次数
-        callCounts.computeIfAbsent(functionName, k -> new AtomicLong(0))
-                .incrementAndGet();
+    public void recordCall(String functionName, int scriptVersion, LuaExecutionMode mode, long executionTimeNanos) {
+        FunctionMetrics metrics = metricsOf(functionName);
+        metrics.latency.record(executionTimeNanos);
+        metrics.touch();
 
-        // 累加总耗时
-        totalExecutionTime.computeIfAbsent(functionName, k -> new AtomicLong(0))
-                .addAndGet(executionTimeMs);
+        // 同一版本的执行模式固定，模式统计由各版本数据汇总得出，热路径上无需单独计数
+        VersionMetrics version = metrics.version(scriptVersion);
+        version.latency.record(executionTimeNanos);
+        if (mode != null) {
+            if (version.mode != mode) {
+                version.mode = mode;
+            }
+            if (activeMode != mode) {
+                activeMode = mode;
+            }
+        }
+    }
 
-        // 更新最后调用时间
-        lastCallTime.put(functionName, System.currentTimeMillis());
+    /**
+     * 记录一次 Lua 执行失败、降级到 Java 实现
+     *
+     * @param functionName 函数名
+     * @param scriptVersion 失败时的脚本版本号
+     */
+    public void recordFallback(String functionName, int scriptVersion) {
+        FunctionMetrics metrics = metricsOf(functionName);
+        metrics.fallbacks.increment();
+        metrics.version(scriptVersion).fallbacks.increment();
+    }
+
+    /**
+     * 记录一次 Lua 执行超出指令数 / 时间预算被中断
+     *
+     * @param functionName 函数名
+     * @param scriptVersion 超限时的脚本版本号
+     */
+    public void recordBudgetBreach(String functionName, int scriptVersion) {
+        FunctionMetrics metrics = metricsOf(functionName);
+        metrics.budgetBreaches.increment();
+        metrics.version(scriptVersion).budgetBreaches.increment();
+    }
+
+    private FunctionMetrics metricsOf(String functionName) {
+        FunctionMetrics metrics = functions.get(functionName);
+        return metrics != null ? metrics : functions.computeIfAbsent(functionName, k -> new FunctionMetrics());
+    }
+
+    /**
+     * 获取当前生效的执行模式（尚无调用时返回 null）
+     */
+    public LuaExecutionMode getActiveMode() {
+        return activeMode;
     }
 
     /**
@@ -54,8 +106,8 @@ public class LuaPerformanceMonitor {
      * @return 调用次数
      */
     public long getCallCount(String functionName) {
-        AtomicLong count = callCounts.get(functionName);
-        return count != null ? count.get() : 0;
+        FunctionMetrics metrics = functions.get(functionName);
+        return metrics != null ? metrics.latency.getCount() : 0;
     }
 
     /**
@@ -64,11 +116,27 @@ public class LuaPerformanceMonitor {
      * @return 所有函数的总调用次数
      */
     public long getTotalCallCount() {
-        return callCounts.values().stream()
-                .mapToLong(AtomicLong::get)
+        return functions.values().stream()
+                .mapToLong(m -> m.latency.getCount())
                 .sum();
     }
 
+    /**
+     * 获取函数降级到 Java 的次数
+     */
+    public long getFallbackCount(String functionName) {
+        FunctionMetrics metrics = functions.get(functionName);
+        return metrics != null ? metrics.fallbacks.sum() : 0;
+    }
+
+    /**
+     * 获取函数超出执行预算的次数
+     */
+    public long getBudgetBreachCount(String functionName) {
+        FunctionMetrics metrics = functions.get(functionName);
+        return metrics != null ? metrics.budgetBreaches.sum() : 0;
+    }
+
     /**
      * 获取函数平均执行时间
      *
@@ -76,17 +144,8 @@ public class LuaPerformanceMonitor {
      * @return 平均耗时（毫秒），如果没有调用记录则返回0
      */
     public double getAverageExecutionTime(String functionName) {
-        long count = getCallCount(functionName);
-        if (count == 0) {
-            return 0.0;
-        }
-
-        AtomicLong totalTime = totalExecutionTime.get(functionName);
-        if (totalTime == null) {
-            return 0.0;
-        }
-
-        return (double) totalTime.get() / count;
+        FunctionMetrics metrics = functions.get(functionName);
+        return metrics != null ? metrics.latency.getMean() / 1_000_000.0 : 0.0;
     }
 
     /**
@@ -97,31 +156,172 @@ public class LuaPerformanceMonitor {
     public Map<String, FunctionStats> getAllStats() {
         Map<String, FunctionStats> result = new ConcurrentHashMap<>();
 
-        for (String functionName : callCounts.keySet()) {
-            long count = getCallCount(functionName);
-            double avgTime = getAverageExecutionTime(functionName);
-            Long lastCall = lastCallTime.get(functionName);
+        for (Map.Entry<String, FunctionMetrics> entry : functions.entrySet()) {
+            FunctionMetrics metrics = entry.getValue();
+            StripedHistogram latency = metrics.latency;
+            long lastCall = metrics.lastCallTime;
 
             FunctionStats stats = new FunctionStats(
-                    functionName,
-                    count,
-                    avgTime,
-                    lastCall
+                    entry.getKey(),
+                    latency.getCount(),
+                    latency.getMean() / 1_000_000.0,
+                    lastCall > 0 ? lastCall : null,
+                    toMicros(latency.getMean()),
+                    toMicros(latency.getPercentile(50)),
+                    toMicros(latency.getPercentile(99)),
+                    toMicros(latency.getPercentile(99.9)),
+                    toMicros(latency.getMax()),
+                    metrics.fallbacks.sum(),
+                    metrics.budgetBreaches.sum()
             );
 
-            result.put(functionName, stats);
+            result.put(entry.getKey(), stats);
         }
 
         return result;
     }
 
+    /**
+     * 获取各函数按脚本版本划分的统计（版本号倒序）
+     * 每项包含 version / callCount / fallbackCount / budgetBreachCount / latencyNanos（count、mean、p50、p90、p99、p999、max）
+     *
+     * @return Map，Key 是函数名
+     */
+    public Map<String, List<Map<String, Object>>> getVersionStats() {
+        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, FunctionMetrics> entry : functions.entrySet()) {
+            List<VersionMetrics> versions = new ArrayList<>(entry.getValue().versions.values());
+            versions.sort(Comparator.comparingInt((VersionMetrics v) -> v.version).reversed());
+
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (VersionMetrics version : versions) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("version", version.version);
+                stats.put("mode", version.mode);
+                stats.put("callCount", version.latency.getCount());
+                stats.put("fallbackCount", version.fallbacks.sum());
+                stats.put("budgetBreachCount", version.budgetBreaches.sum());
+                stats.put("latencyNanos", version.latency.snapshot());
+                list.add(stats);
+            }
+            result.put(entry.getKey(), list);
+        }
+        return result;
+    }
+
+    /**
+     * 获取各函数在不同执行模式下的平均耗时与 LuaJC 加速比
+     * 加速比 = 解释执行平均耗时 / LuaJC 平均耗时，只有两种模式都有调用记录时才计算
+     * 数据来自保留的各版本统计
+     *
+     * @return Map，Key 是函数名
+     */
+    public Map<String, Map<String, Object>> getModeStats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, FunctionMetrics> entry : functions.entrySet()) {
+            long[] counts = new long[LuaExecutionMode.values().length];
+            long[] nanos = new long[counts.length];
+            for (VersionMetrics version : entry.getValue().versions.values()) {
+                LuaExecutionMode mode = version.mode;
+                if (mode != null) {
+                    counts[mode.ordinal()] += version.latency.getCount();
+                    nanos[mode.ordinal()] += version.latency.getSum();
+                }
+            }
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            for (LuaExecutionMode mode : LuaExecutionMode.values()) {
+                Map<String, Object> modeStats = new LinkedHashMap<>();
+                modeStats.put("callCount", counts[mode.ordinal()]);
+                modeStats.put("averageMicros", toMicros(averageOf(counts, nanos, mode)));
+                stats.put(mode.name(), modeStats);
+            }
+
+            double interpreted = averageOf(counts, nanos, LuaExecutionMode.INTERPRETER);
+            double compiled = averageOf(counts, nanos, LuaExecutionMode.LUAJC);
+            stats.put("luajcSpeedup", interpreted > 0 && compiled > 0
+                    ? Math.round(interpreted / compiled * 100) / 100.0 : null);
+
+            result.put(entry.getKey(), stats);
+        }
+        return result;
+    }
+
     /**
      * 重置所有统计数据
      */
     public void resetStats() {
-        callCounts.clear();
-        totalExecutionTime.clear();
-        lastCallTime.clear();
+        functions.clear();
+    }
+
+    private static double averageOf(long[] counts, long[] nanos, LuaExecutionMode mode) {
+        long count = counts[mode.ordinal()];
+        return count == 0 ? 0.0 : (double) nanos[mode.ordinal()] / count;
+    }
+
+    private static double toMicros(double nanos) {
+        return Math.round(nanos / 10.0) / 100.0;
+    }
+
+    /**
+     * 单个函数的统计数据
+     */
+    private static class FunctionMetrics {
+        final StripedHistogram latency = new StripedHistogram();
+        final LongAdder fallbacks = new LongAdder();
+        final LongAdder budgetBreaches = new LongAdder();
+        final Map<Integer, VersionMetrics> versions = new ConcurrentHashMap<>();
+
+        // 最近使用的版本（热路径上绝大多数调用命中，免去一次 Map 查找）
+        volatile VersionMetrics latestVersion;
+        // 最后调用时间，按秒更新，避免每次调用都写共享变量
+        volatile long lastCallTime;
+
+        void touch() {
+            long now = System.currentTimeMillis();
+            if (now - lastCallTime >= 1000) {
+                lastCallTime = now;
+            }
+        }
+
+        VersionMetrics version(int version) {
+            VersionMetrics latest = latestVersion;
+            if (latest != null && latest.version == version) {
+                return latest;
+            }
+            VersionMetrics metrics = versions.computeIfAbsent(version, VersionMetrics::new);
+            if (latest == null || version > latest.version) {
+                latestVersion = metrics;
+                trimVersions();
+            }
+            return metrics;
+        }
+
+        private void trimVersions() {
+            if (versions.size() <= MAX_VERSIONS_PER_FUNCTION) {
+                return;
+            }
+            versions.keySet().stream()
+                    .sorted(Comparator.reverseOrder())
+                    .skip(MAX_VERSIONS_PER_FUNCTION)
+                    .forEach(versions::remove);
+        }
+    }
+
+    /**
+     * 单个函数在某一脚本版本下的统计数据
+     */
+    private static class VersionMetrics {
+        final int version;
+        final StripedHistogram latency = new StripedHistogram();
+        final LongAdder fallbacks = new LongAdder();
+        final LongAdder budgetBreaches = new LongAdder();
+        // 该版本的执行模式（首次调用时记录）
+        volatile LuaExecutionMode mode;
+
+        VersionMetrics(int version) {
+            this.version = version;
+        }
     }
 
     /**
@@ -132,13 +332,30 @@ public class LuaPerformanceMonitor {
         private final long callCount;
         private final double averageExecutionTime;
         private final Long lastCallTime;
+        private final double averageMicros;
+        private final double p50Micros;
+        private final double p99Micros;
+        private final double p999Micros;
+        private final double maxMicros;
+        private final long fallbackCount;
+        private final long budgetBreachCount;
 
         public FunctionStats(String functionName, long callCount,
-                             double averageExecutionTime, Long lastCallTime) {
+                             double averageExecutionTime, Long lastCallTime,
+                             double averageMicros, double p50Micros, double p99Micros,
+                             double p999Micros, double maxMicros, long fallbackCount,
+                             long budgetBreachCount) {
             this.functionName = functionName;
             this.callCount = callCount;
             this.averageExecutionTime = averageExecutionTime;
             this.lastCallTime = lastCallTime;
+            this.averageMicros = averageMicros;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.p999Micros = p999Micros;
+            this.maxMicros = maxMicros;
+            this.fallbackCount = fallbackCount;
+            this.budgetBreachCount = budgetBreachCount;
         }
 
         public String getFunctionName() {
@@ -149,6 +366,9 @@ public class LuaPerformanceMonitor {
             return callCount;
         }
 
+        /**
+         * 平均耗时（毫秒）
+         */
         public double getAverageExecutionTime() {
             return averageExecutionTime;
         }
@@ -156,5 +376,33 @@ public class LuaPerformanceMonitor {
         public Long getLastCallTime() {
             return lastCallTime;
         }
+
+        public double getAverageMicros() {
+            return averageMicros;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getP999Micros() {
+            return p999Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getFallbackCount() {
+            return fallbackCount;
+        }
+
+        public long getBudgetBreachCount() {
+            return budgetBreachCount;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.enums.LuaExecutionMode;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaClosure;
+import org.luaj.vm2.LuaFunction;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Prototype;
+
+/**
+ * 已编译的 Lua 脚本版本（不可变）
+ * 同一版本的 Prototype 只编译一次，由各线程的 Globals 分别实例化执行，线程之间不共享任何 Lua 运行时状态
+ * 若开启了 LuaJC，compiledChunk 为脚本主体编译出的 JVM 类，各线程各自 new 一个实例执行
+ */
+public final class LuaScriptVersion {
+
+    private final String scriptPath;
+    private final int version;
+    private final Prototype prototype;
+    private final Class<? extends LuaFunction> compiledChunk;
+    private final long loadedAt;
+
+    public LuaScriptVersion(String scriptPath, int version, Prototype prototype,
+                            Class<? extends LuaFunction> compiledChunk) {
+        this.scriptPath = scriptPath;
+        this.version = version;
+        this.prototype = prototype;
+        this.compiledChunk = compiledChunk;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 返回仅使用解释器执行的同版本副本（LuaJC 产物无法运行时降级使用）
+     */
+    public LuaScriptVersion interpreted() {
+        return new LuaScriptVersion(scriptPath, version, prototype, null);
+    }
+
+    /**
+     * 在指定的 Globals 中执行脚本主体，定义脚本中的全局函数
+     */
+    public void loadInto(Globals globals) {
+        LuaValue chunk;
+        if (compiledChunk != null) {
+            try {
+                LuaFunction function = compiledChunk.getDeclaredConstructor().newInstance();
+                function.initupvalue1(globals);
+                chunk = function;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("LuaJC编译类实例化失败: " + compiledChunk.getName(), e);
+            }
+        } else {
+            chunk = new LuaClosure(prototype, globals);
+        }
+        chunk.call();
+    }
+
+    public LuaExecutionMode getMode() {
+        return compiledChunk != null ? LuaExecutionMode.LUAJC : LuaExecutionMode.INTERPRETER;
+    }
+
+    public String getScriptPath() {
+        return scriptPath;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Prototype getPrototype() {
+        return prototype;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
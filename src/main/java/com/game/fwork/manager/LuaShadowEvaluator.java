@@ -0,0 +1,446 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.enums.LuaShadowState;
+import com.game.fwork.util.AtomicHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lua 候选脚本影子评估器
+ * 热更新前先把磁盘上的新脚本编译为候选版本（不发布），战斗中的真实输入被复制一份交给独立的影子线程，
+ * 由影子线程分别在线上版本与候选版本上计算，对比输出分布（均值、标准差）与耗时。
+ * 样本数达到要求且差异在容忍范围内后，候选版本可自动发布，或由管理员在后台手动发布。
+ *
+ * 关键路径上只有一次 volatile 读取和一次非阻塞提交，影子线程忙不过来时直接丢弃样本，不影响战斗计算
+ * 线上与候选版本都在影子线程自己的 Globals 中执行，两者耗时在同一线程、同一条件下测得，可直接比较
+ */
+@Component
+public class LuaShadowEvaluator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LuaShadowEvaluator.class);
+
+    // 自动发布时每隔多少个样本检查一次是否达标
+    private static final int AUTO_PROMOTE_CHECK_INTERVAL = 256;
+
+    @Autowired
+    private LuaEngineManager luaEngineManager;
+
+    @Value("${lua.shadow.queue-capacity:4096}")
+    private int queueCapacity;
+
+    // 每个函数至少需要的样本数
+    @Value("${lua.shadow.min-samples:1000}")
+    private long minSamples;
+
+    // 输出均值允许的相对偏差
+    @Value("${lua.shadow.max-mean-deviation:0.05}")
+    private double maxMeanDeviation;
+
+    // 候选版本平均耗时 / 线上版本平均耗时的上限
+    @Value("${lua.shadow.max-latency-ratio:1.5}")
+    private double maxLatencyRatio;
+
+    // 达标后是否自动发布
+    @Value("${lua.shadow.auto-promote:false}")
+    private boolean autoPromote;
+
+    /**
+     * 当前评估会话（没有评估时为 null）
+     */
+    private volatile Session session;
+
+    private ThreadPoolExecutor worker;
+
+    @PostConstruct
+    public void init() {
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "lua-shadow");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    // 队列已满：丢弃样本并计数
+                    Session current = session;
+                    if (current != null) {
+                        current.dropped.increment();
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * 开始评估：编译磁盘上的脚本作为候选版本，与当前线上版本对比
+     * 已有评估会话时会被新的会话替换
+     */
+    public synchronized Map<String, Object> start(String scriptPath) {
+        LuaScriptVersion baseline = luaEngineManager.getCurrentVersion(scriptPath);
+        if (baseline == null) {
+            throw new IllegalStateException("线上脚本尚未加载: " + scriptPath);
+        }
+        LuaScriptVersion candidate = luaEngineManager.compileCandidate(scriptPath);
+
+        Session previous = session;
+        if (previous != null && previous.state == LuaShadowState.RUNNING) {
+            previous.state = LuaShadowState.CANCELLED;
+        }
+        session = new Session(baseline, candidate);
+        logger.info("开始影子评估: {}, 线上版本={}, 候选版本={}",
+                scriptPath, baseline.getVersion(), candidate.getVersion());
+        return getStatus();
+    }
+
+    /**
+     * 提交一次伤害计算的输入（由战斗线程调用，不阻塞）
+     */
+    public void offerDamage(String scriptPath, int attackerAttack, int defenderDefense,
+                            int attackerCrit, int defenderDodge, boolean defenderDefending,
+                            double skillMultiplier, double skillDefBreak) {
+        Session current = session;
+        if (current == null || current.state != LuaShadowState.RUNNING || !current.scriptPath.equals(scriptPath)) {
+            return;
+        }
+        worker.execute(() -> current.evaluate("calculateDamage",
+                frame -> LuaEngineManager.bindDamage(frame, attackerAttack, defenderDefense, attackerCrit,
+                        defenderDodge, defenderDefending, skillMultiplier, skillDefBreak)));
+    }
+
+    /**
+     * 提交一次治疗计算的输入（由战斗线程调用，不阻塞）
+     */
+    public void offerHeal(String scriptPath, int healerMaxHp, double skillMultiplier) {
+        Session current = session;
+        if (current == null || current.state != LuaShadowState.RUNNING || !current.scriptPath.equals(scriptPath)) {
+            return;
+        }
+        worker.execute(() -> current.evaluate("calculateHeal",
+                frame -> LuaEngineManager.bindHeal(frame, healerMaxHp, skillMultiplier)));
+    }
+
+    /**
+     * 发布候选版本
+     *
+     * @param force 为 true 时不检查评估结果（管理员确认后强制发布）
+     */
+    public synchronized Map<String, Object> promote(boolean force) {
+        Session current = session;
+        if (current == null || current.state != LuaShadowState.RUNNING) {
+            throw new IllegalStateException("没有进行中的影子评估");
+        }
+        List<String> reasons = current.check();
+        if (!force && !reasons.isEmpty()) {
+            throw new IllegalStateException("候选脚本未达标: " + String.join("; ", reasons));
+        }
+        doPromote(current);
+        if (current.state != LuaShadowState.PROMOTED) {
+            throw new IllegalStateException("线上版本已被其他热更新替换，评估已失效");
+        }
+        return getStatus();
+    }
+
+    /**
+     * 取消评估
+     */
+    public synchronized void cancel() {
+        Session current = session;
+        if (current != null && current.state == LuaShadowState.RUNNING) {
+            current.state = LuaShadowState.CANCELLED;
+            logger.info("影子评估已取消: {}, 候选版本={}", current.scriptPath, current.candidate.getVersion());
+        }
+    }
+
+    /**
+     * 获取评估状态与各函数的对比结果
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Session current = session;
+        if (current == null) {
+            status.put("active", false);
+            return status;
+        }
+        current.expireIfBaselineChanged();
+
+        List<String> reasons = current.check();
+        status.put("active", current.state == LuaShadowState.RUNNING);
+        status.put("state", current.state);
+        status.put("stateDescription", current.state.getDescription());
+        status.put("scriptPath", current.scriptPath);
+        status.put("baselineVersion", current.baseline.getVersion());
+        status.put("candidateVersion", current.candidate.getVersion());
+        status.put("startedAt", current.startedAt);
+        status.put("droppedSamples", current.dropped.sum());
+        status.put("withinTolerance", reasons.isEmpty());
+        status.put("reasons", reasons);
+        status.put("autoPromote", autoPromote);
+        status.put("minSamples", minSamples);
+        status.put("maxMeanDeviation", maxMeanDeviation);
+        status.put("maxLatencyRatio", maxLatencyRatio);
+
+        Map<String, Object> functions = new LinkedHashMap<>();
+        for (Map.Entry<String, Comparison> entry : current.comparisons.entrySet()) {
+            functions.put(entry.getKey(), entry.getValue().toMap());
+        }
+        status.put("functions", functions);
+        return status;
+    }
+
+    private void doPromote(Session current) {
+        if (luaEngineManager.promote(current.candidate, current.baseline.getVersion())) {
+            current.state = LuaShadowState.PROMOTED;
+        } else {
+            current.state = LuaShadowState.EXPIRED;
+        }
+    }
+
+    /**
+     * 在影子线程上检查是否达到自动发布条件
+     */
+    private synchronized void tryAutoPromote(Session current) {
+        if (current != session || current.state != LuaShadowState.RUNNING || !current.check().isEmpty()) {
+            return;
+        }
+        logger.info("候选脚本影子评估达标，自动发布: {}, version={}",
+                current.scriptPath, current.candidate.getVersion());
+        doPromote(current);
+    }
+
+    /**
+     * 向调用帧写入参数
+     */
+    @FunctionalInterface
+    private interface Binder {
+        LuaCallFrame bind(LuaCallFrame frame);
+    }
+
+    /**
+     * 一次评估会话：一个线上版本 vs 一个候选版本
+     * Globals 与调用帧只在影子线程中创建和使用
+     */
+    private final class Session {
+        final String scriptPath;
+        final LuaScriptVersion baseline;
+        final LuaScriptVersion candidate;
+        final long startedAt = System.currentTimeMillis();
+        final Map<String, Comparison> comparisons = new ConcurrentHashMap<>();
+        final LongAdder dropped = new LongAdder();
+        volatile LuaShadowState state = LuaShadowState.RUNNING;
+
+        // 以下字段只由影子线程访问
+        private Globals baselineGlobals;
+        private Globals candidateGlobals;
+        private final Map<String, LuaCallFrame> baselineFrames = new LinkedHashMap<>();
+        private final Map<String, LuaCallFrame> candidateFrames = new LinkedHashMap<>();
+        private long evaluated;
+
+        Session(LuaScriptVersion baseline, LuaScriptVersion candidate) {
+            this.scriptPath = baseline.getScriptPath();
+            this.baseline = baseline;
+            this.candidate = candidate;
+        }
+
+        void evaluate(String functionName, Binder binder) {
+            if (state != LuaShadowState.RUNNING || expireIfBaselineChanged()) {
+                return;
+            }
+            Comparison comparison = comparisons.computeIfAbsent(functionName, k -> new Comparison());
+
+            long startNanos = System.nanoTime();
+            try {
+                int output = binder.bind(baselineFrame(functionName)).invokeInt();
+                comparison.live.record(output, System.nanoTime() - startNanos);
+            } catch (Exception e) {
+                comparison.live.errors.increment();
+                baselineGlobals = null;
+                baselineFrames.clear();
+            }
+
+            startNanos = System.nanoTime();
+            try {
+                int output = binder.bind(candidateFrame(functionName)).invokeInt();
+                comparison.candidate.record(output, System.nanoTime() - startNanos);
+            } catch (Exception e) {
+                comparison.candidate.errors.increment();
+                candidateGlobals = null;
+                candidateFrames.clear();
+                if (comparison.candidate.errors.sum() == 1) {
+                    logger.warn("候选脚本执行出错: {}#{} v{}", scriptPath, functionName, candidate.getVersion(), e);
+                }
+            }
+
+            if (autoPromote && ++evaluated % AUTO_PROMOTE_CHECK_INTERVAL == 0) {
+                tryAutoPromote(this);
+            }
+        }
+
+        private LuaCallFrame baselineFrame(String functionName) {
+            if (baselineGlobals == null) {
+                baselineGlobals = luaEngineManager.createIsolatedGlobals(baseline);
+            }
+            return baselineFrames.computeIfAbsent(functionName, k -> frameOf(baselineGlobals, k));
+        }
+
+        private LuaCallFrame candidateFrame(String functionName) {
+            if (candidateGlobals == null) {
+                candidateGlobals = luaEngineManager.createIsolatedGlobals(candidate);
+            }
+            return candidateFrames.computeIfAbsent(functionName, k -> frameOf(candidateGlobals, k));
+        }
+
+        private LuaCallFrame frameOf(Globals globals, String functionName) {
+            LuaValue function = globals.get(functionName);
+            if (function.isnil()) {
+                throw new RuntimeException("Lua函数不存在: " + functionName);
+            }
+            return new LuaCallFrame(function, globals);
+        }
+
+        /**
+         * 线上版本已被其他热更新替换时标记为失效
+         */
+        boolean expireIfBaselineChanged() {
+            if (state == LuaShadowState.RUNNING
+                    && luaEngineManager.getScriptVersion(scriptPath) != baseline.getVersion()) {
+                state = LuaShadowState.EXPIRED;
+                logger.info("线上脚本已变化，影子评估失效: {}, 候选版本={}", scriptPath, candidate.getVersion());
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 检查评估结果，返回未达标的原因（为空表示达标）
+         */
+        List<String> check() {
+            List<String> reasons = new ArrayList<>();
+            if (comparisons.isEmpty()) {
+                reasons.add("暂无样本");
+            }
+            for (Map.Entry<String, Comparison> entry : comparisons.entrySet()) {
+                String name = entry.getKey();
+                Comparison comparison = entry.getValue();
+                long samples = comparison.candidate.count();
+                if (comparison.candidate.errors.sum() > 0) {
+                    reasons.add(name + " 候选版本执行出错 " + comparison.candidate.errors.sum() + " 次");
+                }
+                if (samples < minSamples) {
+                    reasons.add(name + " 样本不足 (" + samples + "/" + minSamples + ")");
+                    continue;
+                }
+                double deviation = comparison.meanDeviation();
+                if (deviation > maxMeanDeviation) {
+                    reasons.add(String.format("%s 输出均值偏差 %.2f%% 超过 %.2f%%",
+                            name, deviation * 100, maxMeanDeviation * 100));
+                }
+                double ratio = comparison.latencyRatio();
+                if (ratio > maxLatencyRatio) {
+                    reasons.add(String.format("%s 耗时为线上版本的 %.2f 倍，超过 %.2f 倍",
+                            name, ratio, maxLatencyRatio));
+                }
+            }
+            return reasons;
+        }
+    }
+
+    /**
+     * 单个函数的线上 / 候选对比数据
+     */
+    private static final class Comparison {
+        final Side live = new Side();
+        final Side candidate = new Side();
+
+        double meanDeviation() {
+            double liveMean = live.mean();
+            return Math.abs(candidate.mean() - liveMean) / Math.max(Math.abs(liveMean), 1.0);
+        }
+
+        double latencyRatio() {
+            double liveNanos = live.latency.getMean();
+            return liveNanos > 0 ? candidate.latency.getMean() / liveNanos : 0.0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("samples", candidate.count());
+            map.put("live", live.toMap());
+            map.put("candidate", candidate.toMap());
+            map.put("meanDeviation", Math.round(meanDeviation() * 10000) / 10000.0);
+            map.put("latencyRatio", Math.round(latencyRatio() * 100) / 100.0);
+            return map;
+        }
+    }
+
+    /**
+     * 一侧（线上或候选）的输出分布与耗时
+     * 只有影子线程写入，后台读取时加锁保证各字段一致
+     */
+    private static final class Side {
+        final AtomicHistogram latency = new AtomicHistogram();
+        final LongAdder errors = new LongAdder();
+        private long count;
+        private double sum;
+        private double sumOfSquares;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+
+        synchronized void record(int output, long nanos) {
+            count++;
+            sum += output;
+            sumOfSquares += (double) output * output;
+            min = Math.min(min, output);
+            max = Math.max(max, output);
+            latency.record(nanos);
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized double mean() {
+            return count == 0 ? 0.0 : sum / count;
+        }
+
+        synchronized double stddev() {
+            if (count == 0) {
+                return 0.0;
+            }
+            double mean = sum / count;
+            return Math.sqrt(Math.max(0.0, sumOfSquares / count - mean * mean));
+        }
+
+        synchronized Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", count);
+            map.put("mean", Math.round(mean() * 100) / 100.0);
+            map.put("stddev", Math.round(stddev() * 100) / 100.0);
+            map.put("min", count == 0 ? null : min);
+            map.put("max", count == 0 ? null : max);
+            map.put("errors", errors.sum());
+            map.put("averageMicros", Math.round(latency.getMean() / 10.0) / 100.0);
+            map.put("p99Micros", Math.round(latency.getPercentile(99) / 10.0) / 100.0);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.dto.MatchQueueItem;
+import com.game.fwork.util.AtomicHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 匹配系统监控指标
+ * 记录排队深度、等待时长、匹配分差、吞吐量与单轮匹配耗时，供管理后台展示
+ * 所有记录操作均为无锁原子操作，可在匹配线程中直接调用
+ */
+@Component
+public class MatchMetrics {
+
+    /**
+     * 排队深度统计的分段大小（每 100 分一段）
+     */
+    public static final int DEPTH_BUCKET_SIZE = 100;
+
+    /**
+     * 吞吐量滑动窗口（秒）
+     */
+    private static final int RATE_WINDOW_SECONDS = 60;
+
+    // 匹配成功时的等待时长（毫秒）
+    private final AtomicHistogram waitAtMatch = new AtomicHistogram();
+    // 超时移出队列时的等待时长（毫秒）
+    private final AtomicHistogram waitAtTimeout = new AtomicHistogram();
+    // 匹配双方的 ELO 分差
+    private final AtomicHistogram eloDiff = new AtomicHistogram();
+    // 单轮匹配耗时（微秒）
+    private final AtomicHistogram roundDuration = new AtomicHistogram();
+
+    private final AtomicLong totalMatches = new AtomicLong();
+    private final AtomicLong totalTimeouts = new AtomicLong();
+    private final AtomicLong totalBotMatches = new AtomicLong();
+    private final AtomicLong totalRounds = new AtomicLong();
+
+    // 每秒匹配数环形缓冲：slotSecond 记录该槽位对应的秒，slotCount 为该秒的匹配数
+    private final AtomicLongArray slotSecond = new AtomicLongArray(RATE_WINDOW_SECONDS);
+    private final AtomicLongArray slotCount = new AtomicLongArray(RATE_WINDOW_SECONDS);
+
+    // 最近一轮的排队快照（整体替换，读写无需加锁）
+    private volatile Map<Integer, Integer> queueDepth = new TreeMap<>();
+    private volatile int queueSize;
+
+    /**
+     * 记录一轮匹配的队列快照与耗时
+     *
+     * @param queue 本轮参与匹配的玩家
+     * @param durationNanos 本轮耗时（纳秒）
+     */
+    public void recordRound(List<MatchQueueItem> queue, long durationNanos) {
+        Map<Integer, Integer> depth = new TreeMap<>();
+        for (MatchQueueItem item : queue) {
+            depth.merge(item.getEloRating() / DEPTH_BUCKET_SIZE * DEPTH_BUCKET_SIZE, 1, Integer::sum);
+        }
+        this.queueDepth = depth;
+        this.queueSize = queue.size();
+
+        roundDuration.record(durationNanos / 1000);
+        totalRounds.incrementAndGet();
+    }
+
+    /**
+     * 记录一次匹配成功
+     */
+    public void recordMatch(MatchQueueItem player1, MatchQueueItem player2, long now) {
+        waitAtMatch.record(now - player1.getJoinTime());
+        waitAtMatch.record(now - player2.getJoinTime());
+        eloDiff.record(Math.abs(player1.getEloRating() - player2.getEloRating()));
+        totalMatches.incrementAndGet();
+        incrementRate(now / 1000);
+    }
+
+    /**
+     * 记录一次人机兜底匹配（等待时长同样计入匹配等待分布）
+     */
+    public void recordBotMatch(MatchQueueItem player, long now) {
+        waitAtMatch.record(now - player.getJoinTime());
+        totalBotMatches.incrementAndGet();
+    }
+
+    /**
+     * 记录一次匹配超时
+     */
+    public void recordTimeout(MatchQueueItem item, long now) {
+        waitAtTimeout.record(now - item.getJoinTime());
+        totalTimeouts.incrementAndGet();
+    }
+
+    /**
+     * 队列为空时清空排队快照，避免页面展示过期数据
+     */
+    public void clearQueueDepth() {
+        this.queueDepth = new TreeMap<>();
+        this.queueSize = 0;
+    }
+
+    private void incrementRate(long second) {
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        long stamp = slotSecond.get(slot);
+        if (stamp != second && slotSecond.compareAndSet(slot, stamp, second)) {
+            // 抢到新的一秒，清零旧计数（极端并发下可能丢失个别计数，统计用途可以接受）
+            slotCount.set(slot, 0);
+        }
+        slotCount.incrementAndGet(slot);
+    }
+
+    /**
+     * 最近 60 秒的平均每秒匹配数
+     */
+    public double getMatchesPerSecond() {
+        long nowSecond = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            long stamp = slotSecond.get(i);
+            if (stamp > nowSecond - RATE_WINDOW_SECONDS && stamp <= nowSecond) {
+                total += slotCount.get(i);
+            }
+        }
+        return (double) total / RATE_WINDOW_SECONDS;
+    }
+
+    /**
+     * 导出全部指标
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("queueSize", queueSize);
+        data.put("queueDepthByElo", queueDepth);
+        data.put("depthBucketSize", DEPTH_BUCKET_SIZE);
+        data.put("matchesPerSecond", Math.round(getMatchesPerSecond() * 100) / 100.0);
+        data.put("totalMatches", totalMatches.get());
+        data.put("totalTimeouts", totalTimeouts.get());
+        data.put("totalBotMatches", totalBotMatches.get());
+        data.put("totalRounds", totalRounds.get());
+        data.put("waitAtMatchMs", waitAtMatch.snapshot());
+        data.put("waitAtTimeoutMs", waitAtTimeout.snapshot());
+        data.put("eloDiff", eloDiff.snapshot());
+        data.put("roundDurationMicros", roundDuration.snapshot());
+        return data;
+    }
+
+    /**
+     * 重置累计指标（排队快照会在下一轮自动刷新）
+     */
+    public void reset() {
+        waitAtMatch.reset();
+        waitAtTimeout.reset();
+        eloDiff.reset();
+        roundDuration.reset();
+        totalMatches.set(0);
+        totalTimeouts.set(0);
+        totalBotMatches.set(0);
+        totalRounds.set(0);
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            slotSecond.set(i, 0);
+            slotCount.set(i, 0);
+        }
+    }
+}
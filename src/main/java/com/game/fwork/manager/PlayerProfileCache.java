@@ -0,0 +1,209 @@
+package com.game.fwork.manager;
+
+import cn.hutool.cache.impl.LRUCache;
+import com.game.fwork.entity.Character;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.entity.User;
+import com.game.fwork.repository.CharacterRepository;
+import com.game.fwork.repository.SkillRepository;
+import com.game.fwork.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 玩家档案缓存（读穿 + 写穿失效）
+ * 登录、匹配、开战、排行榜、好友列表、个人资料与弹幕共用，命中时均不访问数据库
+ * 容量与存活时间有上限：超出容量按 LRU 淘汰，加载后超过 TTL 自动过期并在下次访问时回源
+ * 结算直接写入新的战绩；装备、购买、封禁等其余修改在事务提交后使档案失效
+ */
+@Component
+public class PlayerProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayerProfileCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    // 最多缓存的玩家数
+    @Value("${player-profile.cache.max-size:10000}")
+    private int maxSize;
+
+    // 档案加载后的存活时间（毫秒），访问不会延长
+    @Value("${player-profile.cache.ttl-ms:1800000}")
+    private long ttlMs;
+
+    // userId -> 玩家档案
+    private LRUCache<Long, PlayerProfile> profiles;
+
+    // 正在加载的 userId -> 本次加载的令牌；写入或失效时移除该用户的令牌，
+    // 加载完成时令牌已不在的结果不放入缓存，避免旧数据覆盖新数据（只影响同一用户的加载）
+    private final Map<Long, Object> pendingLoads = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadMisses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    // 因容量淘汰、过期或失效而移除的条目数
+    private final AtomicLong removals = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        profiles = new LRUCache<>(maxSize, ttlMs);
+        profiles.setListener((userId, profile) -> removals.incrementAndGet());
+        logger.info("玩家档案缓存初始化: maxSize={}, ttlMs={}", maxSize, ttlMs);
+    }
+
+    /**
+     * 获取玩家档案，未命中时从数据库加载
+     *
+     * @return 档案；用户不存在时返回 null（没有激活角色的用户也会返回档案，见 hasCharacter）
+     */
+    public PlayerProfile get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        PlayerProfile profile = profiles.get(userId, false);
+        if (profile != null) {
+            return profile;
+        }
+
+        Object token = beginLoad(userId);
+        User user;
+        try {
+            user = userRepository.findById(userId).orElse(null);
+        } catch (RuntimeException e) {
+            pendingLoads.remove(userId, token);
+            throw e;
+        }
+        if (user == null) {
+            pendingLoads.remove(userId, token);
+            loadMisses.incrementAndGet();
+            return null;
+        }
+        return load(user, token);
+    }
+
+    /**
+     * 获取玩家档案，未命中时用调用方已查询到的用户行加载（排行榜、好友列表等已批量查出用户时使用）
+     */
+    public PlayerProfile get(User user) {
+        PlayerProfile profile = profiles.get(user.getId(), false);
+        return profile != null ? profile : load(user, beginLoad(user.getId()));
+    }
+
+    private Object beginLoad(Long userId) {
+        Object token = new Object();
+        pendingLoads.put(userId, token);
+        return token;
+    }
+
+    private PlayerProfile load(User user, Object token) {
+        PlayerProfile profile;
+        try {
+            Character character = characterRepository.findByUserIdAndIsActive(user.getId(), 1).orElse(null);
+            List<Integer> skillIds = character == null
+                    ? List.of()
+                    : skillRepository.findSkillIdsByCharacterId(character.getId());
+            profile = new PlayerProfile(user, character, skillIds);
+        } catch (RuntimeException e) {
+            pendingLoads.remove(user.getId(), token);
+            throw e;
+        }
+        loads.incrementAndGet();
+
+        synchronized (writeLock) {
+            if (pendingLoads.remove(user.getId(), token)) {
+                profiles.put(user.getId(), profile);
+            }
+        }
+        return profile;
+    }
+
+    /**
+     * 结算后写入新战绩（仅在已缓存时更新，未缓存的下次访问时会重新加载）
+     * 传入的均为结算事务中锁定行后计算出的绝对值
+     */
+    public void updateBattleStats(Long userId, int eloRating, int totalBattles, int winCount, int gold) {
+        synchronized (writeLock) {
+            pendingLoads.remove(userId);
+            PlayerProfile profile = profiles.get(userId, false);
+            if (profile != null) {
+                profiles.put(userId, profile.withBattleStats(eloRating, totalBattles, winCount, gold));
+            }
+        }
+    }
+
+    /**
+     * 使档案失效（封禁/解封、修改资料等）
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            pendingLoads.remove(userId);
+            profiles.remove(userId);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * 在当前事务提交后使档案失效；不在事务中时立即失效
+     * 事务内先失效的话，提交前的并发读取会把旧数据重新放回缓存
+     */
+    public void invalidateAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(userId);
+            }
+        });
+    }
+
+    public int size() {
+        return profiles.size();
+    }
+
+    /**
+     * 缓存统计（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        long hits = profiles.getHitCount();
+        long misses = profiles.getMissCount();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("size", profiles.size());
+        data.put("maxSize", maxSize);
+        data.put("ttlMs", ttlMs);
+        data.put("hits", hits);
+        data.put("misses", misses);
+        data.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        data.put("loads", loads.get());
+        data.put("loadMisses", loadMisses.get());
+        data.put("invalidations", invalidations.get());
+        data.put("removals", removals.get());
+        return data;
+    }
+}
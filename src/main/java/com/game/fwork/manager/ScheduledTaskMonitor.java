@@ -0,0 +1,116 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.util.AtomicHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 定时任务运行监控
+ * 包装 @Scheduled 任务体，统计每次执行耗时、超时执行（耗时超过调度周期）与被跳过的调度（因线程被占用而延误的周期数）
+ */
+@Component
+public class ScheduledTaskMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskMonitor.class);
+
+    private final Map<String, TaskStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 以 fixedRate 语义执行并记录：期望开始时间 = 上次开始时间 + 周期
+     */
+    public void runFixedRate(String taskName, long periodMs, Runnable task) {
+        run(taskName, periodMs, true, task);
+    }
+
+    /**
+     * 以 fixedDelay 语义执行并记录：期望开始时间 = 上次结束时间 + 间隔
+     */
+    public void runFixedDelay(String taskName, long delayMs, Runnable task) {
+        run(taskName, delayMs, false, task);
+    }
+
+    private void run(String taskName, long periodMs, boolean fixedRate, Runnable task) {
+        TaskStats s = stats.computeIfAbsent(taskName, k -> new TaskStats(periodMs, fixedRate));
+        long startMs = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        // 与期望开始时间比较，延误超过一个周期即视为跳过了调度
+        long lastMs = fixedRate ? s.lastStartMs : s.lastEndMs;
+        if (lastMs > 0) {
+            long lateness = startMs - (lastMs + periodMs);
+            if (lateness >= periodMs) {
+                long skipped = lateness / periodMs;
+                s.skippedTicks.addAndGet(skipped);
+                logger.warn("定时任务调度延误: task={}, 延误={}ms, 跳过{}个周期", taskName, lateness, skipped);
+            }
+        }
+        s.lastStartMs = startMs;
+
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            s.failures.incrementAndGet();
+            throw e;
+        } finally {
+            long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+            s.durationMs.record(durationMs);
+            s.runs.incrementAndGet();
+            s.lastEndMs = System.currentTimeMillis();
+            s.lastDurationMs = durationMs;
+
+            if (durationMs > periodMs) {
+                s.overruns.incrementAndGet();
+                logger.warn("定时任务执行超时: task={}, 耗时={}ms, 周期={}ms", taskName, durationMs, periodMs);
+            }
+        }
+    }
+
+    /**
+     * 导出全部任务的统计数据
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new TreeMap<>();
+        stats.forEach((name, s) -> {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("mode", s.fixedRate ? "fixedRate" : "fixedDelay");
+            item.put("periodMs", s.periodMs);
+            item.put("runs", s.runs.get());
+            item.put("overruns", s.overruns.get());
+            item.put("skippedTicks", s.skippedTicks.get());
+            item.put("failures", s.failures.get());
+            item.put("lastDurationMs", s.lastDurationMs);
+            item.put("durationMs", s.durationMs.snapshot());
+            data.put(name, item);
+        });
+        return data;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static final class TaskStats {
+        final long periodMs;
+        final boolean fixedRate;
+        final AtomicHistogram durationMs = new AtomicHistogram();
+        final AtomicLong runs = new AtomicLong();
+        final AtomicLong overruns = new AtomicLong();
+        final AtomicLong skippedTicks = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        volatile long lastStartMs;
+        volatile long lastEndMs;
+        volatile long lastDurationMs;
+
+        TaskStats(long periodMs, boolean fixedRate) {
+            this.periodMs = periodMs;
+            this.fixedRate = fixedRate;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.game.fwork.manager;
+
+import com.game.fwork.entity.Skill;
+import com.game.fwork.enums.SkillKind;
+
+/**
+ * 编译后的技能描述（不可变，享元）
+ * 由 SkillManager 在加载技能表时从 JPA 实体转换而来：类型解析为枚举、系数拆箱为基本类型、空值按表默认值补齐
+ * 所有战斗共享同一份实例，战斗热路径只读取这里的字段，不再接触可变的 Skill 实体
+ */
+public final class SkillDescriptor {
+
+    private final int id;
+    private final String name;
+    private final SkillKind kind;
+    private final int cooldown;
+    private final double multiplier;
+    private final double defenseMultiplier;
+    private final int manaCost;
+
+    public SkillDescriptor(int id, String name, SkillKind kind, int cooldown,
+                           double multiplier, double defenseMultiplier, int manaCost) {
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.cooldown = cooldown;
+        this.multiplier = multiplier;
+        this.defenseMultiplier = defenseMultiplier;
+        this.manaCost = manaCost;
+    }
+
+    /**
+     * 从数据库实体编译（空值取 t_skill 的列默认值：cooldown=0, multiplier=1, defense_multiplier=0, mana_cost=0）
+     */
+    public static SkillDescriptor of(Skill skill) {
+        return new SkillDescriptor(
+                skill.getId() != null ? skill.getId() : 0,
+                skill.getSkillName(),
+                SkillKind.fromCode(skill.getSkillType()),
+                skill.getCooldown() != null ? skill.getCooldown() : 0,
+                skill.getMultiplier() != null ? skill.getMultiplier() : 1.0,
+                skill.getDefenseMultiplier() != null ? skill.getDefenseMultiplier() : 0.0,
+                skill.getManaCost() != null ? skill.getManaCost() : 0);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SkillKind getKind() {
+        return kind;
+    }
+
+    public boolean isHeal() {
+        return kind == SkillKind.HEAL;
+    }
+
+    public int getCooldown() {
+        return cooldown;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public double getDefenseMultiplier() {
+        return defenseMultiplier;
+    }
+
+    public int getManaCost() {
+        return manaCost;
+    }
+}
@@ -20,9 +20,15 @@ public class SkillManager {
     @Autowired
     private SkillRepository skillRepository;
 
-    // 缓存所有技能 ID -> Skill
+    // 技能 ID 的上限（超出的技能不进入稠密数组，避免 ID 过大时数组浪费内存）
+    static final int MAX_DENSE_ID = 65535;
+
+    // 缓存所有技能 ID -> Skill（后台展示与配置查询用）
     private final Map<Integer, Skill> skillCache = new ConcurrentHashMap<>();
 
+    // 战斗热路径使用的编译后技能表：下标即技能 ID，刷新时整体替换，读取方无需加锁
+    private volatile SkillDescriptor[] descriptors = new SkillDescriptor[0];
+
     @PostConstruct
     public void init() {
         refresh();
@@ -39,10 +45,45 @@ public class SkillManager {
         for (Skill skill : skills) {
             skillCache.put(skill.getId(), skill);
         }
+        descriptors = compile(skills);
         logger.info("技能数据加载/刷新完成，共加载 {} 个技能", skills.size());
     }
 
+    /**
+     * 把技能实体编译为按 ID 下标存放的不可变描述数组
+     */
+    private SkillDescriptor[] compile(List<Skill> skills) {
+        int maxId = -1;
+        for (Skill skill : skills) {
+            Integer id = skill.getId();
+            if (id != null && id >= 0 && id <= MAX_DENSE_ID) {
+                maxId = Math.max(maxId, id);
+            }
+        }
+
+        SkillDescriptor[] table = new SkillDescriptor[maxId + 1];
+        for (Skill skill : skills) {
+            Integer id = skill.getId();
+            if (id == null || id < 0 || id > MAX_DENSE_ID) {
+                logger.warn("技能ID超出范围，战斗中将无法使用: id={}, name={}", id, skill.getSkillName());
+                continue;
+            }
+            table[id] = SkillDescriptor.of(skill);
+        }
+        return table;
+    }
+
     public Skill getSkill(Integer skillId) {
         return skillCache.get(skillId);
     }
+
+    /**
+     * 获取编译后的技能描述（战斗热路径使用）
+     *
+     * @return 技能描述，不存在返回 null
+     */
+    public SkillDescriptor getDescriptor(int skillId) {
+        SkillDescriptor[] table = descriptors;
+        return skillId >= 0 && skillId < table.length ? table[skillId] : null;
+    }
 }
\ No newline at end of file
@@ -1,12 +1,12 @@
 package com.game.fwork.netty.handler;
 
 import com.game.fwork.entity.Battle;
-import com.game.fwork.entity.User;
+import com.game.fwork.entity.PlayerProfile;
 import com.game.fwork.enums.BattleState;
 import com.game.fwork.manager.BattleManager;
+import com.game.fwork.manager.PlayerProfileCache;
 import com.game.fwork.netty.session.SessionManager;
 import com.game.fwork.proto.GameProto.*;
-import com.game.fwork.repository.UserRepository;
 import com.game.fwork.service.BattleService;
 import com.game.fwork.service.MatchService;
 import com.game.fwork.util.JwtUtil;
@@ -41,7 +41,7 @@ public class GameServerHandler extends SimpleChannelInboundHandler<GameMessage>
     @Autowired private MatchService matchService;
     @Autowired private BattleService battleService;
     @Autowired private BattleManager battleManager;
-    @Autowired private UserRepository userRepository;
+    @Autowired private PlayerProfileCache playerProfileCache;
 
     /**
      * 消息分发核心方法
@@ -80,16 +80,17 @@ public class GameServerHandler extends SimpleChannelInboundHandler<GameMessage>
 
             Long userId = jwtUtil.getUserIdFromToken(token);
 
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
+            // 读取玩家档案（未命中时回源加载并缓存，后续入队与开战直接读缓存）
+            PlayerProfile profile = playerProfileCache.get(userId);
+            if (profile == null) {
                 logger.error("用户不存在: userId={}", userId);
                 sendErrorAndClose(ctx, "用户不存在");
                 return;
             }
 
-            if (user.getStatus() == 0) {
+            if (profile.isBanned()) {
                 logger.warn("封禁用户尝试登录: userId={}, username={}",
-                        userId, user.getUsername());
+                        userId, profile.getUsername());
                 sendErrorAndClose(ctx, "账号已被封禁，请联系管理员");
                 return;
             }
@@ -102,7 +103,7 @@ public class GameServerHandler extends SimpleChannelInboundHandler<GameMessage>
             }
 
             logger.info("玩家登录成功: userId={}, username={}, IP={}",
-                    userId, user.getUsername(), ctx.channel().remoteAddress());
+                    userId, profile.getUsername(), ctx.channel().remoteAddress());
 
             LoginResponse response = LoginResponse.newBuilder()
                     .setSuccess(true)
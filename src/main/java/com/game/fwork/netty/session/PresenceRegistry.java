@@ -0,0 +1,222 @@
+package com.game.fwork.netty.session;
+
+import com.game.fwork.util.InstanceIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集群在线状态登记
+ * 每个在线玩家一个键 presence:user:{userId}，值为所在实例名并带 TTL，由所在实例定时心跳续期；
+ * 实例崩溃后它登记的玩家在一个 TTL 内自动过期，不需要重启清理，也不会误删其他实例的记录
+ * 任意实例都可以用一次 MGET 批量查询一组玩家是否在线（好友列表等）
+ * 上线/下线/心跳的 Redis 写入在单独的单线程队列中按提交顺序执行，不阻塞 Netty IO 线程
+ */
+@Component
+public class PresenceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceRegistry.class);
+
+    static final String PRESENCE_KEY_PREFIX = "presence:user:";
+
+    // 每批心跳续期的玩家数
+    private static final int HEARTBEAT_CHUNK = 1000;
+
+    /**
+     * KEYS: 玩家在线键；ARGV: 实例名
+     * 仅当玩家仍登记在本实例时才删除，避免玩家已在其他实例重新登录后被旧连接的断开误标为离线
+     */
+    private static final RedisScript<Long> REMOVE_IF_OWNER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+            "  return redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    /**
+     * KEYS: 玩家在线键；ARGV: 实例名, TTL（毫秒）
+     * 心跳续期：记录属于本实例或已过期时写入，已转到其他实例的不覆盖
+     */
+    private static final String REFRESH_IF_OWNER_SCRIPT =
+            "local owner = redis.call('GET', KEYS[1])\n" +
+            "if owner == false or owner == ARGV[1] then\n" +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])\n" +
+            "  return 1\n" +
+            "end\n" +
+            "return 0";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 本实例名称（未配置时按主机名加随机后缀生成，保证每个进程不同）
+    @Value("${presence.instance-id:}")
+    private String instanceId;
+
+    // 在线记录的存活时间，须大于心跳间隔的两倍
+    @Value("${presence.ttl-seconds:90}")
+    private long ttlSeconds;
+
+    // 写入队列容量，满时丢弃（上线由下一次心跳补登，下线由 TTL 兜底）
+    @Value("${presence.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor worker;
+
+    // 监控指标
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastHeartbeatUsers;
+    private volatile long lastHeartbeatMs;
+
+    @PostConstruct
+    public void init() {
+        instanceId = InstanceIds.resolve(instanceId);
+        worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "presence");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> dropped.incrementAndGet());
+        logger.info("在线状态登记初始化: instanceId={}, ttl={}s", instanceId, ttlSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * 登记玩家在本实例上线（异步）
+     */
+    public void markOnline(Long userId) {
+        worker.execute(() -> {
+            try {
+                stringRedisTemplate.opsForValue().set(key(userId), instanceId, ttlSeconds, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.error("登记在线状态失败: userId={}", userId, e);
+            }
+        });
+    }
+
+    /**
+     * 登记玩家下线（异步；玩家已转到其他实例时不处理）
+     */
+    public void markOffline(Long userId) {
+        worker.execute(() -> {
+            try {
+                stringRedisTemplate.execute(REMOVE_IF_OWNER_SCRIPT, List.of(key(userId)), instanceId);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.error("登记离线状态失败: userId={}", userId, e);
+            }
+        });
+    }
+
+    /**
+     * 为本实例的在线玩家续期（异步）
+     * 传入的集合在写入线程中才遍历，与排在前面的上线/下线保持先后顺序，已下线的玩家不会被续期回来
+     */
+    public void heartbeat(Collection<Long> localUserIds) {
+        worker.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                List<Long> chunk = new ArrayList<>(HEARTBEAT_CHUNK);
+                long users = 0;
+                for (Long userId : localUserIds) {
+                    chunk.add(userId);
+                    if (chunk.size() >= HEARTBEAT_CHUNK) {
+                        refreshChunk(chunk);
+                        users += chunk.size();
+                        chunk.clear();
+                    }
+                }
+                refreshChunk(chunk);
+                users += chunk.size();
+                lastHeartbeatUsers = users;
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.error("在线状态心跳失败: instanceId={}", instanceId, e);
+            } finally {
+                lastHeartbeatMs = System.currentTimeMillis() - start;
+            }
+        });
+    }
+
+    private void refreshChunk(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        String ttlMs = String.valueOf(TimeUnit.SECONDS.toMillis(ttlSeconds));
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (Long userId : userIds) {
+                redis.eval(REFRESH_IF_OWNER_SCRIPT, ReturnType.INTEGER, 1, key(userId), instanceId, ttlMs);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 批量查询在线状态（一次 MGET）
+     *
+     * @return userId -> 是否在线；Redis 不可用时抛出异常，由调用方降级
+     */
+    public Map<Long, Boolean> areOnline(Collection<Long> userIds) {
+        Map<Long, Boolean> result = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return result;
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            keys.add(key(id));
+        }
+        List<String> owners = stringRedisTemplate.opsForValue().multiGet(keys);
+        for (int i = 0; i < ids.size(); i++) {
+            result.put(ids.get(i), owners != null && owners.get(i) != null);
+        }
+        return result;
+    }
+
+    /**
+     * 在线状态登记指标（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("instanceId", instanceId);
+        data.put("ttlSeconds", ttlSeconds);
+        data.put("queued", worker.getQueue().size());
+        data.put("dropped", dropped.get());
+        data.put("failed", failed.get());
+        data.put("lastHeartbeatUsers", lastHeartbeatUsers);
+        data.put("lastHeartbeatMs", lastHeartbeatMs);
+        return data;
+    }
+
+    private static String key(Long userId) {
+        return PRESENCE_KEY_PREFIX + userId;
+    }
+}
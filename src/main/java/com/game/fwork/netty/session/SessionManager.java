@@ -1,9 +1,14 @@
 package com.game.fwork.netty.session;
 
+import com.game.fwork.config.SchedulerConfig;
+import com.game.fwork.manager.ScheduledTaskMonitor;
 import com.game.fwork.proto.GameProto.GameMessage;
 import io.netty.channel.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
@@ -12,6 +17,7 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Netty 会话管理器
  * 维护 UserId 与 Netty Channel 的映射关系，实现向指定用户推送消息
+ * 上线/下线同时登记到 PresenceRegistry，供其他实例批量查询在线状态，并定时心跳为本实例的在线玩家续期
  */
 @Component
 public class SessionManager {
@@ -31,6 +37,15 @@ public class SessionManager {
      */
     private final Map<Channel, Long> channelToUserId = new ConcurrentHashMap<>();
 
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
+    @Autowired
+    private ScheduledTaskMonitor scheduledTaskMonitor;
+
+    @Value("${presence.heartbeat-interval-ms:30000}")
+    private long presenceHeartbeatIntervalMs;
+
     /**
      * 添加会话
      * 包含“顶号”逻辑：如果该用户已有旧连接，强制关闭旧连接并通知旧客户端下线
@@ -58,6 +73,7 @@ public class SessionManager {
 
         // 建立新连接的反向映射
         channelToUserId.put(newChannel, userId);
+        presenceRegistry.markOnline(userId);
 
         logger.info("玩家上线: userId={}, 在线人数={}", userId, sessions.size());
     }
@@ -73,11 +89,24 @@ public class SessionManager {
 
         // 只有当 sessions Map 里的连接也是这个 channel 时才移除
         if (userId != null) {
-            sessions.remove(userId, channel);
+            if (sessions.remove(userId, channel)) {
+                presenceRegistry.markOffline(userId);
+            }
             logger.info("玩家下线: userId={}, 在线人数={}", userId, sessions.size());
         }
     }
 
+    /**
+     * 在线状态心跳：为本实例的在线玩家续期（独立调度器，Redis 写入在 PresenceRegistry 的写入线程中进行）
+     */
+    @Scheduled(fixedDelayString = "${presence.heartbeat-interval-ms:30000}",
+            initialDelayString = "${presence.heartbeat-interval-ms:30000}",
+            scheduler = SchedulerConfig.PRESENCE_SCHEDULER)
+    public void presenceHeartbeat() {
+        scheduledTaskMonitor.runFixedDelay("presenceHeartbeat", presenceHeartbeatIntervalMs,
+                () -> presenceRegistry.heartbeat(sessions.keySet()));
+    }
+
     /**
      * 发送消息给指定用户
      *
@@ -0,0 +1,13 @@
+package com.game.fwork.repository;
+
+import com.game.fwork.entity.BattleRecordLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 战斗日志数据访问接口
+ * 日志只通过 battle_id 按需读取（战斗详情、回放），不参与列表查询
+ */
+@Repository
+public interface BattleRecordLogRepository extends JpaRepository<BattleRecordLog, String> {
+}
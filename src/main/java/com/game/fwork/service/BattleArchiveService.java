@@ -0,0 +1,400 @@
+package com.game.fwork.service;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.entity.BattleRecordLog;
+import com.game.fwork.manager.BattleArchiveStore;
+import com.game.fwork.manager.ScheduledTaskMonitor;
+import com.game.fwork.util.BattleArchiveSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 战斗记录分区维护与冷归档任务
+ * t_battle_record 按 created_at 按月 RANGE 分区（见 sql/init.sql），本任务定期：
+ * 1. 提前创建未来几个月的分区（从 pmax 中拆分，pmax 为空时只修改元数据）
+ * 2. 把超过保留天数的记录连同 t_battle_log 中的日志写入本地段文件（BattleArchiveStore），再从热表删除
+ * 3. 删除已被搬空的历史分区
+ * 表未分区时跳过 1、3，归档照常进行
+ * 段文件先写出再删除热表数据；删除前中断时，下一轮开始会按最近一段的ID补删，不会重复归档
+ *
+ * 多实例部署：段文件写在本机目录，只有能读到这些文件的实例才能在战斗历史中看到已归档的记录，
+ * 因此默认关闭，只在一个归档节点上开启（或让所有实例挂载同一个共享目录）；
+ * 每轮执行前在 Redis 中抢占集群锁（SET NX PX），误在多个节点开启时同一时刻也只有一个节点归档，
+ * 不会把同一批记录写成两份段文件
+ */
+@Service
+public class BattleArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BattleArchiveService.class);
+
+    private static final String TABLE = "t_battle_record";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final String SELECT_RECORDS_SQL =
+            "SELECT id, battle_id, player1_id, player1_nickname, player1_char_id, " +
+            "player2_id, player2_nickname, player2_char_id, winner_id, end_reason, total_rounds, " +
+            "battle_duration, player1_final_hp, player1_elo_before, player1_elo_after, player2_final_hp, " +
+            "player2_elo_before, player2_elo_after, start_time, end_time, created_at " +
+            "FROM t_battle_record WHERE created_at < ? ORDER BY id LIMIT ?";
+
+    // 单条 DELETE ... IN 的最大行数
+    private static final int DELETE_CHUNK = 500;
+
+    static final String LOCK_KEY = "archive:battle:lock";
+
+    /**
+     * KEYS: 锁键；ARGV: 持有者标识
+     * 仅当锁仍由本轮持有时才释放，超时后被其他节点抢到的锁不会被误删
+     */
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then\n" +
+            "  return redis.call('DEL', KEYS[1])\n" +
+            "end\n" +
+            "return 0", Long.class);
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private BattleArchiveStore archiveStore;
+    @Autowired private ScheduledTaskMonitor scheduledTaskMonitor;
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${archive.battle.enabled:false}")
+    private boolean enabled;
+
+    // 集群锁的存活时间；本轮写段超过其一半时停止，剩余记录留到下一轮，锁不会在归档中途过期
+    @Value("${archive.battle.lock-ttl-ms:1800000}")
+    private long lockTtlMs;
+
+    // 热表保留天数（更早的记录进入归档）
+    @Value("${archive.battle.retention-days:90}")
+    private int retentionDays;
+
+    // 每个段文件的最大行数
+    @Value("${archive.battle.segment-rows:10000}")
+    private int segmentRows;
+
+    // 提前创建的分区月数
+    @Value("${archive.battle.partition-months-ahead:3}")
+    private int partitionMonthsAhead;
+
+    @Value("${archive.battle.interval-ms:3600000}")
+    private long intervalMs;
+
+    // 监控指标
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong droppedPartitions = new AtomicLong();
+    private final AtomicLong lockBusyRuns = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunMs;
+    private volatile String lastError;
+
+    @Scheduled(fixedDelayString = "${archive.battle.interval-ms:3600000}",
+            initialDelayString = "${archive.battle.initial-delay-ms:60000}")
+    public void archiveTask() {
+        if (!enabled) {
+            return;
+        }
+        scheduledTaskMonitor.runFixedDelay("battleArchive", intervalMs, this::runOnce);
+    }
+
+    /**
+     * 执行一轮分区维护与归档（其他节点持有集群锁时跳过本轮）
+     */
+    public synchronized void runOnce() {
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        String lockToken = UUID.randomUUID().toString();
+        boolean locked = false;
+        try {
+            locked = Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, lockToken, lockTtlMs, TimeUnit.MILLISECONDS));
+            if (!locked) {
+                lockBusyRuns.incrementAndGet();
+                logger.info("其他节点正在归档战斗记录，跳过本轮");
+                return;
+            }
+
+            List<String> partitions = listPartitions();
+            if (!partitions.isEmpty()) {
+                addFuturePartitions(partitions);
+            }
+
+            finishInterruptedSegment();
+            int archived = archiveBefore(cutoff, start + lockTtlMs / 2);
+
+            if (!partitions.isEmpty()) {
+                dropArchivedPartitions(listPartitions(), cutoff);
+            }
+            lastError = null;
+            if (archived > 0) {
+                logger.info("战斗记录归档完成: 本轮={}条, 截止={}, 耗时={}ms",
+                        archived, cutoff, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            lastError = String.valueOf(e.getMessage());
+            logger.error("战斗记录归档失败", e);
+        } finally {
+            if (locked) {
+                releaseLock(lockToken);
+            }
+            runs.incrementAndGet();
+            lastRunAt = LocalDateTime.now();
+            lastRunMs = System.currentTimeMillis() - start;
+        }
+    }
+
+    // ==================== 归档 ====================
+
+    private void releaseLock(String lockToken) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(LOCK_KEY), lockToken);
+        } catch (Exception e) {
+            // 释放失败时锁在 TTL 后自动过期
+            logger.warn("释放归档锁失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 把早于 cutoff 的记录按段写出并从热表删除
+     *
+     * @param deadline 超过该时间（毫秒）后不再开始新段
+     * @return 本轮归档的条数
+     */
+    private int archiveBefore(LocalDateTime cutoff, long deadline) throws IOException {
+        int total = 0;
+        while (System.currentTimeMillis() < deadline) {
+            List<BattleRecord> records = jdbcTemplate.query(SELECT_RECORDS_SQL, RECORD_MAPPER,
+                    Timestamp.valueOf(cutoff), segmentRows);
+            if (records.isEmpty()) {
+                break;
+            }
+            BattleArchiveSegment segment = archiveStore.append(records, loadLogs(records));
+
+            List<Long> ids = new ArrayList<>(records.size());
+            List<String> battleIds = new ArrayList<>(records.size());
+            for (BattleRecord record : records) {
+                ids.add(record.getId());
+                battleIds.add(record.getBattleId());
+            }
+            deleteFromHotTables(ids, battleIds);
+
+            total += records.size();
+            archivedRows.addAndGet(records.size());
+            logger.info("写出战斗归档段: file={}, 行数={}", segment.getFile().getFileName(), records.size());
+            if (records.size() < segmentRows) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private Map<String, BattleRecordLog> loadLogs(List<BattleRecord> records) {
+        Map<String, BattleRecordLog> logs = new HashMap<>();
+        List<Object> battleIds = new ArrayList<>(records.size());
+        for (BattleRecord record : records) {
+            battleIds.add(record.getBattleId());
+        }
+        for (int from = 0; from < battleIds.size(); from += DELETE_CHUNK) {
+            List<Object> chunk = battleIds.subList(from, Math.min(battleIds.size(), from + DELETE_CHUNK));
+            jdbcTemplate.query("SELECT battle_id, codec, log_data FROM t_battle_log WHERE battle_id IN (" +
+                    placeholders(chunk.size()) + ")", rs -> {
+                BattleRecordLog log = new BattleRecordLog();
+                log.setBattleId(rs.getString(1));
+                log.setCodec(rs.getInt(2));
+                log.setLogData(rs.getBytes(3));
+                logs.put(log.getBattleId(), log);
+            }, chunk.toArray());
+        }
+        return logs;
+    }
+
+    /**
+     * 在同一事务中删除记录与日志
+     */
+    private void deleteFromHotTables(List<Long> ids, List<String> battleIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK));
+                jdbcTemplate.update("DELETE FROM t_battle_record WHERE id IN (" + placeholders(chunk.size()) + ")",
+                        chunk.toArray());
+            }
+            for (int from = 0; from < battleIds.size(); from += DELETE_CHUNK) {
+                List<String> chunk = battleIds.subList(from, Math.min(battleIds.size(), from + DELETE_CHUNK));
+                jdbcTemplate.update("DELETE FROM t_battle_log WHERE battle_id IN (" + placeholders(chunk.size()) + ")",
+                        chunk.toArray());
+            }
+        });
+    }
+
+    /**
+     * 上一轮写出段后、删除热表数据前中断时，补删最近一段中仍留在热表的记录
+     */
+    private void finishInterruptedSegment() throws IOException {
+        BattleArchiveSegment latest = archiveStore.latest().orElse(null);
+        if (latest == null) {
+            return;
+        }
+        Integer leftover = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_battle_record WHERE id BETWEEN ? AND ?",
+                Integer.class, latest.getMinId(), latest.getMaxId());
+        if (leftover == null || leftover == 0) {
+            return;
+        }
+        long[] ids = latest.readIds();
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        deleteFromHotTables(idList, latest.readBattleIds());
+        logger.warn("补删已归档但未从热表删除的记录: file={}", latest.getFile().getFileName());
+    }
+
+    // ==================== 分区维护 ====================
+
+    /**
+     * 当前分区名（按顺序）；表未分区时为空
+     */
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                "ORDER BY PARTITION_ORDINAL_POSITION", String.class, TABLE);
+    }
+
+    /**
+     * 从 pmax 中拆出直到“当前月 + N”为止的月分区
+     */
+    private void addFuturePartitions(List<String> partitions) {
+        if (!partitions.contains("pmax")) {
+            logger.warn("{} 缺少 pmax 分区，跳过分区创建", TABLE);
+            return;
+        }
+        YearMonth last = null;
+        for (String name : partitions) {
+            YearMonth month = parsePartitionMonth(name);
+            if (month != null && (last == null || month.isAfter(last))) {
+                last = month;
+            }
+        }
+        YearMonth target = YearMonth.now().plusMonths(partitionMonthsAhead);
+        YearMonth next = last != null ? last.plusMonths(1) : YearMonth.now();
+        if (next.isAfter(target)) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO (");
+        for (YearMonth month = next; !month.isAfter(target); month = month.plusMonths(1)) {
+            sql.append("PARTITION ").append(month.format(PARTITION_NAME))
+                    .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append(" 00:00:00'), ");
+        }
+        sql.append("PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(sql.toString());
+        logger.info("创建战斗记录分区: {} ~ {}", next.format(PARTITION_NAME), target.format(PARTITION_NAME));
+    }
+
+    /**
+     * 删除整月都早于 cutoff 且已搬空的分区
+     */
+    private void dropArchivedPartitions(List<String> partitions, LocalDateTime cutoff) {
+        for (String name : partitions) {
+            YearMonth month = parsePartitionMonth(name);
+            if (month == null || month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)) {
+                continue;
+            }
+            List<Long> rows = jdbcTemplate.queryForList(
+                    "SELECT id FROM " + TABLE + " PARTITION (" + name + ") LIMIT 1", Long.class);
+            if (!rows.isEmpty()) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+            droppedPartitions.incrementAndGet();
+            logger.info("删除已归档的战斗记录分区: {}", name);
+        }
+    }
+
+    private static YearMonth parsePartitionMonth(String name) {
+        if (name == null || !name.matches("p\\d{6}")) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(name.substring(1, 5)), Integer.parseInt(name.substring(5, 7)));
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * 归档监控指标（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("enabled", enabled);
+        data.put("retentionDays", retentionDays);
+        data.put("runs", runs.get());
+        data.put("archivedRows", archivedRows.get());
+        data.put("droppedPartitions", droppedPartitions.get());
+        data.put("lockBusyRuns", lockBusyRuns.get());
+        data.put("lastRunAt", lastRunAt);
+        data.put("lastRunMs", lastRunMs);
+        data.put("lastError", lastError);
+        try {
+            data.put("partitions", listPartitions());
+        } catch (Exception e) {
+            data.put("partitionError", String.valueOf(e.getMessage()));
+        }
+        data.put("store", archiveStore.snapshot());
+        return data;
+    }
+
+    private static final RowMapper<BattleRecord> RECORD_MAPPER = (rs, rowNum) -> {
+        BattleRecord r = new BattleRecord();
+        r.setId(rs.getLong("id"));
+        r.setBattleId(rs.getString("battle_id"));
+        r.setPlayer1Id(rs.getLong("player1_id"));
+        r.setPlayer1Nickname(rs.getString("player1_nickname"));
+        r.setPlayer1CharId(rs.getObject("player1_char_id", Long.class));
+        r.setPlayer2Id(rs.getLong("player2_id"));
+        r.setPlayer2Nickname(rs.getString("player2_nickname"));
+        r.setPlayer2CharId(rs.getObject("player2_char_id", Long.class));
+        r.setWinnerId(rs.getObject("winner_id", Long.class));
+        r.setEndReason(rs.getString("end_reason"));
+        r.setTotalRounds(rs.getObject("total_rounds", Integer.class));
+        r.setBattleDuration(rs.getObject("battle_duration", Integer.class));
+        r.setPlayer1FinalHp(rs.getObject("player1_final_hp", Integer.class));
+        r.setPlayer1EloBefore(rs.getObject("player1_elo_before", Integer.class));
+        r.setPlayer1EloAfter(rs.getObject("player1_elo_after", Integer.class));
+        r.setPlayer2FinalHp(rs.getObject("player2_final_hp", Integer.class));
+        r.setPlayer2EloBefore(rs.getObject("player2_elo_before", Integer.class));
+        r.setPlayer2EloAfter(rs.getObject("player2_elo_after", Integer.class));
+        r.setStartTime(rs.getObject("start_time", LocalDateTime.class));
+        r.setEndTime(rs.getObject("end_time", LocalDateTime.class));
+        r.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        return r;
+    };
+}
@@ -0,0 +1,126 @@
+package com.game.fwork.service;
+
+import com.game.fwork.entity.BattleLog;
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.entity.BattleRecordLog;
+import com.game.fwork.manager.BattleArchiveStore;
+import com.game.fwork.repository.BattleRecordLogRepository;
+import com.game.fwork.repository.BattleRecordRepository;
+import com.game.fwork.util.BattleLogCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 战斗历史查询（热表 + 冷归档）
+ * 热表只保留近期记录，更早的记录在本地归档段中（见 BattleArchiveService）；
+ * 归档中的记录一定早于热表中的记录，分页时先取热表，不足的部分再从归档中按顺序补齐
+ */
+@Service
+public class BattleHistoryService {
+
+    @Autowired
+    private BattleRecordRepository battleRecordRepository;
+
+    @Autowired
+    private BattleRecordLogRepository battleRecordLogRepository;
+
+    @Autowired
+    private BattleArchiveStore archiveStore;
+
+    @Autowired
+    private BattleLogCodec battleLogCodec;
+
+    @Autowired
+    private BattleStatsService battleStatsService;
+
+    /**
+     * 分页查询玩家的战斗记录（按时间倒序，不含日志）
+     * 归档总数只读段文件头；本页已被热表填满时不读取归档记录
+     */
+    public Page<BattleRecord> findPlayerBattles(Long userId, int page, int size) throws IOException {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Page<BattleRecord> hot = battleRecordRepository.findByPlayer1IdOrPlayer2Id(userId, userId, pageRequest);
+
+        long archived = archiveStore.countByPlayer(userId);
+        if (archived == 0) {
+            return hot;
+        }
+
+        List<BattleRecord> content = new ArrayList<>(hot.getContent());
+        if (content.size() < size) {
+            // 本页超出热表部分，从归档中接着取
+            long archiveOffset = Math.max(0, pageRequest.getOffset() - hot.getTotalElements());
+            content.addAll(archiveStore.findByPlayer(userId, archiveOffset, size - content.size()));
+        }
+        return new PageImpl<>(content, pageRequest, hot.getTotalElements() + archived);
+    }
+
+    /**
+     * 玩家最近的 N 场战斗（不需要总数；热表已足够时不访问归档）
+     */
+    public List<BattleRecord> findRecentBattles(Long userId, int limit) throws IOException {
+        PageRequest pageRequest = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
+        List<BattleRecord> content = new ArrayList<>(
+                battleRecordRepository.findByPlayer1IdOrPlayer2Id(userId, userId, pageRequest).getContent());
+        if (content.size() < limit) {
+            content.addAll(archiveStore.findByPlayer(userId, 0, limit - content.size()));
+        }
+        return content;
+    }
+
+    /**
+     * 玩家的总战斗场数（热表 + 归档）
+     */
+    public long countPlayerBattles(Long userId) throws IOException {
+        return battleRecordRepository.countByPlayer1IdOrPlayer2Id(userId, userId) + archiveStore.countByPlayer(userId);
+    }
+
+    /**
+     * 按业务战斗ID查找记录，热表中没有时查归档
+     */
+    public Optional<BattleRecord> findByBattleId(String battleId) throws IOException {
+        Optional<BattleRecord> record = battleRecordRepository.findByBattleId(battleId);
+        return record.isPresent() ? record : archiveStore.findByBattleId(battleId);
+    }
+
+    /**
+     * 加载并解码战斗日志（热表没有时查归档），没有日志时返回空列表
+     */
+    public List<BattleLog> loadLogs(String battleId) throws IOException {
+        Optional<BattleRecordLog> log = battleRecordLogRepository.findById(battleId);
+        if (log.isEmpty()) {
+            log = archiveStore.findLog(battleId);
+        }
+        return log.isPresent()
+                ? battleLogCodec.decode(log.get().getCodec(), log.get().getLogData())
+                : new ArrayList<>();
+    }
+
+    /**
+     * 删除热表中的一场战斗（管理员功能）
+     * 记录、日志和统计扣减在同一事务中提交，任一步失败时全部回滚，避免统计与记录不一致
+     *
+     * @return 热表中存在该记录并已删除时返回 true
+     */
+    @Transactional
+    public boolean deleteBattle(String battleId) {
+        Optional<BattleRecord> record = battleRecordRepository.findByBattleId(battleId);
+        if (record.isEmpty()) {
+            return false;
+        }
+        battleRecordRepository.delete(record.get());
+        battleRecordLogRepository.deleteById(battleId);
+        battleStatsService.decrement(record.get());
+        return true;
+    }
+}
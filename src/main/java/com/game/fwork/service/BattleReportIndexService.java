@@ -0,0 +1,217 @@
+package com.game.fwork.service;
+
+import com.game.fwork.manager.ScheduledTaskMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 战报时间索引（Redis 有序集合）
+ * battle:report-index 以战斗结束时间（毫秒）为分数、battleId 为成员，结算写入战报时在同一管道中登记，
+ * 并按战报 TTL 裁掉过期成员；管理后台的战报总数与分页都走这个索引（O(log n)），不再用 KEYS 扫描整个键空间
+ * 查询时只统计 TTL 窗口内的成员，裁剪不及时也不会把已过期的战报算进去
+ * 升级前写入的战报与丢失的登记由定时任务用 SCAN 增量补齐
+ */
+@Service
+public class BattleReportIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BattleReportIndexService.class);
+
+    public static final String REPORT_KEY_PREFIX = "battle:report:";
+    public static final long REPORT_TTL_SECONDS = TimeUnit.DAYS.toSeconds(7);
+
+    // 不能以 battle:report: 开头，否则会被当成战报
+    static final String INDEX_KEY = "battle:report-index";
+
+    // 补齐时每批 SCAN 的键数
+    private static final int REINDEX_CHUNK = 1000;
+
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+    @Autowired private ScheduledTaskMonitor scheduledTaskMonitor;
+
+    @Value("${battle-report.reindex-interval-ms:21600000}")
+    private long reindexIntervalMs;
+
+    // 监控指标
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong reindexRuns = new AtomicLong();
+    private volatile long lastReindexScanned;
+    private volatile long lastReindexAdded;
+    private volatile long lastReindexMs;
+    private volatile String lastReindexError;
+
+    /**
+     * 在调用方的管道中登记一批战报，并裁掉超过 TTL 的成员
+     *
+     * @param endTimes battleId -> 战斗结束时间（为空时按当前时间）
+     */
+    public void index(StringRedisConnection redis, Map<String, LocalDateTime> endTimes) {
+        if (endTimes.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, LocalDateTime> entry : endTimes.entrySet()) {
+            redis.zAdd(INDEX_KEY, toMillis(entry.getValue(), now), entry.getKey());
+        }
+        redis.zRemRangeByScore(INDEX_KEY, Double.NEGATIVE_INFINITY, windowStart(now) - 1);
+        // 长时间没有新战报时，索引随最后一份战报一起过期
+        redis.expire(INDEX_KEY, REPORT_TTL_SECONDS);
+        indexed.addAndGet(endTimes.size());
+    }
+
+    /**
+     * TTL 窗口内的战报数量
+     */
+    public long count() {
+        Long count = stringRedisTemplate.opsForZSet()
+                .count(INDEX_KEY, windowStart(System.currentTimeMillis()), Double.POSITIVE_INFINITY);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * 按结束时间倒序分页
+     *
+     * @return 本页的 battleId
+     */
+    public List<String> page(long offset, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Set<String> ids = stringRedisTemplate.opsForZSet().reverseRangeByScore(INDEX_KEY,
+                windowStart(System.currentTimeMillis()), Double.POSITIVE_INFINITY, offset, limit);
+        return ids != null ? new ArrayList<>(ids) : List.of();
+    }
+
+    @Scheduled(fixedDelayString = "${battle-report.reindex-interval-ms:21600000}",
+            initialDelayString = "${battle-report.reindex-initial-delay-ms:15000}")
+    public void reindexTask() {
+        scheduledTaskMonitor.runFixedDelay("battleReportReindex", reindexIntervalMs, this::reindex);
+    }
+
+    /**
+     * 用 SCAN 找出所有战报并补登到索引（只补不存在的成员，不覆盖结算登记的结束时间）
+     * 补登成员的结束时间无从得知，按剩余 TTL 推算写入时间代替
+     *
+     * @return 补登的数量
+     */
+    public synchronized long reindex() {
+        long start = System.currentTimeMillis();
+        long scanned = 0;
+        long added = 0;
+        try (Cursor<String> cursor = stringRedisTemplate.scan(ScanOptions.scanOptions()
+                .match(REPORT_KEY_PREFIX + "*").count(REINDEX_CHUNK).build())) {
+            List<String> chunk = new ArrayList<>(REINDEX_CHUNK);
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() >= REINDEX_CHUNK) {
+                    added += reindexChunk(chunk);
+                    scanned += chunk.size();
+                    chunk.clear();
+                }
+            }
+            added += reindexChunk(chunk);
+            scanned += chunk.size();
+            stringRedisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY,
+                    Double.NEGATIVE_INFINITY, windowStart(System.currentTimeMillis()) - 1);
+            lastReindexError = null;
+            if (added > 0) {
+                logger.info("战报索引补登完成: 扫描={}, 补登={}, 耗时={}ms",
+                        scanned, added, System.currentTimeMillis() - start);
+            }
+            return added;
+        } catch (RuntimeException e) {
+            lastReindexError = String.valueOf(e.getMessage());
+            throw e;
+        } finally {
+            reindexRuns.incrementAndGet();
+            lastReindexScanned = scanned;
+            lastReindexAdded = added;
+            lastReindexMs = System.currentTimeMillis() - start;
+        }
+    }
+
+    private long reindexChunk(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> ttls = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String key : keys) {
+                redis.pTtl(key);
+            }
+            return null;
+        });
+
+        long now = System.currentTimeMillis();
+        long ttlMs = TimeUnit.SECONDS.toMillis(REPORT_TTL_SECONDS);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (int i = 0; i < keys.size(); i++) {
+                Object ttl = ttls.get(i);
+                // 已过期（-2）或没有 TTL（-1）的键不登记
+                if (!(ttl instanceof Long remaining) || remaining < 0) {
+                    continue;
+                }
+                String battleId = keys.get(i).substring(REPORT_KEY_PREFIX.length());
+                redis.zAdd(INDEX_KEY, now - (ttlMs - remaining), battleId, ZAddArgs.ifNotExists());
+            }
+            return null;
+        });
+
+        long added = 0;
+        for (Object result : results) {
+            if (Boolean.TRUE.equals(result)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static long toMillis(LocalDateTime time, long fallback) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : fallback;
+    }
+
+    private static long windowStart(long now) {
+        return now - TimeUnit.SECONDS.toMillis(REPORT_TTL_SECONDS);
+    }
+
+    /**
+     * 战报索引指标（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        try {
+            data.put("reports", count());
+            Long size = stringRedisTemplate.opsForZSet().zCard(INDEX_KEY);
+            data.put("indexSize", size != null ? size : 0L);
+        } catch (Exception e) {
+            data.put("error", e.getMessage());
+        }
+        data.put("indexed", indexed.get());
+        data.put("reindexRuns", reindexRuns.get());
+        data.put("lastReindexScanned", lastReindexScanned);
+        data.put("lastReindexAdded", lastReindexAdded);
+        data.put("lastReindexMs", lastReindexMs);
+        data.put("lastReindexError", lastReindexError);
+        return data;
+    }
+}
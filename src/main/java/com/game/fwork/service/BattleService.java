@@ -1,12 +1,13 @@
 package com.game.fwork.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.game.fwork.config.GameConfig;
 import com.game.fwork.entity.*;
-import com.game.fwork.entity.Character;
 import com.game.fwork.enums.BattleState;
 import com.game.fwork.manager.BattleManager;
+import com.game.fwork.manager.ItemDescriptor;
 import com.game.fwork.manager.ItemManager;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.manager.SkillDescriptor;
 import com.game.fwork.manager.SkillManager;
 import com.game.fwork.netty.session.SessionManager;
 import com.game.fwork.proto.GameProto.*;
@@ -17,12 +18,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 战斗核心业务服务
@@ -35,28 +35,31 @@ public class BattleService {
 
     @Autowired private BattleManager battleManager;
     @Autowired private SessionManager sessionManager;
-    @Autowired private UserRepository userRepository;
-    @Autowired private CharacterRepository characterRepository;
     @Autowired private StringRedisTemplate stringRedisTemplate;
     @Autowired private ObjectMapper objectMapper;
-    @Autowired private BattleRecordRepository battleRecordRepository;
     @Autowired private DamageCalculator damageCalculator;
     @Autowired private UserInventoryRepository userInventoryRepository;
-    @Autowired private SkillRepository skillRepository;
 
     @Autowired private SkillManager skillManager;
     @Autowired private ItemManager itemManager;
+    @Autowired private PlayerProfileCache playerProfileCache;
 
-    @Autowired private GameConfig gameConfig;
+    @Autowired private SettlementService settlementService;
 
     @Autowired
     @Lazy
     private MatchService matchService;
 
     private static final String BATTLE_CACHE_KEY = "battle:cache:";
-    private static final String BATTLE_REPORT_KEY = "battle:report:";
     private static final String BATTLE_SNAPSHOT_KEY = "battle:snapshot:";
 
+    private static final String BOT_NICKNAME = "训练机器人";
+    // 机器人血量低于该比例时优先治疗
+    private static final double BOT_HEAL_THRESHOLD = 0.3;
+
+    // 机器人ID序列（取负数，与真实用户ID区分）
+    private final AtomicLong botIdSequence = new AtomicLong();
+
     /**
      * 创建并初始化一场新战斗
      * 1. 校验双方玩家和角色状态
@@ -69,27 +72,12 @@ public class BattleService {
      */
     public String createBattle(Long player1Id, Long player2Id) {
         try {
-            // 生成战斗ID：时间戳+UUID，确保唯一性
-            String battleId = "BATTLE_" + System.currentTimeMillis() + "_" +
-                    UUID.randomUUID().toString().substring(0, 8);
-
-            User user1 = userRepository.findById(player1Id).orElseThrow(() -> new RuntimeException("P1不存在"));
-            User user2 = userRepository.findById(player2Id).orElseThrow(() -> new RuntimeException("P2不存在"));
-
-            Character char1 = characterRepository.findByUserIdAndIsActive(player1Id, 1).orElseThrow(() -> new RuntimeException("P1无角色"));
-            Character char2 = characterRepository.findByUserIdAndIsActive(player2Id, 1).orElseThrow(() -> new RuntimeException("P2无角色"));
-
-            BattlePlayer bp1 = new BattlePlayer(char1, user1);
-            BattlePlayer bp2 = new BattlePlayer(char2, user2);
+            String battleId = generateBattleId();
 
-            // 从数据库查询角色技能，并初始化到 BattlePlayer 中
-            List<Integer> p1Skills = skillRepository.findSkillIdsByCharacterId(char1.getId());
-            List<Integer> p2Skills = skillRepository.findSkillIdsByCharacterId(char2.getId());
+            BattlePlayer bp1 = loadBattlePlayer(player1Id, "P1");
+            BattlePlayer bp2 = loadBattlePlayer(player2Id, "P2");
 
-            bp1.initSkills(p1Skills);
-            bp2.initSkills(p2Skills);
-
-            logger.info("P1技能: {}, P2技能: {}", p1Skills, p2Skills); // 调试日志
+            logger.info("P1技能: {}, P2技能: {}", bp1.getCooldowns().keySet(), bp2.getCooldowns().keySet()); // 调试日志
 
             Battle battle = new Battle(battleId, bp1, bp2);
             // 将战斗对象存入本地内存（用于快速处理）和 Redis（用于备份）
@@ -104,6 +92,51 @@ public class BattleService {
         }
     }
 
+    /**
+     * 为长时间匹配不到对手的玩家创建人机对战
+     * 机器人镜像玩家自身的属性与技能，默认已准备，由服务端代为出手
+     *
+     * @param userId 真实玩家ID（作为 player1 先手）
+     * @return 生成的唯一战斗ID
+     */
+    public String createBotBattle(Long userId) {
+        try {
+            String battleId = generateBattleId();
+
+            BattlePlayer human = loadBattlePlayer(userId, "P1");
+            BattlePlayer bot = BattlePlayer.createBot(-botIdSequence.incrementAndGet(), BOT_NICKNAME, human);
+
+            Battle battle = new Battle(battleId, human, bot);
+            battleManager.addBattle(battle);
+            cacheBattle(battle);
+
+            logger.info("人机战斗创建成功: battleId={}, userId={}, botId={}", battleId, userId, bot.getUserId());
+            return battleId;
+        } catch (Exception e) {
+            logger.error("创建人机战斗异常", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 生成战斗ID：时间戳+UUID，确保唯一性
+     */
+    private String generateBattleId() {
+        return "BATTLE_" + System.currentTimeMillis() + "_" +
+                UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 从玩家档案缓存构建战斗玩家（属性与技能均来自缓存，命中时不访问数据库）
+     */
+    private BattlePlayer loadBattlePlayer(Long userId, String label) {
+        PlayerProfile profile = playerProfileCache.get(userId);
+        if (profile == null || !profile.hasCharacter()) {
+            throw new RuntimeException(label + "不存在或无角色");
+        }
+        return new BattlePlayer(profile);
+    }
+
     /**
      * 处理玩家“准备就绪”请求
      * 当双方都准备就绪时，自动触发战斗开始逻辑
@@ -151,6 +184,9 @@ public class BattleService {
         sessionManager.sendMessage(battle.getPlayer2().getUserId(), msg);
 
         cacheBattle(battle);
+
+        // 机器人先手时直接出手
+        triggerBotTurn(battle);
     }
 
     /**
@@ -192,7 +228,7 @@ public class BattleService {
      * 调用 DamageCalculator 进行数值计算，并处理扣减 CD、记录日志等副作用
      */
     private void handleSkillAction(Battle battle, BattlePlayer actor, BattlePlayer target, int skillId) {
-        Skill skill = skillManager.getSkill(skillId);
+        SkillDescriptor skill = skillManager.getDescriptor(skillId);
         if (skill == null) {
             logger.error("技能数据缺失: ID={}", skillId);
             return;
@@ -200,7 +236,7 @@ public class BattleService {
 
         // 检查冷却
         if (!actor.canUseSkill(skillId)) {
-            logger.warn("技能冷却中: {}", skill.getSkillName());
+            logger.warn("技能冷却中: {}", skill.getName());
             return;
         }
 
@@ -209,15 +245,15 @@ public class BattleService {
         String desc;
 
         // 根据技能类型区分处理：治疗技能加血，攻击技能扣血
-        if ("heal".equals(skill.getSkillType())) {
+        if (skill.isHeal()) {
             heal = damageCalculator.calculateHeal(actor, skill);
             actor.heal(heal);
-            desc = String.format("%s 使用 %s，恢复了 %d 点生命", actor.getNickname(), skill.getSkillName(), heal);
+            desc = String.format("%s 使用 %s，恢复了 %d 点生命", actor.getNickname(), skill.getName(), heal);
         } else {
             damage = damageCalculator.calculateDamage(actor, target, skill);
             target.takeDamage(damage);
             desc = String.format("%s 对 %s 使用 %s，造成 %d 点伤害",
-                    actor.getNickname(), target.getNickname(), skill.getSkillName(), damage);
+                    actor.getNickname(), target.getNickname(), skill.getName(), damage);
 
             // 简单的状态描述追加
             if (damage == 0) desc += " (被闪避!)";
@@ -228,7 +264,7 @@ public class BattleService {
         actor.useSkill(skillId, skill.getCooldown());
 
         // 记录与推送
-        addLogAndBroadcast(battle, actor, target, skill.getSkillName(), damage, heal, desc);
+        addLogAndBroadcast(battle, actor, target, skill.getName(), damage, heal, desc);
 
         // 推进回合
         proceedTurn(battle, actor, target);
@@ -253,13 +289,13 @@ public class BattleService {
      */
     private void handleItemAction(Battle battle, BattlePlayer actor, int itemId) {
         // 1. 基础校验
-        Item item = itemManager.getItem(itemId);
+        ItemDescriptor item = itemManager.getDescriptor(itemId);
         if (item == null) {
             logger.error("道具配置不存在: ID={}", itemId);
             return;
         }
 
-        if (!"POTION".equals(item.getType())) {
+        if (!item.isUsableInBattle()) {
             logger.warn("非药水道具不可在战斗中使用: {}", item.getName());
             return;
         }
@@ -325,6 +361,56 @@ public class BattleService {
         // 保存回合快照到 Redis，确保玩家断线重连时能恢复到当前回合状态
         cacheBattle(battle);
         saveSnapshot(battle);
+
+        // 5. 轮到机器人则由服务端代为行动
+        triggerBotTurn(battle);
+    }
+
+    /**
+     * 若当前行动者是机器人，按简单策略替它出手
+     * 机器人行动同样走 handleBattleAction，复用回合校验、冷却与日志逻辑
+     */
+    private void triggerBotTurn(Battle battle) {
+        if (battle.getState() != BattleState.FIGHTING) return;
+
+        BattlePlayer actor = battle.getPlayerByUserId(battle.getCurrentActorUserId());
+        if (actor == null || !actor.isBot()) return;
+
+        int[] action = chooseBotAction(actor);
+        handleBattleAction(battle.getBattleId(), actor.getUserId(), action[0], action[1]);
+    }
+
+    /**
+     * 机器人出招策略（常数级开销）
+     * 1. 血量低于阈值且有可用治疗技能 -> 治疗
+     * 2. 否则使用倍率最高的可用攻击技能
+     * 3. 所有技能都在冷却 -> 防御
+     *
+     * @return {actionType, paramId}
+     */
+    private int[] chooseBotAction(BattlePlayer bot) {
+        SkillDescriptor bestAttack = null;
+        SkillDescriptor heal = null;
+
+        for (Integer skillId : bot.getCooldowns().keySet()) {
+            if (!bot.canUseSkill(skillId)) continue;
+            SkillDescriptor skill = skillManager.getDescriptor(skillId);
+            if (skill == null) continue;
+
+            if (skill.isHeal()) {
+                heal = skill;
+            } else if (bestAttack == null || skill.getMultiplier() > bestAttack.getMultiplier()) {
+                bestAttack = skill;
+            }
+        }
+
+        if (heal != null && bot.getHpPercentage() < BOT_HEAL_THRESHOLD) {
+            return new int[]{1, heal.getId()};
+        }
+        if (bestAttack != null) {
+            return new int[]{1, bestAttack.getId()};
+        }
+        return new int[]{2, 0};
     }
 
     /**
@@ -435,7 +521,7 @@ public class BattleService {
         sessionManager.sendMessage(battle.getPlayer1().getUserId(), msg);
         sessionManager.sendMessage(battle.getPlayer2().getUserId(), msg);
 
-        saveBattleResultAsync(battle, winnerId, loserId);
+        settlementService.submit(battle, winnerId, loserId);
         battleManager.removeBattle(battle.getBattleId());
     }
 
@@ -465,7 +551,7 @@ public class BattleService {
         // 尝试发送给胜者（他可能在线）
         sessionManager.sendMessage(winnerId, msg);
 
-        saveBattleResultAsync(battle, winnerId, loserId);
+        settlementService.submit(battle, winnerId, loserId);
         battleManager.removeBattle(battle.getBattleId());
     }
 
@@ -482,18 +568,22 @@ public class BattleService {
         if (!p1Ready && !p2Ready) {
             // 双方都未准备 -> 结束
         } else {
-            Long readyUser = p1Ready ? battle.getPlayer1().getUserId() : battle.getPlayer2().getUserId();
+            BattlePlayer readyPlayer = p1Ready ? battle.getPlayer1() : battle.getPlayer2();
+            Long readyUser = readyPlayer.getUserId();
             Long notReadyUser = p1Ready ? battle.getPlayer2().getUserId() : battle.getPlayer1().getUserId();
 
-            // 通知已准备的人重新匹配
-            BattleEndResponse res = BattleEndResponse.newBuilder()
-                    .setEndReason("MATCH_TIMEOUT_OPPONENT")
-                    .build();
-            sessionManager.sendMessage(readyUser, GameMessage.newBuilder()
-                    .setType(MessageType.BATTLE_END).setBattleEndResponse(res).build());
-
-            // 自动重新匹配
-            matchService.joinQueue(readyUser);
+            // 机器人无需通知，也不重新入队
+            if (!readyPlayer.isBot()) {
+                // 通知已准备的人重新匹配
+                BattleEndResponse res = BattleEndResponse.newBuilder()
+                        .setEndReason("MATCH_TIMEOUT_OPPONENT")
+                        .build();
+                sessionManager.sendMessage(readyUser, GameMessage.newBuilder()
+                        .setType(MessageType.BATTLE_END).setBattleEndResponse(res).build());
+
+                // 自动重新匹配
+                matchService.joinQueue(readyUser);
+            }
 
             // 通知未准备的人
             sessionManager.sendMessage(notReadyUser, GameMessage.newBuilder()
@@ -551,129 +641,6 @@ public class BattleService {
                 .build();
     }
 
-    /**
-     * 异步保存战斗结算数据
-     * 包括：更新玩家 ELO 分数、金币、胜场数，并将完整战报写入 MySQL
-     * 使用 @Async 避免阻塞主线程的战斗逻辑
-     */
-    @Async
-    public void saveBattleResultAsync(Battle battle, Long winnerId, Long loserId) {
-        try {
-            User winner = userRepository.findById(winnerId).orElse(null);
-            User loser = userRepository.findById(loserId).orElse(null);
-            if (winner == null || loser == null) return;
-
-            // ELO 计算
-            int k = gameConfig.getElo().getKFactor();
-            int winnerChange = k; // 简化版：赢了加K分
-            int loserChange = -15; // 输了扣固定分
-
-            // 记录原始分
-            int winnerOldElo = winner.getEloRating();
-            int loserOldElo = loser.getEloRating();
-
-            // 更新
-            winner.setEloRating(winnerOldElo + winnerChange);
-            winner.setWinCount(winner.getWinCount() + 1);
-            winner.setTotalBattles(winner.getTotalBattles() + 1);
-            // 赢家加金币 (简化：固定加100)
-            winner.setGold(winner.getGold() == null ? 100 : winner.getGold() + 100);
-
-            loser.setEloRating(Math.max(0, loserOldElo + loserChange));
-            loser.setTotalBattles(loser.getTotalBattles() + 1);
-            // 输家加低保金币(简化：固定加20)
-            loser.setGold(loser.getGold() == null ? 20 : loser.getGold() + 20);
-
-            userRepository.save(winner);
-            userRepository.save(loser);
-
-            // 保存 Redis 战报
-            String json = objectMapper.writeValueAsString(battle);
-            stringRedisTemplate.opsForValue().set(BATTLE_REPORT_KEY + battle.getBattleId(), json, 7, TimeUnit.DAYS);
-
-            // 保存 MySQL 记录
-            // 检查重复
-            if (battleRecordRepository.existsByBattleId(battle.getBattleId())) {
-                return;
-            }
-
-            // 准备数据
-            BattlePlayer p1 = battle.getPlayer1();
-            BattlePlayer p2 = battle.getPlayer2();
-
-            // 确定 P1 的 ELO 变动情况
-            int p1EloBefore, p1EloAfter;
-            if (p1.getUserId().equals(winnerId)) {
-                p1EloBefore = winnerOldElo;
-                p1EloAfter = winner.getEloRating();
-            } else {
-                p1EloBefore = loserOldElo;
-                p1EloAfter = loser.getEloRating();
-            }
-
-            // 确定 P2 的 ELO 变动情况
-            int p2EloBefore, p2EloAfter;
-            if (p2.getUserId().equals(winnerId)) {
-                p2EloBefore = winnerOldElo;
-                p2EloAfter = winner.getEloRating();
-            } else {
-                p2EloBefore = loserOldElo;
-                p2EloAfter = loser.getEloRating();
-            }
-
-            // 序列化日志
-            String logJson = "[]";
-            try {
-                logJson = objectMapper.writeValueAsString(battle.getBattleLogs());
-            } catch (Exception ex) {
-                logger.error("日志序列化失败", ex);
-            }
-
-            // 计算时长
-            Integer duration = 0;
-            if (battle.getStartTime() != null && battle.getEndTime() != null) {
-                duration = (int) java.time.Duration.between(battle.getStartTime(), battle.getEndTime()).getSeconds();
-            }
-
-            // 构建实体对象
-            BattleRecord record = new BattleRecord();
-            record.setBattleId(battle.getBattleId());
-
-            record.setPlayer1Id(p1.getUserId());
-            record.setPlayer1Nickname(p1.getNickname());
-            record.setPlayer1CharId(p1.getCharacterId());
-            record.setPlayer1FinalHp(p1.getCurrentHp());
-            record.setPlayer1EloBefore(p1EloBefore);
-            record.setPlayer1EloAfter(p1EloAfter);
-
-            record.setPlayer2Id(p2.getUserId());
-            record.setPlayer2Nickname(p2.getNickname());
-            record.setPlayer2CharId(p2.getCharacterId());
-            record.setPlayer2FinalHp(p2.getCurrentHp());
-            record.setPlayer2EloBefore(p2EloBefore);
-            record.setPlayer2EloAfter(p2EloAfter);
-
-            record.setWinnerId(winnerId);
-            record.setEndReason(battle.getEndReason());
-            record.setTotalRounds(battle.getCurrentRound());
-            record.setBattleDuration(duration);
-            // 将战斗过程日志序列化为 JSON 字符串存储，便于后续回放或详情展示
-            record.setBattleLogJson(logJson);
-
-            record.setStartTime(battle.getStartTime());
-            record.setEndTime(battle.getEndTime());
-            record.setCreatedAt(java.time.LocalDateTime.now());
-
-            // 执行插入
-            battleRecordRepository.save(record);
-
-            logger.info("战斗结算完成，已保存数据库。");
-
-        } catch (Exception e) {
-            logger.error("保存战斗结果失败", e);
-        }
-    }
-
     /// 发送结束消息到单个用户
     private void sendBattleEndToUser(Battle battle, Long userId, String reason) {
         BattleEndResponse response = BattleEndResponse.newBuilder()
@@ -0,0 +1,211 @@
+package com.game.fwork.service;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.manager.ScheduledTaskMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 战斗统计计数（t_battle_stat_daily：每天每种结束原因一行）
+ * 结算在插入战斗记录的同一事务中累加计数，控制台与战斗历史页只读这张小表，不再加载战斗记录来计数；
+ * 记录归档出热表后计数仍保留，因此总数包含已归档的战斗
+ * 对账任务定期用热表重算最近几天的计数，修正手工改库等造成的偏差
+ * 玩家维度的总场次与胜场由结算维护在 t_user 中，不在这里重复保存
+ */
+@Service
+public class BattleStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BattleStatsService.class);
+
+    // 战斗记录缺少结束原因时的计数键
+    static final String UNKNOWN_REASON = "UNKNOWN";
+
+    private static final String INCREMENT_COLUMNS =
+            "INSERT INTO t_battle_stat_daily (stat_date, end_reason, battle_count) VALUES ";
+    private static final String INCREMENT_ROW = "(?, ?, ?)";
+    private static final String INCREMENT_UPDATE =
+            " ON DUPLICATE KEY UPDATE battle_count = battle_count + VALUES(battle_count)";
+
+    private static final String DECREMENT_SQL =
+            "UPDATE t_battle_stat_daily SET battle_count = GREATEST(battle_count - 1, 0) " +
+            "WHERE stat_date = ? AND end_reason = ?";
+
+    private static final String TOTALS_SQL =
+            "SELECT end_reason, SUM(battle_count) FROM t_battle_stat_daily GROUP BY end_reason";
+
+    private static final String DAILY_SQL =
+            "SELECT stat_date, end_reason, battle_count FROM t_battle_stat_daily " +
+            "WHERE stat_date >= ? ORDER BY stat_date, end_reason";
+
+    // 对账：用热表重算窗口内的计数（先读热表再写计数，与结算的加锁顺序一致）
+    private static final String RECONCILE_UPSERT_SQL =
+            "INSERT INTO t_battle_stat_daily (stat_date, end_reason, battle_count) " +
+            "SELECT DATE(created_at), COALESCE(end_reason, '" + UNKNOWN_REASON + "'), COUNT(*) " +
+            "FROM t_battle_record WHERE created_at >= ? GROUP BY DATE(created_at), COALESCE(end_reason, '" +
+            UNKNOWN_REASON + "') " +
+            "ON DUPLICATE KEY UPDATE battle_count = VALUES(battle_count)";
+
+    // 对账：删除窗口内热表中已没有对应记录的计数
+    private static final String RECONCILE_DELETE_SQL =
+            "DELETE FROM t_battle_stat_daily WHERE stat_date >= ? AND NOT EXISTS (" +
+            "SELECT 1 FROM t_battle_record r WHERE r.created_at >= t_battle_stat_daily.stat_date " +
+            "AND r.created_at < t_battle_stat_daily.stat_date + INTERVAL 1 DAY " +
+            "AND COALESCE(r.end_reason, '" + UNKNOWN_REASON + "') = t_battle_stat_daily.end_reason)";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private ScheduledTaskMonitor scheduledTaskMonitor;
+
+    // 对账重算的天数（含今天），须小于归档保留天数，窗口内的记录都还在热表中
+    @Value("${battle-stats.reconcile-days:7}")
+    private int reconcileDays;
+
+    @Value("${battle-stats.reconcile-interval-ms:86400000}")
+    private long reconcileIntervalMs;
+
+    // 监控指标
+    private final AtomicLong incrementedBattles = new AtomicLong();
+    private final AtomicLong reconcileRuns = new AtomicLong();
+    private final AtomicLong reconcileRowsChanged = new AtomicLong();
+    private volatile LocalDateTime lastReconcileAt;
+    private volatile long lastReconcileMs;
+    private volatile String lastReconcileError;
+
+    /**
+     * 累加一批新写入的战斗记录（须在插入记录的同一事务中调用）
+     */
+    public void increment(List<BattleRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        // 按 (日期, 结束原因) 合并，按键排序写入，多个结算事务加锁顺序一致
+        Map<String, Long> counts = new TreeMap<>();
+        for (BattleRecord record : records) {
+            LocalDate day = (record.getCreatedAt() != null ? record.getCreatedAt() : LocalDateTime.now()).toLocalDate();
+            String reason = record.getEndReason() != null ? record.getEndReason() : UNKNOWN_REASON;
+            counts.merge(day + "|" + reason, 1L, Long::sum);
+        }
+
+        StringBuilder sql = new StringBuilder(INCREMENT_COLUMNS);
+        List<Object> args = new ArrayList<>(counts.size() * 3);
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            if (!args.isEmpty()) sql.append(',');
+            sql.append(INCREMENT_ROW);
+            int split = entry.getKey().indexOf('|');
+            args.add(Date.valueOf(LocalDate.parse(entry.getKey().substring(0, split))));
+            args.add(entry.getKey().substring(split + 1));
+            args.add(entry.getValue());
+        }
+        sql.append(INCREMENT_UPDATE);
+        jdbcTemplate.update(sql.toString(), args.toArray());
+        incrementedBattles.addAndGet(records.size());
+    }
+
+    /**
+     * 扣减一条被删除的战斗记录（管理员删除记录时调用）
+     */
+    public void decrement(BattleRecord record) {
+        LocalDate day = (record.getCreatedAt() != null ? record.getCreatedAt() : LocalDateTime.now()).toLocalDate();
+        String reason = record.getEndReason() != null ? record.getEndReason() : UNKNOWN_REASON;
+        jdbcTemplate.update(DECREMENT_SQL, Date.valueOf(day), reason);
+    }
+
+    /**
+     * 各结束原因的累计场数（含已归档的战斗）
+     */
+    public Map<String, Long> getTotalsByReason() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        jdbcTemplate.query(TOTALS_SQL, rs -> {
+            totals.put(rs.getString(1), rs.getLong(2));
+        });
+        return totals;
+    }
+
+    /**
+     * 累计总场数
+     */
+    public static long sum(Map<String, Long> totalsByReason) {
+        long total = 0;
+        for (Long count : totalsByReason.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * 最近 N 天（含今天）每天各结束原因的场数
+     *
+     * @return 日期 -> (结束原因 -> 场数)，只包含有战斗的日期
+     */
+    public Map<String, Map<String, Long>> getDaily(int days) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(1, days) - 1);
+        Map<String, Map<String, Long>> daily = new LinkedHashMap<>();
+        jdbcTemplate.query(DAILY_SQL, rs -> {
+            daily.computeIfAbsent(rs.getDate(1).toLocalDate().toString(), k -> new LinkedHashMap<>())
+                    .put(rs.getString(2), rs.getLong(3));
+        }, Date.valueOf(from));
+        return daily;
+    }
+
+    @Scheduled(fixedDelayString = "${battle-stats.reconcile-interval-ms:86400000}",
+            initialDelayString = "${battle-stats.reconcile-initial-delay-ms:120000}")
+    public void reconcileTask() {
+        scheduledTaskMonitor.runFixedDelay("battleStatsReconcile", reconcileIntervalMs, this::reconcile);
+    }
+
+    /**
+     * 用热表重算最近 reconcileDays 天的计数
+     */
+    public synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        Date from = Date.valueOf(LocalDate.now().minusDays(Math.max(1, reconcileDays) - 1));
+        try {
+            Integer changed = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(RECONCILE_UPSERT_SQL, from) + jdbcTemplate.update(RECONCILE_DELETE_SQL, from));
+            reconcileRowsChanged.addAndGet(changed != null ? changed : 0);
+            lastReconcileError = null;
+            logger.info("战斗统计对账完成: 起始日期={}, 影响行数={}, 耗时={}ms",
+                    from, changed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lastReconcileError = String.valueOf(e.getMessage());
+            logger.error("战斗统计对账失败", e);
+        } finally {
+            reconcileRuns.incrementAndGet();
+            lastReconcileAt = LocalDateTime.now();
+            lastReconcileMs = System.currentTimeMillis() - start;
+        }
+    }
+
+    /**
+     * 统计计数指标（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("totalsByReason", getTotalsByReason());
+        data.put("daily", getDaily(reconcileDays));
+        data.put("incrementedBattles", incrementedBattles.get());
+        data.put("reconcileDays", reconcileDays);
+        data.put("reconcileRuns", reconcileRuns.get());
+        data.put("reconcileRowsChanged", reconcileRowsChanged.get());
+        data.put("lastReconcileAt", lastReconcileAt != null ? lastReconcileAt.toString() : null);
+        data.put("lastReconcileMs", lastReconcileMs);
+        data.put("lastReconcileError", lastReconcileError);
+        return data;
+    }
+}
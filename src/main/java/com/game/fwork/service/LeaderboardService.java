@@ -0,0 +1,408 @@
+package com.game.fwork.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.manager.ScheduledTaskMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ELO 排行榜（Redis 有序集合）
+ * leaderboard:elo 以 ELO 为分数、userId 为成员，结算后增量更新，排名查询为 O(log n)；
+ * leaderboard:info 哈希存放展示信息（昵称、职业、头像框），与排名在同一个 Lua 脚本中读取，
+ * 前 N 名、我的排名、我附近的玩家均为一次往返。展示信息缺失时从玩家档案缓存补齐并回写
+ * 两个键都可以由 MySQL 全量重建：启动后与定时任务各执行一次，也可由管理后台触发
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    static final String RANK_KEY = "leaderboard:elo";
+    static final String INFO_KEY = "leaderboard:info";
+    private static final String REBUILD_SUFFIX = ":rebuild";
+
+    // 单页最多条数
+    private static final int MAX_PAGE_SIZE = 100;
+    // 附近玩家的最大半径
+    private static final int MAX_RADIUS = 20;
+    // 重建时每批写入 Redis 的用户数
+    private static final int REBUILD_CHUNK = 1000;
+
+    private static final String DEFAULT_CHAR_TYPE = "warrior";
+
+    /**
+     * KEYS: 排名键, 信息键；ARGV: 起始名次, 结束名次（0 起）
+     * 返回 {总人数, 起始名次, userId, 分数, 信息, userId, 分数, 信息, ...}
+     */
+    private static final RedisScript<List> PAGE_SCRIPT = new DefaultRedisScript<>(
+            "local total = redis.call('ZCARD', KEYS[1])\n" +
+            "local ids = redis.call('ZREVRANGE', KEYS[1], ARGV[1], ARGV[2], 'WITHSCORES')\n" +
+            "local result = {tostring(total), ARGV[1]}\n" +
+            appendEntriesLua(), List.class);
+
+    /**
+     * KEYS: 排名键, 信息键；ARGV: userId, 半径
+     * 返回 {总人数, 起始名次, 本人名次, userId, 分数, 信息, ...}；未上榜时只返回 {总人数, -1, -1}
+     */
+    private static final RedisScript<List> AROUND_SCRIPT = new DefaultRedisScript<>(
+            "local total = redis.call('ZCARD', KEYS[1])\n" +
+            "local rank = redis.call('ZREVRANK', KEYS[1], ARGV[1])\n" +
+            "if not rank then return {tostring(total), '-1', '-1'} end\n" +
+            "local radius = tonumber(ARGV[2])\n" +
+            "local start = math.max(0, rank - radius)\n" +
+            "local ids = redis.call('ZREVRANGE', KEYS[1], start, rank + radius, 'WITHSCORES')\n" +
+            "local result = {tostring(total), tostring(start), tostring(rank)}\n" +
+            appendEntriesLua(), List.class);
+
+    /**
+     * 重建完成后原子替换：KEYS: 新排名键, 排名键, 新信息键, 信息键
+     */
+    private static final RedisScript<Long> SWAP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "else redis.call('DEL', KEYS[2]) end\n" +
+            "if redis.call('EXISTS', KEYS[3]) == 1 then redis.call('RENAME', KEYS[3], KEYS[4]) " +
+            "else redis.call('DEL', KEYS[4]) end\n" +
+            "return 1", Long.class);
+
+    private static final String REBUILD_SQL =
+            "SELECT u.id, u.nickname, u.elo_rating, u.avatar_frame_id, c.char_type FROM t_user u " +
+            "LEFT JOIN t_character c ON c.user_id = u.id AND c.is_active = 1 ORDER BY u.id";
+
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PlayerProfileCache playerProfileCache;
+    @Autowired private ScheduledTaskMonitor scheduledTaskMonitor;
+
+    // 全量重建间隔（毫秒）
+    @Value("${leaderboard.rebuild-interval-ms:21600000}")
+    private long rebuildIntervalMs;
+
+    // 重建期间结算的增量同时写入临时键，避免替换后丢失
+    private volatile boolean rebuilding;
+
+    private final AtomicLong ratingUpdates = new AtomicLong();
+    private final AtomicLong infoBackfills = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private volatile long lastRebuildRows;
+    private volatile long lastRebuildMs;
+
+    /**
+     * 拼接读取展示信息的 Lua 片段：ids 为 ZREVRANGE WITHSCORES 的结果，追加到 result 后返回
+     */
+    private static String appendEntriesLua() {
+        return "if #ids == 0 then return result end\n" +
+               "local members = {}\n" +
+               "for i = 1, #ids, 2 do members[#members + 1] = ids[i] end\n" +
+               "local infos = redis.call('HMGET', KEYS[2], unpack(members))\n" +
+               "for i = 1, #members do\n" +
+               "  result[#result + 1] = members[i]\n" +
+               "  result[#result + 1] = ids[2 * i]\n" +
+               "  result[#result + 1] = infos[i] or ''\n" +
+               "end\n" +
+               "return result";
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 排行榜分页（按 ELO 倒序）
+     *
+     * @param offset 跳过的人数
+     * @param limit 每页人数（最多 100）
+     */
+    public Map<String, Object> getPage(int offset, int limit) {
+        int start = Math.max(0, offset);
+        int size = Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        List<String> raw = executeScript(PAGE_SCRIPT, String.valueOf(start), String.valueOf(start + size - 1));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("total", Long.parseLong(raw.get(0)));
+        result.put("list", toEntries(raw, 2, Integer.parseInt(raw.get(1))));
+        return result;
+    }
+
+    /**
+     * 玩家自己的排名与前后各 radius 名玩家
+     *
+     * @return rank 为 1 起的名次，未上榜时为 null
+     */
+    public Map<String, Object> getAround(Long userId, int radius) {
+        int r = Math.max(0, Math.min(MAX_RADIUS, radius));
+        List<String> raw = executeScript(AROUND_SCRIPT, String.valueOf(userId), String.valueOf(r));
+
+        long rank = Long.parseLong(raw.get(2));
+        Map<String, Object> result = new HashMap<>();
+        result.put("total", Long.parseLong(raw.get(0)));
+        result.put("rank", rank >= 0 ? rank + 1 : null);
+        List<Map<String, Object>> around = rank >= 0 ? toEntries(raw, 3, Integer.parseInt(raw.get(1))) : List.of();
+        result.put("list", around);
+        for (Map<String, Object> entry : around) {
+            if (userId.equals(entry.get("id"))) {
+                result.put("eloRating", entry.get("eloRating"));
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> executeScript(RedisScript<List> script, String... args) {
+        return (List<String>) stringRedisTemplate.execute(script, List.of(RANK_KEY, INFO_KEY), (Object[]) args);
+    }
+
+    /**
+     * 解析脚本返回的 {userId, 分数, 信息} 三元组，缺少展示信息的玩家从档案缓存补齐
+     */
+    private List<Map<String, Object>> toEntries(List<String> raw, int from, int firstRank) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        Map<String, String> backfill = new HashMap<>();
+        for (int i = from; i + 2 < raw.size(); i += 3) {
+            Long id = Long.valueOf(raw.get(i));
+            Map<String, Object> dto = new HashMap<>();
+            dto.put("rank", firstRank + entries.size() + 1);
+            dto.put("id", id);
+            dto.put("eloRating", (int) Double.parseDouble(raw.get(i + 1)));
+
+            Map<String, Object> info = parseInfo(raw.get(i + 2));
+            if (info == null) {
+                PlayerProfile profile = playerProfileCache.get(id);
+                info = infoOf(profile);
+                if (profile != null) {
+                    backfill.put(String.valueOf(id), writeInfo(info));
+                }
+            }
+            dto.putAll(info);
+            entries.add(dto);
+        }
+        if (!backfill.isEmpty()) {
+            try {
+                stringRedisTemplate.opsForHash().putAll(INFO_KEY, backfill);
+                infoBackfills.addAndGet(backfill.size());
+            } catch (Exception e) {
+                logger.warn("排行榜展示信息回写失败: count={}", backfill.size(), e);
+            }
+        }
+        return entries;
+    }
+
+    private Map<String, Object> parseInfo(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            logger.warn("排行榜展示信息解析失败: {}", json, e);
+            return null;
+        }
+    }
+
+    private static Map<String, Object> infoOf(PlayerProfile profile) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        if (profile == null) {
+            // 用户已删除：保留占位，避免整页失败
+            info.put("nickname", "");
+            info.put("avatarFrameId", 0);
+            info.put("charType", DEFAULT_CHAR_TYPE);
+            return info;
+        }
+        return info(profile.getNickname(), profile.hasCharacter() ? profile.getCharType() : null,
+                profile.getAvatarFrameId());
+    }
+
+    private static Map<String, Object> info(String nickname, String charType, Integer avatarFrameId) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("nickname", nickname);
+        info.put("avatarFrameId", avatarFrameId != null ? avatarFrameId : 0);
+        info.put("charType", charType != null ? charType : DEFAULT_CHAR_TYPE);
+        return info;
+    }
+
+    private String writeInfo(Map<String, Object> info) {
+        try {
+            return objectMapper.writeValueAsString(info);
+        } catch (Exception e) {
+            throw new IllegalStateException("排行榜展示信息序列化失败", e);
+        }
+    }
+
+    // ==================== 增量维护 ====================
+
+    /**
+     * 结算提交后写入最新 ELO（管道一次往返）；失败只记录日志，下次重建时修正
+     *
+     * @param ratings userId -> 结算后的 ELO
+     */
+    public void updateRatings(Map<Long, Integer> ratings) {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        boolean alsoRebuild = rebuilding;
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (Map.Entry<Long, Integer> entry : ratings.entrySet()) {
+                    String member = String.valueOf(entry.getKey());
+                    redis.zAdd(RANK_KEY, entry.getValue(), member);
+                    if (alsoRebuild) {
+                        redis.zAdd(RANK_KEY + REBUILD_SUFFIX, entry.getValue(), member);
+                    }
+                }
+                return null;
+            });
+            ratingUpdates.addAndGet(ratings.size());
+        } catch (Exception e) {
+            logger.error("排行榜更新失败，等待下次重建修正: count={}", ratings.size(), e);
+        }
+    }
+
+    /**
+     * 新注册玩家上榜
+     */
+    public void addPlayer(Long userId, int eloRating, String nickname, String charType, Integer avatarFrameId) {
+        try {
+            String info = writeInfo(info(nickname, charType, avatarFrameId));
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                redis.zAdd(RANK_KEY, eloRating, String.valueOf(userId));
+                redis.hSet(INFO_KEY, String.valueOf(userId), info);
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("新玩家上榜失败，等待下次重建修正: userId={}", userId, e);
+        }
+    }
+
+    /**
+     * 展示信息变化（如更换头像框）后，在事务提交后删除缓存的展示信息，下次读取时补齐
+     */
+    public void refreshInfoAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeInfo(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeInfo(userId);
+            }
+        });
+    }
+
+    private void removeInfo(Long userId) {
+        try {
+            stringRedisTemplate.opsForHash().delete(INFO_KEY, String.valueOf(userId));
+            if (rebuilding) {
+                stringRedisTemplate.opsForHash().delete(INFO_KEY + REBUILD_SUFFIX, String.valueOf(userId));
+            }
+        } catch (Exception e) {
+            logger.warn("排行榜展示信息删除失败: userId={}", userId, e);
+        }
+    }
+
+    // ==================== 全量重建 ====================
+
+    @Scheduled(fixedDelayString = "${leaderboard.rebuild-interval-ms:21600000}",
+            initialDelayString = "${leaderboard.rebuild-initial-delay-ms:10000}")
+    public void rebuildTask() {
+        scheduledTaskMonitor.runFixedDelay("leaderboardRebuild", rebuildIntervalMs, this::rebuild);
+    }
+
+    /**
+     * 从 MySQL 全量重建排行榜：写入临时键后原子替换
+     * 重建期间结算的增量同时写入临时键，重建本身只在成员不存在时写入（NX），不会覆盖这些更新的分数
+     */
+    public synchronized long rebuild() {
+        long start = System.currentTimeMillis();
+        String rankTmp = RANK_KEY + REBUILD_SUFFIX;
+        String infoTmp = INFO_KEY + REBUILD_SUFFIX;
+        stringRedisTemplate.delete(List.of(rankTmp, infoTmp));
+        rebuilding = true;
+        try {
+            List<Object[]> chunk = new ArrayList<>(REBUILD_CHUNK);
+            long[] rows = {0};
+            jdbcTemplate.query(REBUILD_SQL, rs -> {
+                chunk.add(new Object[]{rs.getLong(1), rs.getString(2), rs.getInt(3),
+                        rs.getObject(4) != null ? rs.getInt(4) : null, rs.getString(5)});
+                if (chunk.size() >= REBUILD_CHUNK) {
+                    rows[0] += writeRebuildChunk(chunk, rankTmp, infoTmp);
+                    chunk.clear();
+                }
+            });
+            rows[0] += writeRebuildChunk(chunk, rankTmp, infoTmp);
+
+            stringRedisTemplate.execute(SWAP_SCRIPT, List.of(rankTmp, RANK_KEY, infoTmp, INFO_KEY));
+            rebuilds.incrementAndGet();
+            lastRebuildRows = rows[0];
+            lastRebuildMs = System.currentTimeMillis() - start;
+            logger.info("排行榜重建完成: 人数={}, 耗时={}ms", rows[0], lastRebuildMs);
+            return rows[0];
+        } finally {
+            rebuilding = false;
+        }
+    }
+
+    private int writeRebuildChunk(List<Object[]> chunk, String rankTmp, String infoTmp) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<String[]> infos = new ArrayList<>(chunk.size());
+        for (Object[] row : chunk) {
+            infos.add(new String[]{String.valueOf(row[0]),
+                    writeInfo(info((String) row[1], (String) row[4], (Integer) row[3]))});
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (int i = 0; i < chunk.size(); i++) {
+                Object[] row = chunk.get(i);
+                redis.zAdd(rankTmp, (Integer) row[2], infos.get(i)[0], ZAddArgs.ifNotExists());
+                redis.hSetNX(infoTmp, infos.get(i)[0], infos.get(i)[1]);
+            }
+            return null;
+        });
+        return chunk.size();
+    }
+
+    /**
+     * 排行榜指标（管理后台展示）
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        try {
+            Long size = stringRedisTemplate.opsForZSet().zCard(RANK_KEY);
+            data.put("size", size != null ? size : 0L);
+        } catch (Exception e) {
+            data.put("error", e.getMessage());
+        }
+        data.put("ratingUpdates", ratingUpdates.get());
+        data.put("infoBackfills", infoBackfills.get());
+        data.put("rebuilds", rebuilds.get());
+        data.put("rebuilding", rebuilding);
+        data.put("lastRebuildRows", lastRebuildRows);
+        data.put("lastRebuildMs", lastRebuildMs);
+        return data;
+    }
+}
@@ -1,13 +1,17 @@
 package com.game.fwork.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.config.SchedulerConfig;
 import com.game.fwork.dto.MatchQueueItem;
-import com.game.fwork.entity.Character;
-import com.game.fwork.entity.User;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.entity.BattlePlayer;
+import com.game.fwork.manager.BattleManager;
+import com.game.fwork.manager.MatchMetrics;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.manager.ScheduledTaskMonitor;
 import com.game.fwork.netty.session.SessionManager;
 import com.game.fwork.proto.GameProto.*;
-import com.game.fwork.repository.CharacterRepository;
-import com.game.fwork.repository.UserRepository;
+import com.game.fwork.util.EloShardMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,12 +21,11 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 匹配服务
- * 实现基于 ELO 分数的“分桶 + 动态范围扩充”匹配算法
- * 策略：优先匹配分段相近的玩家，随着等待时间增加，逐步扩大搜索范围
+ * 实现基于 ELO 分数的“分片并行 + 动态范围扩充”匹配算法
+ * 策略：优先匹配分数最接近的玩家，随着等待时间增加，逐步扩大搜索范围
  */
 @Service
 public class MatchService {
@@ -31,62 +34,67 @@ public class MatchService {
 
     @Autowired private StringRedisTemplate stringRedisTemplate;
     @Autowired private ObjectMapper objectMapper;
-    @Autowired private UserRepository userRepository;
-    @Autowired private CharacterRepository characterRepository;
+    @Autowired private PlayerProfileCache playerProfileCache;
     @Autowired private SessionManager sessionManager;
     @Autowired private BattleService battleService;
+    @Autowired private EloShardMatcher eloShardMatcher;
+    @Autowired private MatchMetrics matchMetrics;
+    @Autowired private BattleManager battleManager;
+    @Autowired private ScheduledTaskMonitor scheduledTaskMonitor;
 
     @Value("${match.queue-key:game:match:queue}")
     private String queueKey;
 
+    // 匹配轮询间隔（毫秒）
+    @Value("${match.interval-ms:2000}")
+    private long matchIntervalMs;
+
     // 匹配范围配置
     @Value("${match.timeout:30}")
     private int matchTimeoutSeconds;
     @Value("${match.elo-range:100}")
     private int baseEloRange;
+    // 人机兜底配置：等待超过指定秒数仍未匹配到对手时，分配服务端机器人
+    @Value("${match.bot.enabled:false}")
+    private boolean botEnabled;
+    @Value("${match.bot.wait-seconds:20}")
+    private int botWaitSeconds;
     private static final int MAX_ELO_RANGE = 500;
     private static final int RANGE_INCREASE_PER_10S = 50;
-    private static final int BUCKET_SIZE = 100; // 每100分一个桶
-
-    // 内存桶索引（定时任务中重建）
-    private final Map<Integer, List<MatchQueueItem>> buckets = new ConcurrentHashMap<>();
 
     /**
      * 玩家加入匹配队列
      * 校验玩家状态（是否封禁、是否有角色），并将请求推入 Redis 队列
      */
     public boolean joinQueue(Long userId) {
+        // 机器人（负数ID）不参与排队
+        if (userId == null || userId <= 0) {
+            return false;
+        }
         try {
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                logger.error("用户不存在: userId={}", userId);
+            // 读取缓存的玩家档案，正常情况下不访问数据库
+            PlayerProfile profile = playerProfileCache.get(userId);
+            if (profile == null || !profile.hasCharacter()) {
+                logger.error("用户不存在或没有激活角色: userId={}", userId);
                 return false;
             }
 
-            if (user.getStatus() == 0) {
+            if (profile.isBanned()) {
                 logger.warn("封禁用户尝试加入匹配: userId={}", userId);
                 return false;
             }
 
-            Character character = characterRepository
-                    .findByUserIdAndIsActive(userId, 1)
-                    .orElse(null);
-            if (character == null) {
-                logger.error("用户没有激活角色: userId={}", userId);
-                return false;
-            }
-
             MatchQueueItem item = new MatchQueueItem(
                     userId,
-                    user.getEloRating(),
-                    user.getNickname(),
-                    character.getId()
+                    profile.getEloRating(),
+                    profile.getNickname(),
+                    profile.getCharacterId()
             );
 
             String json = objectMapper.writeValueAsString(item);
             stringRedisTemplate.opsForList().rightPush(queueKey, json);
 
-            logger.info("玩家加入匹配: userId={}, elo={}", userId, user.getEloRating());
+            logger.info("玩家加入匹配: userId={}, elo={}", userId, profile.getEloRating());
             return true;
 
         } catch (Exception e) {
@@ -123,19 +131,30 @@ public class MatchService {
 
     /**
      * 定时执行匹配逻辑（核心算法）
-     * 1. 清理超时玩家
-     * 2. 将等待玩家按 ELO 分数分桶
-     * 3. 按等待时间优先匹配，并在动态范围内搜索对手
+     * 1. 清理超时玩家与重复入队的脏数据
+     * 2. 交给 EloShardMatcher 按 ELO 分片并行匹配（小队列自动退化为单线程）
+     * 3. 按等待时间优先处理匹配结果
      */
-    @Scheduled(fixedDelay = 2000)
+    @Scheduled(fixedDelayString = "${match.interval-ms:2000}", scheduler = SchedulerConfig.MATCH_SCHEDULER)
     public void tryMatchAll() {
+        scheduledTaskMonitor.runFixedDelay("matchmaking", matchIntervalMs, this::matchRound);
+    }
+
+    private void matchRound() {
+        long roundStart = System.nanoTime();
         try {
             // 从Redis加载所有等待玩家
             List<String> allJsons = stringRedisTemplate.opsForList().range(queueKey, 0, -1);
-            if (allJsons == null || allJsons.isEmpty()) return;
+            if (allJsons == null || allJsons.isEmpty()) {
+                matchMetrics.clearQueueDepth();
+                return;
+            }
 
-            List<MatchQueueItem> queue = new ArrayList<>();
+            List<MatchQueueItem> queue = new ArrayList<>(allJsons.size());
             List<String> timeoutJsons = new ArrayList<>();
+            // userId -> 原始JSON，匹配成功后直接按原文 LREM，避免再次全量反序列化
+            Map<Long, String> rawJsons = new HashMap<>(allJsons.size() * 2);
+            long now = System.currentTimeMillis();
 
             // 解析并过滤超时玩家
             for (String json : allJsons) {
@@ -143,7 +162,11 @@ public class MatchService {
                     MatchQueueItem item = objectMapper.readValue(json, MatchQueueItem.class);
                     if (item.getWaitingTimeInSeconds() > matchTimeoutSeconds) {
                         timeoutJsons.add(json);
+                        matchMetrics.recordTimeout(item, now);
                         logger.info("匹配超时移除: userId={}", item.getUserId());
+                    } else if (rawJsons.putIfAbsent(item.getUserId(), json) != null) {
+                        // 同一玩家重复入队，只保留最早的一条
+                        timeoutJsons.add(json);
                     } else {
                         queue.add(item);
                     }
@@ -158,52 +181,36 @@ public class MatchService {
                 stringRedisTemplate.opsForList().remove(queueKey, 1, json);
             }
 
-            if (queue.size() < 2) return;
+            if (queue.size() < 2 && !botEnabled) {
+                matchMetrics.recordRound(queue, System.nanoTime() - roundStart);
+                return;
+            }
+
+            // 根据等待时间计算动态范围，等待越久，允许的分差越大
+            List<EloShardMatcher.MatchPair> pairs = eloShardMatcher.match(queue, this::calculateDynamicRange);
 
-            // 重建分桶索引：将玩家按分数段（如每100分）分组，减少双重循环的搜索次数
-            buckets.clear();
-            for (MatchQueueItem item : queue) {
-                int bucket = item.getEloRating() / BUCKET_SIZE;
-                buckets.computeIfAbsent(bucket, k -> new ArrayList<>()).add(item);
+            Set<Long> matchedUserIds = new HashSet<>(pairs.size() * 4);
+            for (EloShardMatcher.MatchPair pair : pairs) {
+                matchedUserIds.add(pair.getPlayer1().getUserId());
+                matchedUserIds.add(pair.getPlayer2().getUserId());
+                if (handleMatchSuccess(pair.getPlayer1(), pair.getPlayer2(), rawJsons)) {
+                    matchMetrics.recordMatch(pair.getPlayer1(), pair.getPlayer2(), now);
+                }
             }
 
-            // 按等待时间降序排序（优先匹配等待久的）
-            queue.sort(Comparator.comparingLong(MatchQueueItem::getWaitingTimeInSeconds).reversed());
-
-            // 执行匹配逻辑
-            Set<Long> matchedUserIds = new HashSet<>(); // 本轮已匹配的玩家
-
-            for (MatchQueueItem player1 : queue) {
-                if (matchedUserIds.contains(player1.getUserId())) continue;
-
-                int dynamicRange = calculateDynamicRange(player1);
-                int p1Bucket = player1.getEloRating() / BUCKET_SIZE;
-                int searchRange = (dynamicRange / BUCKET_SIZE) + 1;
-
-                // 搜索相邻桶
-                boolean matched = false;
-                for (int b = p1Bucket - searchRange; b <= p1Bucket + searchRange; b++) {
-                    List<MatchQueueItem> candidates = buckets.get(b);
-                    if (candidates == null) continue;
-
-                    for (MatchQueueItem player2 : candidates) {
-                        if (player1.getUserId().equals(player2.getUserId())) continue;
-                        if (matchedUserIds.contains(player2.getUserId())) continue;
-
-                        // 根据等待时间计算动态范围，等待越久，允许的分差越大
-                        if (player1.canMatchWith(player2, dynamicRange)) {
-                            // 匹配成功
-                            handleMatchSuccess(player1, player2, allJsons);
-                            matchedUserIds.add(player1.getUserId());
-                            matchedUserIds.add(player2.getUserId());
-                            matched = true;
-                            break;
-                        }
+            // 人机兜底：等待过久仍未匹配的玩家分配机器人
+            if (botEnabled) {
+                for (MatchQueueItem item : queue) {
+                    if (matchedUserIds.contains(item.getUserId())) continue;
+                    if (now - item.getJoinTime() < botWaitSeconds * 1000L) continue;
+                    if (handleBotMatch(item, rawJsons)) {
+                        matchMetrics.recordBotMatch(item, now);
                     }
-                    if (matched) break;
                 }
             }
 
+            matchMetrics.recordRound(queue, System.nanoTime() - roundStart);
+
         } catch (Exception e) {
             logger.error("匹配任务异常", e);
         }
@@ -224,8 +231,8 @@ public class MatchService {
      * 处理匹配成功逻辑
      * 创建战斗实例，并通知双方客户端跳转到准备页面
      */
-    private void handleMatchSuccess(MatchQueueItem player1, MatchQueueItem player2,
-                                    List<String> allJsons) {
+    private boolean handleMatchSuccess(MatchQueueItem player1, MatchQueueItem player2,
+                                       Map<Long, String> rawJsons) {
         try {
             // 创建战斗
             String battleId = battleService.createBattle(
@@ -238,11 +245,37 @@ public class MatchService {
             sendMatchSuccessMessage(player2, player1, battleId);
 
             // 从Redis移除
-            removeFromQueue(player1, allJsons);
-            removeFromQueue(player2, allJsons);
+            removeFromQueue(player1, rawJsons);
+            removeFromQueue(player2, rawJsons);
+            return true;
 
         } catch (Exception e) {
             logger.error("匹配成功处理失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 为等待过久的玩家创建人机对战
+     * 机器人以“对手”身份出现在 MATCH_SUCCESS 中，客户端流程与真人对战一致
+     */
+    private boolean handleBotMatch(MatchQueueItem player, Map<Long, String> rawJsons) {
+        try {
+            String battleId = battleService.createBotBattle(player.getUserId());
+            BattlePlayer bot = battleManager.getBattle(battleId).getPlayer2();
+
+            MatchQueueItem botItem = new MatchQueueItem(
+                    bot.getUserId(), player.getEloRating(), bot.getNickname(), bot.getCharacterId());
+            sendMatchSuccessMessage(player, botItem, battleId);
+
+            removeFromQueue(player, rawJsons);
+            logger.info("匹配等待过久，分配机器人对手: userId={}, 等待={}s", player.getUserId(),
+                    player.getWaitingTimeInSeconds());
+            return true;
+
+        } catch (Exception e) {
+            logger.error("人机匹配处理失败: userId={}", player.getUserId(), e);
+            return false;
         }
     }
 
@@ -268,17 +301,14 @@ public class MatchService {
         sessionManager.sendMessage(player.getUserId(), message);
     }
 
-    private void removeFromQueue(MatchQueueItem player, List<String> allJsons) {
+    private void removeFromQueue(MatchQueueItem player, Map<Long, String> rawJsons) {
         try {
-            for (String json : allJsons) {
-                MatchQueueItem item = objectMapper.readValue(json, MatchQueueItem.class);
-                if (item.getUserId().equals(player.getUserId())) {
-                    stringRedisTemplate.opsForList().remove(queueKey, 1, json);
-                    break;
-                }
+            String json = rawJsons.get(player.getUserId());
+            if (json != null) {
+                stringRedisTemplate.opsForList().remove(queueKey, 1, json);
             }
         } catch (Exception e) {
             logger.error("从队列移除失败: userId={}", player.getUserId(), e);
         }
     }
-}
\ No newline at end of file
+}
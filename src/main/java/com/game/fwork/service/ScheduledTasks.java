@@ -1,9 +1,11 @@
 package com.game.fwork.service;
 
+import com.game.fwork.config.SchedulerConfig;
 import com.game.fwork.entity.Battle;
 import com.game.fwork.enums.BattleEndReason;
 import com.game.fwork.enums.BattleState;
 import com.game.fwork.manager.BattleManager;
+import com.game.fwork.manager.ScheduledTaskMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,14 +31,25 @@ public class ScheduledTasks {
     @Autowired
     private BattleService battleService;
 
+    @Autowired
+    private ScheduledTaskMonitor scheduledTaskMonitor;
+
     @Value("${battle.turn-timeout:90}")
     private int turnTimeoutSeconds;
 
     @Value("${battle.waiting-timeout:30}")
     private int waitingTimeoutSeconds;
 
-    @Scheduled(fixedRate = 5000)  // 每5秒执行一次
+    // 巡检间隔（毫秒）
+    @Value("${battle.check-interval-ms:5000}")
+    private long checkIntervalMs;
+
+    @Scheduled(fixedRateString = "${battle.check-interval-ms:5000}", scheduler = SchedulerConfig.BATTLE_SCHEDULER)
     public void checkBattleTimeout() {
+        scheduledTaskMonitor.runFixedRate("battleTimeoutCheck", checkIntervalMs, this::sweepBattles);
+    }
+
+    private void sweepBattles() {
         try {
             // 检查准备阶段超时
             checkWaitingBattles();
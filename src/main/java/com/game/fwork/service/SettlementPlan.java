@@ -0,0 +1,228 @@
+package com.game.fwork.service;
+
+import com.game.fwork.entity.Battle;
+import com.game.fwork.entity.BattlePlayer;
+import com.game.fwork.entity.BattleRecord;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一批战斗结算的计算结果（纯内存计算，不访问数据库）
+ * 按提交顺序依次结算：同一玩家在一批中出现多次时，后一场的战前分数取前一场的战后分数
+ * 每个玩家最终只产生一条累计增量（ELO、胜场、总场次、金币），战斗记录按场生成
+ */
+public final class SettlementPlan {
+
+    /**
+     * 胜者金币奖励
+     */
+    public static final int WINNER_GOLD = 100;
+
+    /**
+     * 败者低保金币
+     */
+    public static final int LOSER_GOLD = 20;
+
+    /**
+     * 败者固定扣分
+     */
+    public static final int LOSER_ELO_CHANGE = -15;
+
+    // 用户ID -> 累计增量（按ID排序，批量 UPDATE 时按固定顺序加锁，避免多个写入方死锁）
+    private final Map<Long, UserDelta> deltas = new TreeMap<>();
+    private final List<BattleRecord> records = new ArrayList<>();
+    private final List<String> skippedBattleIds = new ArrayList<>();
+    // 本批结算后各玩家的 ELO（用于同步玩家档案）
+    private Map<Long, Integer> finalElo;
+
+    private SettlementPlan() {
+    }
+
+    /**
+     * 计算一批结算
+     *
+     * @param settlements 待结算的战斗（按结束顺序）
+     * @param currentElo 相关玩家当前的 ELO（数据库中查不到的玩家不在其中，其所在的战斗会被跳过）
+     * @param winnerEloChange 胜者加分（K 值）
+     */
+    public static SettlementPlan build(List<SettlementService.Settlement> settlements,
+                                       Map<Long, Integer> currentElo, int winnerEloChange) {
+        SettlementPlan plan = new SettlementPlan();
+        Map<Long, Integer> elo = new HashMap<>(currentElo);
+
+        for (SettlementService.Settlement settlement : settlements) {
+            Battle battle = settlement.getBattle();
+            if (battle.getPlayer1().isBot() || battle.getPlayer2().isBot()) {
+                plan.addBotBattle(settlement, elo);
+            } else {
+                plan.addRankedBattle(settlement, elo, winnerEloChange);
+            }
+        }
+        plan.finalElo = elo;
+        return plan;
+    }
+
+    /**
+     * 人人对战：胜者 +K，败者固定扣分（不低于 0），双方发放金币
+     */
+    private void addRankedBattle(SettlementService.Settlement settlement, Map<Long, Integer> elo, int winnerEloChange) {
+        Long winnerId = settlement.getWinnerId();
+        Long loserId = settlement.getLoserId();
+        Integer winnerBefore = elo.get(winnerId);
+        Integer loserBefore = elo.get(loserId);
+        if (winnerBefore == null || loserBefore == null) {
+            skippedBattleIds.add(settlement.getBattle().getBattleId());
+            return;
+        }
+
+        int winnerAfter = winnerBefore + winnerEloChange;
+        int loserAfter = Math.max(0, loserBefore + LOSER_ELO_CHANGE);
+        elo.put(winnerId, winnerAfter);
+        elo.put(loserId, loserAfter);
+
+        delta(winnerId).add(winnerAfter - winnerBefore, 1, WINNER_GOLD);
+        delta(loserId).add(loserAfter - loserBefore, 0, LOSER_GOLD);
+
+        Battle battle = settlement.getBattle();
+        boolean p1Won = battle.getPlayer1().getUserId().equals(winnerId);
+        records.add(toRecord(settlement,
+                p1Won ? winnerBefore : loserBefore, p1Won ? winnerAfter : loserAfter,
+                p1Won ? loserBefore : winnerBefore, p1Won ? loserAfter : winnerAfter));
+    }
+
+    /**
+     * 人机对战：只结算真实玩家，不改变 ELO；机器人的战前/战后分数记为玩家当前分
+     */
+    private void addBotBattle(SettlementService.Settlement settlement, Map<Long, Integer> elo) {
+        Battle battle = settlement.getBattle();
+        BattlePlayer human = battle.getPlayer1().isBot() ? battle.getPlayer2() : battle.getPlayer1();
+        Integer current = elo.get(human.getUserId());
+        if (current == null) {
+            skippedBattleIds.add(battle.getBattleId());
+            return;
+        }
+
+        boolean won = human.getUserId().equals(settlement.getWinnerId());
+        delta(human.getUserId()).add(0, won ? 1 : 0, won ? WINNER_GOLD : LOSER_GOLD);
+        records.add(toRecord(settlement, current, current, current, current));
+    }
+
+    private UserDelta delta(Long userId) {
+        return deltas.computeIfAbsent(userId, UserDelta::new);
+    }
+
+    private static BattleRecord toRecord(SettlementService.Settlement settlement,
+                                         int p1EloBefore, int p1EloAfter,
+                                         int p2EloBefore, int p2EloAfter) {
+        Battle battle = settlement.getBattle();
+        BattlePlayer p1 = battle.getPlayer1();
+        BattlePlayer p2 = battle.getPlayer2();
+
+        // 计算时长
+        Integer duration = 0;
+        if (battle.getStartTime() != null && battle.getEndTime() != null) {
+            duration = (int) Duration.between(battle.getStartTime(), battle.getEndTime()).getSeconds();
+        }
+
+        BattleRecord record = new BattleRecord();
+        record.setBattleId(battle.getBattleId());
+
+        record.setPlayer1Id(p1.getUserId());
+        record.setPlayer1Nickname(p1.getNickname());
+        record.setPlayer1CharId(p1.getCharacterId());
+        record.setPlayer1FinalHp(p1.getCurrentHp());
+        record.setPlayer1EloBefore(p1EloBefore);
+        record.setPlayer1EloAfter(p1EloAfter);
+
+        record.setPlayer2Id(p2.getUserId());
+        record.setPlayer2Nickname(p2.getNickname());
+        record.setPlayer2CharId(p2.getCharacterId());
+        record.setPlayer2FinalHp(p2.getCurrentHp());
+        record.setPlayer2EloBefore(p2EloBefore);
+        record.setPlayer2EloAfter(p2EloAfter);
+
+        record.setWinnerId(settlement.getWinnerId());
+        record.setEndReason(battle.getEndReason());
+        record.setTotalRounds(battle.getCurrentRound());
+        record.setBattleDuration(duration);
+
+        record.setStartTime(battle.getStartTime());
+        record.setEndTime(battle.getEndTime());
+        record.setCreatedAt(LocalDateTime.now());
+        return record;
+    }
+
+    /**
+     * 每个玩家的累计增量（按用户ID排序）
+     */
+    public Collection<UserDelta> getDeltas() {
+        return deltas.values();
+    }
+
+    public List<BattleRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * 结算后的 ELO
+     */
+    public int getFinalElo(Long userId) {
+        return finalElo.get(userId);
+    }
+
+    /**
+     * 因玩家不存在而跳过的战斗
+     */
+    public List<String> getSkippedBattleIds() {
+        return skippedBattleIds;
+    }
+
+    /**
+     * 单个玩家在一批结算中的累计增量
+     */
+    public static final class UserDelta {
+        private final Long userId;
+        private int eloChange;
+        private int wins;
+        private int battles;
+        private int gold;
+
+        UserDelta(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(int eloChange, int wins, int gold) {
+            this.eloChange += eloChange;
+            this.wins += wins;
+            this.battles++;
+            this.gold += gold;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public int getEloChange() {
+            return eloChange;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getBattles() {
+            return battles;
+        }
+
+        public int getGold() {
+            return gold;
+        }
+    }
+}
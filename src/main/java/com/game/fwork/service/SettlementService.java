@@ -0,0 +1,780 @@
+package com.game.fwork.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.config.GameConfig;
+import com.game.fwork.entity.Battle;
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.util.AtomicHistogram;
+import com.game.fwork.util.BattleLogCodec;
+import com.game.fwork.util.InstanceIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 战斗结算服务（持久化队列 + 批量写回）
+ * 战斗结束时只把结算追加到 Redis Stream（settlement:stream），追加成功即视为结算已持久化，
+ * 进程崩溃或重启后，遗留在消费组待确认列表中的记录空闲超过 settlement.claim-min-idle-ms 后
+ * 由任一实例的写入线程用 XPENDING + XCLAIM 认领并重放，玩家不会丢失 ELO 与金币
+ * 消费者名默认按进程生成（主机名加随机后缀），各实例只重放自己的待确认记录，不会并发处理同一条
+ * 写入线程成批读取后统一落库，游戏线程（Netty Worker、巡检调度）上不执行任何数据库操作：
+ * 1. 一条 SELECT ... IN 读取本批玩家当前 ELO、一条 SELECT ... IN 过滤已结算的战斗（重放时天然幂等）
+ * 2. 按玩家聚合增量后，用 JDBC 批量执行 UPDATE t_user SET elo_rating = elo_rating + ? ...
+ * 3. 战斗记录使用多行 INSERT 写入 t_battle_record，压缩后的战斗日志同样以多行 INSERT 写入 t_battle_log
+ * 4. 事务提交后，用 Redis 管道一次性写入本批战报并确认、删除 Stream 中的记录
+ * 多次结算失败的记录转入死信流（settlement:dead），不再阻塞后续结算
+ */
+@Service
+public class SettlementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementService.class);
+
+    private static final String STREAM_KEY = "settlement:stream";
+    private static final String DEAD_LETTER_KEY = "settlement:dead";
+    private static final String GROUP = "settlement-writer";
+
+    // Stream 记录字段
+    private static final String FIELD_BATTLE_ID = "battleId";
+    private static final String FIELD_WINNER_ID = "winnerId";
+    private static final String FIELD_LOSER_ID = "loserId";
+    private static final String FIELD_BATTLE = "battle";
+    private static final String FIELD_ERROR = "error";
+
+    private static final String BATTLE_REPORT_KEY = BattleReportIndexService.REPORT_KEY_PREFIX;
+    private static final long REPORT_TTL_SECONDS = BattleReportIndexService.REPORT_TTL_SECONDS;
+
+    private static final String UPDATE_USER_SQL =
+            "UPDATE t_user SET elo_rating = elo_rating + ?, win_count = win_count + ?, " +
+            "total_battles = total_battles + ?, gold = COALESCE(gold, 0) + ? WHERE id = ?";
+
+    private static final String INSERT_RECORD_COLUMNS =
+            "INSERT INTO t_battle_record (battle_id, player1_id, player1_nickname, player1_char_id, " +
+            "player2_id, player2_nickname, player2_char_id, winner_id, end_reason, total_rounds, " +
+            "battle_duration, player1_final_hp, player1_elo_before, player1_elo_after, player2_final_hp, " +
+            "player2_elo_before, player2_elo_after, start_time, end_time, created_at) VALUES ";
+
+    private static final String INSERT_RECORD_ROW = "(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    private static final String INSERT_LOG_COLUMNS =
+            "INSERT INTO t_battle_log (battle_id, codec, log_data, created_at) VALUES ";
+
+    private static final String INSERT_LOG_ROW = "(?,?,?,?)";
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private PlayerProfileCache playerProfileCache;
+    @Autowired private LeaderboardService leaderboardService;
+    @Autowired private BattleStatsService battleStatsService;
+    @Autowired private BattleReportIndexService battleReportIndexService;
+    @Autowired private GameConfig gameConfig;
+    @Autowired private BattleLogCodec battleLogCodec;
+
+    // 消费者名称（为空时按主机名加随机后缀生成；手工配置时每个实例需不同）
+    @Value("${settlement.consumer-name:}")
+    private String consumerName;
+
+    // 待确认记录空闲超过该时长（毫秒）后视为原消费者已失效，由本实例认领重放
+    @Value("${settlement.claim-min-idle-ms:60000}")
+    private long claimMinIdleMs;
+
+    // 认领检查间隔（毫秒）
+    @Value("${settlement.claim-interval-ms:30000}")
+    private long claimIntervalMs;
+
+    // Redis 不可用时的内存暂存队列容量（暂存的结算不具备持久性）
+    @Value("${settlement.fallback-capacity:10000}")
+    private int fallbackCapacity;
+
+    // 单批最多结算的战斗数
+    @Value("${settlement.max-batch-size:200}")
+    private int maxBatchSize;
+
+    // 单条多行 INSERT 的最大行数（战斗日志较大，避免单条语句超过 max_allowed_packet）
+    @Value("${settlement.insert-rows-per-statement:50}")
+    private int insertRowsPerStatement;
+
+    // 单场结算最多尝试次数，超过后转入死信流
+    @Value("${settlement.max-attempts:5}")
+    private int maxAttempts;
+
+    // 结算失败后的重试间隔（毫秒）
+    @Value("${settlement.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<Settlement> fallbackQueue;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Stream 记录ID -> 已失败次数（仅写入线程访问）
+    private final Map<String, Integer> attempts = new HashMap<>();
+
+    // 监控指标
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong appendFailures = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong settled = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong removedConsumers = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    // 已编码的战斗日志条数与压缩后总字节数
+    private final AtomicLong encodedLogs = new AtomicLong();
+    private final AtomicLong logBytes = new AtomicLong();
+    // 游戏线程追加 Stream 的耗时（微秒）
+    private final AtomicHistogram appendMicros = new AtomicHistogram();
+    private final AtomicHistogram batchSize = new AtomicHistogram();
+    // 单批耗时（微秒）
+    private final AtomicHistogram batchMicros = new AtomicHistogram();
+
+    @PostConstruct
+    public void init() {
+        consumerName = InstanceIds.resolve(consumerName);
+        fallbackQueue = new ArrayBlockingQueue<>(Math.max(1, fallbackCapacity));
+        createGroup();
+        running = true;
+        writer = new Thread(this::drainLoop, "settlement-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("战斗结算写入线程已启动，消费者={}, 单批上限={}", consumerName, maxBatchSize);
+    }
+
+    /**
+     * 停机时停止读取 Stream（未确认的记录下次启动重放），内存暂存队列中的结算尽量写完
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!fallbackQueue.isEmpty()) {
+            logger.error("停机时内存暂存队列仍有 {} 场战斗未结算", fallbackQueue.size());
+        }
+    }
+
+    /**
+     * 创建消费组（Stream 不存在时一并创建；已存在时忽略）
+     */
+    private void createGroup() {
+        try {
+            stringRedisTemplate.opsForStream().createGroup(STREAM_KEY, ReadOffset.from("0"), GROUP);
+        } catch (Exception e) {
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")
+                    && !(e.getCause() != null && String.valueOf(e.getCause().getMessage()).contains("BUSYGROUP"))) {
+                logger.error("创建结算消费组失败，写入线程将在读取时重试", e);
+            }
+        }
+    }
+
+    /**
+     * 提交一场已结束战斗的结算（在游戏线程调用）
+     * 只做序列化与一次 Redis 追加，不访问数据库；Redis 不可用时暂存内存队列，队列满则记录丢失
+     */
+    public void submit(Battle battle, Long winnerId, Long loserId) {
+        submitted.incrementAndGet();
+        String battleJson;
+        try {
+            battleJson = objectMapper.writeValueAsString(battle);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("战斗序列化失败，无法结算: battleId={}", battle.getBattleId(), e);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Map<String, String> fields = new HashMap<>();
+            fields.put(FIELD_BATTLE_ID, battle.getBattleId());
+            fields.put(FIELD_WINNER_ID, winnerId != null ? winnerId.toString() : "");
+            fields.put(FIELD_LOSER_ID, loserId != null ? loserId.toString() : "");
+            fields.put(FIELD_BATTLE, battleJson);
+            stringRedisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(STREAM_KEY));
+            appendMicros.record((System.nanoTime() - start) / 1000);
+            return;
+        } catch (Exception e) {
+            appendFailures.incrementAndGet();
+            logger.error("结算写入 Redis Stream 失败，暂存内存队列: battleId={}", battle.getBattleId(), e);
+        }
+
+        Settlement settlement = new Settlement(battle, winnerId, loserId);
+        settlement.reportJson = battleJson;
+        if (!fallbackQueue.offer(settlement)) {
+            dropped.incrementAndGet();
+            logger.error("结算内存暂存队列已满，结算丢失: battleId={}, winnerId={}, loserId={}",
+                    battle.getBattleId(), winnerId, loserId);
+        }
+    }
+
+    private void drainLoop() {
+        // 启动时先重放上次未确认的记录（本消费者的待确认列表）
+        boolean replay = true;
+        long nextClaimAt = 0;
+        while (running) {
+            try {
+                if (System.currentTimeMillis() >= nextClaimAt) {
+                    nextClaimAt = System.currentTimeMillis() + claimIntervalMs;
+                    if (claimIdle() > 0) {
+                        replay = true;
+                    }
+                }
+                List<Settlement> batch = new ArrayList<>(maxBatchSize);
+                fallbackQueue.drainTo(batch, maxBatchSize);
+                int room = maxBatchSize - batch.size();
+                if (room > 0) {
+                    List<MapRecord<String, Object, Object>> records = readStream(replay, room, batch.isEmpty());
+                    if (replay) {
+                        if (records.isEmpty()) {
+                            replay = false;
+                        } else {
+                            replayed.addAndGet(records.size());
+                        }
+                    }
+                    for (MapRecord<String, Object, Object> record : records) {
+                        Settlement settlement = decode(record);
+                        if (settlement != null) {
+                            batch.add(settlement);
+                        }
+                    }
+                }
+                if (batch.isEmpty()) continue;
+
+                if (!settleBatch(batch)) {
+                    // 有结算失败且仍在待确认列表中：稍后从待确认列表重放
+                    replay = true;
+                    Thread.sleep(retryBackoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("结算写入线程异常", e);
+                replay = true;
+                createGroup();
+                try {
+                    Thread.sleep(retryBackoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        // 停机：内存暂存队列没有持久性，尽量写完
+        List<Settlement> rest = new ArrayList<>();
+        while (fallbackQueue.drainTo(rest, maxBatchSize) > 0) {
+            settleBatch(rest);
+            rest.clear();
+        }
+    }
+
+    /**
+     * 读取 Stream：重放时读取本消费者已投递未确认的记录，否则读取新记录（无积压时最多阻塞 500 毫秒）
+     */
+    private List<MapRecord<String, Object, Object>> readStream(boolean replay, int count, boolean block) {
+        StreamReadOptions options = StreamReadOptions.empty().count(count);
+        if (!replay && block) {
+            options = options.block(Duration.ofMillis(500));
+        }
+        ReadOffset offset = replay ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                .read(Consumer.from(GROUP, consumerName), options, StreamOffset.create(STREAM_KEY, offset));
+        return records != null ? records : Collections.emptyList();
+    }
+
+    /**
+     * 认领其他消费者空闲过久的待确认记录（所属实例崩溃、改名或下线），转入本消费者的待确认列表后走重放流程
+     * XCLAIM 带最小空闲时间，多个实例同时认领同一条时只有一个成功
+     * 顺带删除没有待确认记录且长期空闲的消费者，避免消费者名按进程生成后在消费组中越积越多
+     *
+     * @return 认领的条数
+     */
+    private int claimIdle() {
+        Duration minIdle = Duration.ofMillis(claimMinIdleMs);
+        StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+        int total = 0;
+        try {
+            PendingMessages idle = ops.pending(STREAM_KEY, GROUP, Range.unbounded(), maxBatchSize, minIdle);
+            List<RecordId> ids = new ArrayList<>();
+            if (idle != null) {
+                for (PendingMessage message : idle) {
+                    if (!consumerName.equals(message.getConsumerName())) {
+                        ids.add(message.getId());
+                    }
+                }
+            }
+            if (!ids.isEmpty()) {
+                List<MapRecord<String, Object, Object>> records =
+                        ops.claim(STREAM_KEY, GROUP, consumerName, minIdle, ids.toArray(new RecordId[0]));
+                total = records != null ? records.size() : 0;
+                claimed.addAndGet(total);
+                logger.warn("认领其他消费者遗留的结算记录: 条数={}, 消费者={}", total, consumerName);
+            }
+
+            StreamInfo.XInfoConsumers consumers = ops.consumers(STREAM_KEY, GROUP);
+            if (consumers != null) {
+                for (StreamInfo.XInfoConsumer consumer : consumers) {
+                    if (!consumerName.equals(consumer.consumerName()) && consumer.pendingCount() == 0
+                            && consumer.idleTimeMs() >= claimMinIdleMs) {
+                        ops.deleteConsumer(STREAM_KEY, Consumer.from(GROUP, consumer.consumerName()));
+                        removedConsumers.incrementAndGet();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("认领空闲结算记录失败", e);
+        }
+        return total;
+    }
+
+    /**
+     * 还原 Stream 记录；无法解析的记录直接转入死信流
+     */
+    private Settlement decode(MapRecord<String, Object, Object> record) {
+        Map<Object, Object> fields = record.getValue();
+        try {
+            String battleJson = (String) fields.get(FIELD_BATTLE);
+            Battle battle = objectMapper.readValue(battleJson, Battle.class);
+            Settlement settlement = new Settlement(battle,
+                    parseId(fields.get(FIELD_WINNER_ID)), parseId(fields.get(FIELD_LOSER_ID)));
+            settlement.recordId = record.getId().getValue();
+            settlement.reportJson = battleJson;
+            return settlement;
+        } catch (Exception e) {
+            logger.error("结算记录无法解析，转入死信流: recordId={}, battleId={}",
+                    record.getId().getValue(), fields.get(FIELD_BATTLE_ID), e);
+            deadLetter(record.getId().getValue(), fields, e);
+            return null;
+        }
+    }
+
+    /**
+     * 结算一批战斗；整批失败时逐场重试，避免一场坏数据拖累同批的其他战斗
+     *
+     * @return 是否全部处理完毕（false 表示有结算失败，等待重试）
+     */
+    private boolean settleBatch(List<Settlement> batch) {
+        long start = System.nanoTime();
+        try {
+            writeBatch(batch);
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                return onFailure(batch.get(0), e);
+            }
+            logger.warn("批量结算失败，改为逐场结算。条数={}", batch.size(), e);
+            boolean allDone = true;
+            for (Settlement settlement : batch) {
+                allDone &= settleBatch(Collections.singletonList(settlement));
+            }
+            return allDone;
+        }
+        long elapsed = System.nanoTime() - start;
+        busyNanos.addAndGet(elapsed);
+        batchSize.record(batch.size());
+        batchMicros.record(elapsed / 1000);
+        return true;
+    }
+
+    /**
+     * 单场结算失败：未超过尝试次数时保留等待重试，超过后转入死信流
+     *
+     * @return 是否已处理完毕（转入死信流视为处理完毕）
+     */
+    private boolean onFailure(Settlement settlement, Exception cause) {
+        failed.incrementAndGet();
+        String battleId = settlement.getBattle().getBattleId();
+        int count = settlement.recordId != null
+                ? attempts.merge(settlement.recordId, 1, Integer::sum)
+                : ++settlement.attempts;
+        logger.error("保存战斗结果失败: battleId={}, 第 {} 次", battleId, count, cause);
+        if (count < maxAttempts) {
+            if (settlement.recordId == null && !fallbackQueue.offer(settlement)) {
+                dropped.incrementAndGet();
+                logger.error("结算内存暂存队列已满，结算丢失: battleId={}", battleId);
+            }
+            return false;
+        }
+
+        Map<Object, Object> fields = new HashMap<>();
+        fields.put(FIELD_BATTLE_ID, battleId);
+        fields.put(FIELD_WINNER_ID, settlement.getWinnerId() != null ? settlement.getWinnerId().toString() : "");
+        fields.put(FIELD_LOSER_ID, settlement.getLoserId() != null ? settlement.getLoserId().toString() : "");
+        fields.put(FIELD_BATTLE, settlement.reportJson);
+        deadLetter(settlement.recordId, fields, cause);
+        return true;
+    }
+
+    /**
+     * 转入死信流（保留原始字段与失败原因，供人工处理），并确认删除原记录
+     */
+    private void deadLetter(String recordId, Map<Object, Object> fields, Exception cause) {
+        try {
+            Map<String, String> dead = new HashMap<>();
+            fields.forEach((k, v) -> dead.put(String.valueOf(k), String.valueOf(v)));
+            dead.put(FIELD_ERROR, String.valueOf(cause));
+            stringRedisTemplate.opsForStream().add(StreamRecords.string(dead).withStreamKey(DEAD_LETTER_KEY));
+            if (recordId != null) {
+                stringRedisTemplate.opsForStream().acknowledge(STREAM_KEY, GROUP, recordId);
+                stringRedisTemplate.opsForStream().delete(STREAM_KEY, recordId);
+                attempts.remove(recordId);
+            }
+            deadLettered.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("结算转入死信流失败: battleId={}", fields.get(FIELD_BATTLE_ID), e);
+        }
+    }
+
+    private void writeBatch(List<Settlement> batch) {
+        // 1. 日志编码压缩放在事务外，缩短持有行锁的时间
+        for (Settlement settlement : batch) {
+            if (settlement.logData == null) {
+                settlement.logData = battleLogCodec.encode(settlement.getBattle().getBattleLogs());
+                encodedLogs.incrementAndGet();
+                logBytes.addAndGet(settlement.logData.length);
+            }
+        }
+
+        // 2. 同一事务内完成读分、改分与插入记录
+        BatchResult result = transactionTemplate.execute(status -> writeToDatabase(batch));
+
+        // 3. 事务提交后更新计数、同步玩家档案与排行榜、写入战报并确认 Stream 记录
+        duplicates.addAndGet(result.duplicates);
+        SettlementPlan plan = result.plan;
+        if (plan != null) {
+            settled.addAndGet(plan.getRecords().size());
+            if (!plan.getSkippedBattleIds().isEmpty()) {
+                skipped.addAndGet(plan.getSkippedBattleIds().size());
+                logger.warn("玩家不存在，跳过结算: {}", plan.getSkippedBattleIds());
+            }
+            Map<Long, Integer> ratings = new HashMap<>();
+            for (SettlementPlan.UserDelta delta : plan.getDeltas()) {
+                int finalElo = plan.getFinalElo(delta.getUserId());
+                int[] before = result.lockedStats.get(delta.getUserId());
+                playerProfileCache.updateBattleStats(delta.getUserId(), finalElo,
+                        before[0] + delta.getBattles(), before[1] + delta.getWins(), before[2] + delta.getGold());
+                ratings.put(delta.getUserId(), finalElo);
+            }
+            leaderboardService.updateRatings(ratings);
+        }
+        writeReportsAndAck(batch);
+    }
+
+    private BatchResult writeToDatabase(List<Settlement> batch) {
+        // 过滤已落库的战斗（重复提交）
+        Set<String> existing = findExistingBattleIds(batch);
+        List<Settlement> pending = new ArrayList<>(batch.size());
+        Set<String> seen = new HashSet<>();
+        for (Settlement settlement : batch) {
+            String battleId = settlement.getBattle().getBattleId();
+            if (existing.contains(battleId) || !seen.add(battleId)) {
+                continue;
+            }
+            pending.add(settlement);
+        }
+        BatchResult result = new BatchResult(batch.size() - pending.size());
+        if (pending.isEmpty()) {
+            return result;
+        }
+
+        int kFactor = gameConfig.getElo().getKFactor();
+        SettlementPlan plan = SettlementPlan.build(pending, lockRatings(pending, result.lockedStats), kFactor);
+
+        List<Object[]> updates = new ArrayList<>(plan.getDeltas().size());
+        for (SettlementPlan.UserDelta delta : plan.getDeltas()) {
+            updates.add(new Object[]{delta.getEloChange(), delta.getWins(), delta.getBattles(),
+                    delta.getGold(), delta.getUserId()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_USER_SQL, updates);
+
+        insertRecords(plan.getRecords());
+        battleStatsService.increment(plan.getRecords());
+        insertLogs(pending, plan);
+        result.plan = plan;
+        return result;
+    }
+
+    /**
+     * 已存在于 t_battle_record 中的战斗ID
+     */
+    private Set<String> findExistingBattleIds(List<Settlement> batch) {
+        List<Object> battleIds = new ArrayList<>(batch.size());
+        for (Settlement settlement : batch) {
+            battleIds.add(settlement.getBattle().getBattleId());
+        }
+        String sql = "SELECT battle_id FROM t_battle_record WHERE battle_id IN (" + placeholders(battleIds.size()) + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, battleIds.toArray()));
+    }
+
+    /**
+     * 读取并锁定本批涉及的真实玩家的当前 ELO（按ID顺序加锁）
+     *
+     * @param lockedStats 输出：userId -> {总场次, 胜场, 金币}，事务提交后用于写入档案缓存
+     */
+    private Map<Long, Integer> lockRatings(List<Settlement> batch, Map<Long, int[]> lockedStats) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (Settlement settlement : batch) {
+            Battle battle = settlement.getBattle();
+            if (!battle.getPlayer1().isBot()) userIds.add(battle.getPlayer1().getUserId());
+            if (!battle.getPlayer2().isBot()) userIds.add(battle.getPlayer2().getUserId());
+        }
+        Map<Long, Integer> ratings = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return ratings;
+        }
+
+        String sql = "SELECT id, elo_rating, total_battles, win_count, gold FROM t_user WHERE id IN (" +
+                placeholders(userIds.size()) + ") ORDER BY id FOR UPDATE";
+        jdbcTemplate.query(sql, rs -> {
+            ratings.put(rs.getLong(1), rs.getInt(2));
+            lockedStats.put(rs.getLong(1), new int[]{rs.getInt(3), rs.getInt(4), rs.getInt(5)});
+        }, userIds.toArray());
+        return ratings;
+    }
+
+    /**
+     * 多行 INSERT 写入战斗记录
+     */
+    private void insertRecords(List<BattleRecord> records) {
+        int rowsPerStatement = Math.max(1, insertRowsPerStatement);
+        for (int from = 0; from < records.size(); from += rowsPerStatement) {
+            List<BattleRecord> chunk = records.subList(from, Math.min(records.size(), from + rowsPerStatement));
+            StringBuilder sql = new StringBuilder(INSERT_RECORD_COLUMNS);
+            List<Object> args = new ArrayList<>(chunk.size() * 21);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) sql.append(',');
+                sql.append(INSERT_RECORD_ROW);
+                BattleRecord r = chunk.get(i);
+                Collections.addAll(args,
+                        r.getBattleId(), r.getPlayer1Id(), r.getPlayer1Nickname(), r.getPlayer1CharId(),
+                        r.getPlayer2Id(), r.getPlayer2Nickname(), r.getPlayer2CharId(), r.getWinnerId(),
+                        r.getEndReason(), r.getTotalRounds(), r.getBattleDuration(),
+                        r.getPlayer1FinalHp(), r.getPlayer1EloBefore(), r.getPlayer1EloAfter(),
+                        r.getPlayer2FinalHp(), r.getPlayer2EloBefore(), r.getPlayer2EloAfter(),
+                        toTimestamp(r.getStartTime()), toTimestamp(r.getEndTime()),
+                        toTimestamp(r.getCreatedAt()));
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * 多行 INSERT 写入本批已生成战斗记录的日志（跳过的战斗不写）
+     */
+    private void insertLogs(List<Settlement> pending, SettlementPlan plan) {
+        Set<String> skippedIds = new HashSet<>(plan.getSkippedBattleIds());
+        List<Settlement> logged = new ArrayList<>(pending.size());
+        for (Settlement settlement : pending) {
+            if (!skippedIds.contains(settlement.getBattle().getBattleId())) {
+                logged.add(settlement);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int rowsPerStatement = Math.max(1, insertRowsPerStatement);
+        for (int from = 0; from < logged.size(); from += rowsPerStatement) {
+            List<Settlement> chunk = logged.subList(from, Math.min(logged.size(), from + rowsPerStatement));
+            StringBuilder sql = new StringBuilder(INSERT_LOG_COLUMNS);
+            List<Object> args = new ArrayList<>(chunk.size() * 4);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) sql.append(',');
+                sql.append(INSERT_LOG_ROW);
+                Settlement settlement = chunk.get(i);
+                Collections.addAll(args, settlement.getBattle().getBattleId(),
+                        BattleLogCodec.CODEC_PROTOBUF_DEFLATE, settlement.logData, now);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * Redis 管道写入本批战报并登记到战报时间索引，再确认、删除已结算的 Stream 记录（一次往返）
+     * 确认失败时记录会在下次重放，已落库的战斗会被去重过滤
+     */
+    private void writeReportsAndAck(List<Settlement> batch) {
+        List<String> recordIds = new ArrayList<>(batch.size());
+        for (Settlement settlement : batch) {
+            if (settlement.recordId != null) {
+                recordIds.add(settlement.recordId);
+            }
+        }
+        Map<String, LocalDateTime> endTimes = new LinkedHashMap<>();
+        for (Settlement settlement : batch) {
+            endTimes.put(settlement.getBattle().getBattleId(), settlement.getBattle().getEndTime());
+        }
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (Settlement settlement : batch) {
+                    redis.setEx(BATTLE_REPORT_KEY + settlement.getBattle().getBattleId(),
+                            REPORT_TTL_SECONDS, settlement.reportJson);
+                }
+                battleReportIndexService.index(redis, endTimes);
+                if (!recordIds.isEmpty()) {
+                    String[] ids = recordIds.toArray(new String[0]);
+                    redis.xAck(STREAM_KEY, GROUP, ids);
+                    redis.xDel(STREAM_KEY, ids);
+                }
+                return null;
+            });
+            recordIds.forEach(attempts::remove);
+        } catch (Exception e) {
+            // 战报缓存丢失不影响结算结果，详情页会回退到 MySQL 记录
+            logger.error("战报写入或结算确认失败，条数={}", batch.size(), e);
+        }
+    }
+
+    private static Long parseId(Object value) {
+        String text = value != null ? value.toString() : "";
+        return text.isEmpty() ? null : Long.valueOf(text);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    /**
+     * 结算监控指标（管理后台展示）
+     * 积压（Stream 长度、最早一条的等待时长、待确认数）用于观察反压，appendMicros 为游戏线程上的追加耗时
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        try {
+            StreamOperations<String, Object, Object> ops = stringRedisTemplate.opsForStream();
+            Long length = ops.size(STREAM_KEY);
+            data.put("streamLength", length != null ? length : 0L);
+            List<MapRecord<String, Object, Object>> oldest = ops.range(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+            data.put("oldestAgeMs", oldest == null || oldest.isEmpty()
+                    ? 0L : System.currentTimeMillis() - oldest.get(0).getId().getTimestamp());
+            PendingMessagesSummary pending = ops.pending(STREAM_KEY, GROUP);
+            data.put("pending", pending != null ? pending.getTotalPendingMessages() : 0L);
+            Long deadLength = ops.size(DEAD_LETTER_KEY);
+            data.put("deadLetterLength", deadLength != null ? deadLength : 0L);
+        } catch (Exception e) {
+            data.put("streamError", String.valueOf(e.getMessage()));
+        }
+        data.put("fallbackQueueSize", fallbackQueue.size());
+        data.put("fallbackCapacity", fallbackCapacity);
+        data.put("submitted", submitted.get());
+        data.put("appendFailures", appendFailures.get());
+        data.put("dropped", dropped.get());
+        data.put("replayed", replayed.get());
+        data.put("settled", settled.get());
+        data.put("duplicates", duplicates.get());
+        data.put("skipped", skipped.get());
+        data.put("failed", failed.get());
+        data.put("deadLettered", deadLettered.get());
+        data.put("consumerName", consumerName);
+        data.put("claimed", claimed.get());
+        data.put("removedConsumers", removedConsumers.get());
+        // 写入线程忙碌时的结算速率（每秒场数），即结算管道的实际处理能力
+        long busy = busyNanos.get();
+        data.put("settlementsPerSecond", busy > 0 ? settled.get() * 1_000_000_000.0 / busy : 0.0);
+        long logs = encodedLogs.get();
+        data.put("avgLogBytes", logs > 0 ? logBytes.get() / logs : 0L);
+        data.put("appendMicros", appendMicros.snapshot());
+        data.put("batchSize", batchSize.snapshot());
+        data.put("batchMicros", batchMicros.snapshot());
+        return data;
+    }
+
+    /**
+     * 一批结算的数据库写入结果
+     */
+    private static final class BatchResult {
+        final int duplicates;
+        SettlementPlan plan;
+        // 锁定时读到的 {总场次, 胜场, 金币}
+        final Map<Long, int[]> lockedStats = new HashMap<>();
+
+        BatchResult(int duplicates) {
+            this.duplicates = duplicates;
+        }
+    }
+
+    /**
+     * 一场待结算的战斗
+     */
+    public static final class Settlement {
+        private final Battle battle;
+        private final Long winnerId;
+        private final Long loserId;
+        // 战斗 JSON（同时作为战报写入 Redis）
+        private String reportJson;
+        // 由写入线程在落库前编码压缩的战斗日志
+        private byte[] logData;
+        // 来源 Stream 记录ID（来自内存暂存队列时为空）
+        private String recordId;
+        // 内存暂存队列中的结算已失败次数
+        private int attempts;
+
+        public Settlement(Battle battle, Long winnerId, Long loserId) {
+            this.battle = battle;
+            this.winnerId = winnerId;
+            this.loserId = loserId;
+        }
+
+        public Battle getBattle() {
+            return battle;
+        }
+
+        public Long getWinnerId() {
+            return winnerId;
+        }
+
+        public Long getLoserId() {
+            return loserId;
+        }
+    }
+}
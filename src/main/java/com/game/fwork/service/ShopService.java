@@ -3,6 +3,7 @@ package com.game.fwork.service;
 import com.game.fwork.entity.Item;
 import com.game.fwork.entity.User;
 import com.game.fwork.entity.UserInventory;
+import com.game.fwork.manager.PlayerProfileCache;
 import com.game.fwork.repository.ItemRepository;
 import com.game.fwork.repository.UserInventoryRepository;
 import com.game.fwork.repository.UserRepository;
@@ -22,6 +23,8 @@ public class ShopService {
     @Autowired private ItemRepository itemRepository;
     @Autowired private UserInventoryRepository inventoryRepository;
     @Autowired private UserRepository userRepository;
+    @Autowired private PlayerProfileCache playerProfileCache;
+    @Autowired private LeaderboardService leaderboardService;
 
     public List<Item> getShopList() {
         return itemRepository.findAll();
@@ -65,6 +68,9 @@ public class ShopService {
 
         inventory.setCount(inventory.getCount() + 1);
         inventoryRepository.save(inventory);
+
+        // 金币变化，提交后使玩家档案失效
+        playerProfileCache.invalidateAfterCommit(userId);
     }
 
     /**
@@ -100,5 +106,9 @@ public class ShopService {
         // 3. 更新用户表上的当前佩戴ID (用于个人资料页快速读取)
         user.setAvatarFrameId(itemId);
         userRepository.save(user);
+
+        // 装备变更提交后使玩家档案与排行榜展示信息失效，下次访问时重新加载
+        playerProfileCache.invalidateAfterCommit(userId);
+        leaderboardService.refreshInfoAfterCommit(userId);
     }
 }
\ No newline at end of file
@@ -1,95 +1,81 @@
 package com.game.fwork.service;
 
-import com.game.fwork.entity.Character;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.game.fwork.entity.Friend;
 import com.game.fwork.entity.MessageBoard;
 import com.game.fwork.entity.User;
+import com.game.fwork.netty.session.PresenceRegistry;
 import com.game.fwork.netty.session.SessionManager;
-import com.game.fwork.repository.CharacterRepository;
 import com.game.fwork.repository.FriendRepository;
 import com.game.fwork.repository.MessageBoardRepository;
 import com.game.fwork.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class SocialService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SocialService.class);
+
+    static final String FRIEND_LIST_KEY = "friends:list:";
+
+    private static final String DEFAULT_CHAR_TYPE = "warrior";
+
+    private static final TypeReference<List<Map<String, Object>>> FRIEND_ROWS_TYPE = new TypeReference<>() {};
+
+    // 好友、好友的用户信息与激活角色一次查出
+    private static final String FRIEND_LIST_SQL =
+            "SELECT f.friend_id, f.status, u.nickname, u.avatar_frame_id, c.char_type FROM t_friend f " +
+            "JOIN t_user u ON u.id = f.friend_id " +
+            "LEFT JOIN t_character c ON c.user_id = f.friend_id AND c.is_active = 1 " +
+            "WHERE f.user_id = ? ORDER BY f.id";
+
     @Autowired private UserRepository userRepository;
     @Autowired private FriendRepository friendRepository;
     @Autowired private MessageBoardRepository messageBoardRepository;
 
     @Autowired private SessionManager sessionManager;
-    @Autowired private CharacterRepository characterRepository;
+    @Autowired private PresenceRegistry presenceRegistry;
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private ObjectMapper objectMapper;
 
-    /**
-     * 获取排行榜数据
-     * 查询 ELO 分数最高的前 50 名用户，并封装头像、职业等展示信息
-     */
-    public List<Map<String, Object>> getLeaderboard() {
-        List<User> users = userRepository.findAll(
-                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "eloRating"))
-        ).getContent();
-
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        for (User user : users) {
-            Map<String, Object> dto = new HashMap<>();
-            dto.put("id", user.getId());
-            dto.put("nickname", user.getNickname());
-            dto.put("eloRating", user.getEloRating());
-            dto.put("avatarFrameId", user.getAvatarFrameId());
-
-            // 获取激活角色的职业用于显示头像
-            String charType = "warrior"; // 默认兜底
-            Character activeChar = characterRepository.findByUserIdAndIsActive(user.getId(), 1).orElse(null);
-            if (activeChar != null) {
-                charType = activeChar.getCharType();
-            }
-            dto.put("charType", charType);
-
-            result.add(dto);
-        }
-        return result;
-    }
+    // 好友列表缓存的存活时间（秒），好友的昵称、头像框、职业变化最多延迟这么久可见
+    @Value("${social.friend-list.cache-ttl-seconds:600}")
+    private long friendListCacheTtlSeconds;
 
     /**
      * 获取好友列表
-     * 关联查询好友的在线状态（从 SessionManager）和当前职业信息，并按在线状态排序
+     * 好友的昵称、头像框与当前职业由一条关联查询取出，按用户缓存在 Redis；
+     * 在线状态不进缓存，每次读取时用一次 HMGET 批量查询集群在线登记，并按在线状态排序
      */
     public List<Map<String, Object>> getFriendList(Long userId) {
-        List<Friend> friends = friendRepository.findByUserId(userId);
-        List<Map<String, Object>> result = new ArrayList<>();
-
-        for (Friend relation : friends) {
-            User friendUser = relation.getFriend();
-
-            Map<String, Object> dto = new HashMap<>();
-            dto.put("friendId", friendUser.getId());
-            dto.put("nickname", friendUser.getNickname());
-            dto.put("status", relation.getStatus()); // 1=正常, 0=拉黑
-            dto.put("avatarFrameId", friendUser.getAvatarFrameId());
-
-            // 1. 查询在线状态
-            boolean isOnline = sessionManager.isOnline(friendUser.getId());
-            dto.put("online", isOnline);
-
-            // 2. 查询职业头像
-            String charType = "warrior";
-            Character activeChar = characterRepository.findByUserIdAndIsActive(friendUser.getId(), 1).orElse(null);
-            if (activeChar != null) {
-                charType = activeChar.getCharType();
-            }
-            dto.put("charType", charType);
+        List<Map<String, Object>> friends = loadFriendRows(userId);
+        List<Long> friendIds = new ArrayList<>(friends.size());
+        for (Map<String, Object> row : friends) {
+            friendIds.add((Long) row.get("friendId"));
+        }
+        Map<Long, Boolean> online = lookupOnline(friendIds);
 
+        List<Map<String, Object>> result = new ArrayList<>(friends.size());
+        for (Map<String, Object> row : friends) {
+            Map<String, Object> dto = new HashMap<>(row);
+            dto.put("online", online.getOrDefault((Long) row.get("friendId"), false));
             result.add(dto);
         }
 
@@ -103,6 +89,89 @@ public class SocialService {
         return result;
     }
 
+    /**
+     * 读取好友行（不含在线状态），缓存未命中时查询数据库并回写
+     */
+    private List<Map<String, Object>> loadFriendRows(Long userId) {
+        String key = FRIEND_LIST_KEY + userId;
+        try {
+            String json = stringRedisTemplate.opsForValue().get(key);
+            if (json != null) {
+                List<Map<String, Object>> rows = objectMapper.readValue(json, FRIEND_ROWS_TYPE);
+                // JSON 反序列化后的小整数为 Integer，统一为 Long
+                for (Map<String, Object> row : rows) {
+                    row.put("friendId", ((Number) row.get("friendId")).longValue());
+                }
+                return rows;
+            }
+        } catch (Exception e) {
+            logger.warn("读取好友列表缓存失败，改为查询数据库: userId={}", userId, e);
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.query(FRIEND_LIST_SQL, (rs, rowNum) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("friendId", rs.getLong(1));
+            row.put("status", rs.getObject(2) == null ? null : rs.getInt(2)); // 1=正常, 0=拉黑
+            row.put("nickname", rs.getString(3));
+            row.put("avatarFrameId", rs.getObject(4) == null ? null : rs.getInt(4));
+            String charType = rs.getString(5);
+            // 头像使用的职业，没有激活角色时默认战士
+            row.put("charType", charType != null ? charType : DEFAULT_CHAR_TYPE);
+            return row;
+        }, userId);
+
+        try {
+            stringRedisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(rows),
+                    friendListCacheTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warn("写入好友列表缓存失败: userId={}", userId, e);
+        }
+        return rows;
+    }
+
+    /**
+     * 批量查询在线状态；Redis 不可用时退回本实例的会话表
+     */
+    private Map<Long, Boolean> lookupOnline(List<Long> userIds) {
+        try {
+            return presenceRegistry.areOnline(userIds);
+        } catch (Exception e) {
+            logger.warn("批量查询在线状态失败，仅使用本实例会话: count={}", userIds.size(), e);
+            Map<Long, Boolean> local = new HashMap<>();
+            for (Long id : userIds) {
+                local.put(id, sessionManager.isOnline(id));
+            }
+            return local;
+        }
+    }
+
+    /**
+     * 在当前事务提交后删除好友列表缓存
+     */
+    private void evictFriendListAfterCommit(Long... userIds) {
+        List<String> keys = new ArrayList<>(userIds.length);
+        for (Long id : userIds) {
+            keys.add(FRIEND_LIST_KEY + id);
+        }
+        Runnable evict = () -> {
+            try {
+                stringRedisTemplate.delete(keys);
+            } catch (Exception e) {
+                logger.error("删除好友列表缓存失败: keys={}", keys, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+
     /**
      * 添加好友
      * 目前采用直接添加模式（无需验证），并在数据库中建立双向关系
@@ -125,6 +194,8 @@ public class SocialService {
             Friend relationBA = new Friend(userB, userA);
             friendRepository.save(relationBA);
         }
+
+        evictFriendListAfterCommit(userId, friendId);
     }
 
     // 留言
@@ -0,0 +1,131 @@
+package com.game.fwork.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁直方图（对数-线性分桶）
+ * 0~15 每个值一个桶，之后每个 2 的幂区间再均分为 8 个子桶，相对误差约 12.5%
+ * 记录操作只有几次 CAS/getAndIncrement，不加锁、不分配对象，适合在热路径中打点
+ * 只接受非负值，负数按 0 记录
+ */
+public class AtomicHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2;
+    static final int BUCKET_COUNT = SUB_COUNT * (64 - SUB_BITS);
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个样本
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSum() {
+        return sum.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long c = count.get();
+        return c == 0 ? 0.0 : (double) sum.get() / c;
+    }
+
+    /**
+     * 计算百分位数（返回所在桶的上界，且不超过最大值）
+     *
+     * @param percentile 0~100，如 99.9
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        if (target < 1) target = 1;
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 导出常用统计值，供 JSON 接口与页面展示
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", getCount());
+        data.put("mean", Math.round(getMean() * 100) / 100.0);
+        data.put("p50", getPercentile(50));
+        data.put("p90", getPercentile(90));
+        data.put("p99", getPercentile(99));
+        data.put("max", getMax());
+        return data;
+    }
+
+    /**
+     * 清空统计（并发记录中的样本可能被部分保留，统计用途可以接受）
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * 读取单个桶的计数（供 StripedHistogram 合并各分段使用）
+     */
+    long bucket(int index) {
+        return buckets.get(index);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_COUNT - 1);
+        return SUB_COUNT * (shift + 1) + sub;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long top = SUB_COUNT + (index % SUB_COUNT);
+        return ((top + 1) << shift) - 1;
+    }
+}
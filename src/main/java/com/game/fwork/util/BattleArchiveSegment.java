@@ -0,0 +1,567 @@
+package com.game.fwork.util;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.entity.BattleRecordLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 战斗记录冷归档段文件（按列存储，每列单独 Deflate 压缩）
+ * 文件头是一个小索引：行数、ID 与创建时间范围、段内每个玩家的参战场数（按玩家ID有序），
+ * 查询时先用文件头排除不相关的段、得到玩家场数，只有真正要读记录时才解压需要的列
+ *
+ * 文件布局（版本 2；版本 1 的玩家表只有玩家ID，仍可读取）：
+ *   magic | version | rowCount | minId | maxId | minCreatedMs | maxCreatedMs
+ *   | playerCount | (playerId, battleCount)[] | columnCount | (offset, length)[] | 各列压缩数据
+ * 行按 ID 升序排列；数值列存储与上一行的差值，字符串与字节列带空值标记
+ * 段文件一经写出不再修改，可被多个线程同时读取；
+ * 对象打开后只常驻固定大小的文件头字段和玩家ID的布隆过滤器（每个玩家约 10 位），
+ * 玩家场数在过滤器命中后到文件头的玩家表中二分查找
+ */
+public final class BattleArchiveSegment {
+
+    private static final int MAGIC = 0x42534731; // "BSG1"
+    private static final int VERSION = 2;
+
+    // 玩家表起始位置：3 个 int + 4 个 long + 玩家数
+    private static final long PLAYER_TABLE_START = 3L * 4 + 4L * 8 + 4;
+
+    // 布隆过滤器：每个玩家的位数与哈希次数（误判率约 2%）
+    private static final int FILTER_BITS_PER_PLAYER = 10;
+    private static final int FILTER_HASHES = 3;
+
+    /**
+     * 列定义（顺序即文件中的列顺序，只能在末尾追加）
+     */
+    public enum Column {
+        ID, BATTLE_ID,
+        PLAYER1_ID, PLAYER1_NICKNAME, PLAYER1_CHAR_ID,
+        PLAYER2_ID, PLAYER2_NICKNAME, PLAYER2_CHAR_ID,
+        WINNER_ID, END_REASON, TOTAL_ROUNDS, BATTLE_DURATION,
+        PLAYER1_FINAL_HP, PLAYER1_ELO_BEFORE, PLAYER1_ELO_AFTER,
+        PLAYER2_FINAL_HP, PLAYER2_ELO_BEFORE, PLAYER2_ELO_AFTER,
+        START_TIME, END_TIME, CREATED_AT,
+        LOG_CODEC, LOG_DATA
+    }
+
+    private final Path file;
+    private final int rowCount;
+    private final long minId;
+    private final long maxId;
+    private final long minCreatedMs;
+    private final long maxCreatedMs;
+    private final int version;
+    private final int playerCount;
+    private final BitSet playerFilter;
+    private final int filterBits;
+    private final long dataStart;
+    private final long[] columnOffsets;
+    private final int[] columnLengths;
+
+    private BattleArchiveSegment(Path file, int version, int rowCount, long minId, long maxId,
+                                 long minCreatedMs, long maxCreatedMs, int playerCount, BitSet playerFilter,
+                                 long dataStart, long[] columnOffsets, int[] columnLengths) {
+        this.file = file;
+        this.version = version;
+        this.rowCount = rowCount;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minCreatedMs = minCreatedMs;
+        this.maxCreatedMs = maxCreatedMs;
+        this.playerCount = playerCount;
+        this.playerFilter = playerFilter;
+        this.filterBits = filterSize(playerCount);
+        this.dataStart = dataStart;
+        this.columnOffsets = columnOffsets;
+        this.columnLengths = columnLengths;
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 写出一个段文件（先写临时文件再原子重命名，进程中断不会留下半个段）
+     *
+     * @param records 待归档的战斗记录（按 ID 升序）
+     * @param logs battleId -> 战斗日志（没有日志的战斗不在其中）
+     */
+    public static BattleArchiveSegment write(Path file, List<BattleRecord> records,
+                                             Map<String, BattleRecordLog> logs) throws IOException {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("段文件至少包含一行");
+        }
+        Column[] columns = Column.values();
+        byte[][] blocks = new byte[columns.length][];
+        for (Column column : columns) {
+            blocks[column.ordinal()] = encodeColumn(column, records, logs);
+        }
+
+        long minCreated = Long.MAX_VALUE;
+        long maxCreated = Long.MIN_VALUE;
+        TreeMap<Long, Integer> players = new TreeMap<>();
+        for (BattleRecord record : records) {
+            long created = toMillis(record.getCreatedAt());
+            minCreated = Math.min(minCreated, created);
+            maxCreated = Math.max(maxCreated, created);
+            players.merge(record.getPlayer1Id(), 1, Integer::sum);
+            if (!record.getPlayer2Id().equals(record.getPlayer1Id())) {
+                players.merge(record.getPlayer2Id(), 1, Integer::sum);
+            }
+        }
+        BitSet filter = new BitSet(filterSize(players.size()));
+        long minId = records.get(0).getId();
+        long maxId = records.get(records.size() - 1).getId();
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(records.size());
+        header.writeLong(minId);
+        header.writeLong(maxId);
+        header.writeLong(minCreated);
+        header.writeLong(maxCreated);
+        header.writeInt(players.size());
+        for (Map.Entry<Long, Integer> player : players.entrySet()) {
+            header.writeLong(player.getKey());
+            header.writeInt(player.getValue());
+            addToFilter(filter, filterSize(players.size()), player.getKey());
+        }
+        header.writeInt(columns.length);
+        long[] offsets = new long[columns.length];
+        int[] lengths = new int[columns.length];
+        long offset = 0;
+        for (int i = 0; i < columns.length; i++) {
+            offsets[i] = offset;
+            lengths[i] = blocks[i].length;
+            header.writeLong(offset);
+            header.writeInt(lengths[i]);
+            offset += lengths[i];
+        }
+        header.flush();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+            out.write(headerBytes.toByteArray());
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return new BattleArchiveSegment(file, VERSION, records.size(), minId, maxId, minCreated, maxCreated,
+                players.size(), filter, headerBytes.size(), offsets, lengths);
+    }
+
+    private static byte[] encodeColumn(Column column, List<BattleRecord> records,
+                                       Map<String, BattleRecordLog> logs) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            long previous = 0;
+            for (BattleRecord r : records) {
+                BattleRecordLog log = logs.get(r.getBattleId());
+                switch (column) {
+                    case BATTLE_ID -> writeString(out, r.getBattleId());
+                    case PLAYER1_NICKNAME -> writeString(out, r.getPlayer1Nickname());
+                    case PLAYER2_NICKNAME -> writeString(out, r.getPlayer2Nickname());
+                    case END_REASON -> writeString(out, r.getEndReason());
+                    case LOG_DATA -> writeBytes(out, log != null ? log.getLogData() : null);
+                    default -> {
+                        Long value = numericValue(column, r, log);
+                        out.writeBoolean(value != null);
+                        if (value != null) {
+                            out.writeLong(value - previous);
+                            previous = value;
+                        }
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Long numericValue(Column column, BattleRecord r, BattleRecordLog log) {
+        return switch (column) {
+            case ID -> r.getId();
+            case PLAYER1_ID -> r.getPlayer1Id();
+            case PLAYER1_CHAR_ID -> r.getPlayer1CharId();
+            case PLAYER2_ID -> r.getPlayer2Id();
+            case PLAYER2_CHAR_ID -> r.getPlayer2CharId();
+            case WINNER_ID -> r.getWinnerId();
+            case TOTAL_ROUNDS -> toLong(r.getTotalRounds());
+            case BATTLE_DURATION -> toLong(r.getBattleDuration());
+            case PLAYER1_FINAL_HP -> toLong(r.getPlayer1FinalHp());
+            case PLAYER1_ELO_BEFORE -> toLong(r.getPlayer1EloBefore());
+            case PLAYER1_ELO_AFTER -> toLong(r.getPlayer1EloAfter());
+            case PLAYER2_FINAL_HP -> toLong(r.getPlayer2FinalHp());
+            case PLAYER2_ELO_BEFORE -> toLong(r.getPlayer2EloBefore());
+            case PLAYER2_ELO_AFTER -> toLong(r.getPlayer2EloAfter());
+            case START_TIME -> r.getStartTime() != null ? toMillis(r.getStartTime()) : null;
+            case END_TIME -> r.getEndTime() != null ? toMillis(r.getEndTime()) : null;
+            case CREATED_AT -> toMillis(r.getCreatedAt());
+            case LOG_CODEC -> log != null ? toLong(log.getCodec()) : null;
+            default -> throw new IllegalArgumentException("非数值列: " + column);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value != null ? value.length : -1);
+        if (value != null) {
+            out.write(value);
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 打开段文件，只读取文件头（玩家表只用于构建布隆过滤器，不常驻内存）
+     */
+    public static BattleArchiveSegment open(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是战斗归档段文件: " + file);
+            }
+            int version = in.readInt();
+            if (version != 1 && version != VERSION) {
+                throw new IOException("不支持的段文件版本: " + version + ", file=" + file);
+            }
+            int rowCount = in.readInt();
+            long minId = in.readLong();
+            long maxId = in.readLong();
+            long minCreated = in.readLong();
+            long maxCreated = in.readLong();
+            int playerCount = in.readInt();
+            int bits = filterSize(playerCount);
+            BitSet filter = new BitSet(bits);
+            for (int i = 0; i < playerCount; i++) {
+                addToFilter(filter, bits, in.readLong());
+                if (version >= 2) {
+                    in.readInt();
+                }
+            }
+            int columnCount = in.readInt();
+            long[] offsets = new long[columnCount];
+            int[] lengths = new int[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+            // 文件头长度：玩家表起始位置 + 玩家表 + 列数 + 每列 (long, int)
+            long dataStart = PLAYER_TABLE_START + (long) playerEntrySize(version) * playerCount + 4 + 12L * columnCount;
+            return new BattleArchiveSegment(file, version, rowCount, minId, maxId, minCreated, maxCreated,
+                    playerCount, filter, dataStart, offsets, lengths);
+        }
+    }
+
+    /**
+     * 段内是否可能有该玩家参与的战斗（只查内存中的布隆过滤器，可能误判为有，不会误判为无）
+     */
+    public boolean mightContainPlayer(long userId) {
+        int bits = filterBits;
+        long h1 = mix(userId);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < FILTER_HASHES; i++) {
+            if (!playerFilter.get((int) Math.floorMod(h1 + i * h2, (long) bits))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 该玩家在段内参与的场数（过滤器命中后在文件头的玩家表中二分查找，不解压任何列）
+     */
+    public int countOfPlayer(long userId) throws IOException {
+        if (!mightContainPlayer(userId)) {
+            return 0;
+        }
+        int entrySize = playerEntrySize(version);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            int low = 0;
+            int high = playerCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                raf.seek(PLAYER_TABLE_START + (long) mid * entrySize);
+                long playerId = raf.readLong();
+                if (playerId < userId) {
+                    low = mid + 1;
+                } else if (playerId > userId) {
+                    high = mid - 1;
+                } else {
+                    // 版本 1 的玩家表没有场数，只能解压玩家ID列计数
+                    return version >= 2 ? raf.readInt() : rowsOfPlayer(userId).length;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 该玩家参与的行号（升序），只解压两列玩家ID
+     */
+    public int[] rowsOfPlayer(long userId) throws IOException {
+        if (!mightContainPlayer(userId)) {
+            return new int[0];
+        }
+        Long[] player1 = readNumericColumn(Column.PLAYER1_ID);
+        Long[] player2 = readNumericColumn(Column.PLAYER2_ID);
+        int[] rows = new int[rowCount];
+        int count = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (player1[i] == userId || player2[i] == userId) {
+                rows[count++] = i;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /**
+     * 按业务战斗ID查找行号，不存在时返回 -1
+     */
+    public int rowOfBattle(String battleId) throws IOException {
+        String[] battleIds = readStringColumn(Column.BATTLE_ID);
+        for (int i = 0; i < battleIds.length; i++) {
+            if (battleId.equals(battleIds[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 段内全部记录ID（升序）
+     */
+    public long[] readIds() throws IOException {
+        Long[] ids = readNumericColumn(Column.ID);
+        long[] result = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            result[i] = ids[i];
+        }
+        return result;
+    }
+
+    /**
+     * 段内全部业务战斗ID（与 readIds 顺序一致）
+     */
+    public List<String> readBattleIds() throws IOException {
+        return Arrays.asList(readStringColumn(Column.BATTLE_ID));
+    }
+
+    /**
+     * 读取指定行的战斗记录（不含日志），返回顺序与 rows 一致
+     */
+    public List<BattleRecord> readRecords(int[] rows) throws IOException {
+        List<BattleRecord> records = new ArrayList<>(rows.length);
+        if (rows.length == 0) {
+            return records;
+        }
+        Long[] ids = readNumericColumn(Column.ID);
+        String[] battleIds = readStringColumn(Column.BATTLE_ID);
+        Long[] p1Ids = readNumericColumn(Column.PLAYER1_ID);
+        String[] p1Nicknames = readStringColumn(Column.PLAYER1_NICKNAME);
+        Long[] p1CharIds = readNumericColumn(Column.PLAYER1_CHAR_ID);
+        Long[] p2Ids = readNumericColumn(Column.PLAYER2_ID);
+        String[] p2Nicknames = readStringColumn(Column.PLAYER2_NICKNAME);
+        Long[] p2CharIds = readNumericColumn(Column.PLAYER2_CHAR_ID);
+        Long[] winnerIds = readNumericColumn(Column.WINNER_ID);
+        String[] endReasons = readStringColumn(Column.END_REASON);
+        Long[] totalRounds = readNumericColumn(Column.TOTAL_ROUNDS);
+        Long[] durations = readNumericColumn(Column.BATTLE_DURATION);
+        Long[] p1Hp = readNumericColumn(Column.PLAYER1_FINAL_HP);
+        Long[] p1EloBefore = readNumericColumn(Column.PLAYER1_ELO_BEFORE);
+        Long[] p1EloAfter = readNumericColumn(Column.PLAYER1_ELO_AFTER);
+        Long[] p2Hp = readNumericColumn(Column.PLAYER2_FINAL_HP);
+        Long[] p2EloBefore = readNumericColumn(Column.PLAYER2_ELO_BEFORE);
+        Long[] p2EloAfter = readNumericColumn(Column.PLAYER2_ELO_AFTER);
+        Long[] startTimes = readNumericColumn(Column.START_TIME);
+        Long[] endTimes = readNumericColumn(Column.END_TIME);
+        Long[] createdAts = readNumericColumn(Column.CREATED_AT);
+
+        for (int row : rows) {
+            BattleRecord r = new BattleRecord();
+            r.setId(ids[row]);
+            r.setBattleId(battleIds[row]);
+            r.setPlayer1Id(p1Ids[row]);
+            r.setPlayer1Nickname(p1Nicknames[row]);
+            r.setPlayer1CharId(p1CharIds[row]);
+            r.setPlayer2Id(p2Ids[row]);
+            r.setPlayer2Nickname(p2Nicknames[row]);
+            r.setPlayer2CharId(p2CharIds[row]);
+            r.setWinnerId(winnerIds[row]);
+            r.setEndReason(endReasons[row]);
+            r.setTotalRounds(toInteger(totalRounds[row]));
+            r.setBattleDuration(toInteger(durations[row]));
+            r.setPlayer1FinalHp(toInteger(p1Hp[row]));
+            r.setPlayer1EloBefore(toInteger(p1EloBefore[row]));
+            r.setPlayer1EloAfter(toInteger(p1EloAfter[row]));
+            r.setPlayer2FinalHp(toInteger(p2Hp[row]));
+            r.setPlayer2EloBefore(toInteger(p2EloBefore[row]));
+            r.setPlayer2EloAfter(toInteger(p2EloAfter[row]));
+            r.setStartTime(fromMillis(startTimes[row]));
+            r.setEndTime(fromMillis(endTimes[row]));
+            r.setCreatedAt(fromMillis(createdAts[row]));
+            records.add(r);
+        }
+        return records;
+    }
+
+    /**
+     * 读取指定行的战斗日志，没有日志时返回 null
+     */
+    public BattleRecordLog readLog(int row) throws IOException {
+        Long[] codecs = readNumericColumn(Column.LOG_CODEC);
+        if (codecs[row] == null) {
+            return null;
+        }
+        try (DataInputStream in = openColumn(Column.LOG_DATA)) {
+            byte[] data = null;
+            for (int i = 0; i <= row; i++) {
+                int length = in.readInt();
+                if (i == row) {
+                    data = length >= 0 ? in.readNBytes(length) : null;
+                } else if (length > 0) {
+                    in.skipNBytes(length);
+                }
+            }
+            BattleRecordLog log = new BattleRecordLog();
+            log.setBattleId(readStringColumn(Column.BATTLE_ID)[row]);
+            log.setCodec(codecs[row].intValue());
+            log.setLogData(data);
+            return log;
+        }
+    }
+
+    private Long[] readNumericColumn(Column column) throws IOException {
+        Long[] values = new Long[rowCount];
+        try (DataInputStream in = openColumn(column)) {
+            long previous = 0;
+            for (int i = 0; i < rowCount; i++) {
+                if (in.readBoolean()) {
+                    previous += in.readLong();
+                    values[i] = previous;
+                }
+            }
+        }
+        return values;
+    }
+
+    private String[] readStringColumn(Column column) throws IOException {
+        String[] values = new String[rowCount];
+        try (DataInputStream in = openColumn(column)) {
+            for (int i = 0; i < rowCount; i++) {
+                values[i] = in.readBoolean() ? in.readUTF() : null;
+            }
+        }
+        return values;
+    }
+
+    private DataInputStream openColumn(Column column) throws IOException {
+        int index = column.ordinal();
+        byte[] block = new byte[columnLengths[index]];
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            raf.seek(dataStart + columnOffsets[index]);
+            raf.readFully(block);
+        }
+        return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(block)));
+    }
+
+    private static int playerEntrySize(int version) {
+        return version >= 2 ? 12 : 8;
+    }
+
+    private static int filterSize(int playerCount) {
+        return Math.max(64, playerCount * FILTER_BITS_PER_PLAYER);
+    }
+
+    private static void addToFilter(BitSet filter, int bits, long userId) {
+        long h1 = mix(userId);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < FILTER_HASHES; i++) {
+            filter.set((int) Math.floorMod(h1 + i * h2, (long) bits));
+        }
+    }
+
+    /**
+     * SplitMix64 混合函数，把相邻的玩家ID打散到整个位空间
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static Long toLong(Integer value) {
+        return value != null ? value.longValue() : null;
+    }
+
+    private static Integer toInteger(Long value) {
+        return value != null ? value.intValue() : null;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(Long millis) {
+        if (millis == null) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    // ==================== 文件头信息 ====================
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public LocalDateTime getMinCreatedAt() {
+        return fromMillis(minCreatedMs);
+    }
+
+    public LocalDateTime getMaxCreatedAt() {
+        return fromMillis(maxCreatedMs);
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+}
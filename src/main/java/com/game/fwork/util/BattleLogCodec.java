@@ -0,0 +1,162 @@
+package com.game.fwork.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.entity.BattleLog;
+import com.game.fwork.proto.BattleLogProto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 战斗日志存储编解码器（t_battle_log.log_data）
+ * 新写入的日志使用 protobuf（BattleLogArchive）+ Deflate 压缩，体积约为 Jackson JSON 的十分之一；
+ * 从旧 battle_log_json 列迁移过来的日志保持原样的 UTF-8 JSON，读取时按 codec 列区分
+ */
+@Component
+public class BattleLogCodec {
+
+    /**
+     * 原样 UTF-8 JSON（旧数据迁移）
+     */
+    public static final int CODEC_JSON = 0;
+
+    /**
+     * protobuf + Deflate
+     */
+    public static final int CODEC_PROTOBUF_DEFLATE = 1;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 编码为 protobuf 并压缩
+     */
+    public byte[] encode(List<BattleLog> logs) {
+        BattleLogProto.BattleLogArchive.Builder archive = BattleLogProto.BattleLogArchive.newBuilder();
+        long baseTimeMs = 0;
+        if (logs != null) {
+            for (BattleLog log : logs) {
+                if (log.getTimestamp() != null) {
+                    baseTimeMs = toMillis(log.getTimestamp());
+                    break;
+                }
+            }
+            for (BattleLog log : logs) {
+                archive.addEntries(toEntry(log, baseTimeMs));
+            }
+        }
+        archive.setBaseTimeMs(baseTimeMs);
+        return deflate(archive.build().toByteArray());
+    }
+
+    /**
+     * 按存储格式解码
+     */
+    public List<BattleLog> decode(int codec, byte[] data) throws IOException {
+        if (data == null || data.length == 0) {
+            return new ArrayList<>();
+        }
+        if (codec == CODEC_JSON) {
+            return objectMapper.readValue(new String(data, StandardCharsets.UTF_8), new TypeReference<List<BattleLog>>() {});
+        }
+        if (codec != CODEC_PROTOBUF_DEFLATE) {
+            throw new IOException("未知的战斗日志编码: " + codec);
+        }
+
+        BattleLogProto.BattleLogArchive archive = BattleLogProto.BattleLogArchive.parseFrom(inflate(data));
+        List<BattleLog> logs = new ArrayList<>(archive.getEntriesCount());
+        for (BattleLogProto.BattleLogEntry entry : archive.getEntriesList()) {
+            logs.add(fromEntry(entry, archive.getBaseTimeMs()));
+        }
+        return logs;
+    }
+
+    private static BattleLogProto.BattleLogEntry toEntry(BattleLog log, long baseTimeMs) {
+        BattleLogProto.BattleLogEntry.Builder entry = BattleLogProto.BattleLogEntry.newBuilder();
+        if (log.getRound() != null) entry.setRound(log.getRound());
+        if (log.getActorUserId() != null) entry.setActorUserId(log.getActorUserId());
+        if (log.getActorNickname() != null) entry.setActorNickname(log.getActorNickname());
+        if (log.getAction() != null) entry.setAction(log.getAction());
+        if (log.getSkillName() != null) entry.setSkillName(log.getSkillName());
+        if (log.getDamage() != null) entry.setDamage(log.getDamage());
+        if (log.getHeal() != null) entry.setHeal(log.getHeal());
+        if (log.getTargetUserId() != null) entry.setTargetUserId(log.getTargetUserId());
+        if (log.getTargetNickname() != null) entry.setTargetNickname(log.getTargetNickname());
+        if (log.getDescription() != null) entry.setDescription(log.getDescription());
+        if (log.getTimestamp() != null) entry.setTimeOffsetMs(toMillis(log.getTimestamp()) - baseTimeMs);
+        return entry.build();
+    }
+
+    private static BattleLog fromEntry(BattleLogProto.BattleLogEntry entry, long baseTimeMs) {
+        BattleLog log = new BattleLog();
+        log.setRound(entry.hasRound() ? entry.getRound() : null);
+        log.setActorUserId(entry.hasActorUserId() ? entry.getActorUserId() : null);
+        log.setActorNickname(entry.hasActorNickname() ? entry.getActorNickname() : null);
+        log.setAction(entry.hasAction() ? entry.getAction() : null);
+        log.setSkillName(entry.hasSkillName() ? entry.getSkillName() : null);
+        log.setDamage(entry.hasDamage() ? entry.getDamage() : null);
+        log.setHeal(entry.hasHeal() ? entry.getHeal() : null);
+        log.setTargetUserId(entry.hasTargetUserId() ? entry.getTargetUserId() : null);
+        log.setTargetNickname(entry.hasTargetNickname() ? entry.getTargetNickname() : null);
+        log.setDescription(entry.hasDescription() ? entry.getDescription() : null);
+        log.setTimestamp(entry.hasTimeOffsetMs() ? fromMillis(baseTimeMs + entry.getTimeOffsetMs()) : null);
+        return log;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("战斗日志数据不完整");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("战斗日志解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
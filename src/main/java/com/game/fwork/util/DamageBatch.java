@@ -0,0 +1,167 @@
+package com.game.fwork.util;
+
+import com.game.fwork.entity.BattlePlayer;
+import com.game.fwork.entity.Skill;
+import com.game.fwork.manager.SkillDescriptor;
+
+import java.util.Arrays;
+
+/**
+ * 批量伤害计算的输入与输出（结构数组布局）
+ * 每个字段一条基本类型数组，第 i 组输入分布在各数组的下标 i 上，计算结果写入 damage[i]
+ * 用于机器人 AI 推演、数值平衡模拟和期望伤害预览，一次调用计算成千上万组结果
+ *
+ * 可反复 clear() 后复用，不是线程安全的
+ */
+public class DamageBatch {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] attackerAttack;
+    private int[] defenderDefense;
+    private int[] attackerCrit;
+    private int[] defenderDodge;
+    private boolean[] defenderDefending;
+    private double[] skillMultiplier;
+    private double[] skillDefBreak;
+    private int[] damage;
+
+    private int size;
+
+    public DamageBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DamageBatch(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * 追加一组输入
+     *
+     * @return 该组输入的下标（用于读取结果）
+     */
+    public int add(int attackerAttack, int defenderDefense, int attackerCrit, int defenderDodge,
+                   boolean defenderDefending, double skillMultiplier, double skillDefBreak) {
+        if (size == damage.length) {
+            allocate(size * 2);
+        }
+        int index = size++;
+        this.attackerAttack[index] = attackerAttack;
+        this.defenderDefense[index] = defenderDefense;
+        this.attackerCrit[index] = attackerCrit;
+        this.defenderDodge[index] = defenderDodge;
+        this.defenderDefending[index] = defenderDefending;
+        this.skillMultiplier[index] = skillMultiplier;
+        this.skillDefBreak[index] = skillDefBreak;
+        this.damage[index] = 0;
+        return index;
+    }
+
+    /**
+     * 按战斗实体追加一组输入（字段取值与 DamageCalculator.calculateDamage 一致）
+     */
+    public int add(BattlePlayer attacker, BattlePlayer defender, Skill skill) {
+        return add(attacker.getAttack(), defender.getDefense(),
+                attacker.getCritRate(), defender.getDodgeRate(), defender.isDefending(),
+                skill.getMultiplier(), skill.getDefenseMultiplier());
+    }
+
+    /**
+     * 按编译后的技能描述追加一组输入
+     */
+    public int add(BattlePlayer attacker, BattlePlayer defender, SkillDescriptor skill) {
+        return add(attacker.getAttack(), defender.getDefense(),
+                attacker.getCritRate(), defender.getDodgeRate(), defender.isDefending(),
+                skill.getMultiplier(), skill.getDefenseMultiplier());
+    }
+
+    /**
+     * 清空输入（保留已分配的数组）
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 第 index 组输入的计算结果
+     */
+    public int getDamage(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return damage[index];
+    }
+
+    /**
+     * 全部结果的平均值（期望伤害）
+     */
+    public double getAverageDamage() {
+        if (size == 0) {
+            return 0.0;
+        }
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += damage[i];
+        }
+        return (double) total / size;
+    }
+
+    public int getAttackerAttack(int index) {
+        return attackerAttack[index];
+    }
+
+    public int getDefenderDefense(int index) {
+        return defenderDefense[index];
+    }
+
+    public int getAttackerCrit(int index) {
+        return attackerCrit[index];
+    }
+
+    public int getDefenderDodge(int index) {
+        return defenderDodge[index];
+    }
+
+    public boolean isDefenderDefending(int index) {
+        return defenderDefending[index];
+    }
+
+    public double getSkillMultiplier(int index) {
+        return skillMultiplier[index];
+    }
+
+    public double getSkillDefBreak(int index) {
+        return skillDefBreak[index];
+    }
+
+    public void setDamage(int index, int value) {
+        damage[index] = value;
+    }
+
+    private void allocate(int capacity) {
+        if (damage == null) {
+            attackerAttack = new int[capacity];
+            defenderDefense = new int[capacity];
+            attackerCrit = new int[capacity];
+            defenderDodge = new int[capacity];
+            defenderDefending = new boolean[capacity];
+            skillMultiplier = new double[capacity];
+            skillDefBreak = new double[capacity];
+            damage = new int[capacity];
+            return;
+        }
+        attackerAttack = Arrays.copyOf(attackerAttack, capacity);
+        defenderDefense = Arrays.copyOf(defenderDefense, capacity);
+        attackerCrit = Arrays.copyOf(attackerCrit, capacity);
+        defenderDodge = Arrays.copyOf(defenderDodge, capacity);
+        defenderDefending = Arrays.copyOf(defenderDefending, capacity);
+        skillMultiplier = Arrays.copyOf(skillMultiplier, capacity);
+        skillDefBreak = Arrays.copyOf(skillDefBreak, capacity);
+        damage = Arrays.copyOf(damage, capacity);
+    }
+}
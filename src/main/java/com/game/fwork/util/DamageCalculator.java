@@ -2,8 +2,13 @@ package com.game.fwork.util;
 
 import com.game.fwork.entity.BattlePlayer;
 import com.game.fwork.entity.Skill;
+import com.game.fwork.manager.LuaBudgetExceededException;
 import com.game.fwork.manager.LuaEngineManager;
+import com.game.fwork.manager.LuaFunctionHandle;
 import com.game.fwork.manager.LuaPerformanceMonitor;
+import com.game.fwork.manager.LuaScriptVersion;
+import com.game.fwork.manager.LuaShadowEvaluator;
+import com.game.fwork.manager.SkillDescriptor;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,13 +16,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 伤害计算器组件
  * 采用“Lua 脚本优先 + Java 兜底”的混合策略
  * 允许在不重启服务器的情况下，通过热更新 Lua 脚本动态调整战斗公式（如伤害倍率、暴击算法）
+ * 新公式也可以先进入影子评估，在真实战斗输入上与线上公式对比后再发布（见 LuaShadowEvaluator）
  */
 @Component
 public class DamageCalculator {
@@ -30,9 +33,17 @@ public class DamageCalculator {
     @Autowired
     private LuaPerformanceMonitor performanceMonitor;
 
+    @Autowired
+    private LuaShadowEvaluator shadowEvaluator;
+
     @Value("${battle.lua-script-path:lua/damage_formulas.lua}")
     private String luaScriptPath;
 
+    // 预先解析的 Lua 函数句柄
+    private LuaFunctionHandle damageHandle;
+    private LuaFunctionHandle healHandle;
+    private LuaFunctionHandle batchHandle;
+
     /**
      * 初始化检查
      */
@@ -43,6 +54,17 @@ public class DamageCalculator {
             luaScriptPath = "lua/damage_formulas.lua"; // 兜底默认值
         }
         logger.info("发现Lua脚本，路径: {}", luaScriptPath);
+
+        damageHandle = luaEngineManager.resolveFunction(luaScriptPath, "calculateDamage");
+        healHandle = luaEngineManager.resolveFunction(luaScriptPath, "calculateHeal");
+        batchHandle = luaEngineManager.resolveFunction(luaScriptPath, "calculateDamageBatch");
+    }
+
+    /**
+     * 计算伤害（按技能实体，供自检与工具代码使用；战斗中走 SkillDescriptor 版本）
+     */
+    public int calculateDamage(BattlePlayer attacker, BattlePlayer defender, Skill skill) {
+        return calculateDamage(attacker, defender, SkillDescriptor.of(skill));
     }
 
     /**
@@ -51,88 +73,149 @@ public class DamageCalculator {
      *
      * @param attacker 攻击者
      * @param defender 防御者
-     * @param skill 使用的技能实体
+     * @param skill 使用的技能（SkillManager 编译后的描述）
      * @return 最终伤害值
      */
-    public int calculateDamage(BattlePlayer attacker, BattlePlayer defender, Skill skill) {
-        if ("heal".equals(skill.getSkillType())) return 0;
+    public int calculateDamage(BattlePlayer attacker, BattlePlayer defender, SkillDescriptor skill) {
+        if (skill.isHeal()) return 0;
 
         try {
-            return calculateDamageByLua(attacker, defender, skill);
+            int damage = calculateDamageByLua(attacker, defender, skill);
+            // 影子评估：把本次真实输入交给候选脚本对比（不阻塞，未在评估时直接返回）
+            shadowEvaluator.offerDamage(luaScriptPath, attacker.getAttack(), defender.getDefense(),
+                    attacker.getCritRate(), defender.getDodgeRate(), defender.isDefending(),
+                    skill.getMultiplier(), skill.getDefenseMultiplier());
+            return damage;
         } catch (Exception e) {
             logger.error("Lua伤害计算失败，降级到Java实现。攻击者={}, 防御者={}, 技能={}",
-                    attacker.getNickname(), defender.getNickname(), skill.getSkillName(), e);
-            return calculateDamageByJava(attacker, defender, skill);
+                    attacker.getNickname(), defender.getNickname(), skill.getName(), e);
+            recordFallback("calculateDamage", e);
+            return calculateDamageByJava(attacker.getAttack(), defender.getDefense(), defender.isDefending(),
+                    skill.getMultiplier(), skill.getDefenseMultiplier());
         }
     }
 
     /**
      * 使用Lua脚本计算伤害
      */
-    private int calculateDamageByLua(BattlePlayer attacker, BattlePlayer defender, Skill skill) throws Exception {
-        // 记录开始时间
-        long startTime = System.currentTimeMillis();
+    private int calculateDamageByLua(BattlePlayer attacker, BattlePlayer defender, SkillDescriptor skill) throws Exception {
+        // 记录开始时间（纳秒精度，单次调用通常远小于 1 毫秒）
+        long startNanos = System.nanoTime();
 
         try {
-            Map<String, Object> context = new HashMap<>();
-            context.put("attackerAttack", attacker.getAttack());
-            context.put("defenderDefense", defender.getDefense());
-            context.put("attackerCrit", attacker.getCritRate()); // 暴击率
-            context.put("defenderDodge", defender.getDodgeRate()); // 闪避率
-            context.put("defenderDefending", defender.isDefending()); // 是否防御
-
-            context.put("skillMultiplier", skill.getMultiplier());
-            context.put("skillDefBreak", skill.getDefenseMultiplier());
-
-            int damage = luaEngineManager.callLuaFunction(
-                    this.luaScriptPath,
-                    "calculateDamage",
-                    context
+            // 类型化调用：参数直接以基本类型传入，复用线程内的上下文表
+            int damage = luaEngineManager.callDamage(
+                    damageHandle,
+                    attacker.getAttack(),
+                    defender.getDefense(),
+                    attacker.getCritRate(), // 暴击率
+                    defender.getDodgeRate(), // 闪避率
+                    defender.isDefending(), // 是否防御
+                    skill.getMultiplier(),
+                    skill.getDefenseMultiplier()
             );
 
-            logger.debug("Lua伤害计算: 攻击者[{}]攻击力={}, 防御者[{}]防御力={}, 技能={}, 伤害={}",
-                    attacker.getNickname(), attacker.getAttack(),
-                    defender.getNickname(), defender.getDefense(),
-                    skill.getSkillName(), damage);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Lua伤害计算: 攻击者[{}]攻击力={}, 防御者[{}]防御力={}, 技能={}, 伤害={}",
+                        attacker.getNickname(), attacker.getAttack(),
+                        defender.getNickname(), defender.getDefense(),
+                        skill.getName(), damage);
+            }
 
             return damage;
 
         } finally {
             // 记录性能数据
-            performanceMonitor.recordCall("calculateDamage", System.currentTimeMillis() - startTime);
+            recordLuaCall("calculateDamage", System.nanoTime() - startNanos);
         }
     }
 
     /**
      * Java 版本的伤害计算（兜底方案）
-     * 仅包含最基础的减法公式，用于在 Lua 引擎崩溃时的紧急备用
+     * 仅包含最基础的减法公式，用于在 Lua 引擎崩溃时的紧急备用（基准测试中也作为对照组）
      */
-    private int calculateDamageByJava(BattlePlayer attacker, BattlePlayer defender, Skill skill) {
+    public int calculateDamageByJava(BattlePlayer attacker, BattlePlayer defender, Skill skill) {
+        return calculateDamageByJava(attacker.getAttack(), defender.getDefense(), defender.isDefending(),
+                skill.getMultiplier(), skill.getDefenseMultiplier());
+    }
+
+    private int calculateDamageByJava(int attack, int defense, boolean defending,
+                                      double multiplier, double defenseMultiplier) {
         // 简单模拟：不做随机计算，只做基础运算保底
-        double dmg = attacker.getAttack() * skill.getMultiplier();
-        double def = defender.getDefense() * skill.getDefenseMultiplier();
+        double dmg = attack * multiplier;
+        double def = defense * defenseMultiplier;
         double finalDmg = dmg - def;
-        if (defender.isDefending()) {
+        if (defending) {
             finalDmg *= 0.5;
         }
         return Math.max(1, (int) finalDmg);
     }
 
+    /**
+     * 批量计算伤害（机器人 AI 推演、数值模拟、期望伤害预览）
+     * 一次 Lua 调用计算一整段输入，结果写入 batch；Lua 执行出错时整批降级为 Java 公式
+     * 与 calculateDamage 不同，不跳过治疗技能，调用方只应放入攻击类输入
+     *
+     * @param batch 结构数组形式的输入，计算完成后通过 getDamage(i) 读取结果
+     */
+    public void calculateDamageBatch(DamageBatch batch) {
+        if (batch.size() == 0) return;
+
+        long startNanos = System.nanoTime();
+        try {
+            luaEngineManager.callDamageBatch(batchHandle, batch);
+            recordLuaCall("calculateDamageBatch", System.nanoTime() - startNanos);
+        } catch (Exception e) {
+            logger.error("Lua批量伤害计算失败，降级到Java实现。条数={}", batch.size(), e);
+            recordFallback("calculateDamageBatch", e);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.setDamage(i, calculateDamageByJava(batch.getAttackerAttack(i), batch.getDefenderDefense(i),
+                        batch.isDefenderDefending(i), batch.getSkillMultiplier(i), batch.getSkillDefBreak(i)));
+            }
+        }
+    }
+
+    /**
+     * 期望伤害预览：同一组攻防与技能模拟多次，返回平均伤害（包含闪避与暴击概率）
+     *
+     * @param samples 模拟次数
+     */
+    public double estimateDamage(BattlePlayer attacker, BattlePlayer defender, SkillDescriptor skill, int samples) {
+        if (skill.isHeal() || samples <= 0) return 0.0;
+
+        DamageBatch batch = new DamageBatch(samples);
+        for (int i = 0; i < samples; i++) {
+            batch.add(attacker, defender, skill);
+        }
+        calculateDamageBatch(batch);
+        return batch.getAverageDamage();
+    }
+
+    /**
+     * 计算治疗量（按技能实体，供自检与工具代码使用；战斗中走 SkillDescriptor 版本）
+     */
+    public int calculateHeal(BattlePlayer healer, Skill skill) {
+        return calculateHeal(healer, SkillDescriptor.of(skill));
+    }
+
     /**
      * 计算治疗量（主入口）
      *
      * @param healer 治疗者
-     * @param skill 使用的技能实体
+     * @param skill 使用的技能（SkillManager 编译后的描述）
      * @return 恢复生命值
      */
-    public int calculateHeal(BattlePlayer healer, Skill skill) {
-        if (!"heal".equals(skill.getSkillType())) return 0;
+    public int calculateHeal(BattlePlayer healer, SkillDescriptor skill) {
+        if (!skill.isHeal()) return 0;
 
         try {
-            return calculateHealByLua(healer, skill);
+            int heal = calculateHealByLua(healer, skill);
+            shadowEvaluator.offerHeal(luaScriptPath, healer.getMaxHp(), skill.getMultiplier());
+            return heal;
         } catch (Exception e) {
             logger.error("Lua治疗计算失败，降级到Java实现。治疗者={}, 技能={}",
-                    healer.getNickname(), skill.getSkillName(), e);
+                    healer.getNickname(), skill.getName(), e);
+            recordFallback("calculateHeal", e);
             return calculateHealByJava(healer, skill);
         }
     }
@@ -140,42 +223,65 @@ public class DamageCalculator {
     /**
      * 使用Lua脚本计算治疗量
      */
-    private int calculateHealByLua(BattlePlayer healer, Skill skill) throws Exception {
+    private int calculateHealByLua(BattlePlayer healer, SkillDescriptor skill) throws Exception {
 
-        // 记录开始时间
-        long startTime = System.currentTimeMillis();
+        // 记录开始时间（纳秒精度，单次调用通常远小于 1 毫秒）
+        long startNanos = System.nanoTime();
 
         try {
-            Map<String, Object> context = new HashMap<>();
-            context.put("healerMaxHp", healer.getMaxHp());
-            context.put("skillMultiplier", skill.getMultiplier());
-
-            int heal = luaEngineManager.callLuaFunction(
-                    this.luaScriptPath,
-                    "calculateHeal",
-                    context
+            int heal = luaEngineManager.callHeal(
+                    healHandle,
+                    healer.getMaxHp(),
+                    skill.getMultiplier()
             );
 
             logger.debug("Lua治疗计算: 治疗者[{}]最大HP={}, 技能={}, 治疗量={}",
                     healer.getNickname(), healer.getMaxHp(),
-                    skill.getSkillName(), heal);
+                    skill.getName(), heal);
 
             return heal;
 
         } finally {
             // 记录性能数据
-            performanceMonitor.recordCall("calculateHeal", System.currentTimeMillis() - startTime);
+            recordLuaCall("calculateHeal", System.nanoTime() - startNanos);
         }
     }
 
     /**
      * 使用Java计算治疗量（兜底方案）
      */
-    private int calculateHealByJava(BattlePlayer healer, Skill skill) {
+    private int calculateHealByJava(BattlePlayer healer, SkillDescriptor skill) {
         double healAmount = healer.getMaxHp() * skill.getMultiplier();
         return Math.max(1, (int) Math.round(healAmount));
     }
 
+    /**
+     * 按当前脚本版本与执行模式记录一次 Lua 调用耗时
+     */
+    private void recordLuaCall(String functionName, long executionTimeNanos) {
+        LuaScriptVersion version = luaEngineManager.getCurrentVersion(luaScriptPath);
+        performanceMonitor.recordCall(functionName,
+                version != null ? version.getVersion() : 0,
+                version != null ? version.getMode() : null,
+                executionTimeNanos);
+    }
+
+    /**
+     * 记录一次降级到 Java 实现（因超出执行预算而降级时同时记录超限次数）
+     */
+    private void recordFallback(String functionName, Exception cause) {
+        LuaScriptVersion version = luaEngineManager.getCurrentVersion(luaScriptPath);
+        int versionNumber = version != null ? version.getVersion() : 0;
+        performanceMonitor.recordFallback(functionName, versionNumber);
+        if (cause instanceof LuaBudgetExceededException) {
+            performanceMonitor.recordBudgetBreach(functionName, versionNumber);
+        }
+    }
+
+    public String getLuaScriptPath() {
+        return luaScriptPath;
+    }
+
     /**
      * 热更新Lua脚本
      */
@@ -0,0 +1,358 @@
+package com.game.fwork.util;
+
+import com.game.fwork.dto.MatchQueueItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToIntFunction;
+
+/**
+ * ELO 分片并行匹配器
+ * 将按 ELO 排序后的队列切分为若干连续分片（按人数均衡），每个分片在 ForkJoin 线程池中独立匹配
+ * 边界处理：
+ * 1. 分片内的玩家只在本分片内寻找最近的对手；
+ * 2. 若该对手的分差不大于“到相邻分片最近玩家的分差”，则跨分片不可能更优，直接成交；
+ * 3. 否则该玩家被延后（并在本分片内保留，不被低优先级玩家抢走），由第二阶段在全局范围内串行补匹配
+ * 公平性：分片内与第二阶段均按入队时间升序（等待最久者优先）处理
+ */
+@Component
+public class EloShardMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EloShardMatcher.class);
+
+    // 并行度（0 表示使用 CPU 核心数）
+    @Value("${match.parallelism:0}")
+    private int parallelism;
+
+    // 单个分片的最少人数，队列小于该值时直接单线程匹配
+    @Value("${match.shard-min-size:4096}")
+    private int shardMinSize;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads);
+        logger.info("ELO分片匹配器初始化完成: parallelism={}, shardMinSize={}", threads, shardMinSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 对一轮等待中的玩家执行匹配
+     *
+     * @param players 本轮参与匹配的玩家（已剔除超时玩家）
+     * @param rangeOf 每个玩家当前允许的最大分差（通常随等待时间扩大）
+     * @return 匹配结果，按 player1 的等待优先级排序
+     */
+    public List<MatchPair> match(List<MatchQueueItem> players, ToIntFunction<MatchQueueItem> rangeOf) {
+        int n = players.size();
+        if (n < 2) return new ArrayList<>();
+
+        // 按 ELO 排序，分片即排序数组上的连续区间
+        MatchQueueItem[] sorted = players.toArray(new MatchQueueItem[0]);
+        Arrays.parallelSort(sorted, Comparator.comparingInt(MatchQueueItem::getEloRating));
+
+        int[] elo = new int[n];
+        int[] range = new int[n];
+        long[] joinTime = new long[n];
+        for (int i = 0; i < n; i++) {
+            elo[i] = sorted[i].getEloRating();
+            range[i] = rangeOf.applyAsInt(sorted[i]);
+            joinTime[i] = sorted[i].getJoinTime();
+        }
+
+        // 0=未匹配, 1=已匹配, 2=延后到第二阶段
+        byte[] state = new byte[n];
+        Context ctx = new Context(sorted, elo, range, joinTime, state);
+
+        int[] bounds = splitShards(elo);
+        int shardCount = bounds.length - 1;
+
+        List<ShardResult> results = new ArrayList<>(shardCount);
+        if (shardCount == 1) {
+            results.add(matchShard(ctx, 0, n));
+        } else {
+            List<ForkJoinTask<ShardResult>> tasks = new ArrayList<>(shardCount);
+            for (int s = 0; s < shardCount; s++) {
+                int from = bounds[s];
+                int to = bounds[s + 1];
+                tasks.add(ForkJoinTask.adapt(() -> matchShard(ctx, from, to)));
+            }
+            for (ForkJoinTask<ShardResult> task : tasks) {
+                pool.execute(task);
+            }
+            for (ForkJoinTask<ShardResult> task : tasks) {
+                results.add(task.join());
+            }
+        }
+
+        List<MatchPair> pairs = new ArrayList<>();
+        List<Integer> deferred = new ArrayList<>();
+        for (ShardResult result : results) {
+            pairs.addAll(result.pairs);
+            for (int idx : result.deferred) deferred.add(idx);
+        }
+
+        // 第二阶段：边界玩家在全局范围内补匹配
+        if (!deferred.isEmpty()) {
+            pairs.addAll(matchDeferred(ctx, deferred));
+        }
+
+        pairs.sort(Comparator.comparingLong(p -> p.getPlayer1().getJoinTime()));
+
+        if (shardCount > 1) {
+            logger.debug("分片匹配完成: players={}, shards={}, pairs={}, deferred={}",
+                    n, shardCount, pairs.size(), deferred.size());
+        }
+        return pairs;
+    }
+
+    /**
+     * 按人数均衡切分分片，同分玩家不会被切到两个分片
+     *
+     * @return 分片边界数组，第 s 个分片为 [bounds[s], bounds[s+1])
+     */
+    private int[] splitShards(int[] elo) {
+        int n = elo.length;
+        int threads = pool.getParallelism();
+        if (threads <= 1 || n < shardMinSize * 2L) {
+            return new int[]{0, n};
+        }
+
+        // 分片数量取核心数的 4 倍，减少单个慢分片拖累整体
+        int target = Math.max(1, Math.min(threads * 4, n / shardMinSize));
+        int step = n / target;
+
+        List<Integer> cuts = new ArrayList<>();
+        cuts.add(0);
+        int next = step;
+        while (next < n) {
+            // 同分玩家必须落在同一分片
+            while (next < n && elo[next] == elo[next - 1]) next++;
+            if (next >= n) break;
+            cuts.add(next);
+            next += step;
+        }
+        cuts.add(n);
+
+        int[] bounds = new int[cuts.size()];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = cuts.get(i);
+        return bounds;
+    }
+
+    /**
+     * 单个分片内的匹配（第一阶段）
+     */
+    private ShardResult matchShard(Context ctx, int from, int to) {
+        int len = to - from;
+        ShardResult result = new ShardResult();
+
+        // 相邻分片的最近分数，用于判断跨分片能否找到更优对手
+        long leftNeighbor = from > 0 ? ctx.elo[from - 1] : Long.MIN_VALUE / 2;
+        long rightNeighbor = to < ctx.elo.length ? ctx.elo[to] : Long.MAX_VALUE / 2;
+
+        NearestFinder finder = new NearestFinder(len);
+        Integer[] order = priorityOrder(ctx, from, to);
+
+        for (Integer local : order) {
+            int p = from + local;
+            if (ctx.state[p] != 0) continue;
+
+            int best = finder.nearest(ctx.elo, from, local);
+            long bestDiff = best < 0 ? Long.MAX_VALUE : Math.abs((long) ctx.elo[from + best] - ctx.elo[p]);
+            long crossDiff = Math.min(ctx.elo[p] - leftNeighbor, rightNeighbor - ctx.elo[p]);
+
+            if (best >= 0 && bestDiff <= ctx.range[p] && bestDiff <= crossDiff) {
+                // 本地对手不差于任何跨分片对手，直接成交
+                int q = from + best;
+                ctx.state[p] = 1;
+                ctx.state[q] = 1;
+                finder.remove(local);
+                finder.remove(best);
+                result.pairs.add(new MatchPair(ctx.items[p], ctx.items[q], (int) bestDiff));
+            } else if (ctx.range[p] >= crossDiff) {
+                // 相邻分片可能有更合适的对手，延后处理，并从本分片候选中保留
+                ctx.state[p] = 2;
+                finder.remove(local);
+                result.deferred.add(p);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 第二阶段：按优先级串行处理被延后的边界玩家，候选为全局所有未匹配玩家
+     */
+    private List<MatchPair> matchDeferred(Context ctx, List<Integer> deferred) {
+        int n = ctx.elo.length;
+        NearestFinder finder = new NearestFinder(n);
+        for (int i = 0; i < n; i++) {
+            if (ctx.state[i] == 1) finder.remove(i);
+        }
+
+        deferred.sort(Comparator.<Integer>comparingLong(i -> ctx.joinTime[i])
+                .thenComparing(i -> ctx.items[i].getUserId()));
+
+        List<MatchPair> pairs = new ArrayList<>();
+        for (int p : deferred) {
+            if (ctx.state[p] == 1) continue;
+
+            int q = finder.nearest(ctx.elo, 0, p);
+            if (q < 0) continue;
+            long diff = Math.abs((long) ctx.elo[q] - ctx.elo[p]);
+            if (diff > ctx.range[p]) continue;
+
+            ctx.state[p] = 1;
+            ctx.state[q] = 1;
+            finder.remove(p);
+            finder.remove(q);
+            pairs.add(new MatchPair(ctx.items[p], ctx.items[q], (int) diff));
+        }
+        return pairs;
+    }
+
+    /**
+     * 分片内按等待优先级排序（入队越早越优先，同时间按 userId 保持稳定）
+     */
+    private Integer[] priorityOrder(Context ctx, int from, int to) {
+        Integer[] order = new Integer[to - from];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> ctx.joinTime[from + i])
+                .thenComparing(i -> ctx.items[from + i].getUserId()));
+        return order;
+    }
+
+    /**
+     * 一轮匹配共享的只读数据（按 ELO 排序后的列式数组）
+     * state 数组按分片区间分区写入，分片间互不重叠
+     */
+    private static final class Context {
+        final MatchQueueItem[] items;
+        final int[] elo;
+        final int[] range;
+        final long[] joinTime;
+        final byte[] state;
+
+        Context(MatchQueueItem[] items, int[] elo, int[] range, long[] joinTime, byte[] state) {
+            this.items = items;
+            this.elo = elo;
+            this.range = range;
+            this.joinTime = joinTime;
+            this.state = state;
+        }
+    }
+
+    private static final class ShardResult {
+        final List<MatchPair> pairs = new ArrayList<>();
+        final List<Integer> deferred = new ArrayList<>();
+    }
+
+    /**
+     * 在排序数组上查找“左右最近的未占用位置”
+     * 使用带路径压缩的并查集跳过已匹配玩家，单次查询近似 O(1)
+     */
+    private static final class NearestFinder {
+        // right[i]: >= i 的第一个可用位置（len 为哨兵）
+        private final int[] right;
+        // left[k]: 表示位置 k-1，<= k-1 的第一个可用位置 +1（0 为哨兵）
+        private final int[] left;
+        private final int len;
+
+        NearestFinder(int len) {
+            this.len = len;
+            this.right = new int[len + 1];
+            this.left = new int[len + 1];
+            for (int i = 0; i <= len; i++) {
+                right[i] = i;
+                left[i] = i;
+            }
+        }
+
+        void remove(int i) {
+            right[i] = i + 1;
+            left[i + 1] = i;
+        }
+
+        /**
+         * 查找与位置 p 分差最小的可用位置（不含 p 自身），分差相同时取右侧（分数更高者）
+         *
+         * @param elo 全局 ELO 数组
+         * @param offset 本查找器对应的全局起始下标
+         * @param p 本地下标
+         * @return 本地下标，没有可用位置返回 -1
+         */
+        int nearest(int[] elo, int offset, int p) {
+            int r = findRight(p + 1);
+            int l = findLeft(p) - 1;
+            boolean hasR = r < len;
+            boolean hasL = l >= 0;
+            if (!hasR && !hasL) return -1;
+            if (!hasL) return r;
+            if (!hasR) return l;
+            int self = elo[offset + p];
+            long dr = (long) elo[offset + r] - self;
+            long dl = (long) self - elo[offset + l];
+            return dr <= dl ? r : l;
+        }
+
+        private int findRight(int i) {
+            while (right[i] != i) {
+                right[i] = right[right[i]];
+                i = right[i];
+            }
+            return i;
+        }
+
+        private int findLeft(int k) {
+            while (left[k] != k) {
+                left[k] = left[left[k]];
+                k = left[k];
+            }
+            return k;
+        }
+    }
+
+    /**
+     * 一组匹配结果
+     */
+    public static final class MatchPair {
+        private final MatchQueueItem player1;
+        private final MatchQueueItem player2;
+        private final int eloDiff;
+
+        public MatchPair(MatchQueueItem player1, MatchQueueItem player2, int eloDiff) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.eloDiff = eloDiff;
+        }
+
+        public MatchQueueItem getPlayer1() {
+            return player1;
+        }
+
+        public MatchQueueItem getPlayer2() {
+            return player2;
+        }
+
+        public int getEloDiff() {
+            return eloDiff;
+        }
+    }
+}
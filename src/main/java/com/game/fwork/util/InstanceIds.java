@@ -0,0 +1,30 @@
+package com.game.fwork.util;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * 实例标识工具
+ * 多实例部署时用于区分各进程（在线状态登记的实例名、结算消费组的消费者名等）
+ */
+public final class InstanceIds {
+
+    private InstanceIds() {
+    }
+
+    /**
+     * 配置为空时按主机名加随机后缀生成，保证每个进程不同（同一主机上的多个进程、重启前后也不同）
+     */
+    public static String resolve(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "game";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
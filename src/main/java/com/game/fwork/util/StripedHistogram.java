@@ -0,0 +1,138 @@
+package com.game.fwork.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分段无锁直方图
+ * 内部按线程分为多个 AtomicHistogram，每个线程只写自己所在的分段，避免多核同时打点时争抢同一缓存行
+ * 读取时把各分段的桶合并后再计算百分位，读取开销较高，适合“高频写、低频读”的监控场景
+ */
+public class StripedHistogram {
+
+    private final AtomicHistogram[] stripes;
+    private final int mask;
+
+    public StripedHistogram() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param concurrency 预期的并发写线程数，分段数取不小于它的 2 的幂
+     */
+    public StripedHistogram(int concurrency) {
+        int size = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        stripes = new AtomicHistogram[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicHistogram();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * 记录一个样本
+     */
+    public void record(long value) {
+        stripes[(int) Thread.currentThread().threadId() & mask].record(value);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (AtomicHistogram stripe : stripes) {
+            total += stripe.getCount();
+        }
+        return total;
+    }
+
+    public long getSum() {
+        long sum = 0;
+        for (AtomicHistogram stripe : stripes) {
+            sum += stripe.getSum();
+        }
+        return sum;
+    }
+
+    public long getMax() {
+        long max = 0;
+        for (AtomicHistogram stripe : stripes) {
+            max = Math.max(max, stripe.getMax());
+        }
+        return max;
+    }
+
+    public double getMean() {
+        long count = 0;
+        long sum = 0;
+        for (AtomicHistogram stripe : stripes) {
+            count += stripe.getCount();
+            sum += stripe.getSum();
+        }
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * 计算百分位数（返回所在桶的上界，且不超过最大值）
+     *
+     * @param percentile 0~100，如 99.9
+     */
+    public long getPercentile(double percentile) {
+        return percentileOf(mergeBuckets(), percentile, getMax());
+    }
+
+    /**
+     * 导出常用统计值（count / mean / p50 / p90 / p99 / p999 / max）
+     */
+    public Map<String, Object> snapshot() {
+        long[] merged = mergeBuckets();
+        long max = getMax();
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("count", getCount());
+        data.put("mean", Math.round(getMean() * 100) / 100.0);
+        data.put("p50", percentileOf(merged, 50, max));
+        data.put("p90", percentileOf(merged, 90, max));
+        data.put("p99", percentileOf(merged, 99, max));
+        data.put("p999", percentileOf(merged, 99.9, max));
+        data.put("max", max);
+        return data;
+    }
+
+    /**
+     * 清空统计（并发记录中的样本可能被部分保留，统计用途可以接受）
+     */
+    public void reset() {
+        for (AtomicHistogram stripe : stripes) {
+            stripe.reset();
+        }
+    }
+
+    private long[] mergeBuckets() {
+        long[] merged = new long[AtomicHistogram.BUCKET_COUNT];
+        for (AtomicHistogram stripe : stripes) {
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += stripe.bucket(i);
+            }
+        }
+        return merged;
+    }
+
+    private static long percentileOf(long[] buckets, double percentile, long max) {
+        long total = 0;
+        for (long count : buckets) {
+            total += count;
+        }
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        if (target < 1) target = 1;
+
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) {
+                return Math.min(AtomicHistogram.upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -53,6 +53,30 @@ function calculateDamage(context)
     return finalDamage
 end
 
+-- 批量伤害计算（模拟、AI 推演、期望伤害预览）
+-- batch 的每个字段都是长度为 batch.count 的数组（结构数组），结果写入 batch.damage
+-- 逐条复用同一张上下文表调用 calculateDamage，保证与单次计算的公式完全一致
+function calculateDamageBatch(batch)
+    local count = batch.count
+    local attack, defense = batch.attackerAttack, batch.defenderDefense
+    local crit, dodge, defending = batch.attackerCrit, batch.defenderDodge, batch.defenderDefending
+    local multiplier, defBreak = batch.skillMultiplier, batch.skillDefBreak
+    local damage = batch.damage
+
+    local context = {}
+    for i = 1, count do
+        context.attackerAttack = attack[i]
+        context.defenderDefense = defense[i]
+        context.attackerCrit = crit[i]
+        context.defenderDodge = dodge[i]
+        context.defenderDefending = defending[i]
+        context.skillMultiplier = multiplier[i]
+        context.skillDefBreak = defBreak[i]
+        damage[i] = calculateDamage(context)
+    end
+    return count
+end
+
 function calculateHeal(context)
     local healerMaxHp = context.healerMaxHp
     local multiplier = context.skillMultiplier
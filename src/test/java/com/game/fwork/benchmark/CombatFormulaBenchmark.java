@@ -0,0 +1,226 @@
+package com.game.fwork.benchmark;
+
+import com.game.fwork.entity.BattlePlayer;
+import com.game.fwork.entity.Skill;
+import com.game.fwork.manager.LuaEngineManager;
+import com.game.fwork.manager.LuaFunctionHandle;
+import com.game.fwork.manager.LuaPerformanceMonitor;
+import com.game.fwork.manager.LuaShadowEvaluator;
+import com.game.fwork.util.DamageCalculator;
+import org.luaj.vm2.LuaTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 战斗公式层基准测试
+ * 覆盖：DamageCalculator 的 Lua 公式与 Java 兜底公式、callLuaFunction 的通用接口开销、
+ * Map 上下文转换（marshalling）、BattlePlayer 每回合的状态变更
+ *
+ * 推荐通过 Maven 运行（单线程与多线程争用各一轮，附带 GC 分析，结果输出到 target/jmh/*.json）：
+ *   mvn -P benchmark -DskipTests verify
+ * 也可以直接执行 main 方法
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CombatFormulaBenchmark {
+
+    private static final String SCRIPT_PATH = "lua/damage_formulas.lua";
+
+    /**
+     * 所有线程共享的组件（与生产环境一样，线程之间只共享引擎、监控与计算器）
+     */
+    @State(Scope.Benchmark)
+    public static class Components {
+        // 解释执行 / LuaJC 编译两种模式对比
+        @Param({"false", "true"})
+        boolean luajc;
+
+        LuaEngineManager engine;
+        LuaShadowEvaluator shadowEvaluator;
+        DamageCalculator calculator;
+        LuaFunctionHandle healHandle;
+
+        @Setup
+        public void setUp() {
+            engine = new LuaEngineManager();
+            ReflectionTestUtils.setField(engine, "luajcEnabled", luajc);
+            engine.init();
+
+            shadowEvaluator = new LuaShadowEvaluator();
+            ReflectionTestUtils.setField(shadowEvaluator, "luaEngineManager", engine);
+            ReflectionTestUtils.setField(shadowEvaluator, "queueCapacity", 1024);
+            shadowEvaluator.init();
+
+            calculator = new DamageCalculator();
+            ReflectionTestUtils.setField(calculator, "luaEngineManager", engine);
+            ReflectionTestUtils.setField(calculator, "performanceMonitor", new LuaPerformanceMonitor());
+            ReflectionTestUtils.setField(calculator, "shadowEvaluator", shadowEvaluator);
+            ReflectionTestUtils.setField(calculator, "luaScriptPath", SCRIPT_PATH);
+            calculator.init();
+
+            healHandle = engine.resolveFunction(SCRIPT_PATH, "calculateHeal");
+        }
+
+        @TearDown
+        public void tearDown() {
+            shadowEvaluator.shutdown();
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * 每个线程自己的战斗双方与上下文（对应每个战斗各自的对象）
+     */
+    @State(Scope.Thread)
+    public static class Battle {
+        BattlePlayer attacker;
+        BattlePlayer defender;
+        Skill attackSkill;
+        Skill healSkill;
+        Map<String, Object> damageContext;
+        Map<String, Object> healContext;
+
+        @Setup
+        public void setUp() {
+            attacker = player(1L, 120, 30);
+            defender = player(2L, 100, 40);
+
+            attackSkill = new Skill();
+            attackSkill.setId(1);
+            attackSkill.setSkillName("重斩");
+            attackSkill.setSkillType("attack");
+            attackSkill.setMultiplier(1.5);
+            attackSkill.setDefenseMultiplier(0.5);
+            attackSkill.setCooldown(2);
+
+            healSkill = new Skill();
+            healSkill.setId(2);
+            healSkill.setSkillName("治疗");
+            healSkill.setSkillType("heal");
+            healSkill.setMultiplier(0.2);
+            healSkill.setCooldown(3);
+
+            damageContext = new HashMap<>();
+            damageContext.put("attackerAttack", attacker.getAttack());
+            damageContext.put("defenderDefense", defender.getDefense());
+            damageContext.put("attackerCrit", attacker.getCritRate());
+            damageContext.put("defenderDodge", defender.getDodgeRate());
+            damageContext.put("defenderDefending", defender.isDefending());
+            damageContext.put("skillMultiplier", attackSkill.getMultiplier());
+            damageContext.put("skillDefBreak", attackSkill.getDefenseMultiplier());
+
+            healContext = new HashMap<>();
+            healContext.put("healerMaxHp", attacker.getMaxHp());
+            healContext.put("skillMultiplier", healSkill.getMultiplier());
+        }
+
+        private static BattlePlayer player(Long userId, int attack, int defense) {
+            BattlePlayer player = new BattlePlayer();
+            player.setUserId(userId);
+            player.setNickname("木桩" + userId);
+            player.setAttack(attack);
+            player.setDefense(defense);
+            player.setMaxHp(1000);
+            player.setCurrentHp(1000);
+            player.setCritRate(20);
+            player.setDodgeRate(10);
+            player.initSkills(List.of(1, 2, 3, 4));
+            return player;
+        }
+    }
+
+    // ---------------- DamageCalculator：Lua vs Java ----------------
+
+    /**
+     * 生产路径：类型化 Lua 调用 + 性能打点 + 影子评估检查
+     */
+    @Benchmark
+    public int damageLua(Components components, Battle battle) {
+        return components.calculator.calculateDamage(battle.attacker, battle.defender, battle.attackSkill);
+    }
+
+    /**
+     * 对照组：Java 兜底公式
+     */
+    @Benchmark
+    public int damageJava(Components components, Battle battle) {
+        return components.calculator.calculateDamageByJava(battle.attacker, battle.defender, battle.attackSkill);
+    }
+
+    @Benchmark
+    public int healLua(Components components, Battle battle) {
+        return components.calculator.calculateHeal(battle.attacker, battle.healSkill);
+    }
+
+    // ---------------- 调用开销 ----------------
+
+    /**
+     * 通用接口调用最简单的治疗公式：耗时主要是名称查找、Map 转 LuaTable 与调用本身
+     */
+    @Benchmark
+    public int callLuaFunctionMap(Components components, Battle battle) throws Exception {
+        return components.engine.callLuaFunction(SCRIPT_PATH, "calculateHeal", battle.healContext);
+    }
+
+    /**
+     * 同一公式走类型化接口，与上一项的差值即为通用接口的额外开销
+     */
+    @Benchmark
+    public int callHealTyped(Components components) throws Exception {
+        return components.engine.callHeal(components.healHandle, 1000, 0.2);
+    }
+
+    // ---------------- 上下文转换 ----------------
+
+    /**
+     * 伤害上下文（7 个字段）从 Map 转换为 LuaTable，不执行 Lua
+     */
+    @Benchmark
+    public LuaTable marshalDamageContext(Battle battle) {
+        return LuaEngineManager.toLuaTable(battle.damageContext);
+    }
+
+    // ---------------- BattlePlayer 状态变更 ----------------
+
+    /**
+     * 一个回合内的典型状态变更：检查并使用技能、受伤、治疗、回合结束冷却递减
+     */
+    @Benchmark
+    public int battlePlayerTurn(Battle battle) {
+        BattlePlayer player = battle.defender;
+        if (player.canUseSkill(battle.attackSkill.getId())) {
+            player.useSkill(battle.attackSkill.getId(), battle.attackSkill.getCooldown());
+        }
+        player.takeDamage(57);
+        player.heal(57);
+        player.reduceCooldowns();
+        player.resetTurnState();
+        return player.getCurrentHp();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            Options options = new OptionsBuilder()
+                    .include(CombatFormulaBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler("gc")
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh/combat-formula-" + threads + "t.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.game.fwork.benchmark;
+
+import com.game.fwork.manager.LuaCallFrame;
+import com.game.fwork.manager.LuaEngineManager;
+import com.game.fwork.manager.LuaFunctionHandle;
+import com.game.fwork.util.DamageBatch;
+import org.luaj.vm2.LuaString;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lua 伤害公式多线程吞吐压测
+ * 所有线程共用同一个 LuaEngineManager，每个线程使用自己的 Globals，
+ * 理想情况下每秒计算次数随线程数线性增长；同时对比解释执行与 LuaJC 编译两种模式，以及执行预算钩子的开销
+ * （开启预算时 LuaJC 不生效，budget=true 的两组结果均为解释执行）
+ * 分配情况可追加 GC 分析器查看：java ... org.openjdk.jmh.Main LuaEngineThroughputBenchmark -prof gc
+ * 运行方式：直接执行 main 方法，依次以 1、2、4 … 个线程（不超过 CPU 核心数）运行
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LuaEngineThroughputBenchmark {
+
+    private static final String SCRIPT_PATH = "lua/damage_formulas.lua";
+
+    @State(Scope.Benchmark)
+    public static class EngineState {
+        // 解释执行 / LuaJC 编译两种模式对比
+        @Param({"false", "true"})
+        boolean luajc;
+
+        // 是否开启单次调用执行预算
+        @Param({"false", "true"})
+        boolean budget;
+
+        LuaEngineManager engine;
+        LuaFunctionHandle damageHandle;
+        LuaFunctionHandle batchHandle;
+
+        @Setup
+        public void setUp() {
+            engine = new LuaEngineManager();
+            ReflectionTestUtils.setField(engine, "budgetEnabled", budget);
+            ReflectionTestUtils.setField(engine, "budgetMaxInstructions", 1_000_000L);
+            ReflectionTestUtils.setField(engine, "budgetMaxMillis", 50L);
+            engine.init();
+            engine.setLuajcEnabled(luajc);
+            damageHandle = engine.resolveFunction(SCRIPT_PATH, "calculateDamage");
+            batchHandle = engine.resolveFunction(SCRIPT_PATH, "calculateDamageBatch");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ContextState {
+        Map<String, Object> context;
+
+        @Setup
+        public void setUp() {
+            context = new HashMap<>();
+            context.put("attackerAttack", 120);
+            context.put("defenderDefense", 40);
+            context.put("attackerCrit", 20);
+            context.put("defenderDodge", 10);
+            context.put("defenderDefending", false);
+            context.put("skillMultiplier", 1.5);
+            context.put("skillDefBreak", 0.5);
+        }
+    }
+
+    private static final int BATCH_SIZE = 1000;
+
+    @State(Scope.Thread)
+    public static class BatchState {
+        DamageBatch batch;
+
+        @Setup
+        public void setUp() {
+            batch = new DamageBatch(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(100 + i % 50, 40, 20, 10, i % 4 == 0, 1.5, 0.5);
+            }
+        }
+    }
+
+    private static final LuaString KEY_ATTACKER_ATTACK = LuaString.valueOf("attackerAttack");
+    private static final LuaString KEY_DEFENDER_DEFENSE = LuaString.valueOf("defenderDefense");
+
+    /**
+     * 通用接口：Map 上下文，每次调用新建 LuaTable
+     */
+    @Benchmark
+    public int calculateDamage(EngineState engine, ContextState state) throws Exception {
+        return engine.engine.callLuaFunction(SCRIPT_PATH, "calculateDamage", state.context);
+    }
+
+    /**
+     * 类型化接口：预解析句柄 + 复用上下文表
+     */
+    @Benchmark
+    public int calculateDamageTyped(EngineState engine) throws Exception {
+        return engine.engine.callDamage(engine.damageHandle, 120, 40, 20, 10, false, 1.5, 0.5);
+    }
+
+    /**
+     * 批量接口：一次 Lua 调用计算 BATCH_SIZE 组输入，分数按单条计算换算，可与上面两项直接比较
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int calculateDamageBatch(EngineState engine, BatchState state) throws Exception {
+        engine.engine.callDamageBatch(engine.batchHandle, state.batch);
+        return state.batch.getDamage(BATCH_SIZE - 1);
+    }
+
+    /**
+     * 仅 Java 侧的调用准备（取调用帧并写入参数，不执行 Lua），用于确认这部分不产生堆分配
+     */
+    @Benchmark
+    public LuaCallFrame bindTypedContext(EngineState engine) throws Exception {
+        return engine.engine.frame(engine.damageHandle)
+                .set(KEY_ATTACKER_ATTACK, 120)
+                .set(KEY_DEFENDER_DEFENSE, 40);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(LuaEngineThroughputBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.game.fwork.benchmark;
+
+import com.game.fwork.enums.LuaExecutionMode;
+import com.game.fwork.manager.LuaPerformanceMonitor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lua 性能监控打点开销压测
+ * 衡量 LuaPerformanceMonitor.recordCall 单次耗时与分配，单线程与多线程争用各跑一轮
+ * 运行方式：直接执行 main 方法
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LuaMonitorOverheadBenchmark {
+
+    private final LuaPerformanceMonitor monitor = new LuaPerformanceMonitor();
+
+    @Benchmark
+    public void recordCall() {
+        monitor.recordCall("calculateDamage", 1, LuaExecutionMode.LUAJC, 850);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            Options options = new OptionsBuilder()
+                    .include(LuaMonitorOverheadBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.game.fwork.benchmark;
+
+import com.game.fwork.dto.MatchQueueItem;
+import com.game.fwork.util.EloShardMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片匹配基准测试
+ * 用十万/百万级模拟队列，对比单线程与分片并行（CPU 核心数）下 EloShardMatcher 的单轮匹配耗时
+ * 匹配器只读输入队列，多线程争用时各线程共享同一个队列与分片线程池
+ *
+ * 推荐通过 Maven 运行（单线程与多线程争用各一轮，附带 GC 分析，结果输出到 target/jmh/*.json）：
+ *   mvn -P benchmark -DskipTests verify -Djmh.include=MatchShardBenchmark
+ * 也可以直接执行 main 方法（无需启动 Spring / Redis）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MatchShardBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Queue {
+        @Param({"100000", "1000000"})
+        int size;
+
+        // 1 = 单线程；0 = 使用 CPU 核心数
+        @Param({"1", "0"})
+        int parallelism;
+
+        EloShardMatcher matcher;
+        List<MatchQueueItem> players;
+        long now;
+
+        @Setup
+        public void setUp() {
+            matcher = new EloShardMatcher();
+            ReflectionTestUtils.setField(matcher, "parallelism", parallelism);
+            ReflectionTestUtils.setField(matcher, "shardMinSize", 4096);
+            matcher.init();
+
+            now = System.currentTimeMillis();
+            players = buildQueue(size, now);
+        }
+
+        @TearDown
+        public void tearDown() {
+            matcher.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<EloShardMatcher.MatchPair> matchRound(Queue queue) {
+        return queue.matcher.match(queue.players, p -> dynamicRange(p, queue.now));
+    }
+
+    // 与 MatchService 相同的动态范围规则：基础 200，每 10 秒 +50，上限 500
+    private static int dynamicRange(MatchQueueItem p, long now) {
+        long waitSeconds = (now - p.getJoinTime()) / 1000;
+        return (int) Math.min(200 + (waitSeconds / 10) * 50, 500);
+    }
+
+    // ELO 近似正态分布（均值 1200，标准差 300），入队时间分布在最近 60 秒内
+    private static List<MatchQueueItem> buildQueue(int size, long now) {
+        Random random = new Random(2024);
+        List<MatchQueueItem> queue = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            int elo = (int) Math.max(0, 1200 + random.nextGaussian() * 300);
+            MatchQueueItem item = new MatchQueueItem(i, elo, "bot" + i, i);
+            item.setJoinTime(now - random.nextInt(60_000));
+            queue.add(item);
+        }
+        return queue;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads : new int[]{1, cores}) {
+            Options options = new OptionsBuilder()
+                    .include(MatchShardBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler("gc")
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh/match-shard-" + threads + "t.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.game.fwork.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 战斗记录与留言板写入吞吐压测（需要可用的 MySQL，表结构见 sql/init.sql）
+ * 对比两种主键策略下的写入方式：
+ *   identity*：自增主键，每行单独 INSERT 并回读生成的ID（Hibernate 在 IDENTITY 下只能这样写）
+ *   pooled*：先从 t_id_generator 取一个号段（每 50 行一次 SELECT ... FOR UPDATE + UPDATE），
+ *            再带着预分配的ID走 JDBC 批处理（即 TABLE 号段 + hibernate.jdbc.batch_size 的效果）
+ *   battleRecordMultiRow：结算写入线程使用的多行 INSERT（战斗记录仍为自增主键）
+ * 每次调用写入 rows 行后回滚，不污染数据；压测专用的号段行在整轮结束后删除；
+ * 结果单位为“批/秒”，乘以 rows 即为行/秒
+ *
+ * 连接参数通过系统属性传入（默认与 application.properties 一致）：
+ *   -Dbench.jdbc.url=... -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ *   -Dbench.sender-id=1 -Dbench.target-id=2（留言板外键要求两个用户存在）
+ * 需要数据库，不在 benchmark profile 的默认范围内，运行方式：
+ *   mvn -Pbenchmark verify -Djmh.include=PersistenceWriteBenchmark，或直接执行 main 方法
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceWriteBenchmark {
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/turn_based_game?useUnicode=true" +
+            "&characterEncoding=utf8&useSSL=false&serverTimezone=Asia/Shanghai&allowPublicKeyRetrieval=true" +
+            "&rewriteBatchedStatements=true";
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String BATTLE_RECORD_GEN = "battle_record_bench";
+
+    private static final String MESSAGE_SQL =
+            "INSERT INTO t_message_board (target_user_id, sender_user_id, content, created_at) VALUES (?,?,?,?)";
+    private static final String MESSAGE_WITH_ID_SQL =
+            "INSERT INTO t_message_board (id, target_user_id, sender_user_id, content, created_at) VALUES (?,?,?,?,?)";
+
+    private static final String RECORD_COLUMNS = "battle_id, player1_id, player1_nickname, player2_id, " +
+            "player2_nickname, winner_id, end_reason, total_rounds, created_at";
+    private static final String RECORD_ROW = "(?,?,?,?,?,?,?,?,?)";
+    private static final String RECORD_SQL = "INSERT INTO t_battle_record (" + RECORD_COLUMNS + ") VALUES " + RECORD_ROW;
+    private static final String RECORD_WITH_ID_SQL =
+            "INSERT INTO t_battle_record (id, " + RECORD_COLUMNS + ") VALUES (?," + RECORD_ROW.substring(1);
+
+    // 跨线程唯一的 battle_id 后缀（battle_id 有唯一索引）
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    /**
+     * 战斗记录的压测号段（所有线程共用）
+     * 战斗记录不走号段（生产仍为自增主键），整轮开始时插入一个单独的号段，起点不低于表中已有的最大ID，
+     * 结束时删除，不在 t_id_generator 中留下压测数据
+     */
+    @State(Scope.Benchmark)
+    public static class BattleRecordGenerator {
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO t_id_generator (gen_name, gen_value) " +
+                        "SELECT '" + BATTLE_RECORD_GEN + "', COALESCE(MAX(id), 0) + 1 FROM t_battle_record " +
+                        "ON DUPLICATE KEY UPDATE gen_value = GREATEST(gen_value, VALUES(gen_value))");
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM t_id_generator WHERE gen_name = '" + BATTLE_RECORD_GEN + "'");
+            }
+        }
+    }
+
+    /**
+     * 每个线程一条连接（对应连接池中的一个连接）
+     */
+    @State(Scope.Thread)
+    public static class Db {
+        // 每次调用写入的行数（对应一个事务中的写入量）
+        @Param({"1", "50"})
+        int rows;
+
+        Connection connection;
+        long senderId;
+        long targetId;
+
+        // 号段内的下一个ID与号段上界（不含）
+        long nextId;
+        long blockEnd;
+
+        @Setup
+        public void setUp() throws SQLException {
+            connection = connect();
+            connection.setAutoCommit(false);
+            senderId = Long.getLong("bench.sender-id", 1L);
+            targetId = Long.getLong("bench.target-id", 2L);
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        /**
+         * pooled-lo：表中存放下一号段的起始值，取出后加上号段大小写回
+         * 号段分配使用独立事务提交（与 Hibernate 的 TableGenerator 一致），业务事务回滚不会回收号段
+         */
+        long nextId(String genName) throws SQLException {
+            if (nextId >= blockEnd) {
+                try (Connection allocator = connect()) {
+                    allocator.setAutoCommit(false);
+                    long lo;
+                    try (PreparedStatement select = allocator.prepareStatement(
+                            "SELECT gen_value FROM t_id_generator WHERE gen_name = ? FOR UPDATE")) {
+                        select.setString(1, genName);
+                        try (ResultSet rs = select.executeQuery()) {
+                            if (!rs.next()) {
+                                throw new SQLException("t_id_generator 缺少号段: " + genName);
+                            }
+                            lo = rs.getLong(1);
+                        }
+                    }
+                    try (PreparedStatement update = allocator.prepareStatement(
+                            "UPDATE t_id_generator SET gen_value = ? WHERE gen_name = ?")) {
+                        update.setLong(1, lo + ALLOCATION_SIZE);
+                        update.setString(2, genName);
+                        update.executeUpdate();
+                    }
+                    allocator.commit();
+                    nextId = lo;
+                    blockEnd = lo + ALLOCATION_SIZE;
+                }
+            }
+            return nextId++;
+        }
+    }
+
+    // ---------------- 留言板 ----------------
+
+    @Benchmark
+    public long messageIdentity(Db db) throws SQLException {
+        long last = 0;
+        try (PreparedStatement ps = db.connection.prepareStatement(MESSAGE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < db.rows; i++) {
+                bindMessage(ps, 1, db);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        } finally {
+            db.connection.rollback();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int messagePooledBatch(Db db) throws SQLException {
+        try (PreparedStatement ps = db.connection.prepareStatement(MESSAGE_WITH_ID_SQL)) {
+            for (int i = 0; i < db.rows; i++) {
+                ps.setLong(1, db.nextId("message_board"));
+                bindMessage(ps, 2, db);
+                ps.addBatch();
+            }
+            return ps.executeBatch().length;
+        } finally {
+            db.connection.rollback();
+        }
+    }
+
+    // ---------------- 战斗记录 ----------------
+
+    @Benchmark
+    public long battleRecordIdentity(Db db) throws SQLException {
+        long last = 0;
+        try (PreparedStatement ps = db.connection.prepareStatement(RECORD_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < db.rows; i++) {
+                bindRecord(ps, 1);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        } finally {
+            db.connection.rollback();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int battleRecordPooledBatch(Db db, BattleRecordGenerator generator) throws SQLException {
+        try (PreparedStatement ps = db.connection.prepareStatement(RECORD_WITH_ID_SQL)) {
+            for (int i = 0; i < db.rows; i++) {
+                ps.setLong(1, db.nextId(BATTLE_RECORD_GEN));
+                bindRecord(ps, 2);
+                ps.addBatch();
+            }
+            return ps.executeBatch().length;
+        } finally {
+            db.connection.rollback();
+        }
+    }
+
+    @Benchmark
+    public int battleRecordMultiRow(Db db) throws SQLException {
+        String sql = "INSERT INTO t_battle_record (" + RECORD_COLUMNS + ") VALUES " +
+                String.join(",", Collections.nCopies(db.rows, RECORD_ROW));
+        try (PreparedStatement ps = db.connection.prepareStatement(sql)) {
+            for (int i = 0; i < db.rows; i++) {
+                bindRecord(ps, 1 + i * 9);
+            }
+            return ps.executeUpdate();
+        } finally {
+            db.connection.rollback();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", DEFAULT_URL),
+                System.getProperty("bench.jdbc.user", "root"),
+                System.getProperty("bench.jdbc.password", "7355608"));
+    }
+
+    private static void bindMessage(PreparedStatement ps, int index, Db db) throws SQLException {
+        ps.setLong(index, db.targetId);
+        ps.setLong(index + 1, db.senderId);
+        ps.setString(index + 2, "压测留言");
+        ps.setTimestamp(index + 3, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static void bindRecord(PreparedStatement ps, int index) throws SQLException {
+        ps.setString(index, "bench_" + System.nanoTime() + "_" + SEQUENCE.incrementAndGet());
+        ps.setLong(index + 1, 1L);
+        ps.setString(index + 2, "木桩1");
+        ps.setLong(index + 3, 2L);
+        ps.setString(index + 4, "木桩2");
+        ps.setLong(index + 5, 1L);
+        ps.setString(index + 6, "NORMAL");
+        ps.setInt(index + 7, 12);
+        ps.setTimestamp(index + 8, new Timestamp(System.currentTimeMillis()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(PersistenceWriteBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
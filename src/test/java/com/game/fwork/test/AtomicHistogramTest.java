@@ -0,0 +1,83 @@
+package com.game.fwork.test;
+
+import com.game.fwork.util.AtomicHistogram;
+import com.game.fwork.util.StripedHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("无锁直方图单元测试")
+class AtomicHistogramTest {
+
+    @Test
+    @DisplayName("百分位数误差在分桶精度范围内")
+    void testPercentileAccuracy() {
+        // Arrange
+        AtomicHistogram histogram = new AtomicHistogram();
+
+        // Act: 记录 1~10000
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+
+        // Assert: 对数-线性分桶相对误差不超过 12.5%
+        assertEquals(10000, histogram.getCount());
+        assertEquals(5000.5, histogram.getMean(), 0.001);
+        assertEquals(10000, histogram.getMax());
+        assertEquals(5000, histogram.getPercentile(50), 5000 * 0.125);
+        assertEquals(9900, histogram.getPercentile(99), 9900 * 0.125);
+        assertTrue(histogram.getPercentile(100) <= 10000);
+    }
+
+    @Test
+    @DisplayName("多线程并发记录不丢失样本")
+    void testConcurrentRecord() throws InterruptedException {
+        AtomicHistogram histogram = new AtomicHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    histogram.record(i % 1000);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(999, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    @DisplayName("分段直方图合并结果与单个直方图一致")
+    void testStripedMatchesSingle() throws InterruptedException {
+        AtomicHistogram single = new AtomicHistogram();
+        StripedHistogram striped = new StripedHistogram(4);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    single.record(i);
+                    striped.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(single.getCount(), striped.getCount());
+        assertEquals(single.getMax(), striped.getMax());
+        assertEquals(single.getMean(), striped.getMean(), 0.001);
+        assertEquals(single.getPercentile(50), striped.getPercentile(50));
+        assertEquals(single.getPercentile(99.9), striped.getPercentile(99.9));
+    }
+}
@@ -0,0 +1,77 @@
+package com.game.fwork.test;
+
+import com.game.fwork.manager.BattleArchiveStore;
+import com.game.fwork.service.BattleArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("战斗记录归档集群锁单元测试")
+class BattleArchiveServiceTest {
+
+    @InjectMocks
+    private BattleArchiveService archiveService;
+
+    @Mock private BattleArchiveStore archiveStore;
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // 任何数据库访问都失败，用来确认是否越过了集群锁
+        jdbcTemplate = mock(JdbcTemplate.class, invocation -> {
+            throw new IllegalStateException("数据库不可用");
+        });
+        ReflectionTestUtils.setField(archiveService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(archiveService, "retentionDays", 90);
+        ReflectionTestUtils.setField(archiveService, "lockTtlMs", 60_000L);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("其他节点持有归档锁时跳过本轮，不读热表也不写段文件")
+    void testSkipWhenLockHeld() {
+        when(valueOperations.setIfAbsent(eq("archive:battle:lock"), anyString(), eq(60_000L), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(false);
+
+        archiveService.runOnce();
+
+        verifyNoInteractions(archiveStore);
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+        assertEquals(1L, archiveService.snapshot().get("lockBusyRuns"));
+    }
+
+    @Test
+    @DisplayName("抢到锁后即使本轮失败也按持有者标识释放锁")
+    @SuppressWarnings("unchecked")
+    void testReleaseLockAfterFailure() {
+        ArgumentCaptor<String> token = ArgumentCaptor.forClass(String.class);
+        when(valueOperations.setIfAbsent(eq("archive:battle:lock"), token.capture(), eq(60_000L), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(true);
+
+        archiveService.runOnce();
+
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of("archive:battle:lock")), eq(token.getValue()));
+        assertEquals("数据库不可用", archiveService.snapshot().get("lastError"));
+    }
+}
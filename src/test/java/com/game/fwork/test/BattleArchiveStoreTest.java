@@ -0,0 +1,181 @@
+package com.game.fwork.test;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.entity.BattleRecordLog;
+import com.game.fwork.manager.BattleArchiveStore;
+import com.game.fwork.util.BattleArchiveSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("战斗记录冷归档单元测试")
+class BattleArchiveStoreTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 10, 1, 12, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    private BattleArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+    }
+
+    @Test
+    @DisplayName("段文件往返后字段一致，空字段保持为空，日志原样读回")
+    void testSegmentRoundTrip() throws Exception {
+        List<BattleRecord> records = records(1, 20);
+        records.get(3).setWinnerId(null);
+        records.get(3).setPlayer2Nickname(null);
+        Map<String, BattleRecordLog> logs = logs(records);
+        logs.remove(records.get(5).getBattleId());
+
+        BattleArchiveSegment written = BattleArchiveSegment.write(dir.resolve("battle-0000000001.seg"), records, logs);
+        BattleArchiveSegment segment = BattleArchiveSegment.open(written.getFile());
+
+        assertEquals(20, segment.getRowCount());
+        assertEquals(1, segment.getMinId());
+        assertEquals(20, segment.getMaxId());
+        assertEquals(BASE_TIME.plusMinutes(1), segment.getMinCreatedAt());
+
+        int[] rows = new int[records.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        List<BattleRecord> decoded = segment.readRecords(rows);
+        for (int i = 0; i < records.size(); i++) {
+            BattleRecord expected = records.get(i);
+            BattleRecord actual = decoded.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getBattleId(), actual.getBattleId());
+            assertEquals(expected.getPlayer1Id(), actual.getPlayer1Id());
+            assertEquals(expected.getPlayer2Nickname(), actual.getPlayer2Nickname());
+            assertEquals(expected.getWinnerId(), actual.getWinnerId());
+            assertEquals(expected.getPlayer1EloAfter(), actual.getPlayer1EloAfter());
+            assertEquals(expected.getEndReason(), actual.getEndReason());
+            assertEquals(expected.getStartTime(), actual.getStartTime());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        }
+
+        int row = segment.rowOfBattle(records.get(7).getBattleId());
+        assertEquals(7, row);
+        assertArrayEquals(logs.get(records.get(7).getBattleId()).getLogData(), segment.readLog(row).getLogData());
+        assertNull(segment.readLog(5), "没有日志的记录应读回空");
+        assertEquals(-1, segment.rowOfBattle("BATTLE_0_missing"));
+    }
+
+    @Test
+    @DisplayName("跨段分页按时间倒序衔接，玩家过滤与按战斗ID查找正确")
+    void testFindAcrossSegments() throws Exception {
+        List<BattleRecord> older = records(1, 30);
+        List<BattleRecord> newer = records(31, 30);
+        store.append(older, logs(older));
+        store.append(newer, logs(newer));
+
+        // 玩家 1 参与了奇数ID的战斗，共 30 场
+        assertEquals(30, store.countByPlayer(1L));
+        assertEquals(0, store.countByPlayer(999L));
+
+        List<Long> ids = new ArrayList<>();
+        for (int offset = 0; offset < 30; offset += 7) {
+            for (BattleRecord record : store.findByPlayer(1L, offset, 7)) {
+                ids.add(record.getId());
+            }
+        }
+        assertEquals(30, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(59 - 2L * i, ids.get(i));
+        }
+
+        // 重新打开目录后只靠文件头即可查询
+        BattleArchiveStore reopened = newStore();
+        assertEquals(60, reopened.getRowCount());
+        BattleRecord found = reopened.findByBattleId(older.get(4).getBattleId()).orElseThrow();
+        assertEquals(5L, found.getId());
+        assertEquals("log-31", new String(reopened.findLog(newer.get(0).getBattleId()).orElseThrow().getLogData(),
+                StandardCharsets.UTF_8));
+        assertTrue(reopened.findByBattleId("BATTLE_1_unknown").isEmpty());
+    }
+
+    @Test
+    @DisplayName("玩家场数取自文件头的玩家表，与逐行统计一致，不在段内的玩家为 0")
+    void testPlayerCountsFromHeader() throws Exception {
+        List<BattleRecord> records = records(1, 25);
+        // 奇数场 13 场、偶数场 12 场，把一场偶数场的玩家3换成玩家1
+        records.get(1).setPlayer1Id(1L);
+        BattleArchiveSegment segment = BattleArchiveSegment.open(
+                BattleArchiveSegment.write(dir.resolve("battle-0000000001.seg"), records, logs(records)).getFile());
+
+        assertEquals(4, segment.getPlayerCount());
+        for (long player = 1; player <= 4; player++) {
+            assertTrue(segment.mightContainPlayer(player));
+            assertEquals(segment.rowsOfPlayer(player).length, segment.countOfPlayer(player));
+        }
+        assertEquals(14, segment.countOfPlayer(1L));
+        assertEquals(11, segment.countOfPlayer(3L));
+        assertEquals(12, segment.countOfPlayer(4L));
+        for (long absent = 5; absent < 1000; absent++) {
+            assertEquals(0, segment.countOfPlayer(absent));
+        }
+    }
+
+    private BattleArchiveStore newStore() {
+        BattleArchiveStore archiveStore = new BattleArchiveStore();
+        ReflectionTestUtils.setField(archiveStore, "directory", dir.toString());
+        archiveStore.init();
+        return archiveStore;
+    }
+
+    private static List<BattleRecord> records(long firstId, int count) {
+        List<BattleRecord> records = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            LocalDateTime createdAt = BASE_TIME.plusMinutes(id);
+            long startMs = createdAt.minusMinutes(2).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            BattleRecord record = new BattleRecord();
+            record.setId(id);
+            record.setBattleId("BATTLE_" + startMs + "_" + Long.toHexString(id));
+            // 奇数场由玩家1对阵玩家2，偶数场由玩家3对阵玩家4
+            record.setPlayer1Id(id % 2 == 1 ? 1L : 3L);
+            record.setPlayer1Nickname("玩家" + record.getPlayer1Id());
+            record.setPlayer2Id(id % 2 == 1 ? 2L : 4L);
+            record.setPlayer2Nickname("玩家" + record.getPlayer2Id());
+            record.setWinnerId(record.getPlayer1Id());
+            record.setEndReason("NORMAL");
+            record.setTotalRounds((int) (id % 7) + 1);
+            record.setPlayer1EloBefore(1000 + (int) id);
+            record.setPlayer1EloAfter(1025 + (int) id);
+            record.setStartTime(createdAt.minusMinutes(2));
+            record.setEndTime(createdAt);
+            record.setCreatedAt(createdAt);
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static Map<String, BattleRecordLog> logs(List<BattleRecord> records) {
+        Map<String, BattleRecordLog> logs = new HashMap<>();
+        for (BattleRecord record : records) {
+            BattleRecordLog log = new BattleRecordLog();
+            log.setBattleId(record.getBattleId());
+            log.setCodec(1);
+            log.setLogData(("log-" + record.getId()).getBytes(StandardCharsets.UTF_8));
+            logs.put(record.getBattleId(), log);
+        }
+        return logs;
+    }
+}
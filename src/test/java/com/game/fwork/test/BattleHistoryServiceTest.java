@@ -0,0 +1,98 @@
+package com.game.fwork.test;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.manager.BattleArchiveStore;
+import com.game.fwork.repository.BattleRecordLogRepository;
+import com.game.fwork.repository.BattleRecordRepository;
+import com.game.fwork.service.BattleHistoryService;
+import com.game.fwork.service.BattleStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("战斗历史查询单元测试")
+class BattleHistoryServiceTest {
+
+    @InjectMocks
+    private BattleHistoryService battleHistoryService;
+
+    @Mock private BattleRecordRepository battleRecordRepository;
+    @Mock private BattleArchiveStore archiveStore;
+    @Mock private BattleRecordLogRepository battleRecordLogRepository;
+    @Mock private BattleStatsService battleStatsService;
+
+    @Test
+    @DisplayName("热表填满本页时不读取归档记录，总数加上文件头中的归档场数")
+    void testFullHotPageSkipsArchiveRecords() throws Exception {
+        when(battleRecordRepository.findByPlayer1IdOrPlayer2Id(eq(1L), eq(1L), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(records(10), invocation.getArgument(2), 25));
+        when(archiveStore.countByPlayer(1L)).thenReturn(40L);
+
+        Page<BattleRecord> page = battleHistoryService.findPlayerBattles(1L, 0, 10);
+        assertEquals(10, page.getContent().size());
+        assertEquals(65, page.getTotalElements());
+
+        assertEquals(10, battleHistoryService.findRecentBattles(1L, 10).size());
+        verify(archiveStore, never()).findByPlayer(anyLong(), anyLong(), anyInt());
+        // 最近战斗不需要总数，不查归档场数
+        verify(archiveStore, times(1)).countByPlayer(1L);
+    }
+
+    @Test
+    @DisplayName("热表不足一页时从归档接着取")
+    void testShortHotPageContinuesFromArchive() throws Exception {
+        when(battleRecordRepository.findByPlayer1IdOrPlayer2Id(eq(1L), eq(1L), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(records(3), invocation.getArgument(2), 3));
+        when(archiveStore.findByPlayer(1L, 0, 2)).thenReturn(records(2));
+
+        assertEquals(5, battleHistoryService.findRecentBattles(1L, 5).size());
+        verify(archiveStore, never()).countByPlayer(anyLong());
+    }
+
+    @Test
+    @DisplayName("删除战斗时依次删除记录、日志并扣减统计")
+    void testDeleteBattle() {
+        BattleRecord record = new BattleRecord();
+        record.setBattleId("B1");
+        when(battleRecordRepository.findByBattleId("B1")).thenReturn(Optional.of(record));
+
+        assertTrue(battleHistoryService.deleteBattle("B1"));
+        verify(battleRecordRepository).delete(record);
+        verify(battleRecordLogRepository).deleteById("B1");
+        verify(battleStatsService).decrement(record);
+    }
+
+    @Test
+    @DisplayName("热表中没有该战斗时不删除也不扣减统计")
+    void testDeleteMissingBattle() {
+        when(battleRecordRepository.findByBattleId("B404")).thenReturn(Optional.empty());
+
+        assertFalse(battleHistoryService.deleteBattle("B404"));
+        verifyNoInteractions(battleRecordLogRepository, battleStatsService);
+    }
+
+    private static List<BattleRecord> records(int count) {
+        List<BattleRecord> records = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            BattleRecord record = new BattleRecord();
+            record.setId(id);
+            records.add(record);
+        }
+        return records;
+    }
+}
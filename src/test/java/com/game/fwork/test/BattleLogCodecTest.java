@@ -0,0 +1,98 @@
+package com.game.fwork.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.game.fwork.entity.BattleLog;
+import com.game.fwork.util.BattleLogCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("战斗日志编解码单元测试")
+class BattleLogCodecTest {
+
+    private ObjectMapper objectMapper;
+    private BattleLogCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        codec = new BattleLogCodec();
+        ReflectionTestUtils.setField(codec, "objectMapper", objectMapper);
+    }
+
+    @Test
+    @DisplayName("protobuf 压缩往返后字段一致，空字段保持为空，体积明显小于 JSON")
+    void testRoundTrip() throws Exception {
+        List<BattleLog> logs = battleLogs(40);
+
+        byte[] data = codec.encode(logs);
+        List<BattleLog> decoded = codec.decode(BattleLogCodec.CODEC_PROTOBUF_DEFLATE, data);
+
+        assertEquals(logs.size(), decoded.size());
+        for (int i = 0; i < logs.size(); i++) {
+            BattleLog expected = logs.get(i);
+            BattleLog actual = decoded.get(i);
+            assertEquals(expected.getRound(), actual.getRound());
+            assertEquals(expected.getActorUserId(), actual.getActorUserId());
+            assertEquals(expected.getActorNickname(), actual.getActorNickname());
+            assertEquals(expected.getAction(), actual.getAction());
+            assertEquals(expected.getSkillName(), actual.getSkillName());
+            assertEquals(expected.getDamage(), actual.getDamage());
+            assertEquals(expected.getHeal(), actual.getHeal());
+            assertEquals(expected.getTargetUserId(), actual.getTargetUserId());
+            assertEquals(expected.getTargetNickname(), actual.getTargetNickname());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+
+        int jsonSize = objectMapper.writeValueAsBytes(logs).length;
+        assertTrue(data.length * 4 < jsonSize, () -> "压缩后 " + data.length + " 字节，JSON " + jsonSize + " 字节");
+    }
+
+    @Test
+    @DisplayName("从旧列迁移的 JSON 日志按原格式读取")
+    void testDecodeLegacyJson() throws Exception {
+        List<BattleLog> logs = battleLogs(3);
+        byte[] json = objectMapper.writeValueAsString(logs).getBytes(StandardCharsets.UTF_8);
+
+        List<BattleLog> decoded = codec.decode(BattleLogCodec.CODEC_JSON, json);
+
+        assertEquals(3, decoded.size());
+        assertEquals(logs.get(2).getDescription(), decoded.get(2).getDescription());
+        assertTrue(codec.decode(BattleLogCodec.CODEC_PROTOBUF_DEFLATE, codec.encode(new ArrayList<>())).isEmpty());
+    }
+
+    private static List<BattleLog> battleLogs(int count) {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 18, 16, 29, 47, 123_000_000);
+        List<BattleLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BattleLog log = new BattleLog();
+            log.setRound(i / 2 + 1);
+            log.setActorUserId(i % 2 == 0 ? 1L : 2L);
+            log.setActorNickname(i % 2 == 0 ? "测试玩家1" : "测试玩家2");
+            log.setAction(i % 5 == 0 ? "HEAL" : "SKILL");
+            log.setSkillName(i % 5 == 0 ? "治疗" : "重斩");
+            if (i % 5 == 0) {
+                log.setHeal(200);
+            } else {
+                log.setDamage(50 + i);
+                log.setTargetUserId(i % 2 == 0 ? 2L : 1L);
+                log.setTargetNickname(i % 2 == 0 ? "测试玩家2" : "测试玩家1");
+            }
+            log.setDescription(log.getActorNickname() + " 使用 " + log.getSkillName() + "，第 " + (i + 1) + " 次行动");
+            log.setTimestamp(start.plusSeconds(i * 3L));
+            logs.add(log);
+        }
+        return logs;
+    }
+}
@@ -0,0 +1,184 @@
+package com.game.fwork.test;
+
+import com.game.fwork.service.BattleReportIndexService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisZSetCommands.ZAddArgs;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("战报时间索引单元测试")
+class BattleReportIndexServiceTest {
+
+    private static final long TTL_MS = TimeUnit.DAYS.toMillis(7);
+
+    @InjectMocks
+    private BattleReportIndexService indexService;
+
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private ZSetOperations<String, String> zSetOperations;
+    @Mock private StringRedisConnection redis;
+
+    @Test
+    @DisplayName("登记时以结束时间为分数，并在同一管道中裁掉 TTL 之前的成员")
+    void testIndexWithTrim() {
+        LocalDateTime endTime = LocalDateTime.of(2026, 3, 1, 12, 0);
+        Map<String, LocalDateTime> endTimes = new LinkedHashMap<>();
+        endTimes.put("BATTLE_1", endTime);
+        endTimes.put("BATTLE_2", null);
+
+        long before = System.currentTimeMillis();
+        indexService.index(redis, endTimes);
+
+        long endMillis = endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        verify(redis).zAdd("battle:report-index", endMillis, "BATTLE_1");
+        // 没有结束时间的按当前时间登记
+        verify(redis).zAdd(eq("battle:report-index"), doubleThat(score -> score >= before), eq("BATTLE_2"));
+        verify(redis).zRemRangeByScore(eq("battle:report-index"), eq(Double.NEGATIVE_INFINITY),
+                doubleThat(max -> max >= before - TTL_MS - 1 && max < before - TTL_MS + 60_000));
+        verify(redis).expire("battle:report-index", TimeUnit.DAYS.toSeconds(7));
+    }
+
+    @Test
+    @DisplayName("分页按分数倒序且只取 TTL 窗口内的成员")
+    void testPageWithinWindow() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.reverseRangeByScore(eq("battle:report-index"), anyDouble(),
+                eq(Double.POSITIVE_INFINITY), eq(20L), eq(10L)))
+                .thenReturn(new LinkedHashSet<>(List.of("BATTLE_9", "BATTLE_8")));
+
+        long before = System.currentTimeMillis();
+        assertEquals(List.of("BATTLE_9", "BATTLE_8"), indexService.page(20, 10));
+        verify(zSetOperations).reverseRangeByScore(eq("battle:report-index"),
+                doubleThat(min -> min >= before - TTL_MS && min < before - TTL_MS + 60_000),
+                eq(Double.POSITIVE_INFINITY), eq(20L), eq(10L));
+
+        assertTrue(indexService.page(0, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("补登跳过没有 TTL（-1）与已过期（-2）的键，只用 ZADD NX 补不存在的成员")
+    @SuppressWarnings("unchecked")
+    void testReindexSkipsKeysWithoutTtl() {
+        mockScan(List.of("battle:report:A", "battle:report:B", "battle:report:C", "battle:report:D"));
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        // 第一次管道：PTTL；第二次管道：ZADD NX（D 已在索引中，返回 false）
+        long remaining = TimeUnit.HOURS.toMillis(1);
+        Deque<List<Object>> pipelineResults = new ArrayDeque<>(List.of(
+                List.of(remaining, -1L, -2L, remaining),
+                List.of(true, false)));
+        when(stringRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            ((RedisCallback<Object>) invocation.getArgument(0)).doInRedis(redis);
+            return pipelineResults.poll();
+        });
+
+        long before = System.currentTimeMillis();
+        assertEquals(1L, indexService.reindex());
+
+        verify(redis).pTtl("battle:report:A");
+        verify(redis).pTtl("battle:report:D");
+        // 按剩余 TTL 推算写入时间
+        verify(redis).zAdd(eq("battle:report-index"),
+                doubleThat(score -> score >= before - (TTL_MS - remaining) && score < before - (TTL_MS - remaining) + 60_000),
+                eq("A"), eq(ZAddArgs.ifNotExists()));
+        verify(redis).zAdd(eq("battle:report-index"), anyDouble(), eq("D"), eq(ZAddArgs.ifNotExists()));
+        verify(redis, never()).zAdd(anyString(), anyDouble(), eq("B"), any(ZAddArgs.class));
+        verify(redis, never()).zAdd(anyString(), anyDouble(), eq("C"), any(ZAddArgs.class));
+        verify(redis, never()).zAdd(anyString(), anyDouble(), anyString());
+    }
+
+    @Test
+    @DisplayName("裁剪后索引大小、战报总数（管理后台 redisTotal）与分页结果一致")
+    void testCountAgreesWithPageAfterTrim() {
+        mockScan(List.of());
+        Map<String, Double> index = fakeIndex();
+        long now = System.currentTimeMillis();
+        index.put("EXPIRED_1", (double) (now - TTL_MS - TimeUnit.HOURS.toMillis(1)));
+        index.put("EXPIRED_2", (double) (now - TTL_MS - TimeUnit.DAYS.toMillis(3)));
+        index.put("FRESH_1", (double) (now - TimeUnit.DAYS.toMillis(6)));
+        index.put("FRESH_2", (double) (now - TimeUnit.HOURS.toMillis(2)));
+        index.put("FRESH_3", (double) now);
+
+        // 裁剪前：过期成员还在索引里，但不计入总数与分页
+        assertEquals(3L, indexService.count());
+        assertEquals(List.of("FRESH_3", "FRESH_2", "FRESH_1"), indexService.page(0, 100));
+
+        assertEquals(0L, indexService.reindex());
+
+        assertEquals(3, index.size());
+        assertEquals(3L, indexService.count());
+        assertEquals(indexService.count(), indexService.page(0, 100).size());
+        assertEquals(List.of("FRESH_3", "FRESH_2", "FRESH_1"), indexService.page(0, 100));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockScan(List<String> keys) {
+        Cursor<String> cursor = mock(Cursor.class);
+        Iterator<String> iterator = keys.iterator();
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        lenient().when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+
+    /**
+     * 用内存中的 Map 模拟索引有序集合（分数区间含两端）
+     */
+    private Map<String, Double> fakeIndex() {
+        Map<String, Double> index = new HashMap<>();
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.count(eq("battle:report-index"), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            double min = invocation.getArgument(1);
+            double max = invocation.getArgument(2);
+            return index.values().stream().filter(score -> score >= min && score <= max).count();
+        });
+        when(zSetOperations.removeRangeByScore(eq("battle:report-index"), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            double min = invocation.getArgument(1);
+            double max = invocation.getArgument(2);
+            long before = index.size();
+            index.values().removeIf(score -> score >= min && score <= max);
+            return before - index.size();
+        });
+        when(zSetOperations.reverseRangeByScore(eq("battle:report-index"), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> {
+                    double min = invocation.getArgument(1);
+                    double max = invocation.getArgument(2);
+                    long offset = invocation.getArgument(3);
+                    long count = invocation.getArgument(4);
+                    LinkedHashSet<String> ids = new LinkedHashSet<>();
+                    index.entrySet().stream()
+                            .filter(entry -> entry.getValue() >= min && entry.getValue() <= max)
+                            .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()))
+                            .skip(offset).limit(count)
+                            .forEach(entry -> ids.add(entry.getKey()));
+                    return ids;
+                });
+        return index;
+    }
+}
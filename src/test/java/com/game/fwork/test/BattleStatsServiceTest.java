@@ -0,0 +1,68 @@
+package com.game.fwork.test;
+
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.service.BattleStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("战斗统计计数单元测试")
+class BattleStatsServiceTest {
+
+    @InjectMocks
+    private BattleStatsService battleStatsService;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("一批记录按日期和结束原因合并为一条多行累加语句，按键排序")
+    void testIncrementMergesByDayAndReason() {
+        LocalDateTime day1 = LocalDateTime.of(2026, 3, 1, 10, 0);
+        LocalDateTime day2 = LocalDateTime.of(2026, 3, 2, 9, 0);
+        List<BattleRecord> records = List.of(
+                record(day2, "NORMAL"),
+                record(day1, "SURRENDER"),
+                record(day1.plusHours(5), "SURRENDER"),
+                record(day1, null));
+
+        battleStatsService.increment(records);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+
+        assertTrue(sql.getValue().startsWith("INSERT INTO t_battle_stat_daily"));
+        assertTrue(sql.getValue().contains("ON DUPLICATE KEY UPDATE battle_count = battle_count + VALUES(battle_count)"));
+        assertArrayEquals(new Object[]{
+                Date.valueOf("2026-03-01"), "SURRENDER", 2L,
+                Date.valueOf("2026-03-01"), "UNKNOWN", 1L,
+                Date.valueOf("2026-03-02"), "NORMAL", 1L}, args.getValue());
+    }
+
+    @Test
+    @DisplayName("没有新记录时不访问数据库")
+    void testIncrementEmpty() {
+        battleStatsService.increment(List.of());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static BattleRecord record(LocalDateTime createdAt, String endReason) {
+        BattleRecord record = new BattleRecord();
+        record.setCreatedAt(createdAt);
+        record.setEndReason(endReason);
+        return record;
+    }
+}
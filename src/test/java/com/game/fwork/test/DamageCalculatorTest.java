@@ -2,8 +2,11 @@ package com.game.fwork.test;
 
 import com.game.fwork.entity.BattlePlayer;
 import com.game.fwork.entity.Skill;
+import com.game.fwork.manager.LuaBudgetExceededException;
 import com.game.fwork.manager.LuaEngineManager;
 import com.game.fwork.manager.LuaPerformanceMonitor;
+import com.game.fwork.manager.LuaShadowEvaluator;
+import com.game.fwork.util.DamageBatch;
 import com.game.fwork.util.DamageCalculator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,10 +17,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Map;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +36,9 @@ class DamageCalculatorTest {
     @Mock
     private LuaPerformanceMonitor performanceMonitor;
 
+    @Mock
+    private LuaShadowEvaluator shadowEvaluator;
+
     private BattlePlayer attacker;
     private BattlePlayer defender;
     private Skill skill;
@@ -71,7 +77,7 @@ class DamageCalculatorTest {
     void testCalculateDamage_LuaSuccess() throws Exception {
         // Arrange (准备)
         // 模拟 Lua 引擎返回 100 点伤害 (逻辑：(100 * 1.5) - 50 = 100)
-        when(luaEngineManager.callLuaFunction(anyString(), eq("calculateDamage"), any(Map.class)))
+        when(luaEngineManager.callDamage(any(), anyInt(), anyInt(), anyInt(), anyInt(), anyBoolean(), anyDouble(), anyDouble()))
                 .thenReturn(100);
 
         // Act (执行)
@@ -86,7 +92,7 @@ class DamageCalculatorTest {
     void testCalculateDamage_JavaFallback() throws Exception {
         // Arrange (准备)
         // 模拟 Lua 引擎抛出异常
-        when(luaEngineManager.callLuaFunction(anyString(), eq("calculateDamage"), any(Map.class)))
+        when(luaEngineManager.callDamage(any(), anyInt(), anyInt(), anyInt(), anyInt(), anyBoolean(), anyDouble(), anyDouble()))
                 .thenThrow(new RuntimeException("Lua脚本丢失"));
 
         // 执行 Java 兜底公式：(Attack * Multiplier) - (Defense * DefenseMultiplier)
@@ -98,4 +104,40 @@ class DamageCalculatorTest {
         // Assert (断言)
         assertEquals(100, damage, "Lua失败时应执行Java兜底逻辑");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("测试 Lua 超出执行预算时降级并记录超限")
+    void testCalculateDamage_BudgetExceeded() throws Exception {
+        // 模拟脚本死循环被执行预算中断
+        when(luaEngineManager.callDamage(any(), anyInt(), anyInt(), anyInt(), anyInt(), anyBoolean(), anyDouble(), anyDouble()))
+                .thenThrow(new LuaBudgetExceededException("Lua执行超出指令预算: 1000000"));
+
+        int damage = damageCalculator.calculateDamage(attacker, defender, skill);
+
+        assertEquals(100, damage, "超出预算时应执行Java兜底逻辑");
+        verify(performanceMonitor).recordFallback("calculateDamage", 0);
+        verify(performanceMonitor).recordBudgetBreach("calculateDamage", 0);
+    }
+
+    @Test
+    @DisplayName("测试批量计算在 Lua 故障时整批降级")
+    void testCalculateDamageBatch_JavaFallback() throws Exception {
+        doThrow(new RuntimeException("Lua脚本丢失"))
+                .when(luaEngineManager).callDamageBatch(any(), any(DamageBatch.class));
+
+        DamageBatch batch = new DamageBatch(2);
+        batch.add(attacker, defender, skill);
+        defender.setDefending(true);
+        batch.add(attacker, defender, skill);
+        batch.add(200, 0, 0, 0, false, 1.0, 1.0);
+
+        damageCalculator.calculateDamageBatch(batch);
+
+        // (100 * 1.5) - (50 * 1.0) = 100，防御状态减半为 50；第三组 200 * 1.0 = 200（数组自动扩容）
+        assertEquals(3, batch.size());
+        assertEquals(100, batch.getDamage(0));
+        assertEquals(50, batch.getDamage(1));
+        assertEquals(200, batch.getDamage(2));
+        verify(performanceMonitor).recordFallback("calculateDamageBatch", 0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.game.fwork.test;
+
+import com.game.fwork.dto.MatchQueueItem;
+import com.game.fwork.util.EloShardMatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ELO分片匹配器单元测试")
+class EloShardMatcherTest {
+
+    private EloShardMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new EloShardMatcher();
+        ReflectionTestUtils.setField(matcher, "parallelism", 4);
+        ReflectionTestUtils.setField(matcher, "shardMinSize", 64);
+        matcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        matcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("等待最久的玩家优先选择分差最小的对手")
+    void testPriorityAndNearest() {
+        // Arrange: A 等待最久，B/C 都在 A 的范围内，C 更接近
+        List<MatchQueueItem> queue = new ArrayList<>();
+        queue.add(item(1L, 1000, 0));
+        queue.add(item(2L, 1150, 10));
+        queue.add(item(3L, 1040, 20));
+        queue.add(item(4L, 1060, 30));
+
+        // Act
+        List<EloShardMatcher.MatchPair> pairs = matcher.match(queue, p -> 200);
+
+        // Assert
+        assertEquals(2, pairs.size());
+        assertEquals(1L, pairs.get(0).getPlayer1().getUserId());
+        assertEquals(3L, pairs.get(0).getPlayer2().getUserId());
+        assertEquals(40, pairs.get(0).getEloDiff());
+    }
+
+    @Test
+    @DisplayName("超出动态范围的玩家不会被匹配")
+    void testOutOfRange() {
+        List<MatchQueueItem> queue = new ArrayList<>();
+        queue.add(item(1L, 1000, 0));
+        queue.add(item(2L, 1300, 0));
+
+        List<EloShardMatcher.MatchPair> pairs = matcher.match(queue, p -> 200);
+
+        assertTrue(pairs.isEmpty());
+    }
+
+    @Test
+    @DisplayName("分片并行结果合法：无重复、不超范围，且匹配数量与单线程基本一致")
+    void testShardedMatchesAreValid() {
+        // Arrange: 足够多的玩家触发多分片
+        Random random = new Random(42);
+        List<MatchQueueItem> queue = new ArrayList<>();
+        for (long i = 1; i <= 5000; i++) {
+            queue.add(item(i, 800 + random.nextInt(1200), random.nextInt(30_000)));
+        }
+
+        // Act
+        List<EloShardMatcher.MatchPair> pairs = matcher.match(queue, p -> 50 + (int) (p.getUserId() % 5) * 10);
+
+        EloShardMatcher serial = new EloShardMatcher();
+        ReflectionTestUtils.setField(serial, "parallelism", 1);
+        ReflectionTestUtils.setField(serial, "shardMinSize", 64);
+        serial.init();
+        List<EloShardMatcher.MatchPair> serialPairs = serial.match(queue, p -> 50 + (int) (p.getUserId() % 5) * 10);
+        serial.shutdown();
+
+        // Assert
+        Set<Long> seen = new HashSet<>();
+        for (EloShardMatcher.MatchPair pair : pairs) {
+            assertTrue(seen.add(pair.getPlayer1().getUserId()), "玩家被重复匹配");
+            assertTrue(seen.add(pair.getPlayer2().getUserId()), "玩家被重复匹配");
+            int diff = Math.abs(pair.getPlayer1().getEloRating() - pair.getPlayer2().getEloRating());
+            assertEquals(diff, pair.getEloDiff());
+            assertTrue(diff <= 50 + (pair.getPlayer1().getUserId() % 5) * 10);
+        }
+        // 分片边界只影响极少数玩家的配对顺序
+        assertTrue(Math.abs(serialPairs.size() - pairs.size()) <= serialPairs.size() / 100);
+    }
+
+    private MatchQueueItem item(Long userId, int elo, long joinOffsetMillis) {
+        MatchQueueItem item = new MatchQueueItem(userId, elo, "玩家" + userId, userId);
+        item.setJoinTime(1_700_000_000_000L + joinOffsetMillis);
+        return item;
+    }
+}
@@ -0,0 +1,88 @@
+package com.game.fwork.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.entity.User;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.service.LeaderboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("排行榜服务单元测试")
+class LeaderboardServiceTest {
+
+    @InjectMocks
+    private LeaderboardService leaderboardService;
+
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private PlayerProfileCache playerProfileCache;
+    @Mock private HashOperations<String, Object, Object> hashOperations;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leaderboardService, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("分页结果按脚本返回的起始名次编号，缺少展示信息的玩家从档案补齐并回写")
+    @SuppressWarnings("unchecked")
+    void testPageWithBackfill() {
+        String info = "{\"nickname\":\"玩家7\",\"avatarFrameId\":3,\"charType\":\"mage\"}";
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("120", "10", "7", "1300", info, "8", "1290", ""));
+
+        User user = new User();
+        user.setId(8L);
+        user.setNickname("玩家8");
+        user.setAvatarFrameId(0);
+        when(playerProfileCache.get(8L)).thenReturn(new PlayerProfile(user, null, null));
+        when(stringRedisTemplate.opsForHash()).thenReturn(hashOperations);
+
+        Map<String, Object> page = leaderboardService.getPage(10, 2);
+        assertEquals(120L, page.get("total"));
+
+        List<Map<String, Object>> list = (List<Map<String, Object>>) page.get("list");
+        assertEquals(2, list.size());
+        assertEquals(11, list.get(0).get("rank"));
+        assertEquals(7L, list.get(0).get("id"));
+        assertEquals(1300, list.get(0).get("eloRating"));
+        assertEquals("mage", list.get(0).get("charType"));
+        assertEquals(12, list.get(1).get("rank"));
+        assertEquals("玩家8", list.get(1).get("nickname"));
+        assertEquals("warrior", list.get(1).get("charType"), "没有激活角色时默认战士");
+
+        verify(playerProfileCache, never()).get(7L);
+        verify(hashOperations).putAll(eq("leaderboard:info"), argThat(map -> map.size() == 1 && map.containsKey("8")));
+        // 起止名次传给脚本
+        verify(stringRedisTemplate).execute(any(RedisScript.class), anyList(), eq("10"), eq("11"));
+    }
+
+    @Test
+    @DisplayName("我的排名：未上榜时名次为空且不返回附近玩家")
+    @SuppressWarnings("unchecked")
+    void testAroundNotRanked() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("120", "-1", "-1"));
+
+        Map<String, Object> around = leaderboardService.getAround(99L, 5);
+        assertNull(around.get("rank"));
+        assertTrue(((List<?>) around.get("list")).isEmpty());
+    }
+}
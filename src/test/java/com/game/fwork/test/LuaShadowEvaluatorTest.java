@@ -0,0 +1,77 @@
+package com.game.fwork.test;
+
+import com.game.fwork.enums.LuaShadowState;
+import com.game.fwork.manager.LuaEngineManager;
+import com.game.fwork.manager.LuaShadowEvaluator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Lua 影子评估单元测试")
+class LuaShadowEvaluatorTest {
+
+    private static final String SCRIPT_PATH = "lua/damage_formulas.lua";
+
+    private LuaEngineManager engine;
+    private LuaShadowEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        engine = new LuaEngineManager();
+        engine.init();
+
+        evaluator = new LuaShadowEvaluator();
+        ReflectionTestUtils.setField(evaluator, "luaEngineManager", engine);
+        ReflectionTestUtils.setField(evaluator, "queueCapacity", 4096);
+        ReflectionTestUtils.setField(evaluator, "minSamples", 200L);
+        ReflectionTestUtils.setField(evaluator, "maxMeanDeviation", 0.1);
+        // 单测环境耗时波动大，只验证分布对比
+        ReflectionTestUtils.setField(evaluator, "maxLatencyRatio", 100.0);
+        evaluator.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        evaluator.shutdown();
+    }
+
+    @Test
+    @DisplayName("样本不足时拒绝发布，线上版本不变")
+    void testPromoteRejectedWithoutSamples() {
+        int baseline = engine.getScriptVersion(SCRIPT_PATH);
+        evaluator.start(SCRIPT_PATH);
+
+        assertThrows(IllegalStateException.class, () -> evaluator.promote(false));
+        assertEquals(baseline, engine.getScriptVersion(SCRIPT_PATH));
+    }
+
+    @Test
+    @DisplayName("候选脚本与线上一致时评估达标并可发布")
+    @SuppressWarnings("unchecked")
+    void testPromoteWithinTolerance() throws Exception {
+        Map<String, Object> started = evaluator.start(SCRIPT_PATH);
+        int candidate = (Integer) started.get("candidateVersion");
+
+        for (int i = 0; i < 400; i++) {
+            evaluator.offerDamage(SCRIPT_PATH, 120, 40, 20, 10, false, 1.5, 0.5);
+        }
+
+        // 等待影子线程处理完样本
+        Map<String, Object> status = evaluator.getStatus();
+        for (int i = 0; i < 100 && !Boolean.TRUE.equals(status.get("withinTolerance")); i++) {
+            Thread.sleep(50);
+            status = evaluator.getStatus();
+        }
+        assertTrue((Boolean) status.get("withinTolerance"), () -> "未达标: " + evaluator.getStatus().get("reasons"));
+
+        Map<String, Object> promoted = evaluator.promote(false);
+        assertEquals(LuaShadowState.PROMOTED, promoted.get("state"));
+        assertEquals(candidate, engine.getScriptVersion(SCRIPT_PATH));
+    }
+}
@@ -0,0 +1,161 @@
+package com.game.fwork.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.dto.MatchQueueItem;
+import com.game.fwork.entity.Battle;
+import com.game.fwork.entity.BattlePlayer;
+import com.game.fwork.manager.BattleManager;
+import com.game.fwork.manager.MatchMetrics;
+import com.game.fwork.netty.session.SessionManager;
+import com.game.fwork.proto.GameProto.GameMessage;
+import com.game.fwork.proto.GameProto.MessageType;
+import com.game.fwork.service.BattleService;
+import com.game.fwork.service.MatchService;
+import com.game.fwork.util.EloShardMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("匹配服务人机兜底单元测试")
+class MatchServiceTest {
+
+    private static final String QUEUE_KEY = "game:match:queue";
+
+    // 构造队列数据用，不能用被测对象的 spy（在 when(...) 参数中调用 spy 会打断打桩）
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @InjectMocks
+    private MatchService matchService;
+
+    @Spy private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private ListOperations<String, String> listOperations;
+    @Mock private SessionManager sessionManager;
+    @Mock private BattleService battleService;
+    @Mock private EloShardMatcher eloShardMatcher;
+    @Mock private MatchMetrics matchMetrics;
+    @Mock private BattleManager battleManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(matchService, "queueKey", QUEUE_KEY);
+        ReflectionTestUtils.setField(matchService, "matchTimeoutSeconds", 30);
+        ReflectionTestUtils.setField(matchService, "baseEloRange", 100);
+        ReflectionTestUtils.setField(matchService, "botEnabled", true);
+        ReflectionTestUtils.setField(matchService, "botWaitSeconds", 20);
+        when(stringRedisTemplate.opsForList()).thenReturn(listOperations);
+    }
+
+    @Test
+    @DisplayName("等待超过人机等待时间仍未匹配时分配机器人，推送匹配成功并移出队列")
+    void testBotAssignedAfterWait() throws Exception {
+        String json = queueJson(1L, 25);
+        when(listOperations.range(QUEUE_KEY, 0, -1)).thenReturn(List.of(json));
+        when(eloShardMatcher.match(anyList(), any())).thenReturn(List.of());
+        mockBotBattle(1L, "BOT_BATTLE_1");
+
+        runMatchRound();
+
+        verify(battleService).createBotBattle(1L);
+        ArgumentCaptor<GameMessage> message = ArgumentCaptor.forClass(GameMessage.class);
+        verify(sessionManager).sendMessage(eq(1L), message.capture());
+        assertEquals(MessageType.MATCH_SUCCESS, message.getValue().getType());
+        assertEquals("BOT_BATTLE_1", message.getValue().getMatchSuccessResponse().getBattleId());
+        assertEquals(-1L, message.getValue().getMatchSuccessResponse().getOpponent().getUserId());
+        verify(listOperations).remove(QUEUE_KEY, 1, json);
+        verify(matchMetrics).recordBotMatch(argThat(item -> item.getUserId() == 1L), anyLong());
+    }
+
+    @Test
+    @DisplayName("等待未到人机等待时间时继续排队，不创建机器人对战")
+    void testNoBotBeforeWait() throws Exception {
+        when(listOperations.range(QUEUE_KEY, 0, -1)).thenReturn(List.of(queueJson(1L, 5)));
+        when(eloShardMatcher.match(anyList(), any())).thenReturn(List.of());
+
+        runMatchRound();
+
+        verify(battleService, never()).createBotBattle(anyLong());
+        verify(listOperations, never()).remove(anyString(), anyLong(), any());
+        verifyNoInteractions(sessionManager);
+    }
+
+    @Test
+    @DisplayName("超过匹配超时的玩家按超时移出队列，不再分配机器人")
+    void testTimeoutWinsOverBot() throws Exception {
+        String json = queueJson(1L, 35);
+        when(listOperations.range(QUEUE_KEY, 0, -1)).thenReturn(List.of(json));
+        when(eloShardMatcher.match(anyList(), any())).thenReturn(List.of());
+
+        runMatchRound();
+
+        verify(listOperations).remove(QUEUE_KEY, 1, json);
+        verify(matchMetrics).recordTimeout(argThat(item -> item.getUserId() == 1L), anyLong());
+        verify(battleService, never()).createBotBattle(anyLong());
+        verifyNoInteractions(sessionManager);
+    }
+
+    @Test
+    @DisplayName("创建机器人对战失败时玩家留在队列中，下一轮重试")
+    void testBotFailureKeepsPlayerQueued() throws Exception {
+        when(listOperations.range(QUEUE_KEY, 0, -1)).thenReturn(List.of(queueJson(1L, 25)));
+        when(eloShardMatcher.match(anyList(), any())).thenReturn(List.of());
+        when(battleService.createBotBattle(1L)).thenThrow(new RuntimeException("没有可用的机器人模板"));
+
+        runMatchRound();
+
+        verify(listOperations, never()).remove(anyString(), anyLong(), any());
+        verify(matchMetrics, never()).recordBotMatch(any(), anyLong());
+        verifyNoInteractions(sessionManager);
+    }
+
+    @Test
+    @DisplayName("关闭人机兜底时不创建机器人对战")
+    void testBotDisabled() throws Exception {
+        ReflectionTestUtils.setField(matchService, "botEnabled", false);
+        when(listOperations.range(QUEUE_KEY, 0, -1)).thenReturn(List.of(queueJson(1L, 25)));
+
+        runMatchRound();
+
+        verifyNoInteractions(battleService, eloShardMatcher, sessionManager);
+    }
+
+    private void runMatchRound() {
+        ReflectionTestUtils.invokeMethod(matchService, "matchRound");
+    }
+
+    private String queueJson(Long userId, int waitedSeconds) throws Exception {
+        MatchQueueItem item = new MatchQueueItem(userId, 1000, "玩家" + userId, userId * 10);
+        item.setJoinTime(System.currentTimeMillis() - waitedSeconds * 1000L);
+        return JSON.writeValueAsString(item);
+    }
+
+    private void mockBotBattle(Long userId, String battleId) {
+        BattlePlayer player = new BattlePlayer();
+        player.setUserId(userId);
+        player.setCharacterId(userId * 10);
+        BattlePlayer bot = new BattlePlayer();
+        bot.setUserId(-1L);
+        bot.setNickname("训练木桩");
+        bot.setCharacterId(10L);
+        bot.setBot(true);
+
+        when(battleService.createBotBattle(userId)).thenReturn(battleId);
+        when(battleManager.getBattle(battleId)).thenReturn(new Battle(battleId, player, bot));
+    }
+}
@@ -0,0 +1,182 @@
+package com.game.fwork.test;
+
+import com.game.fwork.entity.Character;
+import com.game.fwork.entity.PlayerProfile;
+import com.game.fwork.entity.User;
+import com.game.fwork.manager.PlayerProfileCache;
+import com.game.fwork.repository.CharacterRepository;
+import com.game.fwork.repository.SkillRepository;
+import com.game.fwork.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("玩家档案缓存单元测试")
+class PlayerProfileCacheTest {
+
+    @InjectMocks
+    private PlayerProfileCache cache;
+
+    @Mock private UserRepository userRepository;
+    @Mock private CharacterRepository characterRepository;
+    @Mock private SkillRepository skillRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        cache.init();
+    }
+
+    @Test
+    @DisplayName("未命中时回源加载一次，之后命中不再访问数据库；超出容量按 LRU 淘汰")
+    void testReadThroughAndEviction() {
+        mockUser(1L, true);
+        mockUser(2L, true);
+        mockUser(3L, false);
+
+        PlayerProfile first = cache.get(1L);
+        assertSame(first, cache.get(1L));
+        verify(userRepository, times(1)).findById(1L);
+        verify(characterRepository, times(1)).findByUserIdAndIsActive(1L, 1);
+        assertTrue(first.hasCharacter());
+        assertEquals(List.of(1, 2), first.getSkillIds());
+
+        // 没有激活角色的用户同样缓存档案，只是不能匹配
+        cache.get(2L);
+        PlayerProfile noCharacter = cache.get(3L);
+        assertFalse(noCharacter.hasCharacter());
+        assertEquals(2, cache.size());
+
+        Map<String, Object> metrics = cache.snapshot();
+        assertEquals(1L, metrics.get("hits"));
+        assertEquals(3L, metrics.get("loads"));
+    }
+
+    @Test
+    @DisplayName("结算写入绝对战绩，失效后重新加载")
+    void testUpdateAndInvalidate() {
+        mockUser(1L, true);
+        cache.get(1L);
+
+        cache.updateBattleStats(1L, 1025, 11, 6, 1100);
+        PlayerProfile updated = cache.get(1L);
+        assertEquals(1025, updated.getEloRating());
+        assertEquals(11, updated.getTotalBattles());
+        assertEquals(6, updated.getWinCount());
+        assertEquals(1100, updated.getGold());
+        assertEquals(10L, updated.getCharacterId());
+
+        cache.invalidate(1L);
+        assertEquals(1000, cache.get(1L).getEloRating());
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("加载期间发生修改时，加载结果不放入缓存")
+    void testStaleLoadNotCached() {
+        User user = mockUser(1L, true);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            // 模拟读取用户行之后、放入缓存之前另一线程使档案失效
+            cache.invalidate(1L);
+            return Optional.of(user);
+        });
+
+        assertNotNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("加载期间其他玩家的结算与失效不影响本次加载放入缓存")
+    void testOtherUserWriteDoesNotDiscardLoad() {
+        User user = mockUser(1L, true);
+        mockUser(2L, true);
+        cache.get(2L);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            // 模拟读取玩家1期间，另一线程结算了玩家2并使玩家3失效
+            cache.updateBattleStats(2L, 1030, 11, 6, 1200);
+            cache.invalidate(3L);
+            return Optional.of(user);
+        });
+
+        PlayerProfile loaded = cache.get(1L);
+        assertEquals(2, cache.size());
+        assertSame(loaded, cache.get(1L));
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(1030, cache.get(2L).getEloRating());
+    }
+
+    @Test
+    @DisplayName("事务中修改资料时，提交后才使档案失效；回滚不失效")
+    void testInvalidateAfterCommit() {
+        mockUser(1L, true);
+        cache.get(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateAfterCommit(1L);
+            // 提交前仍命中旧档案
+            assertEquals(1, cache.size());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertEquals(1, cache.size());
+
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            assertEquals(0, cache.size());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.get(1L);
+        verify(userRepository, times(2)).findById(1L);
+        assertEquals(1L, cache.snapshot().get("invalidations"));
+    }
+
+    @Test
+    @DisplayName("不在事务中时立即失效")
+    void testInvalidateAfterCommitWithoutTransaction() {
+        mockUser(1L, true);
+        cache.get(1L);
+
+        cache.invalidateAfterCommit(1L);
+        assertEquals(0, cache.size());
+    }
+
+    private User mockUser(Long id, boolean withCharacter) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setNickname("玩家" + id);
+        user.setEloRating(1000);
+        user.setTotalBattles(10);
+        user.setWinCount(5);
+        lenient().when(userRepository.findById(id)).thenReturn(Optional.of(user));
+
+        if (withCharacter) {
+            Character character = new Character();
+            character.setId(id * 10);
+            character.setCharType("warrior");
+            lenient().when(characterRepository.findByUserIdAndIsActive(id, 1)).thenReturn(Optional.of(character));
+            lenient().when(skillRepository.findSkillIdsByCharacterId(id * 10)).thenReturn(List.of(1, 2));
+        } else {
+            lenient().when(characterRepository.findByUserIdAndIsActive(id, 1)).thenReturn(Optional.empty());
+        }
+        return user;
+    }
+}
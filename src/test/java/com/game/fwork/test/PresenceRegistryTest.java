@@ -0,0 +1,93 @@
+package com.game.fwork.test;
+
+import com.game.fwork.netty.session.PresenceRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("在线状态登记单元测试")
+class PresenceRegistryTest {
+
+    @InjectMocks
+    private PresenceRegistry presenceRegistry;
+
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(presenceRegistry, "instanceId", "");
+        ReflectionTestUtils.setField(presenceRegistry, "ttlSeconds", 90L);
+        ReflectionTestUtils.setField(presenceRegistry, "queueCapacity", 16);
+        presenceRegistry.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        presenceRegistry.shutdown();
+    }
+
+    @Test
+    @DisplayName("上线登记按玩家写入带 TTL 的键，且不在调用线程（Netty IO 线程）上访问 Redis")
+    void testMarkOnlineAsyncWithTtl() {
+        AtomicReference<Thread> writer = new AtomicReference<>();
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> {
+            writer.set(Thread.currentThread());
+            return null;
+        }).when(valueOperations).set(anyString(), anyString(), anyLong(), any(TimeUnit.class));
+
+        presenceRegistry.markOnline(7L);
+
+        String instanceId = (String) ReflectionTestUtils.getField(presenceRegistry, "instanceId");
+        verify(valueOperations, timeout(2000)).set("presence:user:7", instanceId, 90L, TimeUnit.SECONDS);
+        assertNotSame(Thread.currentThread(), writer.get());
+    }
+
+    @Test
+    @DisplayName("未配置实例名时每个进程生成不同的名称")
+    void testDefaultInstanceIdUnique() {
+        String first = (String) ReflectionTestUtils.getField(presenceRegistry, "instanceId");
+
+        PresenceRegistry other = new PresenceRegistry();
+        ReflectionTestUtils.setField(other, "instanceId", "");
+        ReflectionTestUtils.setField(other, "queueCapacity", 16);
+        other.init();
+        other.shutdown();
+
+        assertFalse(first.isBlank());
+        assertNotEquals(first, ReflectionTestUtils.getField(other, "instanceId"));
+    }
+
+    @Test
+    @DisplayName("批量查询用一次 MGET 读取各玩家的在线键")
+    void testAreOnlineWithMget() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("presence:user:2", "presence:user:3")))
+                .thenReturn(Arrays.asList(null, "game-b"));
+
+        Map<Long, Boolean> online = presenceRegistry.areOnline(List.of(2L, 3L));
+
+        assertEquals(Map.of(2L, false, 3L, true), online);
+        verify(valueOperations, times(1)).multiGet(anyCollection());
+    }
+}
@@ -0,0 +1,92 @@
+package com.game.fwork.test;
+
+import com.game.fwork.entity.Battle;
+import com.game.fwork.entity.BattlePlayer;
+import com.game.fwork.entity.BattleRecord;
+import com.game.fwork.service.SettlementPlan;
+import com.game.fwork.service.SettlementService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("批量结算计算单元测试")
+class SettlementPlanTest {
+
+    private static final int K = 25;
+
+    @Test
+    @DisplayName("同一玩家在一批中多次出现时按顺序累计，每人只产生一条增量")
+    void testAggregatePerUser() {
+        List<SettlementService.Settlement> batch = List.of(
+                settlement("B1", player(1L), player(2L), 1L, 2L),
+                settlement("B2", player(2L), player(3L), 2L, 3L),
+                settlement("B3", player(1L), player(2L), 2L, 1L));
+
+        SettlementPlan plan = SettlementPlan.build(batch, Map.of(1L, 1000, 2L, 1000, 3L, 10), K);
+
+        List<SettlementPlan.UserDelta> deltas = new ArrayList<>(plan.getDeltas());
+        assertEquals(3, deltas.size());
+        // 按用户ID排序
+        assertEquals(List.of(1L, 2L, 3L), deltas.stream().map(SettlementPlan.UserDelta::getUserId).toList());
+
+        // 玩家2：输、赢、赢
+        SettlementPlan.UserDelta p2 = deltas.get(1);
+        assertEquals(-15 + K + K, p2.getEloChange());
+        assertEquals(2, p2.getWins());
+        assertEquals(3, p2.getBattles());
+        assertEquals(SettlementPlan.LOSER_GOLD + 2 * SettlementPlan.WINNER_GOLD, p2.getGold());
+        assertEquals(1000 - 15 + K + K, plan.getFinalElo(2L));
+
+        // 玩家3 分数不足扣分时不低于 0
+        assertEquals(-10, deltas.get(2).getEloChange());
+        assertEquals(0, plan.getFinalElo(3L));
+
+        // 第三场的战前分数取前两场之后的分数
+        BattleRecord third = plan.getRecords().get(2);
+        assertEquals(1000 + K, third.getPlayer1EloBefore());
+        assertEquals(1000 + K - 15, third.getPlayer1EloAfter());
+        assertEquals(1000 - 15 + K, third.getPlayer2EloBefore());
+        assertEquals(1000 - 15 + K + K, third.getPlayer2EloAfter());
+    }
+
+    @Test
+    @DisplayName("人机对战不改变 ELO；玩家不存在的战斗被跳过")
+    void testBotBattleAndMissingUser() {
+        BattlePlayer bot = player(-1L);
+        bot.setBot(true);
+        List<SettlementService.Settlement> batch = List.of(
+                settlement("BOT", player(1L), bot, 1L, -1L),
+                settlement("GONE", player(1L), player(99L), 99L, 1L));
+
+        SettlementPlan plan = SettlementPlan.build(batch, Map.of(1L, 1200), K);
+
+        assertEquals(List.of("GONE"), plan.getSkippedBattleIds());
+        assertEquals(1, plan.getRecords().size());
+        BattleRecord record = plan.getRecords().get(0);
+        assertEquals(1200, record.getPlayer1EloBefore());
+        assertEquals(1200, record.getPlayer2EloAfter());
+
+        SettlementPlan.UserDelta human = plan.getDeltas().iterator().next();
+        assertEquals(0, human.getEloChange());
+        assertEquals(1, human.getWins());
+        assertEquals(SettlementPlan.WINNER_GOLD, human.getGold());
+    }
+
+    private static SettlementService.Settlement settlement(String battleId, BattlePlayer p1, BattlePlayer p2,
+                                                          Long winnerId, Long loserId) {
+        Battle battle = new Battle(battleId, p1, p2);
+        return new SettlementService.Settlement(battle, winnerId, loserId);
+    }
+
+    private static BattlePlayer player(Long userId) {
+        BattlePlayer player = new BattlePlayer();
+        player.setUserId(userId);
+        player.setNickname("玩家" + userId);
+        return player;
+    }
+}
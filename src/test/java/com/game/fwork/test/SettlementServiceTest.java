@@ -0,0 +1,101 @@
+package com.game.fwork.test;
+
+import com.game.fwork.service.SettlementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("结算待确认记录认领单元测试")
+class SettlementServiceTest {
+
+    private static final String STREAM = "settlement:stream";
+    private static final String GROUP = "settlement-writer";
+
+    @InjectMocks
+    private SettlementService settlementService;
+
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private StreamOperations<String, Object, Object> streamOperations;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(settlementService, "consumerName", "node-a");
+        ReflectionTestUtils.setField(settlementService, "claimMinIdleMs", 60_000L);
+        ReflectionTestUtils.setField(settlementService, "maxBatchSize", 200);
+        when(stringRedisTemplate.opsForStream()).thenReturn(streamOperations);
+    }
+
+    @Test
+    @DisplayName("只认领其他消费者空闲过久的记录，并删除没有待确认记录的失效消费者")
+    void testClaimIdleFromOtherConsumers() {
+        Duration minIdle = Duration.ofMillis(60_000);
+        RecordId own = RecordId.of("1-0");
+        RecordId orphan = RecordId.of("2-0");
+        when(streamOperations.pending(eq(STREAM), eq(GROUP), any(Range.class), eq(200L), eq(minIdle)))
+                .thenReturn(new PendingMessages(GROUP, List.of(
+                        new PendingMessage(own, Consumer.from(GROUP, "node-a"), Duration.ofMinutes(2), 1),
+                        new PendingMessage(orphan, Consumer.from(GROUP, "writer-1"), Duration.ofMinutes(5), 3))));
+        MapRecord<String, Object, Object> claimedRecord = StreamRecords.<String, Object, Object>mapBacked(Map.of("battleId", "B2"))
+                .withStreamKey(STREAM).withId(orphan);
+        when(streamOperations.claim(STREAM, GROUP, "node-a", minIdle, orphan)).thenReturn(List.of(claimedRecord));
+
+        StreamInfo.XInfoConsumers consumers = mock(StreamInfo.XInfoConsumers.class);
+        StreamInfo.XInfoConsumer self = consumer("node-a", 0, 120_000);
+        StreamInfo.XInfoConsumer gone = consumer("writer-1", 0, 300_000);
+        StreamInfo.XInfoConsumer busy = consumer("node-b", 2, 300_000);
+        StreamInfo.XInfoConsumer active = consumer("node-c", 0, 500);
+        when(consumers.iterator()).thenReturn(List.of(self, gone, busy, active).iterator());
+        when(streamOperations.consumers(STREAM, GROUP)).thenReturn(consumers);
+
+        int claimed = ReflectionTestUtils.invokeMethod(settlementService, "claimIdle");
+
+        assertEquals(1, claimed);
+        verify(streamOperations, times(1)).claim(anyString(), anyString(), anyString(), any(Duration.class), any(RecordId[].class));
+        verify(streamOperations).deleteConsumer(STREAM, Consumer.from(GROUP, "writer-1"));
+        verify(streamOperations, times(1)).deleteConsumer(anyString(), any(Consumer.class));
+    }
+
+    @Test
+    @DisplayName("没有空闲过久的记录时不认领")
+    void testNothingToClaim() {
+        when(streamOperations.pending(eq(STREAM), eq(GROUP), any(Range.class), anyLong(), any(Duration.class)))
+                .thenReturn(new PendingMessages(GROUP, List.of()));
+
+        int claimed = ReflectionTestUtils.invokeMethod(settlementService, "claimIdle");
+
+        assertEquals(0, claimed);
+        verify(streamOperations, never()).claim(anyString(), anyString(), anyString(), any(Duration.class), any(RecordId[].class));
+    }
+
+    private static StreamInfo.XInfoConsumer consumer(String name, long pending, long idleMs) {
+        StreamInfo.XInfoConsumer consumer = mock(StreamInfo.XInfoConsumer.class);
+        lenient().when(consumer.consumerName()).thenReturn(name);
+        lenient().when(consumer.pendingCount()).thenReturn(pending);
+        lenient().when(consumer.idleTimeMs()).thenReturn(idleMs);
+        return consumer;
+    }
+}
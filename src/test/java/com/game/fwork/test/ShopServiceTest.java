@@ -3,9 +3,11 @@ package com.game.fwork.test;
 import com.game.fwork.entity.Item;
 import com.game.fwork.entity.User;
 import com.game.fwork.entity.UserInventory;
+import com.game.fwork.manager.PlayerProfileCache;
 import com.game.fwork.repository.ItemRepository;
 import com.game.fwork.repository.UserInventoryRepository;
 import com.game.fwork.repository.UserRepository;
+import com.game.fwork.service.LeaderboardService;
 import com.game.fwork.service.ShopService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +33,8 @@ class ShopServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private ItemRepository itemRepository;
     @Mock private UserInventoryRepository inventoryRepository;
+    @Mock private PlayerProfileCache playerProfileCache;
+    @Mock private LeaderboardService leaderboardService;
 
     @Test
     @DisplayName("测试购买商品：金币不足应抛出异常")
@@ -93,5 +98,51 @@ class ShopServiceTest {
                         inventory.getItem().getId() == 2 &&
                         inventory.getUser().getId() == 2L
         ));
+
+        // 金币变化后玩家档案应失效
+        verify(playerProfileCache).invalidateAfterCommit(2L);
+    }
+
+    @Test
+    @DisplayName("测试装备头像框：提交后使玩家档案与排行榜展示信息失效")
+    void testEquipAvatarFrame_InvalidatesProfile() {
+        User user = new User();
+        user.setId(3L);
+
+        Item oldFrame = new Item();
+        oldFrame.setId(5);
+        oldFrame.setType("AVATAR_FRAME");
+        Item newFrame = new Item();
+        newFrame.setId(6);
+        newFrame.setType("AVATAR_FRAME");
+        UserInventory oldInv = new UserInventory(user, oldFrame, 1);
+        oldInv.setIsEquipped(true);
+        UserInventory newInv = new UserInventory(user, newFrame, 1);
+
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+        when(inventoryRepository.findByUserIdAndItemId(3L, 6)).thenReturn(Optional.of(newInv));
+        when(inventoryRepository.findByUserId(3L)).thenReturn(List.of(oldInv, newInv));
+
+        shopService.equipAvatarFrame(3L, 6);
+
+        assertEquals(6, user.getAvatarFrameId());
+        assertFalse(oldInv.getIsEquipped());
+        assertTrue(newInv.getIsEquipped());
+        verify(playerProfileCache).invalidateAfterCommit(3L);
+        verify(leaderboardService).refreshInfoAfterCommit(3L);
+    }
+
+    @Test
+    @DisplayName("测试装备头像框：未拥有时不修改资料，也不使档案失效")
+    void testEquipAvatarFrame_NotOwned() {
+        User user = new User();
+        user.setId(3L);
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+        when(inventoryRepository.findByUserIdAndItemId(3L, 6)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> shopService.equipAvatarFrame(3L, 6));
+
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(playerProfileCache, leaderboardService);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.game.fwork.test;
+
+import com.game.fwork.entity.Skill;
+import com.game.fwork.enums.SkillKind;
+import com.game.fwork.manager.SkillDescriptor;
+import com.game.fwork.manager.SkillManager;
+import com.game.fwork.repository.SkillRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("技能表编译单元测试")
+class SkillManagerTest {
+
+    @InjectMocks
+    private SkillManager skillManager;
+
+    @Mock
+    private SkillRepository skillRepository;
+
+    @Test
+    @DisplayName("技能实体编译为按 ID 下标的描述，空值取表默认值")
+    void testCompileDescriptors() {
+        Skill heal = skill(3, "治疗术", "heal", 3, 0.3, null);
+        Skill attack = skill(1, "普通攻击", "attack", null, null, 0.5);
+        when(skillRepository.findAll()).thenReturn(List.of(heal, attack));
+
+        skillManager.refresh();
+
+        SkillDescriptor healDescriptor = skillManager.getDescriptor(3);
+        assertEquals(SkillKind.HEAL, healDescriptor.getKind());
+        assertTrue(healDescriptor.isHeal());
+        assertEquals(3, healDescriptor.getCooldown());
+        assertEquals(0.0, healDescriptor.getDefenseMultiplier());
+
+        SkillDescriptor attackDescriptor = skillManager.getDescriptor(1);
+        assertFalse(attackDescriptor.isHeal());
+        assertEquals(0, attackDescriptor.getCooldown());
+        assertEquals(1.0, attackDescriptor.getMultiplier());
+
+        // 空洞与越界的 ID 都返回 null
+        assertNull(skillManager.getDescriptor(2));
+        assertNull(skillManager.getDescriptor(99));
+        assertNull(skillManager.getDescriptor(-1));
+
+        // 描述与实体脱钩：修改实体不影响已编译的描述
+        attack.setMultiplier(9.9);
+        assertEquals(1.0, skillManager.getDescriptor(1).getMultiplier());
+    }
+
+    private static Skill skill(Integer id, String name, String type, Integer cooldown,
+                               Double multiplier, Double defenseMultiplier) {
+        Skill skill = new Skill();
+        skill.setId(id);
+        skill.setSkillName(name);
+        skill.setSkillType(type);
+        skill.setCooldown(cooldown);
+        skill.setMultiplier(multiplier);
+        skill.setDefenseMultiplier(defenseMultiplier);
+        return skill;
+    }
+}
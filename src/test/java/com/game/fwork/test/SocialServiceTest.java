@@ -0,0 +1,87 @@
+package com.game.fwork.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.game.fwork.entity.User;
+import com.game.fwork.netty.session.PresenceRegistry;
+import com.game.fwork.repository.FriendRepository;
+import com.game.fwork.repository.UserRepository;
+import com.game.fwork.service.SocialService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("社交服务单元测试")
+class SocialServiceTest {
+
+    @InjectMocks
+    private SocialService socialService;
+
+    @Mock private UserRepository userRepository;
+    @Mock private FriendRepository friendRepository;
+    @Mock private PresenceRegistry presenceRegistry;
+    @Mock private StringRedisTemplate stringRedisTemplate;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(socialService, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("好友列表命中缓存时不查数据库，在线状态一次批量查询并排在前面")
+    @SuppressWarnings("unchecked")
+    void testFriendListFromCache() {
+        String cached = "[{\"friendId\":2,\"nickname\":\"玩家2\",\"status\":1,\"avatarFrameId\":0,\"charType\":\"mage\"}," +
+                "{\"friendId\":3,\"nickname\":\"玩家3\",\"status\":1,\"avatarFrameId\":5,\"charType\":\"warrior\"}]";
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("friends:list:1")).thenReturn(cached);
+        when(presenceRegistry.areOnline(List.of(2L, 3L))).thenReturn(Map.of(2L, false, 3L, true));
+
+        List<Map<String, Object>> friends = socialService.getFriendList(1L);
+        assertEquals(2, friends.size());
+        assertEquals(3L, friends.get(0).get("friendId"));
+        assertEquals(true, friends.get(0).get("online"));
+        assertEquals(2L, friends.get(1).get("friendId"));
+        assertEquals(false, friends.get(1).get("online"));
+        assertEquals("mage", friends.get(1).get("charType"));
+
+        verifyNoInteractions(jdbcTemplate, friendRepository);
+        verify(presenceRegistry, times(1)).areOnline(anyCollection());
+    }
+
+    @Test
+    @DisplayName("加好友后删除双方的好友列表缓存")
+    @SuppressWarnings("unchecked")
+    void testAddFriendEvictsBothLists() {
+        User a = new User();
+        a.setId(1L);
+        User b = new User();
+        b.setId(2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(a));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(b));
+
+        socialService.addFriend(1L, 2L);
+
+        verify(friendRepository, times(2)).save(any());
+        verify(stringRedisTemplate).delete((java.util.Collection<String>) argThat(keys ->
+                ((java.util.Collection<String>) keys).containsAll(List.of("friends:list:1", "friends:list:2"))));
+    }
+}